@@ -0,0 +1,152 @@
+package com.example.videobrowsing.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter split into two generations for time-windowed membership.
+ * <p>
+ * Keys are added to the current generation and looked up in both. {@link #rotate()} drops the
+ * older generation and starts an empty one, so a key is remembered for between one and two
+ * rotation periods while memory stays fixed regardless of how many keys pass through. Each
+ * generation is sized for {@code expectedInsertions} at the given false-positive rate; a false
+ * positive means a new key is reported as already seen.
+ * <p>
+ * Each generation counts its set bits, which gives its fill ratio and so the false-positive rate
+ * it currently answers with. Once more keys than expected arrive within a period, the current
+ * generation passes the configured rate; {@link #isSaturated()} reports that so the owner can
+ * {@link #rotateIfSaturated() rotate early}. Early rotation shortens how long keys are remembered
+ * but keeps each generation at or below the configured rate, so a lookup against both stays
+ * under about twice that rate.
+ * <p>
+ * Bits are set with CAS, so {@link #add} is safe from many threads. Two threads adding the same
+ * new key at the same moment may both be told it is new.
+ */
+public final class RotatingBloomFilter {
+
+    private final int bitCount;
+    private final int hashCount;
+    private final long saturatedBitCount;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    public RotatingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bitCount = (int) Math.min(Math.max(bits, 64L), (long) Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+        // A generation with fill ratio f answers a new key with probability f^k
+        this.saturatedBitCount = (long) Math.ceil(Math.pow(falsePositiveRate, 1.0 / hashCount) * bitCount);
+        this.current = new Generation(bitCount);
+        this.previous = new Generation(bitCount);
+    }
+
+    /**
+     * Adds the key to the current generation.
+     *
+     * @return {@code true} if the key was not (probably) present in either generation before
+     */
+    public boolean add(long hash) {
+        Generation generation = current;
+        AtomicLongArray bits = generation.bits;
+        AtomicLongArray older = previous.bits;
+        boolean seenInCurrent = true;
+        boolean seenInPrevious = true;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if (!setBit(bits, bit)) {
+                seenInCurrent = false;
+                generation.setBits.incrementAndGet();
+            }
+            if (seenInPrevious && !isSet(older, bit)) {
+                seenInPrevious = false;
+            }
+        }
+        return !seenInCurrent && !seenInPrevious;
+    }
+
+    public synchronized void rotate() {
+        previous = current;
+        current = new Generation(bitCount);
+    }
+
+    /**
+     * Whether the current generation alone now answers new keys above the configured rate.
+     */
+    public boolean isSaturated() {
+        return current.setBits.get() >= saturatedBitCount;
+    }
+
+    /**
+     * Rotates if the current generation is still saturated once the lock is held, so threads that
+     * saw saturation together rotate only once.
+     *
+     * @return {@code true} if this call rotated
+     */
+    public synchronized boolean rotateIfSaturated() {
+        if (!isSaturated()) {
+            return false;
+        }
+        rotate();
+        return true;
+    }
+
+    /**
+     * Share of the current generation's bits that are set.
+     */
+    public double getFillRatio() {
+        return (double) current.setBits.get() / bitCount;
+    }
+
+    /**
+     * Probability that a key never added is reported as seen, from the fill of both generations.
+     */
+    public double getEstimatedFalsePositiveRate() {
+        double currentRate = Math.pow((double) current.setBits.get() / bitCount, hashCount);
+        double previousRate = Math.pow((double) previous.setBits.get() / bitCount, hashCount);
+        return 1.0 - (1.0 - currentRate) * (1.0 - previousRate);
+    }
+
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    // Returns whether the bit was already set
+    private static boolean setBit(AtomicLongArray bits, int bit) {
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        while (true) {
+            long value = bits.get(word);
+            if ((value & mask) != 0) {
+                return true;
+            }
+            if (bits.compareAndSet(word, value, value | mask)) {
+                return false;
+            }
+        }
+    }
+
+    private static boolean isSet(AtomicLongArray bits, int bit) {
+        return (bits.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    private static final class Generation {
+
+        private final AtomicLongArray bits;
+        private final AtomicLong setBits = new AtomicLong();
+
+        private Generation(int bitCount) {
+            this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.videobrowsing.analytics;
+
+/**
+ * Distinct viewers of one video per day over a sliding window of days, one
+ * {@link HyperLogLog} per day in a ring.
+ * <p>
+ * Slot {@code day % WINDOW_DAYS} holds the sketch for that epoch day and is cleared lazily when
+ * the day it was stamped with falls out of the window. Estimates over several days merge the
+ * daily sketches, so a viewer who came back on another day is still counted once.
+ */
+public final class UniqueViewerWindow {
+
+    public static final int WINDOW_DAYS = 7;
+
+    private final int precision;
+    private final HyperLogLog[] days = new HyperLogLog[WINDOW_DAYS];
+    private final long[] stamps = new long[WINDOW_DAYS];
+    private volatile long lastDay = Long.MIN_VALUE;
+
+    public UniqueViewerWindow(int precision) {
+        this.precision = precision;
+    }
+
+    public synchronized void add(long day, long viewerHash) {
+        int slot = (int) Math.floorMod(day, (long) WINDOW_DAYS);
+        HyperLogLog sketch = days[slot];
+        if (sketch == null) {
+            sketch = new HyperLogLog(precision);
+            days[slot] = sketch;
+        } else if (stamps[slot] != day) {
+            sketch.clear();
+        }
+        stamps[slot] = day;
+        sketch.add(viewerHash);
+        if (day > lastDay) {
+            lastDay = day;
+        }
+    }
+
+    /**
+     * Estimated distinct viewers over the {@code dayCount} days ending with {@code today}.
+     */
+    public synchronized long estimate(long today, int dayCount) {
+        HyperLogLog union = null;
+        for (int slot = 0; slot < WINDOW_DAYS; slot++) {
+            HyperLogLog sketch = days[slot];
+            if (sketch == null || stamps[slot] > today || today - stamps[slot] >= dayCount) {
+                continue;
+            }
+            if (union == null) {
+                union = sketch.copy();
+            } else {
+                union.merge(sketch);
+            }
+        }
+        return union != null ? union.estimate() : 0L;
+    }
+
+    /**
+     * Whether every day this window saw has fallen out of it.
+     */
+    public boolean isExpired(long today) {
+        return today - lastDay >= WINDOW_DAYS;
+    }
+}
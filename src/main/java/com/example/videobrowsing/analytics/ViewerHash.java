@@ -0,0 +1,40 @@
+package com.example.videobrowsing.analytics;
+
+/**
+ * 64-bit hashes for viewer keys. {@link String#hashCode()} only has 32 bits, which is not
+ * enough spread for HyperLogLog register selection or Bloom filter probing at millions of keys.
+ */
+public final class ViewerHash {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ViewerHash() {
+    }
+
+    public static long of(String key) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Hash of a viewer scoped to one video, so the same viewer on two videos probes different bits.
+     */
+    public static long of(long videoId, String key) {
+        return mix(of(key) ^ mix(videoId * 0x9e3779b97f4a7c15L));
+    }
+
+    // MurmurHash3 fmix64 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
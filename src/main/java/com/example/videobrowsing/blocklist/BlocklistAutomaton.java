@@ -0,0 +1,272 @@
+package com.example.videobrowsing.blocklist;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable Aho-Corasick automaton over the blocked terms, finding any of them in one pass
+ * over a text however many terms there are.
+ * <p>
+ * Terms and text are compared {@link #normalize normalized}: lowercased, with whitespace runs
+ * read as one space. A term only matches as whole words: where it starts or ends with a
+ * letter or digit, the text must not continue with another letter or digit there, so
+ * "ass" does not block "classic". The check looks back through a short ring of the last
+ * characters read and ahead by one character, so it adds nothing per term.
+ * <p>
+ * States live in parallel arrays: each state's outgoing edges are a sorted run of
+ * {@code edgeChars}, searched by bisection, with a direct table for ASCII edges out of the
+ * root, where most steps land. {@code outputLink} chains every state to the nearest state
+ * on its failure path that ends a term, so the terms ending at a position are found without
+ * walking the whole failure path. Instances are never modified after {@link #build}; callers
+ * rebuild and swap the reference.
+ */
+public final class BlocklistAutomaton {
+
+    public static final int MAX_TERM_LENGTH = 100;
+
+    // Power of two above MAX_TERM_LENGTH: enough history to see the character before any match
+    private static final int HISTORY = 128;
+
+    public static final BlocklistAutomaton EMPTY = build(List.of());
+
+    private final String[] terms;
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] rootAscii;
+    private final int[] fail;
+    private final int[] output;
+    private final int[] outputLink;
+
+    private BlocklistAutomaton(String[] terms, int[] edgeStart, char[] edgeChars, int[] edgeTargets,
+                               int[] fail, int[] output, int[] outputLink) {
+        this.terms = terms;
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.rootAscii = new int[128];
+        Arrays.fill(rootAscii, -1);
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            if (edgeChars[e] < 128) {
+                rootAscii[edgeChars[e]] = edgeTargets[e];
+            }
+        }
+    }
+
+    /**
+     * Builds the automaton over the normalized terms; blank terms and terms longer than
+     * {@link #MAX_TERM_LENGTH} are skipped.
+     */
+    public static BlocklistAutomaton build(Collection<String> rawTerms) {
+        TreeSet<String> unique = new TreeSet<>();
+        for (String raw : rawTerms) {
+            String term = normalize(raw);
+            if (!term.isEmpty() && term.length() <= MAX_TERM_LENGTH) {
+                unique.add(term);
+            }
+        }
+        String[] terms = unique.toArray(String[]::new);
+
+        // Trie first, with sorted child maps so the flattened edges come out ordered
+        List<TreeMap<Character, Integer>> next = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        next.add(new TreeMap<>());
+        ends.add(-1);
+        for (int t = 0; t < terms.length; t++) {
+            int state = 0;
+            for (int i = 0; i < terms[t].length(); i++) {
+                Integer target = next.get(state).get(terms[t].charAt(i));
+                if (target == null) {
+                    target = next.size();
+                    next.get(state).put(terms[t].charAt(i), target);
+                    next.add(new TreeMap<>());
+                    ends.add(-1);
+                }
+                state = target;
+            }
+            ends.set(state, t);
+        }
+
+        int states = next.size();
+        int[] fail = new int[states];
+        int[] output = new int[states];
+        int[] outputLink = new int[states];
+        for (int s = 0; s < states; s++) {
+            output[s] = ends.get(s);
+        }
+        outputLink[0] = -1;
+
+        // Breadth-first, so every failure target is finished before the states that point at it
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : next.get(state).entrySet()) {
+                int child = edge.getValue();
+                int target = 0;
+                if (state != 0) {
+                    int f = fail[state];
+                    while (f != 0 && !next.get(f).containsKey(edge.getKey())) {
+                        f = fail[f];
+                    }
+                    target = next.get(f).getOrDefault(edge.getKey(), 0);
+                }
+                fail[child] = target;
+                outputLink[child] = output[target] >= 0 ? target : outputLink[target];
+                queue.add(child);
+            }
+        }
+
+        int[] edgeStart = new int[states + 1];
+        char[] edgeChars = new char[states - 1];
+        int[] edgeTargets = new int[states - 1];
+        int edges = 0;
+        for (int s = 0; s < states; s++) {
+            edgeStart[s] = edges;
+            for (Map.Entry<Character, Integer> edge : next.get(s).entrySet()) {
+                edgeChars[edges] = edge.getKey();
+                edgeTargets[edges] = edge.getValue();
+                edges++;
+            }
+        }
+        edgeStart[states] = edges;
+        return new BlocklistAutomaton(terms, edgeStart, edgeChars, edgeTargets, fail, output, outputLink);
+    }
+
+    /**
+     * Lowercases the text and collapses whitespace runs to single spaces, trimming the ends.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!space) {
+                    normalized.append(' ');
+                    space = true;
+                }
+            } else {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * The first blocked term found in the text, in normalized form.
+     */
+    public Optional<String> findFirst(String text) {
+        if (terms.length == 0 || text == null || text.isEmpty()) {
+            return Optional.empty();
+        }
+        char[] history = new char[HISTORY];
+        int read = 0;
+        int state = 0;
+        int pending = -1;
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (space) {
+                    continue;
+                }
+                c = ' ';
+                space = true;
+            } else {
+                c = Character.toLowerCase(c);
+                space = false;
+            }
+
+            // A term ending in a letter or digit matched on the previous character
+            if (pending >= 0 && !isWordChar(c)) {
+                return Optional.of(terms[pending]);
+            }
+            pending = -1;
+
+            history[read & (HISTORY - 1)] = c;
+            read++;
+            state = step(state, c);
+            for (int s = output[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                String term = terms[output[s]];
+                if (startsOnWordBoundary(term, history, read)) {
+                    if (!isWordChar(c)) {
+                        return Optional.of(term);
+                    }
+                    pending = output[s];
+                    break;
+                }
+            }
+        }
+        return pending >= 0 ? Optional.of(terms[pending]) : Optional.empty();
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int target = transition(state, c);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int transition(int state, char c) {
+        if (state == 0 && c < 128) {
+            return rootAscii[c];
+        }
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char edge = edgeChars[mid];
+            if (edge < c) {
+                low = mid + 1;
+            } else if (edge > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    // read characters are in history; the term occupies the last term.length() of them
+    private static boolean startsOnWordBoundary(String term, char[] history, int read) {
+        if (!isWordChar(term.charAt(0))) {
+            return true;
+        }
+        int before = read - term.length() - 1;
+        return before < 0 || !isWordChar(history[before & (HISTORY - 1)]);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.videobrowsing.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bounded cache of query results with a time-to-live, explicit invalidation and single-flight
+ * loading.
+ * <p>
+ * Each entry holds a future. The first caller for a missing or expired key installs the future
+ * and runs the loader on its own thread; callers arriving while it runs wait on the same future
+ * instead of loading again, so a burst of identical requests costs one query. A failed load is
+ * removed at once and its exception is rethrown to every waiter.
+ * <p>
+ * {@link #invalidateAll()} bumps a generation number as well as clearing the map, so a load that
+ * started before the invalidation still answers its waiters but is not kept. When the cache is
+ * full, expired entries go first, then the ones closest to expiring.
+ * <p>
+ * Metrics, tagged with the cache name: {@code cache.query.requests} by {@code result}
+ * (hit, miss, coalesced), {@code cache.query.hit.ratio}, {@code cache.query.load} and
+ * {@code cache.query.size}.
+ */
+public class QueryResultCache<K, V> {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Timer loadTimer;
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final long generation;
+        // Set once the value is in; loading entries never expire
+        volatile boolean loaded;
+        volatile long expiresAtNanos;
+
+        Entry(long generation) {
+            this.generation = generation;
+        }
+
+        boolean expired(long now) {
+            return loaded && now - expiresAtNanos >= 0;
+        }
+    }
+
+    public QueryResultCache(String name, Duration ttl, int maxEntries, MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.hits = requests(name, "hit", meterRegistry);
+        this.misses = requests(name, "miss", meterRegistry);
+        this.coalesced = requests(name, "coalesced", meterRegistry);
+        this.loadTimer = Timer.builder("cache.query.load")
+                .description("Time spent computing cached query results")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.query.size", entries, Map::size)
+                .description("Query results currently cached")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.query.hit.ratio", this, QueryResultCache::hitRatio)
+                .description("Share of requests answered without running the query")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(String name, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.query.requests")
+                .description("Cache lookups by outcome; coalesced requests waited for another request's load")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached value for the key, loading it with the loader if it is missing or expired.
+     * Exceptions from the loader are rethrown unchanged.
+     */
+    public V get(K key, Supplier<V> loader) {
+        long now = System.nanoTime();
+        Entry<V> current = entries.get(key);
+        if (current != null && !current.expired(now)) {
+            return await(current);
+        }
+
+        Entry<V> created = new Entry<>(generation.get());
+        Entry<V> winner = entries.compute(key, (k, existing) ->
+                existing != null && !existing.expired(now) ? existing : created);
+        if (winner != created) {
+            return await(winner);
+        }
+
+        misses.increment();
+        evictIfFull();
+        long started = System.nanoTime();
+        try {
+            V value = loader.get();
+            created.expiresAtNanos = System.nanoTime() + ttlNanos;
+            created.loaded = true;
+            created.future.complete(value);
+            if (created.generation != generation.get()) {
+                entries.remove(key, created);
+            }
+            return value;
+        } catch (RuntimeException | Error ex) {
+            entries.remove(key, created);
+            created.future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loadTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private V await(Entry<V> entry) {
+        (entry.future.isDone() ? hits : coalesced).increment();
+        try {
+            return entry.future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(entry -> entry.getValue().expired(now));
+        while (entries.size() > maxEntries) {
+            K soonest = null;
+            long soonestExpiry = 0L;
+            for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+                Entry<V> candidate = entry.getValue();
+                if (candidate.loaded && (soonest == null || candidate.expiresAtNanos - soonestExpiry < 0)) {
+                    soonest = entry.getKey();
+                    soonestExpiry = candidate.expiresAtNanos;
+                }
+            }
+            if (soonest == null) {
+                // Everything left is still loading
+                return;
+            }
+            entries.remove(soonest);
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count() + coalesced.count();
+        return total == 0 ? 0.0 : (hits.count() + coalesced.count()) / total;
+    }
+}
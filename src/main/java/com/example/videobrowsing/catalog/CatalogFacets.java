@@ -0,0 +1,102 @@
+package com.example.videobrowsing.catalog;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Facet buckets of the all-videos page and the counts computed for one query.
+ * <p>
+ * Counts are disjunctive: each facet is counted over the videos matching every other active
+ * filter, so selecting "Gaming" still shows how many videos the other categories would give.
+ * Upload-date windows and view bands are cumulative ("this week", "10K+"), the same way the
+ * filters apply them.
+ */
+public final class CatalogFacets {
+
+    public static final List<String> DURATION_BUCKETS = List.of("short", "medium", "long", "very-long");
+    // Lower bound (inclusive) and upper bound (exclusive) in seconds, per duration bucket
+    static final int[] DURATION_LOWER = {0, 300, 1200, 3600};
+    static final int[] DURATION_UPPER = {300, 1200, 3600, Integer.MAX_VALUE};
+
+    public static final List<String> UPLOAD_DATE_BUCKETS = List.of("today", "week", "month", "year");
+
+    static final long[] VIEW_BANDS = {1_000L, 10_000L, 100_000L, 1_000_000L};
+
+    private final Map<String, Integer> categories;
+    private final Map<String, Integer> duration;
+    private final Map<String, Integer> uploadDate;
+    private final Map<String, Integer> views;
+
+    CatalogFacets(Map<String, Integer> categories, int[] durationCounts, int[] uploadDateCounts, int[] viewCounts) {
+        this.categories = categories;
+        this.duration = label(DURATION_BUCKETS, durationCounts);
+        this.uploadDate = label(UPLOAD_DATE_BUCKETS, uploadDateCounts);
+        Map<String, Integer> viewFacet = new LinkedHashMap<>();
+        for (int band = 0; band < VIEW_BANDS.length; band++) {
+            viewFacet.put(Long.toString(VIEW_BANDS[band]), viewCounts[band]);
+        }
+        this.views = viewFacet;
+    }
+
+    public Map<String, Integer> getCategories() {
+        return categories;
+    }
+
+    public Map<String, Integer> getDuration() {
+        return duration;
+    }
+
+    public Map<String, Integer> getUploadDate() {
+        return uploadDate;
+    }
+
+    public Map<String, Integer> getViews() {
+        return views;
+    }
+
+    /**
+     * Index into {@link #DURATION_BUCKETS}, or -1 when unknown or unrecognised.
+     */
+    public static int durationBucket(String bucket) {
+        return bucket == null ? -1 : DURATION_BUCKETS.indexOf(bucket.trim().toLowerCase(Locale.ROOT));
+    }
+
+    static int durationBucketOf(int seconds) {
+        if (seconds < 0) {
+            return -1;
+        }
+        for (int bucket = 0; bucket < DURATION_UPPER.length; bucket++) {
+            if (seconds < DURATION_UPPER[bucket]) {
+                return bucket;
+            }
+        }
+        return DURATION_UPPER.length - 1;
+    }
+
+    /**
+     * Start of the rolling window for an upload-date bucket, or null when unrecognised.
+     */
+    public static LocalDateTime uploadedAfter(String bucket, LocalDateTime now) {
+        if (bucket == null) {
+            return null;
+        }
+        return switch (bucket.trim().toLowerCase(Locale.ROOT)) {
+            case "today" -> now.minusDays(1);
+            case "week" -> now.minusWeeks(1);
+            case "month" -> now.minusMonths(1);
+            case "year" -> now.minusYears(1);
+            default -> null;
+        };
+    }
+
+    private static Map<String, Integer> label(List<String> buckets, int[] counts) {
+        Map<String, Integer> labelled = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            labelled.put(buckets.get(i), counts[i]);
+        }
+        return labelled;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.videobrowsing.catalog;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * Parsed filter of the all-videos page. Null fields do not restrict the result.
+ * <p>
+ * Duration buckets are half-open second ranges ({@code short} &lt; 5 min, {@code medium} 5-20 min,
+ * {@code long} 20-60 min, {@code very-long} 60 min+); videos without a known duration never match
+ * a duration bucket. Upload-date buckets are rolling windows ending now. Both are defined in
+ * {@link CatalogFacets}.
+ */
+public record CatalogQuery(String category,
+                           Integer minDuration,
+                           Integer maxDuration,
+                           LocalDateTime uploadedAfter,
+                           Long minLikes,
+                           Long minViews,
+                           String search,
+                           CatalogSort sort) {
+
+    public static CatalogQuery fromRequest(String category, String duration, String uploadDate,
+                                           Double minRating, Long minViews, String search, String sortBy,
+                                           LocalDateTime now) {
+        String normalizedCategory = category == null || category.isBlank() ? null : category.trim();
+        String normalizedSearch = search == null || search.isBlank() ? null : search.trim().toLowerCase(Locale.ROOT);
+
+        Integer minDuration = null;
+        Integer maxDuration = null;
+        int durationBucket = CatalogFacets.durationBucket(duration);
+        if (durationBucket >= 0) {
+            minDuration = CatalogFacets.DURATION_LOWER[durationBucket];
+            int upper = CatalogFacets.DURATION_UPPER[durationBucket];
+            maxDuration = upper == Integer.MAX_VALUE ? null : upper;
+        }
+
+        LocalDateTime uploadedAfter = CatalogFacets.uploadedAfter(uploadDate, now);
+
+        // Like count stands in for rating, as everywhere else on the listing pages
+        Long minLikes = minRating != null ? minRating.longValue() : null;
+
+        return new CatalogQuery(normalizedCategory, minDuration, maxDuration, uploadedAfter,
+                minLikes, minViews, normalizedSearch, CatalogSort.fromParam(sortBy));
+    }
+
+    public boolean hasDurationFilter() {
+        return minDuration != null || maxDuration != null;
+    }
+
+    long uploadedAfterEpochSecond() {
+        return uploadedAfter != null ? uploadedAfter.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+    }
+}
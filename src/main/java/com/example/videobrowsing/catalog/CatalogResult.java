@@ -0,0 +1,12 @@
+package com.example.videobrowsing.catalog;
+
+/**
+ * Ids of the requested page in rank order, plus the number of videos matching the filters.
+ * {@code facets} is only filled in by {@link VideoCatalog#browse}.
+ */
+public record CatalogResult(long[] videoIds, int total, CatalogFacets facets) {
+
+    public CatalogResult(long[] videoIds, int total) {
+        this(videoIds, total, null);
+    }
+}
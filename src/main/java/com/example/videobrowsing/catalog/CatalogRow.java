@@ -0,0 +1,40 @@
+package com.example.videobrowsing.catalog;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+import com.example.videobrowsing.util.TagNames;
+
+/**
+ * Projection of the columns the catalog keeps for one public video.
+ */
+public record CatalogRow(Long id, String title, String description, String tags, Long viewCount, Long likeCount,
+                         Integer duration, LocalDateTime createdAt, Long categoryId, String categoryName) {
+
+    public CatalogRow plusViews(long pendingViews) {
+        if (pendingViews == 0) {
+            return this;
+        }
+        long stored = viewCount != null ? viewCount : 0L;
+        return new CatalogRow(id, title, description, tags, stored + pendingViews, likeCount, duration, createdAt,
+                categoryId, categoryName);
+    }
+
+    public String searchText() {
+        return searchText(title, description, tags);
+    }
+
+    /**
+     * Lower-cased text a browse search matches as a substring: title, description and tag names,
+     * the same fields the All Videos page searched before filtering moved to the server.
+     */
+    public static String searchText(String title, String description, String tags) {
+        StringBuilder text = new StringBuilder();
+        text.append(title != null ? title : "").append(' ');
+        text.append(description != null ? description : "");
+        for (String tag : TagNames.parse(tags)) {
+            text.append(' ').append(tag);
+        }
+        return text.toString().toLowerCase(Locale.ROOT);
+    }
+}
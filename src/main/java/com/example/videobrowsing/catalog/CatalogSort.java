@@ -0,0 +1,24 @@
+package com.example.videobrowsing.catalog;
+
+/**
+ * Sort orders offered by the all-videos page. Ties always break on newest id first.
+ */
+public enum CatalogSort {
+    LATEST, OLDEST, TITLE_ASC, TITLE_DESC, VIEWS_DESC, VIEWS_ASC, RATING_DESC, RATING_ASC;
+
+    public static CatalogSort fromParam(String sortBy) {
+        if (sortBy == null) {
+            return LATEST;
+        }
+        return switch (sortBy.trim().toLowerCase()) {
+            case "oldest" -> OLDEST;
+            case "title-asc" -> TITLE_ASC;
+            case "title-desc" -> TITLE_DESC;
+            case "views-desc" -> VIEWS_DESC;
+            case "views-asc" -> VIEWS_ASC;
+            case "rating-desc" -> RATING_DESC;
+            case "rating-asc" -> RATING_ASC;
+            default -> LATEST;
+        };
+    }
+}
@@ -0,0 +1,491 @@
+package com.example.videobrowsing.catalog;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented, in-memory copy of the public video catalog.
+ * <p>
+ * Each attribute lives in its own primitive array indexed by row, so a filter pass walks a few
+ * dense arrays instead of chasing entity graphs. Category and duration bucket membership are kept
+ * as inverted indexes of one {@link BitSet} per value, which lets a category filter visit only its
+ * own rows and lets {@link #browse} intersect filters word by word. Rows are removed by moving the
+ * last row into the hole, keeping the arrays dense.
+ * <p>
+ * Queries run under a shared read lock and only use a per-thread scratch buffer, so the hot path
+ * allocates nothing but the returned id array. Writes take the exclusive lock.
+ */
+public class VideoCatalog {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int UNKNOWN_DURATION = -1;
+    private static final long NO_CATEGORY = 0L;
+
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[INITIAL_CAPACITY]);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] views = new long[INITIAL_CAPACITY];
+    private long[] likes = new long[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private String[] searchTexts = new String[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final Map<Long, BitSet> rowsByCategory = new HashMap<>();
+    private final Map<String, Long> categoryIdsByName = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final BitSet[] rowsByDuration = new BitSet[CatalogFacets.DURATION_BUCKETS.size()];
+
+    // Positions in the per-filter row sets built by browse()
+    private static final int CATEGORY_FILTER = 0;
+    private static final int DURATION_FILTER = 1;
+    private static final int UPLOAD_DATE_FILTER = 2;
+    private static final int VIEWS_FILTER = 3;
+    private static final int OTHER_FILTERS = 4;
+
+    public VideoCatalog() {
+        for (int bucket = 0; bucket < rowsByDuration.length; bucket++) {
+            rowsByDuration[bucket] = new BitSet();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long videoId) {
+        lock.readLock().lock();
+        try {
+            return rowById.containsKey(videoId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void upsert(CatalogRow row) {
+        if (row == null || row.id() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowById.get(row.id());
+            int index;
+            if (existing != null) {
+                index = existing;
+                clearPostings(index);
+            } else {
+                ensureCapacity(size + 1);
+                index = size++;
+                rowById.put(row.id(), index);
+            }
+            writeRow(index, row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long videoId) {
+        lock.writeLock().lock();
+        try {
+            Integer removed = rowById.remove(videoId);
+            if (removed == null) {
+                return;
+            }
+            int index = removed;
+            int last = size - 1;
+            clearPostings(index);
+            if (index != last) {
+                clearPostings(last);
+                ids[index] = ids[last];
+                views[index] = views[last];
+                likes[index] = likes[last];
+                durations[index] = durations[last];
+                createdAt[index] = createdAt[last];
+                categoryIds[index] = categoryIds[last];
+                titles[index] = titles[last];
+                searchTexts[index] = searchTexts[last];
+                setPostings(index);
+                rowById.put(ids[index], index);
+            }
+            titles[last] = null;
+            searchTexts[last] = null;
+            size = last;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void adjustCounts(long videoId, long viewDelta, long likeDelta) {
+        if (viewDelta == 0 && likeDelta == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer index = rowById.get(videoId);
+            if (index != null) {
+                views[index] = Math.max(0L, views[index] + viewDelta);
+                likes[index] = Math.max(0L, likes[index] + likeDelta);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filters, ranks and pages the catalog.
+     *
+     * @param limit maximum number of ids to return; zero or less returns every match
+     */
+    public CatalogResult query(CatalogQuery query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] rows = scratch(size);
+            int matches = collectMatches(query, rows);
+
+            int start = Math.max(0, offset);
+            int wanted = limit > 0 ? (int) Math.min((long) start + limit, matches) : matches;
+            if (start >= wanted) {
+                return new CatalogResult(new long[0], matches);
+            }
+
+            CatalogSort sort = query.sort() != null ? query.sort() : CatalogSort.LATEST;
+            selectTop(rows, matches, wanted, sort);
+
+            long[] page = new long[wanted - start];
+            for (int i = start; i < wanted; i++) {
+                page[i - start] = ids[rows[i]];
+            }
+            return new CatalogResult(page, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #query}, and additionally counts every facet over the same filters.
+     * <p>
+     * Each active filter becomes a row set: category and duration come straight from their
+     * inverted indexes, the column filters from one scan each. The result page is the
+     * intersection of all of them; facet F is counted over the intersection of every set except
+     * F's own, so its counts show what picking another F value would return.
+     */
+    public CatalogResult browse(CatalogQuery query, LocalDateTime now, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet[] filters = new BitSet[OTHER_FILTERS + 1];
+            if (query.category() != null) {
+                Long categoryId = categoryIdsByName.get(query.category().toLowerCase(Locale.ROOT));
+                BitSet members = categoryId != null ? rowsByCategory.get(categoryId) : null;
+                filters[CATEGORY_FILTER] = members != null ? members : new BitSet();
+            }
+            if (query.hasDurationFilter()) {
+                int bucket = CatalogFacets.durationBucketOf(query.minDuration() != null ? query.minDuration() : 0);
+                filters[DURATION_FILTER] = rowsByDuration[bucket];
+            }
+            if (query.uploadedAfter() != null) {
+                long after = query.uploadedAfterEpochSecond();
+                BitSet rows = new BitSet(size);
+                for (int row = 0; row < size; row++) {
+                    if (createdAt[row] >= after) {
+                        rows.set(row);
+                    }
+                }
+                filters[UPLOAD_DATE_FILTER] = rows;
+            }
+            if (query.minViews() != null) {
+                BitSet rows = new BitSet(size);
+                for (int row = 0; row < size; row++) {
+                    if (views[row] >= query.minViews()) {
+                        rows.set(row);
+                    }
+                }
+                filters[VIEWS_FILTER] = rows;
+            }
+            if (query.minLikes() != null || query.search() != null) {
+                BitSet rows = new BitSet(size);
+                for (int row = 0; row < size; row++) {
+                    if ((query.minLikes() == null || likes[row] >= query.minLikes())
+                            && (query.search() == null || searchTexts[row].contains(query.search()))) {
+                        rows.set(row);
+                    }
+                }
+                filters[OTHER_FILTERS] = rows;
+            }
+
+            BitSet matching = intersectExcept(filters, -1);
+            int total = matching.cardinality();
+            int[] rows = scratch(total);
+            int count = 0;
+            for (int row = matching.nextSetBit(0); row >= 0; row = matching.nextSetBit(row + 1)) {
+                rows[count++] = row;
+            }
+
+            int start = Math.max(0, offset);
+            int wanted = limit > 0 ? (int) Math.min((long) start + limit, total) : total;
+            long[] page;
+            if (start >= wanted) {
+                page = new long[0];
+            } else {
+                selectTop(rows, total, wanted, query.sort() != null ? query.sort() : CatalogSort.LATEST);
+                page = new long[wanted - start];
+                for (int i = start; i < wanted; i++) {
+                    page[i - start] = ids[rows[i]];
+                }
+            }
+
+            return new CatalogResult(page, total, countFacets(filters, now));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private CatalogFacets countFacets(BitSet[] filters, LocalDateTime now) {
+        Map<Long, int[]> perCategory = new HashMap<>();
+        BitSet rows = intersectExcept(filters, CATEGORY_FILTER);
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (categoryIds[row] != NO_CATEGORY) {
+                perCategory.computeIfAbsent(categoryIds[row], id -> new int[1])[0]++;
+            }
+        }
+        Map<String, Integer> categoryCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        perCategory.forEach((categoryId, counter) ->
+                categoryCounts.merge(categoryNames.getOrDefault(categoryId, String.valueOf(categoryId)), counter[0], Integer::sum));
+
+        int[] durationCounts = new int[rowsByDuration.length];
+        rows = intersectExcept(filters, DURATION_FILTER);
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            int bucket = CatalogFacets.durationBucketOf(durations[row]);
+            if (bucket >= 0) {
+                durationCounts[bucket]++;
+            }
+        }
+
+        long[] windowStarts = new long[CatalogFacets.UPLOAD_DATE_BUCKETS.size()];
+        for (int i = 0; i < windowStarts.length; i++) {
+            windowStarts[i] = toEpochSecond(CatalogFacets.uploadedAfter(CatalogFacets.UPLOAD_DATE_BUCKETS.get(i), now));
+        }
+        int[] uploadDateCounts = new int[windowStarts.length];
+        rows = intersectExcept(filters, UPLOAD_DATE_FILTER);
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            for (int i = 0; i < windowStarts.length; i++) {
+                if (createdAt[row] >= windowStarts[i]) {
+                    uploadDateCounts[i]++;
+                }
+            }
+        }
+
+        int[] viewCounts = new int[CatalogFacets.VIEW_BANDS.length];
+        rows = intersectExcept(filters, VIEWS_FILTER);
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            for (int band = 0; band < viewCounts.length; band++) {
+                if (views[row] >= CatalogFacets.VIEW_BANDS[band]) {
+                    viewCounts[band]++;
+                }
+            }
+        }
+
+        return new CatalogFacets(categoryCounts, durationCounts, uploadDateCounts, viewCounts);
+    }
+
+    // Intersection of every active filter except the one at skip (-1 keeps them all); the
+    // filter sets themselves may be live index postings and are never modified
+    private BitSet intersectExcept(BitSet[] filters, int skip) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        for (int i = 0; i < filters.length; i++) {
+            if (i != skip && filters[i] != null) {
+                result.and(filters[i]);
+            }
+        }
+        return result;
+    }
+
+    private int collectMatches(CatalogQuery query, int[] out) {
+        int count = 0;
+        if (query.category() != null) {
+            Long categoryId = categoryIdsByName.get(query.category().toLowerCase(Locale.ROOT));
+            BitSet members = categoryId != null ? rowsByCategory.get(categoryId) : null;
+            if (members == null) {
+                return 0;
+            }
+            for (int row = members.nextSetBit(0); row >= 0 && row < size; row = members.nextSetBit(row + 1)) {
+                if (matches(row, query)) {
+                    out[count++] = row;
+                }
+            }
+            return count;
+        }
+        for (int row = 0; row < size; row++) {
+            if (matches(row, query)) {
+                out[count++] = row;
+            }
+        }
+        return count;
+    }
+
+    private boolean matches(int row, CatalogQuery query) {
+        if (query.hasDurationFilter()) {
+            int duration = durations[row];
+            if (duration == UNKNOWN_DURATION) {
+                return false;
+            }
+            if (query.minDuration() != null && duration < query.minDuration()) {
+                return false;
+            }
+            if (query.maxDuration() != null && duration >= query.maxDuration()) {
+                return false;
+            }
+        }
+        if (query.uploadedAfter() != null && createdAt[row] < query.uploadedAfterEpochSecond()) {
+            return false;
+        }
+        if (query.minLikes() != null && likes[row] < query.minLikes()) {
+            return false;
+        }
+        if (query.minViews() != null && views[row] < query.minViews()) {
+            return false;
+        }
+        return query.search() == null || searchTexts[row].contains(query.search());
+    }
+
+    /**
+     * Moves the best {@code k} of {@code rows[0..count)} into {@code rows[0..k)} in rank order.
+     * A bounded heap keeps the worst kept row at the root, so selection is O(n log k) in place.
+     */
+    private void selectTop(int[] rows, int count, int k, CatalogSort sort) {
+        for (int i = k / 2 - 1; i >= 0; i--) {
+            siftDown(rows, i, k, sort);
+        }
+        for (int i = k; i < count; i++) {
+            if (compare(rows[i], rows[0], sort) < 0) {
+                rows[0] = rows[i];
+                siftDown(rows, 0, k, sort);
+            }
+        }
+        for (int end = k - 1; end > 0; end--) {
+            int worst = rows[0];
+            rows[0] = rows[end];
+            rows[end] = worst;
+            siftDown(rows, 0, end, sort);
+        }
+    }
+
+    private void siftDown(int[] heap, int index, int heapSize, CatalogSort sort) {
+        int row = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && compare(heap[child + 1], heap[child], sort) > 0) {
+                child++;
+            }
+            if (compare(heap[child], row, sort) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+
+    // Negative when row a ranks ahead of row b
+    private int compare(int a, int b, CatalogSort sort) {
+        int result = switch (sort) {
+            case OLDEST -> Long.compare(createdAt[a], createdAt[b]);
+            case TITLE_ASC -> String.CASE_INSENSITIVE_ORDER.compare(titles[a], titles[b]);
+            case TITLE_DESC -> String.CASE_INSENSITIVE_ORDER.compare(titles[b], titles[a]);
+            case VIEWS_DESC -> Long.compare(views[b], views[a]);
+            case VIEWS_ASC -> Long.compare(views[a], views[b]);
+            case RATING_DESC -> Long.compare(likes[b], likes[a]);
+            case RATING_ASC -> Long.compare(likes[a], likes[b]);
+            case LATEST -> Long.compare(createdAt[b], createdAt[a]);
+        };
+        return result != 0 ? result : Long.compare(ids[b], ids[a]);
+    }
+
+    private void writeRow(int index, CatalogRow row) {
+        String title = row.title() != null ? row.title() : "";
+        long categoryId = row.categoryId() != null ? row.categoryId() : NO_CATEGORY;
+
+        ids[index] = row.id();
+        views[index] = row.viewCount() != null ? row.viewCount() : 0L;
+        likes[index] = row.likeCount() != null ? row.likeCount() : 0L;
+        durations[index] = row.duration() != null ? row.duration() : UNKNOWN_DURATION;
+        createdAt[index] = toEpochSecond(row.createdAt());
+        categoryIds[index] = categoryId;
+        titles[index] = title;
+        searchTexts[index] = row.searchText();
+
+        setPostings(index);
+        if (categoryId != NO_CATEGORY && row.categoryName() != null) {
+            categoryIdsByName.put(row.categoryName().toLowerCase(Locale.ROOT), categoryId);
+            categoryNames.put(categoryId, row.categoryName());
+        }
+    }
+
+    private void setPostings(int index) {
+        categoryRows(categoryIds[index]).set(index);
+        int bucket = CatalogFacets.durationBucketOf(durations[index]);
+        if (bucket >= 0) {
+            rowsByDuration[bucket].set(index);
+        }
+    }
+
+    private void clearPostings(int index) {
+        categoryRows(categoryIds[index]).clear(index);
+        int bucket = CatalogFacets.durationBucketOf(durations[index]);
+        if (bucket >= 0) {
+            rowsByDuration[bucket].clear(index);
+        }
+    }
+
+    private BitSet categoryRows(long categoryId) {
+        return rowsByCategory.computeIfAbsent(categoryId, id -> new BitSet());
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        views = Arrays.copyOf(views, capacity);
+        likes = Arrays.copyOf(likes, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        searchTexts = Arrays.copyOf(searchTexts, capacity);
+    }
+
+    private static int[] scratch(int required) {
+        int[] buffer = SCRATCH.get();
+        if (buffer.length < required) {
+            buffer = new int[Math.max(required, buffer.length * 2)];
+            SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : 0L;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.videobrowsing.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.service.BlocklistService;
+import com.example.videobrowsing.service.UserService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Admin management of the blocklist that comments and video titles and descriptions are
+ * checked against.
+ */
+@RestController
+@RequestMapping("/api/admin/blocklist")
+public class BlocklistController {
+
+    @Autowired
+    private BlocklistService blocklistService;
+
+    @Autowired
+    private UserService userService;
+
+    @GetMapping
+    public ResponseEntity<?> listTerms(HttpSession session) {
+        Optional<ResponseEntity<?>> denied = denyUnlessAdmin(session);
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        return ResponseEntity.ok(blocklistService.listTerms());
+    }
+
+    // Body: {"terms": ["...", "..."]}
+    @PostMapping
+    public ResponseEntity<?> addTerms(@RequestBody Map<String, List<String>> body, HttpSession session) {
+        Optional<ResponseEntity<?>> denied = denyUnlessAdmin(session);
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        List<String> terms = body.get("terms");
+        if (terms == null || terms.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No terms given"));
+        }
+        try {
+            int added = blocklistService.addTerms(terms, userService.resolveCurrentUser(session).orElse(null));
+            return ResponseEntity.ok(Map.of("added", added));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{termId}")
+    public ResponseEntity<?> removeTerm(@PathVariable Long termId, HttpSession session) {
+        Optional<ResponseEntity<?>> denied = denyUnlessAdmin(session);
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        try {
+            blocklistService.removeTerm(termId);
+            return ResponseEntity.ok(Map.of("message", "Blocked term removed"));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    private Optional<ResponseEntity<?>> denyUnlessAdmin(HttpSession session) {
+        Optional<User> userOpt = userService.resolveCurrentUser(session);
+        if (userOpt.isEmpty()) {
+            return Optional.of(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in")));
+        }
+        if (userOpt.get().getRole() != User.Role.ADMIN) {
+            return Optional.of(ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required")));
+        }
+        return Optional.empty();
+    }
+}
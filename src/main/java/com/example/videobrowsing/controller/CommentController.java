@@ -28,8 +28,12 @@ public class CommentController {
 
     // Add a new comment
     @PostMapping
-    public ResponseEntity<Comment> addComment(@RequestBody Comment comment) {
-        return ResponseEntity.ok(commentService.addComment(comment));
+    public ResponseEntity<?> addComment(@RequestBody Comment comment) {
+        try {
+            return ResponseEntity.ok(commentService.addComment(comment));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Get all comments for a video
@@ -69,7 +73,8 @@ public class CommentController {
         } catch (IllegalArgumentException e) {
             System.out.println("ERROR: " + e.getMessage());
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            HttpStatus status = "Comment not found".equals(e.getMessage()) ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(e.getMessage());
         } catch (Exception e) {
             System.out.println("ERROR: Unexpected exception");
             e.printStackTrace();
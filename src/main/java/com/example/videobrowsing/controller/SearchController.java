@@ -17,7 +17,12 @@ import com.example.videobrowsing.dto.SearchResponseDTO;
 import com.example.videobrowsing.dto.VideoSummaryDTO;
 import com.example.videobrowsing.entity.Category;
 import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.search.Suggestion;
+import com.example.videobrowsing.service.QueryCacheService;
 import com.example.videobrowsing.service.SearchService;
+import com.example.videobrowsing.service.SuggestionService;
+import com.example.videobrowsing.service.ViewCountBuffer;
+import com.example.videobrowsing.util.MediaUrls;
 
 @RestController
 @RequestMapping("/api/search")
@@ -27,17 +32,34 @@ public class SearchController {
 	@Autowired
 	private SearchService searchService;
 
+	@Autowired
+	private SuggestionService suggestionService;
+
+	@Autowired
+	private QueryCacheService queryCacheService;
+
+	@Autowired
+	private ViewCountBuffer viewCountBuffer;
+
 	@GetMapping("/videos")
 	public ResponseEntity<SearchResponseDTO> searchVideos(
 			@RequestParam(name = "keyword", required = false) String keyword,
 			@RequestParam(name = "categoryId", required = false) Long categoryId,
 			@RequestParam(name = "category", required = false) String categoryName) {
 
+		// The response does not depend on the viewer, so identical searches share one result
+		String key = "keyword=" + QueryCacheService.keyPart(keyword)
+				+ "&categoryId=" + QueryCacheService.keyPart(categoryId)
+				+ "&category=" + QueryCacheService.keyPart(categoryName);
+		return ResponseEntity.ok(queryCacheService.search(key, () -> buildSearchResponse(keyword, categoryId, categoryName)));
+	}
+
+	private SearchResponseDTO buildSearchResponse(String keyword, Long categoryId, String categoryName) {
 		Long resolvedCategoryId = resolveCategoryId(categoryId, categoryName);
 
 		if (StringUtils.hasText(categoryName) && resolvedCategoryId == null) {
 			String message = String.format("We couldn't find a category named '%s'.", categoryName.trim());
-			return ResponseEntity.ok(new SearchResponseDTO(message, List.of()));
+			return new SearchResponseDTO(message, List.of());
 		}
 
 		List<Video> videos = searchService.searchVideos(keyword, resolvedCategoryId);
@@ -56,8 +78,14 @@ public class SearchController {
 			message = String.format("Found %d video%s.", results.size(), results.size() == 1 ? "" : "s");
 		}
 
-		SearchResponseDTO response = new SearchResponseDTO(message, results);
-		return ResponseEntity.ok(response);
+		return new SearchResponseDTO(message, results);
+	}
+
+	@GetMapping("/suggest")
+	public ResponseEntity<List<Suggestion>> suggest(
+			@RequestParam(name = "q", required = false, defaultValue = "") String query,
+			@RequestParam(name = "limit", required = false, defaultValue = "8") int limit) {
+		return ResponseEntity.ok(suggestionService.suggest(query, limit));
 	}
 
 	@GetMapping("/categories")
@@ -96,13 +124,11 @@ public class SearchController {
 	Long likeCount = video.getLikeCount();
 
 	summary.setDuration(Optional.ofNullable(duration).orElse(0));
-	summary.setViewCount(Optional.ofNullable(viewCount).orElse(0L));
+	summary.setViewCount(Optional.ofNullable(viewCount).orElse(0L) + viewCountBuffer.pendingFor(video.getId()));
 	summary.setLikeCount(Optional.ofNullable(likeCount).orElse(0L));
 		summary.setCategoryName(video.getCategory() != null ? video.getCategory().getName() : null);
 		summary.setUploaderName(video.getUploadedBy() != null ? video.getUploadedBy().getUsername() : "Unknown");
-		summary.setThumbnailUrl(video.getThumbnail() != null
-				? "/uploads/thumbnails/" + video.getThumbnail()
-				: "/images/default-thumbnail.jpg");
+		summary.setThumbnailUrl(MediaUrls.thumbnailUrl(video));
 		summary.setCreatedAt(video.getCreatedAt() != null ? video.getCreatedAt().toString() : null);
 		return summary;
 	}
@@ -0,0 +1,91 @@
+package com.example.videobrowsing.controller;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.service.CommentService;
+import com.example.videobrowsing.service.SpamScreeningService;
+import com.example.videobrowsing.service.UserService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Moderator view of comment spam screening: the flagged queue, labelling comments as spam or
+ * not (which also trains the classifier) and model status.
+ */
+@RestController
+@RequestMapping("/api/admin/spam")
+public class SpamModerationController {
+
+    @Autowired
+    private SpamScreeningService spamScreeningService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserService userService;
+
+    @GetMapping("/comments")
+    public ResponseEntity<?> getFlaggedComments(HttpSession session) {
+        Optional<ResponseEntity<?>> denied = denyUnlessAdmin(session);
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        return ResponseEntity.ok(commentService.getSpamQueue());
+    }
+
+    @PostMapping("/comments/{commentId}/label")
+    public ResponseEntity<?> labelComment(@PathVariable Long commentId, @RequestParam boolean spam, HttpSession session) {
+        Optional<ResponseEntity<?>> denied = denyUnlessAdmin(session);
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        try {
+            spamScreeningService.label(commentId, spam, userService.resolveCurrentUser(session).orElse(null));
+            return ResponseEntity.ok(Map.of("commentId", commentId, "spam", spam));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/retrain")
+    public ResponseEntity<?> retrain(HttpSession session) {
+        Optional<ResponseEntity<?>> denied = denyUnlessAdmin(session);
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        return ResponseEntity.ok(spamScreeningService.retrain());
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<?> status(HttpSession session) {
+        Optional<ResponseEntity<?>> denied = denyUnlessAdmin(session);
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        return ResponseEntity.ok(spamScreeningService.status());
+    }
+
+    private Optional<ResponseEntity<?>> denyUnlessAdmin(HttpSession session) {
+        Optional<User> userOpt = userService.resolveCurrentUser(session);
+        if (userOpt.isEmpty()) {
+            return Optional.of(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in")));
+        }
+        if (userOpt.get().getRole() != User.Role.ADMIN) {
+            return Optional.of(ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required")));
+        }
+        return Optional.empty();
+    }
+}
@@ -6,12 +6,14 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -24,26 +26,40 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.example.videobrowsing.dto.CommentDTO;
+import com.example.videobrowsing.dto.CursorPage;
+import com.example.videobrowsing.dto.VideoBrowseResponse;
 import com.example.videobrowsing.dto.VideoDTO;
 import com.example.videobrowsing.dto.VideoRatingSummary;
 import com.example.videobrowsing.entity.Rating;
 import com.example.videobrowsing.entity.User;
 import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.search.TagIndex;
 import com.example.videobrowsing.service.CommentService;
+import com.example.videobrowsing.service.LiveUpdateService;
+import com.example.videobrowsing.service.QueryCacheService;
+import com.example.videobrowsing.service.TagService;
+import com.example.videobrowsing.service.UniqueViewService;
 import com.example.videobrowsing.service.UserService;
 import com.example.videobrowsing.service.VideoService;
+import com.example.videobrowsing.service.ViewerStateService;
 
 import jakarta.servlet.http.HttpSession;
 
 @RestController
 @RequestMapping("/api/videos")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = VideoController.NEXT_CURSOR_HEADER)
 public class VideoController {
 
     private static final Logger log = LoggerFactory.getLogger(VideoController.class);
 
+    // Listings are keyset-paged; the cursor for the following page travels in this header
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private VideoService videoService;
 
@@ -53,6 +69,18 @@ public class VideoController {
     @Autowired
     private CommentService commentService;
 
+    @Autowired
+    private ViewerStateService viewerStateService;
+
+    @Autowired
+    private QueryCacheService queryCacheService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadVideo(
@@ -91,26 +119,36 @@ public class VideoController {
     }
 
     @GetMapping
-    public ResponseEntity<List<VideoDTO>> listVideos(
+    public ResponseEntity<?> listVideos(
             @RequestParam(value = "sort", defaultValue = "latest") String sort,
             @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
             HttpSession session) {
 
         Optional<User> currentUser = resolveSessionUser(session);
-        List<Video> videos = selectVideosBySort(sort);
-
-        if (limit != null && limit > 0 && limit < videos.size()) {
-            videos = videos.stream().limit(limit).collect(Collectors.toList());
+        try {
+            int size = pageSize(limit);
+            String canonicalSort = canonicalSort(sort);
+            return toCachedPageResponse("sort=" + canonicalSort + "&limit=" + size + "&cursor=" + cursorKey(cursor),
+                () -> selectVideosBySort(canonicalSort, cursor, size), currentUser);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-
-    return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
     }
 
     @GetMapping("/public")
-    public ResponseEntity<List<VideoDTO>> getPublicVideos(HttpSession session) {
+    public ResponseEntity<?> getPublicVideos(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpSession session) {
         Optional<User> currentUser = resolveSessionUser(session);
-    List<Video> videos = videoService.getAllPublicVideos();
-    return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
+        try {
+            int size = pageSize(limit);
+            return toCachedPageResponse("sort=latest&limit=" + size + "&cursor=" + cursorKey(cursor),
+                () -> videoService.getLatestVideosPage(cursor, size), currentUser);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/top-rated")
@@ -134,34 +172,94 @@ public class VideoController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Video not found");
         }
 
-    Video video = videoService.incrementViewCount(videoId).orElse(videoOpt.get());
     Optional<User> currentUser = resolveSessionUser(session);
+    videoService.recordView(videoId, UniqueViewService.viewerKey(currentUser.map(User::getId).orElse(null), session.getId()));
 
-    VideoDTO dto = videoService.toDto(video, currentUser);
+    VideoDTO dto = videoService.toDto(videoOpt.get(), currentUser);
     return ResponseEntity.ok(dto);
     }
 
+    // Server-Sent Events stream of new comments, comment likes and counters for the video
+    @GetMapping(value = "/{videoId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> liveUpdates(@PathVariable Long videoId) {
+        if (videoService.getVideoById(videoId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Video not found");
+        }
+        Optional<SseEmitter> emitter = liveUpdateService.subscribe(videoId);
+        if (emitter.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many live viewers; try again later");
+        }
+        return ResponseEntity.ok(emitter.get());
+    }
+
+    @GetMapping("/{videoId}/analytics/views")
+    public ResponseEntity<?> getViewAnalytics(
+            @PathVariable Long videoId,
+            @RequestParam(value = "days", defaultValue = "7") int days,
+            HttpSession session) {
+        Optional<User> userOpt = resolveSessionUser(session);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not logged in");
+        }
+
+        try {
+            return ResponseEntity.ok(videoService.getViewAnalytics(videoId, userOpt.get(), days));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Personal state (likes, rating, watch later, subscription) for a page of videos, so card
+     * data can be served from shared caches. Body: {@code {"videoIds": [1, 2, 3]}}.
+     */
+    @PostMapping("/viewer-state")
+    public ResponseEntity<?> getViewerState(@RequestBody(required = false) Map<String, List<Long>> payload,
+                                            HttpSession session) {
+        List<Long> videoIds = payload != null ? payload.get("videoIds") : null;
+        try {
+            return ResponseEntity.ok(viewerStateService.getViewerState(videoIds, resolveSessionUser(session)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/my-videos")
-    public ResponseEntity<?> getMyVideos(HttpSession session) {
+    public ResponseEntity<?> getMyVideos(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpSession session) {
         Optional<User> userOpt = resolveSessionUser(session);
         if (userOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("Not logged in");
         }
 
-    List<Video> videos = videoService.getVideosByUser(userOpt.get());
-    return ResponseEntity.ok(videoService.toDtos(videos, userOpt));
+        try {
+            return toPageResponse(videoService.getVideosByUserPage(userOpt.get(), cursor, pageSize(limit)), userOpt);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserVideos(@PathVariable Long userId, HttpSession session) {
+    public ResponseEntity<?> getUserVideos(
+            @PathVariable Long userId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpSession session) {
         Optional<User> targetUser = userService.findById(userId);
         if (targetUser.isEmpty()) {
             return ResponseEntity.badRequest().body("User not found");
         }
 
         Optional<User> currentUser = resolveSessionUser(session);
-        List<Video> videos = videoService.getVideosByUser(targetUser.get());
-        return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
+        try {
+            return toPageResponse(videoService.getVideosByUserPage(targetUser.get(), cursor, pageSize(limit)), currentUser);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/liked")
@@ -185,6 +283,8 @@ public class VideoController {
         try {
             Video updatedVideo = videoService.updateVideo(videoId, videoDTO, userOpt.get());
             return ResponseEntity.ok(videoService.toDto(updatedVideo, userOpt));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Video was changed by another request; reload and try again");
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -212,15 +312,26 @@ public class VideoController {
             HttpSession session) {
 
     Optional<User> currentUser = resolveSessionUser(session);
-    List<Video> videos = videoService.searchVideos(keyword, category);
-    return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
+    String key = "keyword=" + QueryCacheService.keyPart(keyword) + "&category=" + QueryCacheService.keyPart(category);
+    List<VideoDTO> shared = queryCacheService.videoSearch(key,
+        () -> List.copyOf(videoService.toDtos(videoService.searchVideos(keyword, category), Optional.empty())));
+    return ResponseEntity.ok(viewerStateService.personalize(shared, currentUser));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<VideoDTO>> getVideosByCategory(@PathVariable Long categoryId, HttpSession session) {
-    Optional<User> currentUser = resolveSessionUser(session);
-    List<Video> videos = videoService.getVideosByCategory(categoryId);
-    return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
+    public ResponseEntity<?> getVideosByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpSession session) {
+        Optional<User> currentUser = resolveSessionUser(session);
+        try {
+            int size = pageSize(limit);
+            return toCachedPageResponse("category=" + categoryId + "&limit=" + size + "&cursor=" + cursorKey(cursor),
+                () -> videoService.getVideosByCategoryPage(categoryId, cursor, size), currentUser);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{videoId}/related")
@@ -272,14 +383,63 @@ public class VideoController {
             @RequestParam(required = false) Long minViews,
             @RequestParam(required = false) String search,
             @RequestParam(required = false, defaultValue = "latest") String sortBy,
+            @RequestParam(required = false, defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
             HttpSession session) {
 
         Optional<User> currentUser = resolveSessionUser(session);
+        // Without a limit the whole filtered list is returned, as before
+        int pageLimit = limit != null ? Math.min(Math.max(limit, 1), MAX_PAGE_SIZE) : 0;
         List<Video> videos = videoService.getFilteredVideos(
-            category, duration, uploadDate, minRating, minViews, search, sortBy);
+            category, duration, uploadDate, minRating, minViews, search, sortBy, offset, pageLimit);
         return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
     }
 
+    @GetMapping("/browse")
+    public ResponseEntity<VideoBrowseResponse> browseVideos(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String duration,
+            @RequestParam(required = false) String uploadDate,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Long minViews,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false, defaultValue = "latest") String sortBy,
+            @RequestParam(required = false, defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            HttpSession session) {
+
+        Optional<User> currentUser = resolveSessionUser(session);
+        return ResponseEntity.ok(videoService.browseVideos(
+            category, duration, uploadDate, minRating, minViews, search, sortBy,
+            Math.max(0, offset), pageSize(limit), currentUser));
+    }
+
+    @GetMapping("/recommended")
+    public ResponseEntity<List<VideoDTO>> getRecommendedVideos(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpSession session) {
+        Optional<User> currentUser = resolveSessionUser(session);
+        List<Video> videos = videoService.getRecommendedVideos(currentUser, pageSize(limit));
+        return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
+    }
+
+    @GetMapping("/tags")
+    public ResponseEntity<VideoBrowseResponse> getVideosByTags(
+            @RequestParam("tags") List<String> tags,
+            @RequestParam(required = false, defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            HttpSession session) {
+
+        Optional<User> currentUser = resolveSessionUser(session);
+        return ResponseEntity.ok(videoService.getVideosWithTags(tags, Math.max(0, offset), pageSize(limit), currentUser));
+    }
+
+    @GetMapping("/tags/popular")
+    public ResponseEntity<List<TagIndex.TagCount>> getPopularTags(
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(tagService.popularTags(Math.min(Math.max(limit, 0), MAX_PAGE_SIZE)).orElse(List.of()));
+    }
+
     @GetMapping("/by-duration")
     public ResponseEntity<List<VideoDTO>> getVideosByDuration(
             @RequestParam int minDuration,
@@ -314,10 +474,22 @@ public class VideoController {
     return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
     }
 
+    @GetMapping("/trending")
+    public ResponseEntity<List<VideoDTO>> getTrendingVideos(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpSession session) {
+        Optional<User> currentUser = resolveSessionUser(session);
+        List<Video> videos = videoService.getTrendingVideos(pageSize(limit));
+        return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
+    }
+
     @GetMapping("/trending-by-category/{categoryId}")
-    public ResponseEntity<List<VideoDTO>> getTrendingVideosByCategory(@PathVariable Long categoryId, HttpSession session) {
+    public ResponseEntity<List<VideoDTO>> getTrendingVideosByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpSession session) {
     Optional<User> currentUser = resolveSessionUser(session);
-    List<Video> videos = videoService.getTrendingVideosByCategory(categoryId);
+    List<Video> videos = videoService.getTrendingVideosByCategory(categoryId, limit != null ? pageSize(limit) : 10);
     return ResponseEntity.ok(videoService.toDtos(videos, currentUser));
     }
 
@@ -337,6 +509,34 @@ public class VideoController {
         return ResponseEntity.ok(commentService.getCommentDtosForVideo(videoId, userOpt.orElse(null)));
     }
 
+    @GetMapping("/{videoId}/comments/page")
+    public ResponseEntity<?> getVideoCommentPage(@PathVariable Long videoId,
+                                                 @RequestParam(defaultValue = "newest") String sort,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 HttpSession session) {
+        Optional<User> userOpt = resolveSessionUser(session);
+        try {
+            return toCommentPageResponse(commentService.getRootCommentPage(videoId, sort, cursor, pageSize(limit), userOpt.orElse(null)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{videoId}/comments/{commentId}/replies")
+    public ResponseEntity<?> getCommentReplies(@PathVariable Long videoId,
+                                               @PathVariable Long commentId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit,
+                                               HttpSession session) {
+        Optional<User> userOpt = resolveSessionUser(session);
+        try {
+            return toCommentPageResponse(commentService.getReplyPage(videoId, commentId, cursor, pageSize(limit), userOpt.orElse(null)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/{videoId}/comments")
     public ResponseEntity<?> addComment(@PathVariable Long videoId, @RequestBody CommentDTO commentDTO, HttpSession session) {
         if (commentDTO.getContent() == null || commentDTO.getContent().trim().isEmpty()) {
@@ -396,20 +596,78 @@ public class VideoController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not logged in");
         }
 
-        Map<String, Object> payload = videoService.toggleRating(videoId, userOpt.get(), ratingType);
-        return ResponseEntity.ok(payload);
+        try {
+            Map<String, Object> payload = videoService.toggleRating(videoId, userOpt.get(), ratingType);
+            return ResponseEntity.ok(payload);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
 
-    private List<Video> selectVideosBySort(String sort) {
+    private static String canonicalSort(String sort) {
         String normalized = sort == null ? "" : sort.trim().toLowerCase();
         return switch (normalized) {
-            case "views", "popular" -> videoService.getMostViewedVideos();
-            case "likes", "top", "trending" -> videoService.getMostLikedVideos();
-            case "createdat", "latest", "newest" -> videoService.getAllPublicVideos();
-            default -> videoService.getAllPublicVideos();
+            case "views", "popular" -> "views";
+            case "likes", "top" -> "likes";
+            case "trending" -> "trending";
+            default -> "latest";
         };
     }
 
+    private CursorPage<Video> selectVideosBySort(String canonicalSort, String cursor, int limit) {
+        return switch (canonicalSort) {
+            case "views" -> videoService.getMostViewedVideosPage(cursor, limit);
+            case "likes" -> videoService.getMostLikedVideosPage(cursor, limit);
+            // Trending is a ranked snapshot rather than a keyset order, so it has a single page
+            case "trending" -> new CursorPage<>(videoService.getTrendingVideos(limit), null);
+            default -> videoService.getLatestVideosPage(cursor, limit);
+        };
+    }
+
+    // Cursors are opaque and case-sensitive, so they are only trimmed
+    private static String cursorKey(String cursor) {
+        return cursor == null ? "" : cursor.trim();
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Public listings are built once for anonymous viewers and cached; the viewer's own state is
+    // laid over a copy
+    private ResponseEntity<List<VideoDTO>> toCachedPageResponse(String key, Supplier<CursorPage<Video>> loader,
+                                                                Optional<User> currentUser) {
+        CursorPage<VideoDTO> page = queryCacheService.listing(key, () -> {
+            CursorPage<Video> videos = loader.get();
+            return new CursorPage<>(List.copyOf(videoService.toDtos(videos.getItems(), Optional.empty())),
+                videos.getNextCursor());
+        });
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasMore()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(viewerStateService.personalize(page.getItems(), currentUser));
+    }
+
+    private ResponseEntity<List<VideoDTO>> toPageResponse(CursorPage<Video> page, Optional<User> currentUser) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasMore()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(videoService.toDtos(page.getItems(), currentUser));
+    }
+
+    private ResponseEntity<List<CommentDTO>> toCommentPageResponse(CursorPage<CommentDTO> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasMore()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
     private Optional<User> resolveSessionUser(HttpSession session) {
         return userService.resolveCurrentUser(session);
     }
@@ -0,0 +1,83 @@
+package com.example.videobrowsing.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.videobrowsing.dto.WatchProgressBeacon;
+import com.example.videobrowsing.dto.WatchProgressDTO;
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.service.UserService;
+import com.example.videobrowsing.service.WatchHistoryService;
+
+import jakarta.servlet.http.HttpSession;
+
+@RestController
+@RequestMapping("/api/watch-history")
+@CrossOrigin(origins = "*")
+public class WatchHistoryController {
+
+    private static final int DEFAULT_CONTINUE_WATCHING = 12;
+    private static final int MAX_CONTINUE_WATCHING = 50;
+
+    @Autowired
+    private WatchHistoryService watchHistoryService;
+
+    @Autowired
+    private UserService userService;
+
+    @PostMapping("/progress")
+    public ResponseEntity<?> recordProgress(@RequestBody WatchProgressBeacon beacon, HttpSession session) {
+        Optional<User> userOpt = resolveSessionUser(session);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not logged in");
+        }
+
+        try {
+            int accepted = watchHistoryService.recordProgress(userOpt.get(), beacon);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("accepted", accepted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/continue-watching")
+    public ResponseEntity<?> getContinueWatching(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpSession session) {
+        Optional<User> userOpt = resolveSessionUser(session);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not logged in");
+        }
+
+        int size = limit == null || limit <= 0 ? DEFAULT_CONTINUE_WATCHING : Math.min(limit, MAX_CONTINUE_WATCHING);
+        List<WatchProgressDTO> items = watchHistoryService.getContinueWatching(userOpt.get(), size);
+        return ResponseEntity.ok(items);
+    }
+
+    @GetMapping("/{videoId}/resume")
+    public ResponseEntity<?> getResumePosition(@PathVariable Long videoId, HttpSession session) {
+        Optional<User> userOpt = resolveSessionUser(session);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not logged in");
+        }
+
+        return ResponseEntity.ok(watchHistoryService.getResumePosition(userOpt.get(), videoId));
+    }
+
+    private Optional<User> resolveSessionUser(HttpSession session) {
+        return userService.resolveCurrentUser(session);
+    }
+}
@@ -23,6 +23,8 @@ public class CommentDTO {
     private String createdAt;
     private List<CommentDTO> replies = new ArrayList<>();
     private Long likeCount;
+    // Direct replies; on paged listings the replies themselves are fetched separately
+    private Long replyCount;
     private Boolean likedByCurrentUser;
 
     // Constructors
@@ -73,6 +75,8 @@ public class CommentDTO {
 
     public Long getLikeCount() { return likeCount; }
     public void setLikeCount(Long likeCount) { this.likeCount = likeCount; }
+    public Long getReplyCount() { return replyCount; }
+    public void setReplyCount(Long replyCount) { this.replyCount = replyCount; }
 
     public Boolean getLikedByCurrentUser() { return likedByCurrentUser; }
     public void setLikedByCurrentUser(Boolean likedByCurrentUser) { this.likedByCurrentUser = likedByCurrentUser; }
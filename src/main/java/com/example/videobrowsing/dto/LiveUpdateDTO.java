@@ -0,0 +1,85 @@
+package com.example.videobrowsing.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One coalesced live-update frame for a video: everything that changed since the previous
+ * frame. Counters are totals and are only set when they moved; comment like counts are the
+ * latest value per comment.
+ */
+public class LiveUpdateDTO {
+
+    private Long videoId;
+    private Long viewCount;
+    private Long likeCount;
+    private Long dislikeCount;
+    private List<CommentDTO> comments = new ArrayList<>();
+    private Map<Long, Long> commentLikeCounts = new LinkedHashMap<>();
+    private List<Long> deletedCommentIds = new ArrayList<>();
+
+    public LiveUpdateDTO() {
+    }
+
+    public LiveUpdateDTO(Long videoId) {
+        this.videoId = videoId;
+    }
+
+    public Long getVideoId() {
+        return videoId;
+    }
+
+    public void setVideoId(Long videoId) {
+        this.videoId = videoId;
+    }
+
+    public Long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Long viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public Long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(Long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public Long getDislikeCount() {
+        return dislikeCount;
+    }
+
+    public void setDislikeCount(Long dislikeCount) {
+        this.dislikeCount = dislikeCount;
+    }
+
+    public List<CommentDTO> getComments() {
+        return comments;
+    }
+
+    public void setComments(List<CommentDTO> comments) {
+        this.comments = comments;
+    }
+
+    public Map<Long, Long> getCommentLikeCounts() {
+        return commentLikeCounts;
+    }
+
+    public void setCommentLikeCounts(Map<Long, Long> commentLikeCounts) {
+        this.commentLikeCounts = commentLikeCounts;
+    }
+
+    public List<Long> getDeletedCommentIds() {
+        return deletedCommentIds;
+    }
+
+    public void setDeletedCommentIds(List<Long> deletedCommentIds) {
+        this.deletedCommentIds = deletedCommentIds;
+    }
+}
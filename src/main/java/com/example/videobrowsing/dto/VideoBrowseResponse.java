@@ -0,0 +1,46 @@
+package com.example.videobrowsing.dto;
+
+import java.util.List;
+
+import com.example.videobrowsing.catalog.CatalogFacets;
+
+/**
+ * One page of the all-videos browser together with the facet counts for the same filters.
+ * {@code facets} is null when the results came from the database fallback.
+ */
+public class VideoBrowseResponse {
+
+    private final List<VideoDTO> videos;
+    private final int total;
+    private final int offset;
+    private final int limit;
+    private final CatalogFacets facets;
+
+    public VideoBrowseResponse(List<VideoDTO> videos, int total, int offset, int limit, CatalogFacets facets) {
+        this.videos = videos;
+        this.total = total;
+        this.offset = offset;
+        this.limit = limit;
+        this.facets = facets;
+    }
+
+    public List<VideoDTO> getVideos() {
+        return videos;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public CatalogFacets getFacets() {
+        return facets;
+    }
+}
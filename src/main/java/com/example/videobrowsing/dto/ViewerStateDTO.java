@@ -0,0 +1,70 @@
+package com.example.videobrowsing.dto;
+
+/**
+ * Personal state of the current viewer for one video, kept apart from the shared card data in
+ * {@link VideoDTO} so listings can be cached for everyone.
+ */
+public class ViewerStateDTO {
+
+    private Long videoId;
+    private boolean liked;
+    private boolean disliked;
+    private Integer userRating;
+    private boolean inWatchLater;
+    private boolean subscribedToUploader;
+
+    public ViewerStateDTO() {
+    }
+
+    public ViewerStateDTO(Long videoId) {
+        this.videoId = videoId;
+    }
+
+    public Long getVideoId() {
+        return videoId;
+    }
+
+    public void setVideoId(Long videoId) {
+        this.videoId = videoId;
+    }
+
+    public boolean isLiked() {
+        return liked;
+    }
+
+    public void setLiked(boolean liked) {
+        this.liked = liked;
+    }
+
+    public boolean isDisliked() {
+        return disliked;
+    }
+
+    public void setDisliked(boolean disliked) {
+        this.disliked = disliked;
+    }
+
+    public Integer getUserRating() {
+        return userRating;
+    }
+
+    public void setUserRating(Integer userRating) {
+        this.userRating = userRating;
+    }
+
+    public boolean isInWatchLater() {
+        return inWatchLater;
+    }
+
+    public void setInWatchLater(boolean inWatchLater) {
+        this.inWatchLater = inWatchLater;
+    }
+
+    public boolean isSubscribedToUploader() {
+        return subscribedToUploader;
+    }
+
+    public void setSubscribedToUploader(boolean subscribedToUploader) {
+        this.subscribedToUploader = subscribedToUploader;
+    }
+}
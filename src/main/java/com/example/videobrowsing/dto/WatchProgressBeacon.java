@@ -0,0 +1,60 @@
+package com.example.videobrowsing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch of playback-progress heartbeats sent by video-watch.js. Positions and ranges are in
+ * seconds; each range is a {@code [start, end]} pair.
+ */
+public class WatchProgressBeacon {
+
+    private List<Entry> items = new ArrayList<>();
+
+    public List<Entry> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Entry> items) {
+        this.items = items;
+    }
+
+    public static class Entry {
+        private Long videoId;
+        private Double position;
+        private Double duration;
+        private List<double[]> ranges = new ArrayList<>();
+
+        public Long getVideoId() {
+            return videoId;
+        }
+
+        public void setVideoId(Long videoId) {
+            this.videoId = videoId;
+        }
+
+        public Double getPosition() {
+            return position;
+        }
+
+        public void setPosition(Double position) {
+            this.position = position;
+        }
+
+        public Double getDuration() {
+            return duration;
+        }
+
+        public void setDuration(Double duration) {
+            this.duration = duration;
+        }
+
+        public List<double[]> getRanges() {
+            return ranges;
+        }
+
+        public void setRanges(List<double[]> ranges) {
+            this.ranges = ranges;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.videobrowsing.dto;
+
+public class WatchProgressDTO {
+
+    private Long videoId;
+    private int positionSeconds;
+    private Integer durationSeconds;
+    private int watchedSeconds;
+    private boolean completed;
+    private String updatedAt;
+    private VideoDTO video;
+
+    public WatchProgressDTO() {
+    }
+
+    public Long getVideoId() {
+        return videoId;
+    }
+
+    public void setVideoId(Long videoId) {
+        this.videoId = videoId;
+    }
+
+    public int getPositionSeconds() {
+        return positionSeconds;
+    }
+
+    public void setPositionSeconds(int positionSeconds) {
+        this.positionSeconds = positionSeconds;
+    }
+
+    public Integer getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(Integer durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public int getWatchedSeconds() {
+        return watchedSeconds;
+    }
+
+    public void setWatchedSeconds(int watchedSeconds) {
+        this.watchedSeconds = watchedSeconds;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public VideoDTO getVideo() {
+        return video;
+    }
+
+    public void setVideo(VideoDTO video) {
+        this.video = video;
+    }
+}
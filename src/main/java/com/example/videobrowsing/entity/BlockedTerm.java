@@ -0,0 +1,54 @@
+package com.example.videobrowsing.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * One blocklist entry, stored normalized. {@code BlocklistService} compiles all of them into
+ * the automaton that text is checked against.
+ */
+@Entity
+@Table(name = "blocked_terms", uniqueConstraints = @UniqueConstraint(name = "uk_blocked_terms_term", columnNames = "term"))
+public class BlockedTerm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String term;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public BlockedTerm() {}
+
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getTerm() {
+        return term;
+    }
+    public void setTerm(String term) {
+        this.term = term;
+    }
+    public Long getCreatedBy() {
+        return createdBy;
+    }
+    public void setCreatedBy(Long createdBy) {
+        this.createdBy = createdBy;
+    }
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
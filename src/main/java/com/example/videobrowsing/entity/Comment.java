@@ -42,9 +42,27 @@ public class Comment {
     private String content;
 
     private Boolean isPinned=false;
+    // Set by SpamScreeningService and moderators through SQL; saves of an edited comment must
+    // not write back a flag the screening worker set in the meantime
+    @Column(updatable = false)
     private Boolean isSpam=false;
     private Boolean isDisabled=false;
 
+    // Counters and rank only change through atomic SQL updates (CommentRepository.adjust*,
+    // incrementReportCount, updateRankScore); entity saves insert them once and never write
+    // them back, so edits and like traffic do not overwrite each other.
+    @Column(nullable=false, updatable=false)
+    private Long likeCount=0L;
+    // Active direct replies
+    @Column(nullable=false, updatable=false)
+    private Long replyCount=0L;
+    // Reports filed against the comment, whatever their status
+    @Column(nullable=false, updatable=false)
+    private Long reportCount=0L;
+    // Wilson lower bound of likes against reports; orders the "top" comment listing
+    @Column(nullable=false, updatable=false)
+    private Double rankScore=0.0;
+
     @ManyToOne(fetch=FetchType.LAZY)
     @JoinColumn(name="parent_comment_id")
     private Comment parentComment;
@@ -109,6 +127,30 @@ public class Comment {
     public void setIsDisabled(Boolean isDisabled){
         this.isDisabled=isDisabled;
     }
+    public Long getLikeCount(){
+        return likeCount;
+    }
+    public void setLikeCount(Long likeCount){
+        this.likeCount=likeCount;
+    }
+    public Long getReplyCount(){
+        return replyCount;
+    }
+    public void setReplyCount(Long replyCount){
+        this.replyCount=replyCount;
+    }
+    public Long getReportCount(){
+        return reportCount;
+    }
+    public void setReportCount(Long reportCount){
+        this.reportCount=reportCount;
+    }
+    public Double getRankScore(){
+        return rankScore;
+    }
+    public void setRankScore(Double rankScore){
+        this.rankScore=rankScore;
+    }
     public Comment getParentComment(){
         return parentComment;
     }
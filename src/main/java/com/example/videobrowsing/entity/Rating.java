@@ -5,7 +5,8 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name="ratings")
+@Table(name="ratings",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ratings_video_user", columnNames = {"video_id", "user_id"}))
 public class Rating {
 
     @Id
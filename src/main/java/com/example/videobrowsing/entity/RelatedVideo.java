@@ -0,0 +1,77 @@
+package com.example.videobrowsing.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * One precomputed neighbour of a video, at {@code position} in its related list (0 is best).
+ * Rows are written in bulk by {@code RelatedVideoService}; the entity is only read.
+ */
+@Entity
+@Table(name = "related_videos")
+@IdClass(RelatedVideo.Key.class)
+public class RelatedVideo {
+
+    @Id
+    @Column(name = "video_id")
+    private Long videoId;
+
+    @Id
+    @Column(name = "position")
+    private Integer position;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "related_video_id", nullable = false)
+    private Video related;
+
+    @Column(nullable = false)
+    private Float score;
+
+    public RelatedVideo() {}
+
+    public Long getVideoId() {
+        return videoId;
+    }
+    public Integer getPosition() {
+        return position;
+    }
+    public Video getRelated() {
+        return related;
+    }
+    public Float getScore() {
+        return score;
+    }
+
+    public static class Key implements Serializable {
+        private Long videoId;
+        private Integer position;
+
+        public Key() {}
+
+        public Key(Long videoId, Integer position) {
+            this.videoId = videoId;
+            this.position = position;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(videoId, key.videoId) && Objects.equals(position, key.position);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(videoId, position);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.videobrowsing.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One normalized tag name. Videos link to tags through the {@code video_tags} table, which is
+ * kept in step with {@code videos.tags} by {@code TagService}.
+ */
+@Entity
+@Table(name = "tags", uniqueConstraints = @UniqueConstraint(name = "uk_tags_name", columnNames = "name"))
+public class Tag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, length = 50)
+    private String name;
+
+    public Tag() {}
+
+    public Tag(String name) {
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -3,6 +3,9 @@ package com.example.videobrowsing.entity;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.SecondaryRow;
+
+import com.example.videobrowsing.util.MediaUrls;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.CascadeType;
@@ -17,12 +20,20 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.PrimaryKeyJoinColumn;
+import jakarta.persistence.SecondaryTable;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+// Indexes live in the Flyway migrations (db/migration/V2__query_indexes.sql)
 @Table(name="videos")
+@SecondaryTable(name = "video_stats", pkJoinColumns = @PrimaryKeyJoinColumn(name = "video_id"))
+@SecondaryRow(table = "video_stats", optional = false)
 public class Video {
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
@@ -40,6 +51,14 @@ public class Video {
 
     @Column(name = "thumbnail_path")
     private String thumbnail;
+
+    // Canonical, already-encoded URLs derived from file_path/thumbnail_path at write time
+    @Column(name = "video_url", length = 1000)
+    private String videoUrl;
+
+    @Column(name = "thumbnail_url", length = 1000)
+    private String thumbnailUrl;
+
     private Integer duration;
     private Long fileSize;
     private String resolution;
@@ -59,13 +78,23 @@ public class Video {
     @Enumerated(EnumType.STRING)
     private Status status=Status.PROCESSING;
 
+    // Counters live in the narrow video_stats row and only change through atomic SQL increments
+    // (ViewCountBuffer, VideoRepository.adjustRatingCounts); entity saves insert them once and
+    // never write them back, so metadata edits and counter traffic do not touch the same row.
+    @Column(table = "video_stats", name = "view_count", updatable = false)
     private Long viewCount=0L;
+    @Column(table = "video_stats", name = "like_count", updatable = false)
     private Long likeCount=0L;
+    @Column(table = "video_stats", name = "dislike_count", updatable = false)
     private Long dislikeCount=0L;
 
+    @Version
+    private Long version;
+
     @Column(columnDefinition="JSON")
     private String tags;
 
+    @Column(name = "created_at")
     private LocalDateTime createdAt=LocalDateTime.now();
     private LocalDateTime updatedAt=LocalDateTime.now();
 
@@ -95,6 +124,13 @@ public class Video {
         this.title=title;
     }
 
+    @PrePersist
+    @PreUpdate
+    public void refreshMediaUrls() {
+        this.videoUrl = MediaUrls.canonicalVideoUrl(filepath);
+        this.thumbnailUrl = MediaUrls.canonicalThumbnailUrl(thumbnail);
+    }
+
     // Getters and setters
     public Long getId() {
         return id;
@@ -144,6 +180,14 @@ public class Video {
         this.thumbnail = thumbnailPath;
     }
 
+    public String getVideoUrl() {
+        return videoUrl;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
     public Integer getDuration() {
         return duration;
     }
@@ -214,6 +258,10 @@ public class Video {
         this.dislikeCount = dislikeCount;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getTags() {
         return tags;
     }
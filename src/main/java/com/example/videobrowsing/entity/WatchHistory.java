@@ -0,0 +1,104 @@
+package com.example.videobrowsing.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * Playback progress of one user on one video. Rows are written in batches by
+ * {@code WatchProgressBuffer}, never saved through JPA on the request path.
+ */
+@Entity
+@Table(name = "watch_history",
+        uniqueConstraints = @UniqueConstraint(name = "uk_watch_history_user_video", columnNames = {"user_id", "video_id"}))
+public class WatchHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @NotNull
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "video_id")
+    @NotNull
+    private Video video;
+
+    @Column(name = "position_seconds", nullable = false)
+    private int positionSeconds;
+
+    @Column(name = "duration_seconds")
+    private Integer durationSeconds;
+
+    @Column(name = "watched_seconds", nullable = false)
+    private int watchedSeconds;
+
+    @Column(name = "watched_ranges", length = 1024)
+    private String watchedRanges;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public WatchHistory() {}
+
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public User getUser() {
+        return user;
+    }
+    public void setUser(User user) {
+        this.user = user;
+    }
+    public Video getVideo() {
+        return video;
+    }
+    public void setVideo(Video video) {
+        this.video = video;
+    }
+    public int getPositionSeconds() {
+        return positionSeconds;
+    }
+    public void setPositionSeconds(int positionSeconds) {
+        this.positionSeconds = positionSeconds;
+    }
+    public Integer getDurationSeconds() {
+        return durationSeconds;
+    }
+    public void setDurationSeconds(Integer durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+    public int getWatchedSeconds() {
+        return watchedSeconds;
+    }
+    public void setWatchedSeconds(int watchedSeconds) {
+        this.watchedSeconds = watchedSeconds;
+    }
+    public String getWatchedRanges() {
+        return watchedRanges;
+    }
+    public void setWatchedRanges(String watchedRanges) {
+        this.watchedRanges = watchedRanges;
+    }
+    public boolean isCompleted() {
+        return completed;
+    }
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.videobrowsing.event;
+
+import com.example.videobrowsing.dto.CommentDTO;
+
+/**
+ * Published when a comment is posted, edited, liked or unliked, or deleted, for live viewers of
+ * the video and for spam screening. {@code comment} is set for posts and edits and
+ * {@code likeCount} for likes.
+ */
+public record CommentActivityEvent(Long videoId, Long commentId, Type type, CommentDTO comment, long likeCount) {
+
+    public enum Type {
+        POSTED, EDITED, LIKED, DELETED
+    }
+
+    public static CommentActivityEvent posted(CommentDTO comment) {
+        return new CommentActivityEvent(comment.getVideoId(), comment.getId(), Type.POSTED, comment, 0L);
+    }
+
+    public static CommentActivityEvent edited(CommentDTO comment) {
+        return new CommentActivityEvent(comment.getVideoId(), comment.getId(), Type.EDITED, comment, 0L);
+    }
+
+    public static CommentActivityEvent liked(Long videoId, Long commentId, long likeCount) {
+        return new CommentActivityEvent(videoId, commentId, Type.LIKED, null, likeCount);
+    }
+
+    public static CommentActivityEvent deleted(Long videoId, Long commentId) {
+        return new CommentActivityEvent(videoId, commentId, Type.DELETED, null, 0L);
+    }
+}
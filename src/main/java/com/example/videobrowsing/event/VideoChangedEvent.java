@@ -0,0 +1,20 @@
+package com.example.videobrowsing.event;
+
+/**
+ * Published after a video's metadata is created, edited or deleted so in-memory
+ * read models can refresh the row from the database.
+ */
+public record VideoChangedEvent(Long videoId, Type type) {
+
+    public enum Type {
+        SAVED, DELETED
+    }
+
+    public static VideoChangedEvent saved(Long videoId) {
+        return new VideoChangedEvent(videoId, Type.SAVED);
+    }
+
+    public static VideoChangedEvent deleted(Long videoId) {
+        return new VideoChangedEvent(videoId, Type.DELETED);
+    }
+}
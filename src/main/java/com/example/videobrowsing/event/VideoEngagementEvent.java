@@ -0,0 +1,16 @@
+package com.example.videobrowsing.event;
+
+/**
+ * Published when a video's view, like or dislike counters move. Carries deltas rather
+ * than totals so listeners can apply it without reading the row back.
+ */
+public record VideoEngagementEvent(Long videoId, long viewDelta, long likeDelta, long dislikeDelta) {
+
+    public static VideoEngagementEvent views(Long videoId, long delta) {
+        return new VideoEngagementEvent(videoId, delta, 0L, 0L);
+    }
+
+    public static VideoEngagementEvent ratings(Long videoId, long likeDelta, long dislikeDelta) {
+        return new VideoEngagementEvent(videoId, 0L, likeDelta, dislikeDelta);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.videobrowsing.recommend;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative int keys to float values, used to accumulate candidate
+ * scores without boxing. Linear probing; grows at half full. Iterate with
+ * {@link #capacity()}, {@link #keyAt(int)} (negative for an empty slot) and {@link #valueAt(int)}.
+ */
+final class IntFloatMap {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private float[] values;
+    private int size;
+
+    IntFloatMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new float[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    void addTo(int key, float delta) {
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            values[slot] = delta;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        } else {
+            values[slot] += delta;
+        }
+    }
+
+    /**
+     * Sets the key's value to {@code value}, inserting it if needed.
+     */
+    void put(int key, float value) {
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    boolean containsKey(int key) {
+        return keys[find(key)] != EMPTY;
+    }
+
+    float get(int key) {
+        int slot = find(key);
+        return keys[slot] == EMPTY ? 0f : values[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    float valueAt(int slot) {
+        return values[slot];
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new float[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Ordinals are dense and sequential; spread them so neighbours do not cluster
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
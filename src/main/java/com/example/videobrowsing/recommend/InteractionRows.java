@@ -0,0 +1,114 @@
+package com.example.videobrowsing.recommend;
+
+import java.util.Arrays;
+
+/**
+ * Weighted sparse matrix in compressed-row form: row {@code r} holds sorted, distinct columns
+ * {@code columns[offsets[r] .. offsets[r + 1])} with one weight each. Built with rows as video
+ * ordinals and columns as user ordinals; {@link #transpose()} gives the per-user view.
+ */
+public final class InteractionRows {
+
+    private final int[] offsets;
+    private final int[] columns;
+    private final float[] weights;
+    private final int columnCount;
+
+    private InteractionRows(int[] offsets, int[] columns, float[] weights, int columnCount) {
+        this.offsets = offsets;
+        this.columns = columns;
+        this.weights = weights;
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * Builds the matrix from the first {@code count} (row, column, weight) triples. When a pair
+     * repeats, the strongest weight is kept.
+     */
+    public static InteractionRows of(int rowCount, int columnCount, int[] rows, int[] cols, float[] values, int count) {
+        int[] starts = new int[rowCount + 1];
+        for (int i = 0; i < count; i++) {
+            starts[rows[i] + 1]++;
+        }
+        for (int r = 0; r < rowCount; r++) {
+            starts[r + 1] += starts[r];
+        }
+        // Column and weight packed in one long per entry so a row sorts in one pass
+        long[] packed = new long[count];
+        int[] next = Arrays.copyOf(starts, rowCount);
+        for (int i = 0; i < count; i++) {
+            packed[next[rows[i]]++] = ((long) cols[i] << 32) | (Float.floatToRawIntBits(values[i]) & 0xFFFFFFFFL);
+        }
+
+        int[] offsets = new int[rowCount + 1];
+        int[] columns = new int[count];
+        float[] weights = new float[count];
+        int write = 0;
+        for (int r = 0; r < rowCount; r++) {
+            Arrays.sort(packed, starts[r], starts[r + 1]);
+            offsets[r] = write;
+            for (int i = starts[r]; i < starts[r + 1]; i++) {
+                int column = (int) (packed[i] >>> 32);
+                float weight = Float.intBitsToFloat((int) packed[i]);
+                if (write > offsets[r] && columns[write - 1] == column) {
+                    weights[write - 1] = Math.max(weights[write - 1], weight);
+                } else {
+                    columns[write] = column;
+                    weights[write] = weight;
+                    write++;
+                }
+            }
+        }
+        offsets[rowCount] = write;
+        return new InteractionRows(offsets, Arrays.copyOf(columns, write), Arrays.copyOf(weights, write), columnCount);
+    }
+
+    /**
+     * Column-major view with the same weights; each resulting row is sorted.
+     */
+    public InteractionRows transpose() {
+        int rowCount = rowCount();
+        int[] starts = new int[columnCount + 1];
+        for (int column : columns) {
+            starts[column + 1]++;
+        }
+        for (int c = 0; c < columnCount; c++) {
+            starts[c + 1] += starts[c];
+        }
+        int[] transposed = new int[columns.length];
+        float[] transposedWeights = new float[columns.length];
+        int[] next = Arrays.copyOf(starts, columnCount);
+        for (int r = 0; r < rowCount; r++) {
+            for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                int at = next[columns[i]]++;
+                transposed[at] = r;
+                transposedWeights[at] = weights[i];
+            }
+        }
+        return new InteractionRows(starts, transposed, transposedWeights, rowCount);
+    }
+
+    public int rowCount() {
+        return offsets.length - 1;
+    }
+
+    public int entries() {
+        return columns.length;
+    }
+
+    public int start(int row) {
+        return offsets[row];
+    }
+
+    public int end(int row) {
+        return offsets[row + 1];
+    }
+
+    public int column(int index) {
+        return columns[index];
+    }
+
+    public float weight(int index) {
+        return weights[index];
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.videobrowsing.recommend;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Immutable item-item collaborative-filtering model: for every video with interactions, its
+ * {@code topK} most similar videos by who interacted with both.
+ * <p>
+ * Similarity is a shrunk cosine over the weighted user vectors of two videos,
+ * {@code dot(a, b) / (|a| |b| + shrink)}, so pairs backed by one or two shared users score lower
+ * than the raw cosine would give them. Each video's row of the sparse similarity matrix is
+ * computed independently on a fork-join pool by walking its users' item lists into a
+ * per-thread dot-product array. A user's item list is ordered by item ordinal, not by when they
+ * interacted, so users with very long histories only contribute their {@code userScanLimit}
+ * highest-ordinal items, which are the newest videos since ids ascend; this caps the work per
+ * user rather than keeping their latest interactions. Only the top neighbours survive, in flat
+ * int/float arrays of roughly {@code 8 * topK} bytes per video.
+ * <p>
+ * {@link #recommend} scores a user's history against the neighbour lists in a primitive map,
+ * which takes well under a millisecond for a few hundred history items.
+ */
+public final class ItemSimilarityModel {
+
+    private static final int ROWS_PER_TASK = 256;
+
+    public static final ItemSimilarityModel EMPTY =
+            new ItemSimilarityModel(new long[0], new int[1], new int[0], new float[0], 0L);
+
+    private final long[] itemIds;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final float[] similarities;
+    private final long builtAtMillis;
+
+    private ItemSimilarityModel(long[] itemIds, int[] offsets, int[] neighbors, float[] similarities, long builtAtMillis) {
+        this.itemIds = itemIds;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.similarities = similarities;
+        this.builtAtMillis = builtAtMillis;
+    }
+
+    /**
+     * Builds the model from item rows (one per id in {@code itemIds}, sorted ascending) of
+     * weighted user interactions.
+     */
+    public static ItemSimilarityModel build(long[] itemIds, InteractionRows usersByItem, int topK,
+                                            int userScanLimit, float shrink, ForkJoinPool pool) {
+        int items = usersByItem.rowCount();
+        if (items != itemIds.length) {
+            throw new IllegalArgumentException("Expected one interaction row per item");
+        }
+        InteractionRows itemsByUser = usersByItem.transpose();
+        float[] norms = new float[items];
+        for (int item = 0; item < items; item++) {
+            double sum = 0;
+            for (int i = usersByItem.start(item); i < usersByItem.end(item); i++) {
+                sum += (double) usersByItem.weight(i) * usersByItem.weight(i);
+            }
+            norms[item] = (float) Math.sqrt(sum);
+        }
+
+        int[][] rows = new int[items][];
+        float[][] rowSimilarities = new float[items][];
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(items, topK));
+        pool.invoke(new ItemRange(usersByItem, itemsByUser, norms, topK, userScanLimit, shrink,
+                scratch, rows, rowSimilarities, 0, items));
+
+        int[] offsets = new int[items + 1];
+        for (int item = 0; item < items; item++) {
+            offsets[item + 1] = offsets[item] + rows[item].length;
+        }
+        int[] neighbors = new int[offsets[items]];
+        float[] similarities = new float[offsets[items]];
+        for (int item = 0; item < items; item++) {
+            System.arraycopy(rows[item], 0, neighbors, offsets[item], rows[item].length);
+            System.arraycopy(rowSimilarities[item], 0, similarities, offsets[item], rows[item].length);
+        }
+        return new ItemSimilarityModel(itemIds.clone(), offsets, neighbors, similarities, System.currentTimeMillis());
+    }
+
+    /**
+     * Ids of the videos most similar to the user's history, best first. History entries are
+     * video ids with interaction weights; every history video is excluded from the result,
+     * including zero-weight ones (e.g. disliked videos).
+     */
+    public long[] recommend(long[] historyIds, float[] historyWeights, int limit) {
+        if (limit <= 0 || historyIds.length == 0 || itemIds.length == 0) {
+            return new long[0];
+        }
+        IntFloatMap seen = new IntFloatMap(historyIds.length);
+        for (int h = 0; h < historyIds.length; h++) {
+            int item = Arrays.binarySearch(itemIds, historyIds[h]);
+            if (item >= 0) {
+                seen.put(item, Math.max(seen.get(item), historyWeights[h]));
+            }
+        }
+
+        IntFloatMap scores = new IntFloatMap(seen.size() * 16);
+        for (int slot = 0; slot < seen.capacity(); slot++) {
+            int item = seen.keyAt(slot);
+            float weight = item >= 0 ? seen.valueAt(slot) : 0f;
+            if (weight <= 0f) {
+                continue;
+            }
+            for (int i = offsets[item]; i < offsets[item + 1]; i++) {
+                if (!seen.containsKey(neighbors[i])) {
+                    scores.addTo(neighbors[i], weight * similarities[i]);
+                }
+            }
+        }
+
+        int[] best = new int[Math.min(limit, scores.size())];
+        float[] bestScores = new float[best.length];
+        int kept = 0;
+        for (int slot = 0; slot < scores.capacity(); slot++) {
+            int item = scores.keyAt(slot);
+            if (item >= 0) {
+                kept = offer(best, bestScores, kept, item, scores.valueAt(slot));
+            }
+        }
+        long[] ids = new long[kept];
+        for (int i = 0; i < kept; i++) {
+            ids[i] = itemIds[best[i]];
+        }
+        return ids;
+    }
+
+    public int itemCount() {
+        return itemIds.length;
+    }
+
+    public int neighborCount() {
+        return neighbors.length;
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+
+    // Inserts into a best-first list (higher score, then newer video); returns its new size
+    private static int offer(int[] best, float[] bestScores, int kept, int item, float score) {
+        int at = kept;
+        while (at > 0 && (score > bestScores[at - 1] || (score == bestScores[at - 1] && item > best[at - 1]))) {
+            at--;
+        }
+        if (at >= best.length) {
+            return kept;
+        }
+        int moved = Math.min(kept, best.length - 1) - at;
+        System.arraycopy(best, at, best, at + 1, moved);
+        System.arraycopy(bestScores, at, bestScores, at + 1, moved);
+        best[at] = item;
+        bestScores[at] = score;
+        return Math.min(kept + 1, best.length);
+    }
+
+    // Reused across the items a worker thread handles
+    private static final class Scratch {
+        final float[] dots;
+        final int[] touched;
+        final int[] best;
+        final float[] bestScores;
+
+        Scratch(int items, int topK) {
+            dots = new float[items];
+            touched = new int[items];
+            best = new int[topK];
+            bestScores = new float[topK];
+        }
+    }
+
+    private static final class ItemRange extends RecursiveAction {
+        private final InteractionRows usersByItem;
+        private final InteractionRows itemsByUser;
+        private final float[] norms;
+        private final int topK;
+        private final int userScanLimit;
+        private final float shrink;
+        private final ThreadLocal<Scratch> scratch;
+        private final int[][] rows;
+        private final float[][] rowSimilarities;
+        private final int from;
+        private final int to;
+
+        ItemRange(InteractionRows usersByItem, InteractionRows itemsByUser, float[] norms, int topK,
+                  int userScanLimit, float shrink, ThreadLocal<Scratch> scratch,
+                  int[][] rows, float[][] rowSimilarities, int from, int to) {
+            this.usersByItem = usersByItem;
+            this.itemsByUser = itemsByUser;
+            this.norms = norms;
+            this.topK = topK;
+            this.userScanLimit = userScanLimit;
+            this.shrink = shrink;
+            this.scratch = scratch;
+            this.rows = rows;
+            this.rowSimilarities = rowSimilarities;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(split(from, middle), split(middle, to));
+                return;
+            }
+            Scratch local = scratch.get();
+            for (int item = from; item < to; item++) {
+                similarTo(item, local);
+            }
+        }
+
+        private ItemRange split(int start, int end) {
+            return new ItemRange(usersByItem, itemsByUser, norms, topK, userScanLimit, shrink,
+                    scratch, rows, rowSimilarities, start, end);
+        }
+
+        private void similarTo(int item, Scratch scratch) {
+            int touchedCount = 0;
+            for (int i = usersByItem.start(item); i < usersByItem.end(item); i++) {
+                int user = usersByItem.column(i);
+                float weight = usersByItem.weight(i);
+                int end = itemsByUser.end(user);
+                int start = Math.max(itemsByUser.start(user), end - userScanLimit);
+                for (int j = start; j < end; j++) {
+                    int other = itemsByUser.column(j);
+                    if (other == item) {
+                        continue;
+                    }
+                    if (scratch.dots[other] == 0f) {
+                        scratch.touched[touchedCount++] = other;
+                    }
+                    scratch.dots[other] += weight * itemsByUser.weight(j);
+                }
+            }
+
+            int kept = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                int other = scratch.touched[t];
+                float similarity = scratch.dots[other] / (norms[item] * norms[other] + shrink);
+                scratch.dots[other] = 0f;
+                kept = offer(scratch.best, scratch.bestScores, kept, other, similarity);
+            }
+            rows[item] = Arrays.copyOf(scratch.best, kept);
+            rowSimilarities[item] = Arrays.copyOf(scratch.bestScores, kept);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.videobrowsing.related;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Top-K related videos for every video, from three binary signals: the video's tags, the users
+ * who liked it and the users who saved it to watch later.
+ * <p>
+ * For each source video, candidates are the videos sharing at least one tag or user. Overlaps
+ * are counted by walking the transposed rows (tag to videos, user to videos) into a per-thread
+ * count array indexed by video ordinal, so nothing is boxed and only touched entries are reset.
+ * A candidate's score blends Jaccard similarity of the tag sets with cosine similarity of the
+ * like and watch-later sets:
+ * <pre>
+ *   tagWeight * |T(a) ∩ T(b)| / |T(a) ∪ T(b)|
+ *     + likeWeight * |L(a) ∩ L(b)| / sqrt(|L(a)| |L(b)|)
+ *     + saveWeight * |S(a) ∩ S(b)| / sqrt(|S(a)| |S(b)|)
+ * </pre>
+ * Very common tags and very active users would make every video a candidate of every other, so
+ * each transposed row is scanned over at most {@code scanLimit} of its newest videos. Rows are
+ * split across a fork-join pool; each source video is independent.
+ */
+public final class RelatedVideoComputer {
+
+    private static final int ROWS_PER_TASK = 256;
+
+    private final int topK;
+    private final int scanLimit;
+    private final float tagWeight;
+    private final float likeWeight;
+    private final float saveWeight;
+
+    public RelatedVideoComputer(int topK, int scanLimit, float tagWeight, float likeWeight, float saveWeight) {
+        this.topK = topK;
+        this.scanLimit = scanLimit;
+        this.tagWeight = tagWeight;
+        this.likeWeight = likeWeight;
+        this.saveWeight = saveWeight;
+    }
+
+    /**
+     * Neighbours per video ordinal, best first. All three matrices must have one row per video.
+     */
+    public Neighbors compute(SparseRows tags, SparseRows likes, SparseRows saves, ForkJoinPool pool) {
+        int videos = tags.rowCount();
+        if (likes.rowCount() != videos || saves.rowCount() != videos) {
+            throw new IllegalArgumentException("Signal matrices must have one row per video");
+        }
+        Signal[] signals = {
+            new Signal(tags, tags.transpose(), tagWeight, true),
+            new Signal(likes, likes.transpose(), likeWeight, false),
+            new Signal(saves, saves.transpose(), saveWeight, false)
+        };
+        int[][] ordinals = new int[videos][];
+        float[][] scores = new float[videos][];
+        // One scratch per worker thread; the pool's threads outlive any single task
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(signals.length, videos, topK));
+        pool.invoke(new RowRange(signals, scratch, ordinals, scores, 0, videos));
+        return new Neighbors(ordinals, scores);
+    }
+
+    /**
+     * Result of {@link #compute}: for video ordinal {@code v}, {@code ordinals()[v]} are its
+     * related video ordinals, best first, with matching {@code scores()[v]}.
+     */
+    public record Neighbors(int[][] ordinals, float[][] scores) {
+    }
+
+    private record Signal(SparseRows byVideo, SparseRows byColumn, float weight, boolean jaccard) {
+    }
+
+    // Reused across the rows a worker thread handles
+    private static final class Scratch {
+        final int[][] overlaps;
+        final int[] touched;
+        int touchedCount;
+        final int[] best;
+        final float[] bestScores;
+
+        Scratch(int signals, int videos, int topK) {
+            overlaps = new int[signals][videos];
+            touched = new int[videos];
+            best = new int[topK];
+            bestScores = new float[topK];
+        }
+    }
+
+    private final class RowRange extends RecursiveAction {
+        private final Signal[] signals;
+        private final ThreadLocal<Scratch> scratch;
+        private final int[][] ordinals;
+        private final float[][] scores;
+        private final int from;
+        private final int to;
+
+        RowRange(Signal[] signals, ThreadLocal<Scratch> scratch, int[][] ordinals, float[][] scores, int from, int to) {
+            this.signals = signals;
+            this.scratch = scratch;
+            this.ordinals = ordinals;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowRange(signals, scratch, ordinals, scores, from, middle),
+                          new RowRange(signals, scratch, ordinals, scores, middle, to));
+                return;
+            }
+            Scratch local = scratch.get();
+            for (int video = from; video < to; video++) {
+                relate(video, signals, local);
+            }
+        }
+
+        private void relate(int video, Signal[] signals, Scratch scratch) {
+            scratch.touchedCount = 0;
+            for (int s = 0; s < signals.length; s++) {
+                Signal signal = signals[s];
+                if (signal.weight() <= 0f) {
+                    continue;
+                }
+                int[] overlap = scratch.overlaps[s];
+                for (int i = signal.byVideo().start(video); i < signal.byVideo().end(video); i++) {
+                    int column = signal.byVideo().column(i);
+                    int end = signal.byColumn().end(column);
+                    int start = Math.max(signal.byColumn().start(column), end - scanLimit);
+                    for (int j = end - 1; j >= start; j--) {
+                        int other = signal.byColumn().column(j);
+                        if (other != video && overlap[other]++ == 0 && !seen(scratch, other, s)) {
+                            scratch.touched[scratch.touchedCount++] = other;
+                        }
+                    }
+                }
+            }
+
+            int kept = 0;
+            for (int t = 0; t < scratch.touchedCount; t++) {
+                int other = scratch.touched[t];
+                float score = 0f;
+                for (int s = 0; s < signals.length; s++) {
+                    int shared = scratch.overlaps[s][other];
+                    if (shared == 0) {
+                        continue;
+                    }
+                    scratch.overlaps[s][other] = 0;
+                    score += signals[s].weight() * similarity(signals[s], video, other, shared);
+                }
+                kept = offer(scratch, kept, other, score);
+            }
+
+            int[] related = new int[kept];
+            float[] relatedScores = new float[kept];
+            System.arraycopy(scratch.best, 0, related, 0, kept);
+            System.arraycopy(scratch.bestScores, 0, relatedScores, 0, kept);
+            ordinals[video] = related;
+            scores[video] = relatedScores;
+        }
+
+        // Whether an earlier signal already put the candidate in the touched list
+        private boolean seen(Scratch scratch, int other, int signal) {
+            for (int s = 0; s < signal; s++) {
+                if (scratch.overlaps[s][other] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private float similarity(Signal signal, int video, int other, int shared) {
+            int a = signal.byVideo().length(video);
+            int b = signal.byVideo().length(other);
+            if (signal.jaccard()) {
+                return (float) shared / (a + b - shared);
+            }
+            return (float) (shared / Math.sqrt((double) a * b));
+        }
+
+        // Inserts into the best list (higher score first, newer video among equals); returns its new size
+        private int offer(Scratch scratch, int kept, int other, float score) {
+            int at = kept;
+            while (at > 0 && (score > scratch.bestScores[at - 1]
+                    || (score == scratch.bestScores[at - 1] && other > scratch.best[at - 1]))) {
+                at--;
+            }
+            if (at >= topK) {
+                return kept;
+            }
+            int moved = Math.min(kept, topK - 1) - at;
+            System.arraycopy(scratch.best, at, scratch.best, at + 1, moved);
+            System.arraycopy(scratch.bestScores, at, scratch.bestScores, at + 1, moved);
+            scratch.best[at] = other;
+            scratch.bestScores[at] = score;
+            return Math.min(kept + 1, topK);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.videobrowsing.related;
+
+import java.util.Arrays;
+
+/**
+ * Binary sparse matrix in compressed-row form: row {@code r} holds the sorted, distinct
+ * columns {@code columns[offsets[r] .. offsets[r + 1])}. Rows are video ordinals; columns are
+ * tag or user ordinals, or video ordinals again after {@link #transpose}.
+ */
+public final class SparseRows {
+
+    private final int[] offsets;
+    private final int[] columns;
+    private final int columnCount;
+
+    private SparseRows(int[] offsets, int[] columns, int columnCount) {
+        this.offsets = offsets;
+        this.columns = columns;
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * Builds the matrix from the first {@code pairs} entries of parallel row/column arrays.
+     * Pairs may come in any order and may repeat.
+     */
+    public static SparseRows of(int rowCount, int columnCount, int[] rows, int[] cols, int pairs) {
+        int[] counts = new int[rowCount + 1];
+        for (int i = 0; i < pairs; i++) {
+            counts[rows[i] + 1]++;
+        }
+        for (int r = 0; r < rowCount; r++) {
+            counts[r + 1] += counts[r];
+        }
+        int[] placed = new int[pairs];
+        int[] next = Arrays.copyOf(counts, rowCount);
+        for (int i = 0; i < pairs; i++) {
+            placed[next[rows[i]]++] = cols[i];
+        }
+
+        // Sort and de-duplicate each row, compacting in place
+        int[] offsets = new int[rowCount + 1];
+        int write = 0;
+        for (int r = 0; r < rowCount; r++) {
+            int from = counts[r];
+            int to = counts[r + 1];
+            Arrays.sort(placed, from, to);
+            offsets[r] = write;
+            for (int i = from; i < to; i++) {
+                if (i == from || placed[i] != placed[i - 1]) {
+                    placed[write++] = placed[i];
+                }
+            }
+        }
+        offsets[rowCount] = write;
+        return new SparseRows(offsets, Arrays.copyOf(placed, write), columnCount);
+    }
+
+    /**
+     * Column-major view: row {@code c} of the result lists the rows that contain column
+     * {@code c}, in ascending order.
+     */
+    public SparseRows transpose() {
+        int rowCount = rowCount();
+        int[] counts = new int[columnCount + 1];
+        for (int column : columns) {
+            counts[column + 1]++;
+        }
+        for (int c = 0; c < columnCount; c++) {
+            counts[c + 1] += counts[c];
+        }
+        int[] transposed = new int[columns.length];
+        int[] next = Arrays.copyOf(counts, columnCount);
+        // Walking rows in order leaves every transposed row already sorted
+        for (int r = 0; r < rowCount; r++) {
+            for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                transposed[next[columns[i]]++] = r;
+            }
+        }
+        return new SparseRows(counts, transposed, rowCount);
+    }
+
+    public int rowCount() {
+        return offsets.length - 1;
+    }
+
+    public int start(int row) {
+        return offsets[row];
+    }
+
+    public int end(int row) {
+        return offsets[row + 1];
+    }
+
+    public int length(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    public int column(int index) {
+        return columns[index];
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.videobrowsing.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.videobrowsing.entity.BlockedTerm;
+
+@Repository
+public interface BlockedTermRepository extends JpaRepository<BlockedTerm, Long> {
+    List<BlockedTerm> findAllByOrderByTermAsc();
+
+    @Query("SELECT b.term FROM BlockedTerm b")
+    List<String> findAllTerms();
+
+    // Re-adding a term already on the list is a no-op
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO blocked_terms (term, created_by, created_at) VALUES (:term, :createdBy, :createdAt)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("term") String term, @Param("createdBy") Long createdBy,
+                       @Param("createdAt") LocalDateTime createdAt);
+}
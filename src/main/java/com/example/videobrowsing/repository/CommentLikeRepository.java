@@ -1,10 +1,12 @@
 package com.example.videobrowsing.repository;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,8 +22,18 @@ public interface CommentLikeRepository extends JpaRepository<CommentLike, Long>
 
     Optional<CommentLike> findByCommentAndUser(Comment comment, User user);
 
-    @Query("SELECT cl.comment.id, COUNT(cl) FROM CommentLike cl WHERE cl.comment.id IN :commentIds GROUP BY cl.comment.id")
-    List<Object[]> countLikesByCommentIds(@Param("commentIds") Collection<Long> commentIds);
+    // Toggle steps against the unique (comment_id, user_id) row; each returns the affected row count
+    @Modifying
+    @Query(value = "DELETE FROM comment_likes WHERE comment_id = :commentId AND user_id = :userId", nativeQuery = true)
+    int deleteLike(@Param("commentId") Long commentId, @Param("userId") Long userId);
+
+    // Inserts nothing when the like already exists or the comment is gone
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO comment_likes (comment_id, user_id, created_at) VALUES (:commentId, :userId, :createdAt)",
+           nativeQuery = true)
+    int insertLikeIfAbsent(@Param("commentId") Long commentId,
+                           @Param("userId") Long userId,
+                           @Param("createdAt") LocalDateTime createdAt);
 
     @Query("SELECT cl.comment.id FROM CommentLike cl WHERE cl.comment.id IN :commentIds AND cl.user = :user")
     List<Long> findCommentIdsLikedByUser(@Param("commentIds") Collection<Long> commentIds, @Param("user") User user);
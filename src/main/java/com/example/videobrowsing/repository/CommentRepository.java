@@ -3,10 +3,13 @@ package com.example.videobrowsing.repository;
 import com.example.videobrowsing.entity.Comment;
 import com.example.videobrowsing.entity.Video;
 import com.example.videobrowsing.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -19,7 +22,75 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query("SELECT c FROM Comment c WHERE c.video = :video AND c.isDisabled = false AND c.parentComment IS NULL ORDER BY c.isPinned DESC, c.createdAt DESC")
     List<Comment> findVideoCommentsOrderedByPinnedAndDate(@Param("video") Video video);
 
-    @Query("SELECT c FROM Comment c WHERE c.isSpam = true AND c.isDisabled = false")
+    // Every active comment of the video with its author, oldest first, for building the thread in memory
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.video.id = :videoId " +
+           "AND (c.isDisabled = false OR c.isDisabled IS NULL) ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findActiveThreadByVideoId(@Param("videoId") Long videoId);
+
+    // Keyset pages of a video's active, unpinned root comments; pinned ones lead the first page
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.video.id = :videoId AND c.parentComment IS NULL " +
+           "AND c.isDisabled = false AND c.isPinned = true ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPinnedRoots(@Param("videoId") Long videoId);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.video.id = :videoId AND c.parentComment IS NULL " +
+           "AND c.isDisabled = false AND c.isPinned = false " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findNewestRootPage(@Param("videoId") Long videoId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.video.id = :videoId AND c.parentComment IS NULL " +
+           "AND c.isDisabled = false AND c.isPinned = false " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findOldestRootPage(@Param("videoId") Long videoId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.video.id = :videoId AND c.parentComment IS NULL " +
+           "AND c.isDisabled = false AND c.isPinned = false " +
+           "AND (c.rankScore < :rankScore OR (c.rankScore = :rankScore AND c.id < :id)) " +
+           "ORDER BY c.rankScore DESC, c.id DESC")
+    List<Comment> findTopRootPage(@Param("videoId") Long videoId,
+                                  @Param("rankScore") Double rankScore,
+                                  @Param("id") Long id,
+                                  Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.parentComment.id = :parentId AND c.isDisabled = false " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findReplyPage(@Param("parentId") Long parentId,
+                                @Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    // Atomic counter updates; never go through the entity
+    @Modifying
+    @Query(value = "UPDATE comments SET like_count = GREATEST(like_count + :delta, 0) WHERE id = :commentId",
+           nativeQuery = true)
+    int adjustLikeCount(@Param("commentId") Long commentId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE comments SET reply_count = GREATEST(reply_count + :delta, 0) WHERE id = :commentId",
+           nativeQuery = true)
+    int adjustReplyCount(@Param("commentId") Long commentId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE comments SET report_count = report_count + 1 WHERE id = :commentId", nativeQuery = true)
+    int incrementReportCount(@Param("commentId") Long commentId);
+
+    @Modifying
+    @Query(value = "UPDATE comments SET rank_score = :rankScore WHERE id = :commentId", nativeQuery = true)
+    int updateRankScore(@Param("commentId") Long commentId, @Param("rankScore") double rankScore);
+
+    // Read past the persistence context: [like count, report count], empty when the comment does not exist
+    @Query(value = "SELECT like_count, report_count FROM comments WHERE id = :commentId", nativeQuery = true)
+    List<Object[]> findRankCounters(@Param("commentId") Long commentId);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.isSpam = true AND c.isDisabled = false ORDER BY c.createdAt DESC")
     List<Comment> findSpamComments();
 
     @Query("SELECT COUNT(c) FROM Comment c WHERE c.video = :video AND c.isDisabled = false")
@@ -1,9 +1,12 @@
 package com.example.videobrowsing.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,5 +26,43 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     @Query("SELECT COUNT(r) FROM Rating r WHERE r.video = :video AND r.ratingType = :ratingType")
     Long countByVideoAndRatingType(@Param("video") Video video, @Param("ratingType") Rating.RatingType ratingType);
 
+    // (video id, created at) of recent ratings on public videos, used to seed trending windows
+    @Query("SELECT r.video.id, r.createdAt FROM Rating r WHERE r.ratingType = :ratingType " +
+           "AND r.createdAt > :since AND r.video.privacy = :privacy")
+    List<Object[]> findRatingTimesSince(@Param("ratingType") Rating.RatingType ratingType,
+                                        @Param("since") LocalDateTime since,
+                                        @Param("privacy") Video.Privacy privacy);
+
     void deleteByVideoAndUser(Video video, User user);
-}
\ No newline at end of file
+
+    // Toggle steps against the unique (video_id, user_id) row. The upsert reports 1 for an
+    // insert and 2 for a switch to the other type; a row that already has the type is left
+    // untouched, keeping its created_at, which is how the follow-up delete recognises it
+    // (Connector/J reports found rows, so an untouched row also counts as 1).
+    // A missing video or user fails on its foreign key instead of being skipped.
+    @Modifying
+    @Query(value = "INSERT INTO ratings (video_id, user_id, rating_type, created_at) " +
+                   "VALUES (:videoId, :userId, :ratingType, :createdAt) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "created_at = IF(rating_type = VALUES(rating_type), created_at, VALUES(created_at)), " +
+                   "rating_type = VALUES(rating_type)",
+           nativeQuery = true)
+    int upsertRating(@Param("videoId") Long videoId,
+                     @Param("userId") Long userId,
+                     @Param("ratingType") String ratingType,
+                     @Param("createdAt") LocalDateTime createdAt);
+
+    // Clears a rating of the type that existed before the upsert stamped :createdAt
+    @Modifying
+    @Query(value = "DELETE FROM ratings WHERE video_id = :videoId AND user_id = :userId " +
+                   "AND rating_type = :ratingType AND created_at <> :createdAt",
+           nativeQuery = true)
+    int deleteEarlierRating(@Param("videoId") Long videoId,
+                            @Param("userId") Long userId,
+                            @Param("ratingType") String ratingType,
+                            @Param("createdAt") LocalDateTime createdAt);
+
+    // Viewer state for a page of videos: [video id, rating type]
+    @Query("SELECT r.video.id, r.ratingType FROM Rating r WHERE r.user.id = :userId AND r.video.id IN :videoIds")
+    List<Object[]> findTypesByUserAndVideoIds(@Param("userId") Long userId, @Param("videoIds") Collection<Long> videoIds);
+}
@@ -0,0 +1,22 @@
+package com.example.videobrowsing.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.videobrowsing.entity.RelatedVideo;
+import com.example.videobrowsing.entity.Video;
+
+@Repository
+public interface RelatedVideoRepository extends JpaRepository<RelatedVideo, RelatedVideo.Key> {
+
+    // Primary-key range scan on (video_id, position), joined to the related videos
+    @Query("SELECT v FROM RelatedVideo r JOIN r.related v " +
+           "WHERE r.videoId = :videoId AND v.privacy = com.example.videobrowsing.entity.Video.Privacy.PUBLIC " +
+           "ORDER BY r.position")
+    List<Video> findRelatedVideos(@Param("videoId") Long videoId, Pageable pageable);
+}
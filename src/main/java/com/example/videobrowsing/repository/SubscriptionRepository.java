@@ -1,5 +1,7 @@
 package com.example.videobrowsing.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -26,4 +28,8 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Long
 
     @Query("SELECT COUNT(s) FROM Subscription s WHERE s.subscriber.id = :subscriberId")
     long countBySubscriberId(@Param("subscriberId") Long subscriberId);
+
+    @Query("SELECT s.creator.id FROM Subscription s WHERE s.subscriber.id = :subscriberId AND s.creator.id IN :creatorIds")
+    List<Long> findCreatorIdsBySubscriberAndCreatorIds(@Param("subscriberId") Long subscriberId,
+                                                        @Param("creatorIds") Collection<Long> creatorIds);
 }
@@ -0,0 +1,54 @@
+package com.example.videobrowsing.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.videobrowsing.entity.Tag;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Integer> {
+    Optional<Tag> findByName(String name);
+
+    List<Tag> findByNameIn(Collection<String> names);
+
+    // Concurrent uploads may add the same new tag; the unique key keeps one
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO tags (name) VALUES (:name)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+
+    @Query(value = "SELECT tag_id FROM video_tags WHERE video_id = :videoId", nativeQuery = true)
+    List<Integer> findTagIdsByVideoId(@Param("videoId") Long videoId);
+
+    @Modifying
+    @Query(value = "DELETE FROM video_tags WHERE video_id = :videoId AND tag_id NOT IN (:keep)", nativeQuery = true)
+    int deleteVideoTagsExcept(@Param("videoId") Long videoId, @Param("keep") Collection<Integer> keep);
+
+    @Modifying
+    @Query(value = "DELETE FROM video_tags WHERE video_id = :videoId", nativeQuery = true)
+    int deleteVideoTags(@Param("videoId") Long videoId);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO video_tags (video_id, tag_id) VALUES (:videoId, :tagId)", nativeQuery = true)
+    int insertVideoTag(@Param("videoId") Long videoId, @Param("tagId") Integer tagId);
+
+    // Links of public videos in (video_id, tag_id) order, for building the in-memory postings
+    @Query(value = "SELECT vt.video_id, vt.tag_id FROM video_tags vt JOIN videos v ON v.id = vt.video_id " +
+                   "WHERE v.privacy = 'PUBLIC' AND (vt.video_id > :afterVideoId " +
+                   "OR (vt.video_id = :afterVideoId AND vt.tag_id > :afterTagId)) " +
+                   "ORDER BY vt.video_id, vt.tag_id", nativeQuery = true)
+    List<Object[]> findPublicVideoTags(@Param("afterVideoId") Long afterVideoId,
+                                       @Param("afterTagId") Integer afterTagId,
+                                       Pageable pageable);
+
+    @Query(value = "SELECT vt.tag_id FROM video_tags vt JOIN videos v ON v.id = vt.video_id " +
+                   "WHERE vt.video_id = :videoId AND v.privacy = 'PUBLIC'", nativeQuery = true)
+    List<Integer> findTagIdsIfPublic(@Param("videoId") Long videoId);
+}
@@ -1,26 +1,103 @@
 package com.example.videobrowsing.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.videobrowsing.catalog.CatalogRow;
 import com.example.videobrowsing.entity.User;
 import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.search.SearchRow;
 
 @Repository
 public interface VideoRepository extends JpaRepository<Video, Long> {
 
     // Basic queries using Privacy enum and correct field names
     List<Video> findByPrivacyOrderByCreatedAtDesc(Video.Privacy privacy);
-       List<Video> findByPrivacyOrderByViewCountDesc(Video.Privacy privacy);
-       List<Video> findByPrivacyOrderByLikeCountDesc(Video.Privacy privacy);
     List<Video> findByUploadedByOrderByCreatedAtDesc(User uploadedBy);
     List<Video> findByCategoryIdAndPrivacyOrderByCreatedAtDesc(Long categoryId, Video.Privacy privacy);
 
+    // Keyset pages: rows strictly after (key, id) in descending order. The first page passes
+    // a sentinel cursor above every real value. Each query is backed by a composite index on Video.
+    @Query("SELECT v FROM Video v WHERE v.privacy = :privacy AND " +
+           "(v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findLatestPage(@Param("privacy") Video.Privacy privacy,
+                               @Param("createdAt") LocalDateTime createdAt,
+                               @Param("id") Long id,
+                               Pageable pageable);
+
+    // Counter-ordered pages scan video_stats in index order and join back to videos for the
+    // privacy check; callers load the entities by id. Each row is [video_id, count].
+    @Query(value = "SELECT s.video_id, s.view_count FROM video_stats s JOIN videos v ON v.id = s.video_id " +
+                   "WHERE v.privacy = :privacy AND " +
+                   "(s.view_count < :viewCount OR (s.view_count = :viewCount AND s.video_id < :id)) " +
+                   "ORDER BY s.view_count DESC, s.video_id DESC",
+           nativeQuery = true)
+    List<Object[]> findMostViewedPage(@Param("privacy") String privacy,
+                                      @Param("viewCount") Long viewCount,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query(value = "SELECT s.video_id, s.like_count FROM video_stats s JOIN videos v ON v.id = s.video_id " +
+                   "WHERE v.privacy = :privacy AND " +
+                   "(s.like_count < :likeCount OR (s.like_count = :likeCount AND s.video_id < :id)) " +
+                   "ORDER BY s.like_count DESC, s.video_id DESC",
+           nativeQuery = true)
+    List<Object[]> findMostLikedPage(@Param("privacy") String privacy,
+                                     @Param("likeCount") Long likeCount,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    // Atomic counter updates on the narrow stats row; never go through the entity
+    @Modifying
+    @Query(value = "UPDATE video_stats SET like_count = GREATEST(like_count + :likeDelta, 0), " +
+                   "dislike_count = GREATEST(dislike_count + :dislikeDelta, 0) WHERE video_id = :videoId",
+           nativeQuery = true)
+    int adjustRatingCounts(@Param("videoId") Long videoId,
+                           @Param("likeDelta") long likeDelta,
+                           @Param("dislikeDelta") long dislikeDelta);
+
+    // [video_id, view_count, like_count, dislike_count] for live viewers; views still buffered
+    // in ViewCountBuffer are not included
+    @Query(value = "SELECT s.video_id, s.view_count, s.like_count, s.dislike_count FROM video_stats s " +
+                   "WHERE s.video_id IN :videoIds",
+           nativeQuery = true)
+    List<Object[]> findStatsByVideoIds(@Param("videoIds") Collection<Long> videoIds);
+
+    // [like_count, dislike_count, the user's rating_type or null], read past the persistence
+    // context; empty when the video does not exist
+    @Query(value = "SELECT s.like_count, s.dislike_count, " +
+                   "(SELECT r.rating_type FROM ratings r WHERE r.video_id = s.video_id AND r.user_id = :userId) " +
+                   "FROM video_stats s WHERE s.video_id = :videoId",
+           nativeQuery = true)
+    List<Object[]> findRatingState(@Param("videoId") Long videoId, @Param("userId") Long userId);
+
+    @Query("SELECT v FROM Video v WHERE v.category.id = :categoryId AND v.privacy = :privacy AND " +
+           "(v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findCategoryPage(@Param("categoryId") Long categoryId,
+                                 @Param("privacy") Video.Privacy privacy,
+                                 @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+
+    @Query("SELECT v FROM Video v WHERE v.uploadedBy = :uploadedBy AND " +
+           "(v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findUploaderPage(@Param("uploadedBy") User uploadedBy,
+                                 @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+
     // Top rated videos (using like count as proxy)
     List<Video> findTop10ByPrivacyOrderByLikeCountDesc(Video.Privacy privacy);
 
@@ -69,10 +146,15 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
                                  @Param("minViews") Long minViews,
                                  @Param("search") String search);
 
-    // Trending videos (most views in recent time)
+    // Trending videos (most views in recent time); fallback when the trending engine has too little activity
     @Query("SELECT v FROM Video v WHERE v.privacy = :privacy AND v.createdAt > :since " +
-           "ORDER BY v.viewCount DESC")
-    List<Video> findTrendingVideos(@Param("privacy") Video.Privacy privacy, @Param("since") LocalDateTime since);
+           "ORDER BY v.viewCount DESC, v.id DESC")
+    List<Video> findTrendingVideos(@Param("privacy") Video.Privacy privacy, @Param("since") LocalDateTime since,
+                                   Pageable pageable);
+
+    // (video id, category id) for the given ids that are public; category id may be null
+    @Query("SELECT v.id, c.id FROM Video v LEFT JOIN v.category c WHERE v.id IN :ids AND v.privacy = :privacy")
+    List<Object[]> findCategoryIdsByIdIn(@Param("ids") Collection<Long> ids, @Param("privacy") Video.Privacy privacy);
 
     // Popular videos by category using like count and view count
     @Query("SELECT v FROM Video v WHERE v.privacy = :privacy AND v.category.id = :categoryId " +
@@ -89,6 +171,37 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
            "ORDER BY (COALESCE(v.viewCount, 0) + COALESCE(v.likeCount, 0) * 10) DESC")
     List<Video> findHighEngagementVideos(@Param("privacy") Video.Privacy privacy);
 
+    // Rows written before canonical media URLs were stored on the video. A blank filepath has no
+    // video URL to store, so such rows only count as missing until they have a thumbnail URL.
+    @Query("SELECT v FROM Video v WHERE v.id > :afterId AND (v.thumbnailUrl IS NULL " +
+           "OR (v.videoUrl IS NULL AND v.filepath IS NOT NULL AND TRIM(v.filepath) <> '')) ORDER BY v.id ASC")
+    List<Video> findMissingMediaUrls(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Column projections for the in-memory catalog
+    @Query("SELECT new com.example.videobrowsing.catalog.CatalogRow(v.id, v.title, v.description, v.tags, " +
+           "v.viewCount, v.likeCount, v.duration, v.createdAt, c.id, c.name) FROM Video v LEFT JOIN v.category c " +
+           "WHERE v.privacy = :privacy AND v.id > :afterId ORDER BY v.id ASC")
+    List<CatalogRow> findCatalogRows(@Param("privacy") Video.Privacy privacy,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    @Query("SELECT new com.example.videobrowsing.catalog.CatalogRow(v.id, v.title, v.description, v.tags, " +
+           "v.viewCount, v.likeCount, v.duration, v.createdAt, c.id, c.name) FROM Video v LEFT JOIN v.category c " +
+           "WHERE v.id = :id AND v.privacy = :privacy")
+    Optional<CatalogRow> findCatalogRow(@Param("id") Long id, @Param("privacy") Video.Privacy privacy);
+
+    // Column projections for the in-memory search index and suggester; private videos are
+    // indexed too and filtered per query
+    @Query("SELECT new com.example.videobrowsing.search.SearchRow(v.id, v.title, v.description, v.tags, " +
+           "c.id, c.name, u.firstname, u.lastname, u.username, v.privacy, v.viewCount) " +
+           "FROM Video v LEFT JOIN v.category c JOIN v.uploadedBy u WHERE v.id > :afterId ORDER BY v.id ASC")
+    List<SearchRow> findSearchRows(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.videobrowsing.search.SearchRow(v.id, v.title, v.description, v.tags, " +
+           "c.id, c.name, u.firstname, u.lastname, u.username, v.privacy, v.viewCount) " +
+           "FROM Video v LEFT JOIN v.category c JOIN v.uploadedBy u WHERE v.id = :id")
+    Optional<SearchRow> findSearchRow(@Param("id") Long id);
+
     // Count methods for statistics
     long countByPrivacy(Video.Privacy privacy);
     long countByCategoryIdAndPrivacy(Long categoryId, Video.Privacy privacy);
@@ -113,4 +226,8 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
         @Param("minViews") Long minViews,
         @Param("uploadedAfter") LocalDateTime uploadedAfter,
         @Param("search") String search);
+
+    // [video id, uploader id]
+    @Query("SELECT v.id, v.uploadedBy.id FROM Video v WHERE v.id IN :ids")
+    List<Object[]> findUploaderIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
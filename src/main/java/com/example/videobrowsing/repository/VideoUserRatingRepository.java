@@ -1,9 +1,12 @@
 package com.example.videobrowsing.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.videobrowsing.entity.VideoUserRating;
@@ -17,4 +20,8 @@ public interface VideoUserRatingRepository extends JpaRepository<VideoUserRating
 
     @Query("SELECT AVG(r.score) FROM VideoUserRating r WHERE r.video.id = :videoId")
     Double findAverageScoreByVideoId(Long videoId);
+
+    // [video id, score] of the user's ratings among the given videos
+    @Query("SELECT r.video.id, r.score FROM VideoUserRating r WHERE r.user.id = :userId AND r.video.id IN :videoIds")
+    List<Object[]> findScoresByUserAndVideoIds(@Param("userId") Long userId, @Param("videoIds") Collection<Long> videoIds);
 }
@@ -0,0 +1,23 @@
+package com.example.videobrowsing.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.videobrowsing.entity.WatchHistory;
+
+@Repository
+public interface WatchHistoryRepository extends JpaRepository<WatchHistory, Long> {
+
+    @Query("SELECT wh FROM WatchHistory wh JOIN FETCH wh.video WHERE wh.user.id = :userId AND wh.completed = false " +
+           "ORDER BY wh.updatedAt DESC")
+    List<WatchHistory> findInProgress(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT wh FROM WatchHistory wh WHERE wh.user.id = :userId AND wh.video.id = :videoId")
+    Optional<WatchHistory> findByUserIdAndVideoId(@Param("userId") Long userId, @Param("videoId") Long videoId);
+}
@@ -1,5 +1,6 @@
 package com.example.videobrowsing.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +24,7 @@ public interface WatchLaterRepository extends JpaRepository<WatchLater, Long> {
 
     void deleteByUserAndVideo(User user, Video video);
     void deleteByUser(User user);
-}
\ No newline at end of file
+
+    @Query("SELECT wl.video.id FROM WatchLater wl WHERE wl.user.id = :userId AND wl.video.id IN :videoIds")
+    List<Long> findVideoIdsByUserAndVideoIds(@Param("userId") Long userId, @Param("videoIds") Collection<Long> videoIds);
+}
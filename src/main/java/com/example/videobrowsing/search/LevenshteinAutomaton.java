@@ -0,0 +1,68 @@
+package com.example.videobrowsing.search;
+
+/**
+ * Accepts the strings within a bounded edit distance of one term.
+ * <p>
+ * This simulates the nondeterministic Levenshtein automaton directly: its state after reading
+ * a prefix of the candidate is, for every position in the term, the fewest edits that reach
+ * that position. Only the diagonal band of width {@code 2 * maxDistance + 1} can stay within
+ * the bound, so each character costs O(maxDistance), and a candidate is rejected as soon as
+ * every state in the band is over the bound, usually after a few characters.
+ */
+public final class LevenshteinAutomaton {
+
+    private final String term;
+    private final int maxDistance;
+
+    public LevenshteinAutomaton(String term, int maxDistance) {
+        this.term = term;
+        this.maxDistance = maxDistance;
+    }
+
+    public int maxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * The edit distance between the term and the candidate, or -1 when it is over the bound.
+     */
+    public int distance(String candidate) {
+        int n = term.length();
+        if (Math.abs(candidate.length() - n) > maxDistance) {
+            return -1;
+        }
+        int over = maxDistance + 1;
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            previous[i] = Math.min(i, over);
+        }
+
+        for (int j = 1; j <= candidate.length(); j++) {
+            char c = candidate.charAt(j - 1);
+            int from = Math.max(1, j - maxDistance);
+            int to = Math.min(n, j + maxDistance);
+            current[0] = Math.min(j, over);
+            if (from > 1) {
+                current[from - 1] = over;
+            }
+            int best = current[0];
+            for (int i = from; i <= to; i++) {
+                int cost = term.charAt(i - 1) == c ? 0 : 1;
+                int value = Math.min(previous[i - 1] + cost, Math.min(previous[i], current[i - 1]) + 1);
+                current[i] = Math.min(value, over);
+                best = Math.min(best, current[i]);
+            }
+            if (to < n) {
+                current[to + 1] = over;
+            }
+            if (best > maxDistance) {
+                return -1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[n] <= maxDistance ? previous[n] : -1;
+    }
+}
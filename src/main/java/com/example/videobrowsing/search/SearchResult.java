@@ -0,0 +1,9 @@
+package com.example.videobrowsing.search;
+
+/**
+ * One page of ranked video ids plus the number of videos that matched.
+ */
+public record SearchResult(long[] videoIds, int total) {
+
+    public static final SearchResult EMPTY = new SearchResult(new long[0], 0);
+}
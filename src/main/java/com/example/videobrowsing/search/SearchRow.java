@@ -0,0 +1,15 @@
+package com.example.videobrowsing.search;
+
+import com.example.videobrowsing.entity.Video;
+
+/**
+ * Projection of the fields the search index and the suggester read for one video.
+ */
+public record SearchRow(Long id, String title, String description, String tags, Long categoryId,
+                        String categoryName, String uploaderFirstname, String uploaderLastname,
+                        String uploaderUsername, Video.Privacy privacy, Long viewCount) {
+
+    public boolean isPublic() {
+        return privacy == null || privacy == Video.Privacy.PUBLIC;
+    }
+}
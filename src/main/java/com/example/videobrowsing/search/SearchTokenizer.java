@@ -0,0 +1,54 @@
+package com.example.videobrowsing.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into search terms: accents are stripped, letters lower-cased and anything that is
+ * not a letter or digit separates terms. Indexing and querying use the same rules, so
+ * "Café-Racer" matches a search for "cafe racer".
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /** Terms longer than this are cut, which keeps pasted URLs or hashes from bloating the index. */
+    public static final int MAX_TERM_LENGTH = 40;
+
+    private SearchTokenizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The terms of the text joined by single spaces, so "  Café-Racer!" becomes "cafe racer".
+     */
+    public static String phrase(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(normalized.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
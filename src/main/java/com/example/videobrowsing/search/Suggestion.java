@@ -0,0 +1,11 @@
+package com.example.videobrowsing.search;
+
+/**
+ * One autocomplete entry: the text shown to the user, where it came from and how popular it is.
+ */
+public record Suggestion(String text, Type type, long weight) {
+
+    public enum Type {
+        TITLE, TAG, CATEGORY, CREATOR
+    }
+}
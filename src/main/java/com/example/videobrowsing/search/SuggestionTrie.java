@@ -0,0 +1,259 @@
+package com.example.videobrowsing.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable compressed (radix) trie from normalized phrases to their most popular suggestions.
+ * <p>
+ * Keys are {@link SearchTokenizer#phrase normalized phrases}, sorted once at build time. Each
+ * node stores its edge label as a range of one of those keys, so the label text is never
+ * copied, and nodes with a single child are merged into their parent. Every node also keeps
+ * the ids of the {@link #MAX_SUGGESTIONS} heaviest keys below it, computed bottom-up during
+ * the build, so a lookup is a walk down the prefix followed by a copy of one precomputed list;
+ * it does not depend on how many keys share the prefix.
+ * <p>
+ * Nodes live in parallel int arrays rather than objects, which keeps the structure compact
+ * and cheap to scan. Instances are never modified after {@link #build}; callers rebuild and
+ * swap the reference.
+ */
+public final class SuggestionTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Phrases are cut to this length before indexing; longer titles still match on their start
+    static final int MAX_KEY_LENGTH = 100;
+
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator
+            .comparingLong(Suggestion::weight).reversed();
+
+    public static final SuggestionTrie EMPTY = build(List.of());
+
+    private final String[] keys;
+    private final Suggestion[] suggestions;
+
+    private final int[] labelKey;
+    private final int[] labelStart;
+    private final int[] labelEnd;
+    private final char[] firstChar;
+    private final int[] childStart;
+    private final int[] childCount;
+    private final int[] children;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] top;
+    private final int root;
+
+    private SuggestionTrie(String[] keys, Suggestion[] suggestions, Builder builder, int root) {
+        this.keys = keys;
+        this.suggestions = suggestions;
+        this.labelKey = builder.labelKey.toArray();
+        this.labelStart = builder.labelStart.toArray();
+        this.labelEnd = builder.labelEnd.toArray();
+        this.childStart = builder.childStart.toArray();
+        this.childCount = builder.childCount.toArray();
+        this.children = builder.children.toArray();
+        this.topStart = builder.topStart.toArray();
+        this.topCount = builder.topCount.toArray();
+        this.top = builder.top.toArray();
+        this.root = root;
+        this.firstChar = new char[labelKey.length];
+        for (int node = 0; node < labelKey.length; node++) {
+            if (labelStart[node] < labelEnd[node]) {
+                firstChar[node] = keys[labelKey[node]].charAt(labelStart[node]);
+            }
+        }
+    }
+
+    /**
+     * Builds a trie over the suggestions. Suggestions whose phrases normalize to the same key
+     * are collapsed into the heaviest one.
+     */
+    public static SuggestionTrie build(Collection<Suggestion> entries) {
+        Map<String, Suggestion> byKey = new HashMap<>();
+        for (Suggestion entry : entries) {
+            String key = keyOf(entry.text());
+            if (!key.isEmpty()) {
+                byKey.merge(key, entry, (a, b) -> BY_WEIGHT.compare(a, b) <= 0 ? a : b);
+            }
+        }
+
+        String[] keys = byKey.keySet().toArray(String[]::new);
+        Arrays.sort(keys);
+        Suggestion[] suggestions = new Suggestion[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            suggestions[i] = byKey.get(keys[i]);
+        }
+
+        Builder builder = new Builder(keys, suggestions);
+        int root = builder.node(0, keys.length, 0, true);
+        return new SuggestionTrie(keys, suggestions, builder, root);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * The heaviest suggestions whose normalized phrase starts with the normalized prefix.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = keyOf(prefix);
+        if (normalized.isEmpty() || limit <= 0 || keys.length == 0) {
+            return List.of();
+        }
+
+        int node = root;
+        int position = 0;
+        while (true) {
+            String label = keys[labelKey[node]];
+            for (int i = labelStart[node]; i < labelEnd[node] && position < normalized.length(); i++, position++) {
+                if (label.charAt(i) != normalized.charAt(position)) {
+                    return List.of();
+                }
+            }
+            if (position == normalized.length()) {
+                return topOf(node, limit);
+            }
+            node = child(node, normalized.charAt(position));
+            if (node < 0) {
+                return List.of();
+            }
+        }
+    }
+
+    private List<Suggestion> topOf(int node, int limit) {
+        int count = Math.min(limit, topCount[node]);
+        List<Suggestion> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(suggestions[top[topStart[node] + i]]);
+        }
+        return result;
+    }
+
+    // Children are stored in key order, so their first characters are sorted
+    private int child(int node, char c) {
+        int low = childStart[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char candidate = firstChar[children[mid]];
+            if (candidate < c) {
+                low = mid + 1;
+            } else if (candidate > c) {
+                high = mid - 1;
+            } else {
+                return children[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static String keyOf(String text) {
+        String phrase = SearchTokenizer.phrase(text);
+        return phrase.length() > MAX_KEY_LENGTH ? phrase.substring(0, MAX_KEY_LENGTH) : phrase;
+    }
+
+    private static final class Builder {
+        private final String[] keys;
+        // Position of each key when all keys are ordered by weight, and the inverse
+        private final int[] rank;
+        private final int[] byRank;
+
+        private final IntList labelKey = new IntList();
+        private final IntList labelStart = new IntList();
+        private final IntList labelEnd = new IntList();
+        private final IntList childStart = new IntList();
+        private final IntList childCount = new IntList();
+        private final IntList children = new IntList();
+        private final IntList topStart = new IntList();
+        private final IntList topCount = new IntList();
+        private final IntList top = new IntList();
+
+        private Builder(String[] keys, Suggestion[] suggestions) {
+            this.keys = keys;
+            long[] weights = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                weights[i] = suggestions[i].weight();
+            }
+            // Heaviest first; equal weights keep key order
+            this.byRank = IntStream.range(0, keys.length).boxed()
+                    .sorted((a, b) -> weights[a] != weights[b] ? Long.compare(weights[b], weights[a]) : Integer.compare(a, b))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            this.rank = new int[keys.length];
+            for (int i = 0; i < byRank.length; i++) {
+                rank[byRank[i]] = i;
+            }
+        }
+
+        /**
+         * Builds the node for the sorted keys [from, to), which all share their first depth
+         * characters. The root keeps an empty label; other nodes absorb the longest prefix
+         * common to their range.
+         */
+        private int node(int from, int to, int depth, boolean root) {
+            int labelTo = depth;
+            if (!root && to > from) {
+                labelTo = depth + commonPrefix(keys[from], keys[to - 1], depth);
+            }
+
+            IntList candidates = new IntList();
+            int next = from;
+            if (next < to && keys[next].length() == labelTo) {
+                candidates.add(rank[next]);
+                next++;
+            }
+
+            IntList childIds = new IntList();
+            while (next < to) {
+                char c = keys[next].charAt(labelTo);
+                int end = next + 1;
+                while (end < to && keys[end].charAt(labelTo) == c) {
+                    end++;
+                }
+                int child = node(next, end, labelTo, false);
+                childIds.add(child);
+                for (int i = 0; i < topCount.get(child); i++) {
+                    candidates.add(rank[top.get(topStart.get(child) + i)]);
+                }
+                next = end;
+            }
+
+            int[] ranks = candidates.toArray();
+            Arrays.sort(ranks);
+            int keep = Math.min(MAX_SUGGESTIONS, ranks.length);
+
+            int id = labelKey.size();
+            labelKey.add(from < to ? from : 0);
+            labelStart.add(depth);
+            labelEnd.add(labelTo);
+            childStart.add(children.size());
+            childCount.add(childIds.size());
+            for (int i = 0; i < childIds.size(); i++) {
+                children.add(childIds.get(i));
+            }
+            topStart.add(top.size());
+            topCount.add(keep);
+            for (int i = 0; i < keep; i++) {
+                top.add(byRank[ranks[i]]);
+            }
+            return id;
+        }
+
+        private static int commonPrefix(String a, String b, int from) {
+            int max = Math.min(a.length(), b.length());
+            int i = from;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i - from;
+        }
+    }
+}
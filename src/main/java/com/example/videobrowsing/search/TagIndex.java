@@ -0,0 +1,295 @@
+package com.example.videobrowsing.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory tag dictionary and postings for public videos.
+ * <p>
+ * Tag names map to the int ids of the {@code tags} table. Each video gets a dense int ordinal
+ * the first time it is seen (in id order during the initial load, so ordinals follow upload
+ * order), and each tag keeps a sorted int array of the ordinals carrying it. Looking up a tag
+ * is a map lookup; "videos with all of these tags" intersects the sorted arrays, smallest
+ * first, galloping through the larger ones; related videos count shared tags by walking the
+ * postings of the source video's tags.
+ * <p>
+ * Queries take the shared read lock; updates take the exclusive lock.
+ */
+public class TagIndex {
+
+    // Related-video counting looks at most this many of the newest videos per tag
+    static final int RELATED_SCAN_LIMIT = 5_000;
+
+    private static final int[] NONE = new int[0];
+
+    // Per-thread shared-tag counts by ordinal for related(); zeroed again after each call
+    private static final ThreadLocal<int[]> SHARED = ThreadLocal.withInitial(() -> new int[256]);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> idByName = new HashMap<>();
+    private final Map<Integer, String> nameById = new HashMap<>();
+    private final Map<Integer, Postings> postings = new HashMap<>();
+
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private long[] videoIds = new long[256];
+    private int[][] tagsByOrdinal = new int[256][];
+    private int ordinals;
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        private void add(int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at >= 0) {
+                return;
+            }
+            int insert = -at - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, insert, ordinals, insert + 1, size - insert);
+            ordinals[insert] = ordinal;
+            size++;
+        }
+
+        private void remove(int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at >= 0) {
+                System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    public record TagCount(String name, int videos) {
+    }
+
+    public void defineTag(int id, String name) {
+        lock.writeLock().lock();
+        try {
+            idByName.put(name, id);
+            nameById.put(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean knowsTag(int id) {
+        lock.readLock().lock();
+        try {
+            return nameById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the tags of a public video; an empty array removes it from every postings list.
+     */
+    public void setVideoTags(long videoId, int[] tagIds) {
+        int[] sorted = tagIds.clone();
+        Arrays.sort(sorted);
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinalById.get(videoId);
+            if (existing == null && sorted.length == 0) {
+                return;
+            }
+            int ordinal = existing != null ? existing : newOrdinal(videoId);
+            int[] previous = tagsByOrdinal[ordinal] != null ? tagsByOrdinal[ordinal] : NONE;
+            for (int tagId : previous) {
+                if (Arrays.binarySearch(sorted, tagId) < 0) {
+                    Postings list = postings.get(tagId);
+                    if (list != null) {
+                        list.remove(ordinal);
+                    }
+                }
+            }
+            for (int tagId : sorted) {
+                postings.computeIfAbsent(tagId, id -> new Postings()).add(ordinal);
+            }
+            tagsByOrdinal[ordinal] = sorted.length > 0 ? sorted : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeVideo(long videoId) {
+        setVideoTags(videoId, NONE);
+    }
+
+    public int videoCount() {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int i = 0; i < ordinals; i++) {
+                if (tagsByOrdinal[i] != null) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Public videos carrying every one of the tags, newest first. Unknown tags match nothing.
+     */
+    public SearchResult videosWithAll(List<String> names, int offset, int limit) {
+        if (names.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(names.size());
+            for (String name : names) {
+                Integer id = idByName.get(name);
+                Postings list = id != null ? postings.get(id) : null;
+                if (list == null || list.size == 0) {
+                    return SearchResult.EMPTY;
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            int[] matches = Arrays.copyOf(lists.get(0).ordinals, lists.get(0).size);
+            int count = matches.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = intersect(matches, count, lists.get(i));
+            }
+
+            int from = Math.min(Math.max(offset, 0), count);
+            int size = Math.min(limit, count - from);
+            long[] page = new long[size];
+            for (int i = 0; i < size; i++) {
+                page[i] = videoIds[matches[count - 1 - from - i]];
+            }
+            return new SearchResult(page, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Other public videos sharing tags with the video, most shared tags first and newer videos
+     * first among equals.
+     */
+    public long[] related(long videoId, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalById.get(videoId);
+            if (ordinal == null || tagsByOrdinal[ordinal] == null || limit <= 0) {
+                return new long[0];
+            }
+            int[] shared = SHARED.get();
+            if (shared.length < ordinals) {
+                shared = new int[Math.max(ordinals, shared.length * 2)];
+                SHARED.set(shared);
+            }
+            IntList touched = new IntList();
+            for (int tagId : tagsByOrdinal[ordinal]) {
+                Postings list = postings.get(tagId);
+                if (list == null) {
+                    continue;
+                }
+                for (int i = list.size - 1; i >= Math.max(0, list.size - RELATED_SCAN_LIMIT); i--) {
+                    int other = list.ordinals[i];
+                    if (other != ordinal && shared[other]++ == 0) {
+                        touched.add(other);
+                    }
+                }
+            }
+
+            // Keeps the best `limit` ordinals in order: more shared tags, then newer
+            int[] best = new int[Math.min(limit, touched.size())];
+            int kept = 0;
+            for (int i = 0; i < touched.size(); i++) {
+                int other = touched.get(i);
+                int at = kept;
+                while (at > 0 && ranksAbove(shared, other, best[at - 1])) {
+                    at--;
+                }
+                if (at < best.length) {
+                    System.arraycopy(best, at, best, at + 1, Math.min(kept, best.length - 1) - at);
+                    best[at] = other;
+                    kept = Math.min(kept + 1, best.length);
+                }
+            }
+            for (int i = 0; i < touched.size(); i++) {
+                shared[touched.get(i)] = 0;
+            }
+
+            long[] related = new long[kept];
+            for (int i = 0; i < kept; i++) {
+                related[i] = videoIds[best[i]];
+            }
+            return related;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tags on the most public videos.
+     */
+    public List<TagCount> popular(int limit) {
+        lock.readLock().lock();
+        try {
+            return postings.entrySet().stream()
+                    .filter(entry -> entry.getValue().size > 0 && nameById.containsKey(entry.getKey()))
+                    .sorted((a, b) -> Integer.compare(b.getValue().size, a.getValue().size))
+                    .limit(Math.max(0, limit))
+                    .map(entry -> new TagCount(nameById.get(entry.getKey()), entry.getValue().size))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean ranksAbove(int[] shared, int ordinal, int than) {
+        return shared[ordinal] != shared[than] ? shared[ordinal] > shared[than] : ordinal > than;
+    }
+
+    // Keeps the values of matches[0, count) that are also in the postings; returns the new count.
+    // Gallops through the postings since they are usually the larger side.
+    private static int intersect(int[] matches, int count, Postings list) {
+        int kept = 0;
+        int low = 0;
+        for (int i = 0; i < count && low < list.size; i++) {
+            int target = matches[i];
+            int step = 1;
+            int high = low;
+            while (high < list.size && list.ordinals[high] < target) {
+                low = high + 1;
+                high = low + step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(list.ordinals, low, Math.min(high + 1, list.size), target);
+            if (at >= 0) {
+                matches[kept++] = target;
+                low = at + 1;
+            } else {
+                low = -at - 1;
+            }
+        }
+        return kept;
+    }
+
+    private int newOrdinal(long videoId) {
+        if (ordinals == videoIds.length) {
+            videoIds = Arrays.copyOf(videoIds, ordinals * 2);
+            tagsByOrdinal = Arrays.copyOf(tagsByOrdinal, ordinals * 2);
+        }
+        int ordinal = ordinals++;
+        videoIds[ordinal] = videoId;
+        ordinalById.put(videoId, ordinal);
+        return ordinal;
+    }
+}
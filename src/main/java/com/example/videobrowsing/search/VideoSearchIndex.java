@@ -0,0 +1,508 @@
+package com.example.videobrowsing.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over video title, tags, category, uploader name and description,
+ * ranked with BM25.
+ * <p>
+ * Every field is tokenized with {@link SearchTokenizer} into one weighted bag of terms per
+ * document (a title hit counts {@link #TITLE_WEIGHT} times a description hit), and each term maps
+ * to a postings list of (document, weighted term frequency). A query only walks the postings of
+ * its own terms, so latency follows how common the terms are, not how large the library is.
+ * Privacy and category are checked per posting, inside the scan, before a document is scored.
+ * <p>
+ * When the exact terms match only a handful of documents, misspellings are tried as well:
+ * every indexed term is kept in a trigram index, which yields candidate corrections cheaply,
+ * and a {@link LevenshteinAutomaton} keeps those within one or two edits. The common case never
+ * pays for this.
+ * <p>
+ * Documents get an ordinal when added. Updating or removing a document tombstones its old
+ * ordinal and fixes the document frequencies at once. Postings are rewritten without the
+ * tombstones once they make up half the index. Queries take the shared read lock and reuse
+ * per-thread score buffers; writes take the exclusive lock.
+ */
+public class VideoSearchIndex {
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float TAG_WEIGHT = 2.0f;
+    static final float CATEGORY_WEIGHT = 1.5f;
+    static final float UPLOADER_WEIGHT = 1.5f;
+    static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Fuzzy matching kicks in when exact terms match fewer documents than this
+    static final int FUZZY_MIN_MATCHES = 5;
+    // Closest dictionary terms tried per query term
+    static final int FUZZY_MAX_EXPANSIONS = 8;
+    // Score multiplier per edit, so exact hits outrank corrections
+    static final float FUZZY_EDIT_PENALTY = 0.5f;
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+    private static final long NO_CATEGORY = 0L;
+
+    private static final ThreadLocal<float[]> SCORES = ThreadLocal.withInitial(() -> new float[INITIAL_CAPACITY]);
+    private static final ThreadLocal<int[]> TOUCHED = ThreadLocal.withInitial(() -> new int[INITIAL_CAPACITY]);
+    private static final ThreadLocal<int[]> TERM_COUNTS = ThreadLocal.withInitial(() -> new int[INITIAL_CAPACITY]);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // Every term ever indexed, and the ids of the terms containing each trigram of "^term$"
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, IntList> termsByTrigram = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet publicDocs = new BitSet();
+
+    private long[] videoIds = new long[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private float[] lengths = new float[INITIAL_CAPACITY];
+    private TermVector[] termVectors = new TermVector[INITIAL_CAPACITY];
+    private int ordinals;
+    private int liveCount;
+    private double totalLength;
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+        // Postings whose document is still live, i.e. the BM25 document frequency
+        private int liveDocs;
+
+        private void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+            liveDocs++;
+        }
+    }
+
+    private record TermVector(String[] terms, float[] frequencies) {
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void upsert(SearchRow row) {
+        if (row == null || row.id() == null) {
+            return;
+        }
+        TermVector vector = analyze(row);
+        lock.writeLock().lock();
+        try {
+            removeLocked(row.id());
+            addLocked(row, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long videoId) {
+        if (videoId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(videoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks documents containing any of the query terms. When they match fewer than
+     * {@link #FUZZY_MIN_MATCHES} documents, dictionary terms within a small edit distance of
+     * each query term are scored as well, at a discount per edit.
+     *
+     * @param categoryId only documents in this category, or {@code null} for all
+     * @param publicOnly skip documents that are not public
+     * @param limit      maximum ids returned; the total still counts every match
+     */
+    public SearchResult search(String query, Long categoryId, boolean publicOnly, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return SearchResult.EMPTY;
+            }
+            float[] scores = scratchScores(ordinals);
+            int[] touched = scratchTouched(ordinals);
+            Filter filter = new Filter(categoryId, publicOnly, (float) (totalLength / liveCount));
+
+            int matched = 0;
+            for (String term : terms) {
+                matched = accumulate(postings.get(term), 1f, filter, scores, touched, matched);
+            }
+            if (matched < FUZZY_MIN_MATCHES) {
+                for (String term : terms) {
+                    for (FuzzyTerm variant : expand(term, terms)) {
+                        float boost = (float) Math.pow(FUZZY_EDIT_PENALTY, variant.distance());
+                        matched = accumulate(postings.get(variant.term()), boost, filter, scores, touched, matched);
+                    }
+                }
+            }
+
+            int from = Math.min(Math.max(offset, 0), matched);
+            int count = Math.min(limit, matched - from);
+            long[] page = new long[count];
+            if (count > 0) {
+                selectTop(touched, matched, scores, from + count);
+                for (int i = 0; i < count; i++) {
+                    page[i] = videoIds[touched[from + i]];
+                }
+            }
+            for (int i = 0; i < matched; i++) {
+                scores[touched[i]] = 0f;
+            }
+            return new SearchResult(page, matched);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Filter(Long categoryId, boolean publicOnly, float averageLength) {
+    }
+
+    private record FuzzyTerm(String term, int distance, int documents) {
+    }
+
+    // Adds one term's BM25 contribution to every document that passes the filter; returns the
+    // new number of touched documents
+    private int accumulate(Postings list, float boost, Filter filter, float[] scores, int[] touched, int matched) {
+        if (list == null || list.liveDocs == 0) {
+            return matched;
+        }
+        float idf = boost * (float) Math.log(1.0 + (liveCount - list.liveDocs + 0.5) / (list.liveDocs + 0.5));
+        Long categoryId = filter.categoryId();
+        for (int i = 0; i < list.size; i++) {
+            int doc = list.docs[i];
+            if (!live.get(doc)
+                    || (filter.publicOnly() && !publicDocs.get(doc))
+                    || (categoryId != null && categoryIds[doc] != categoryId)) {
+                continue;
+            }
+            float tf = list.frequencies[i];
+            float norm = K1 * (1 - B + B * lengths[doc] / filter.averageLength());
+            if (scores[doc] == 0f) {
+                touched[matched++] = doc;
+            }
+            scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+        }
+        return matched;
+    }
+
+    /**
+     * Dictionary terms within the edit distance allowed for the term's length, closest and then
+     * most common first. Candidates come from the trigram index: a term within k edits of
+     * "^term$" shares at least (length - 3k) of its trigrams, so only terms reaching that count
+     * are checked with the automaton.
+     */
+    private List<FuzzyTerm> expand(String term, Set<String> exclude) {
+        int maxDistance = maxEdits(term);
+        if (maxDistance == 0) {
+            return List.of();
+        }
+        List<String> grams = trigrams(term);
+        int required = Math.max(1, grams.size() - 3 * maxDistance);
+
+        int[] counts = scratchTermCounts(dictionary.size());
+        IntList candidates = new IntList();
+        for (String gram : grams) {
+            IntList ids = termsByTrigram.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                int id = ids.get(i);
+                if (counts[id]++ == 0) {
+                    candidates.add(id);
+                }
+            }
+        }
+
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton(term, maxDistance);
+        List<FuzzyTerm> matches = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            int id = candidates.get(i);
+            int shared = counts[id];
+            counts[id] = 0;
+            String candidate = dictionary.get(id);
+            if (shared < required || exclude.contains(candidate)) {
+                continue;
+            }
+            Postings list = postings.get(candidate);
+            if (list == null || list.liveDocs == 0) {
+                continue;
+            }
+            int distance = automaton.distance(candidate);
+            if (distance > 0) {
+                matches.add(new FuzzyTerm(candidate, distance, list.liveDocs));
+            }
+        }
+        matches.sort(Comparator.comparingInt(FuzzyTerm::distance)
+                .thenComparing(Comparator.comparingInt(FuzzyTerm::documents).reversed()));
+        return matches.size() > FUZZY_MAX_EXPANSIONS ? matches.subList(0, FUZZY_MAX_EXPANSIONS) : matches;
+    }
+
+    // Short terms are too easy to confuse with other words to correct
+    static int maxEdits(String term) {
+        if (term.length() < 4) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = "^" + term + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return new ArrayList<>(grams);
+    }
+
+    private void registerTerm(String term) {
+        int id = dictionary.size();
+        dictionary.add(term);
+        for (String gram : trigrams(term)) {
+            termsByTrigram.computeIfAbsent(gram, key -> new IntList()).add(id);
+        }
+    }
+
+    // Moves the k best documents to the front of docs in rank order: a bounded min-heap over the
+    // first k slots, then a heap sort of those slots. Ties go to the newer (higher) video id.
+    private void selectTop(int[] docs, int n, float[] scores, int k) {
+        int heapSize = 0;
+        for (int i = 0; i < n; i++) {
+            int doc = docs[i];
+            if (heapSize < k) {
+                docs[i] = docs[heapSize];
+                docs[heapSize] = doc;
+                siftUp(docs, heapSize++, scores);
+            } else if (better(doc, docs[0], scores)) {
+                docs[i] = docs[0];
+                docs[0] = doc;
+                siftDown(docs, 0, heapSize, scores);
+            }
+        }
+        for (int end = heapSize - 1; end > 0; end--) {
+            int worst = docs[0];
+            docs[0] = docs[end];
+            docs[end] = worst;
+            siftDown(docs, 0, end, scores);
+        }
+    }
+
+    private boolean better(int a, int b, float[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return videoIds[a] > videoIds[b];
+    }
+
+    private void siftUp(int[] heap, int index, float[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], heap[index], scores)) {
+                break;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int index, int size, float[] scores) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(heap[left], heap[right], scores)) {
+                worst = right;
+            }
+            if (!better(heap[index], heap[worst], scores)) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] values, int a, int b) {
+        int tmp = values[a];
+        values[a] = values[b];
+        values[b] = tmp;
+    }
+
+    private void addLocked(SearchRow row, TermVector vector) {
+        ensureCapacity(ordinals + 1);
+        int doc = ordinals++;
+        videoIds[doc] = row.id();
+        categoryIds[doc] = row.categoryId() != null ? row.categoryId() : NO_CATEGORY;
+        termVectors[doc] = vector;
+        float length = 0f;
+        for (int i = 0; i < vector.terms.length; i++) {
+            Postings list = postings.get(vector.terms[i]);
+            if (list == null) {
+                list = new Postings();
+                postings.put(vector.terms[i], list);
+                registerTerm(vector.terms[i]);
+            }
+            list.add(doc, vector.frequencies[i]);
+            length += vector.frequencies[i];
+        }
+        lengths[doc] = length;
+        live.set(doc);
+        publicDocs.set(doc, row.isPublic());
+        ordinalById.put(row.id(), doc);
+        liveCount++;
+        totalLength += length;
+    }
+
+    private void removeLocked(Long videoId) {
+        Integer doc = ordinalById.remove(videoId);
+        if (doc == null) {
+            return;
+        }
+        TermVector vector = termVectors[doc];
+        for (String term : vector.terms) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.liveDocs--;
+            }
+        }
+        live.clear(doc);
+        publicDocs.clear(doc);
+        termVectors[doc] = null;
+        liveCount--;
+        totalLength -= lengths[doc];
+
+        int tombstones = ordinals - liveCount;
+        if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > liveCount) {
+            compactLocked();
+        }
+    }
+
+    // Renumbers live documents densely and rebuilds the postings from their term vectors. Terms
+    // keep their (possibly empty) postings so the fuzzy dictionary stays in step.
+    private void compactLocked() {
+        for (Postings list : postings.values()) {
+            list.size = 0;
+            list.liveDocs = 0;
+        }
+        int next = 0;
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            TermVector vector = termVectors[doc];
+            videoIds[next] = videoIds[doc];
+            categoryIds[next] = categoryIds[doc];
+            lengths[next] = lengths[doc];
+            termVectors[next] = vector;
+            publicDocs.set(next, publicDocs.get(doc));
+            ordinalById.put(videoIds[next], next);
+            for (int i = 0; i < vector.terms.length; i++) {
+                postings.get(vector.terms[i]).add(next, vector.frequencies[i]);
+            }
+            next++;
+        }
+        Arrays.fill(termVectors, next, ordinals, null);
+        live.clear();
+        live.set(0, next);
+        publicDocs.clear(next, Math.max(next, ordinals));
+        ordinals = next;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= videoIds.length) {
+            return;
+        }
+        int capacity = Math.max(needed, videoIds.length * 2);
+        videoIds = Arrays.copyOf(videoIds, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        termVectors = Arrays.copyOf(termVectors, capacity);
+    }
+
+    private static float[] scratchScores(int size) {
+        float[] scores = SCORES.get();
+        if (scores.length < size) {
+            scores = new float[Math.max(size, scores.length * 2)];
+            SCORES.set(scores);
+        }
+        return scores;
+    }
+
+    private static int[] scratchTouched(int size) {
+        int[] touched = TOUCHED.get();
+        if (touched.length < size) {
+            touched = new int[Math.max(size, touched.length * 2)];
+            TOUCHED.set(touched);
+        }
+        return touched;
+    }
+
+    private static int[] scratchTermCounts(int size) {
+        int[] counts = TERM_COUNTS.get();
+        if (counts.length < size) {
+            counts = new int[Math.max(size, counts.length * 2)];
+            TERM_COUNTS.set(counts);
+        }
+        return counts;
+    }
+
+    private static TermVector analyze(SearchRow row) {
+        Map<String, Float> weighted = new HashMap<>();
+        addField(weighted, row.title(), TITLE_WEIGHT);
+        addField(weighted, row.tags(), TAG_WEIGHT);
+        addField(weighted, row.categoryName(), CATEGORY_WEIGHT);
+        addField(weighted, row.uploaderFirstname(), UPLOADER_WEIGHT);
+        addField(weighted, row.uploaderLastname(), UPLOADER_WEIGHT);
+        addField(weighted, row.uploaderUsername(), UPLOADER_WEIGHT);
+        addField(weighted, row.description(), DESCRIPTION_WEIGHT);
+
+        List<String> terms = new ArrayList<>(weighted.keySet());
+        String[] termArray = new String[terms.size()];
+        float[] frequencies = new float[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            // Interned so identical terms across documents share one string
+            termArray[i] = terms.get(i).intern();
+            frequencies[i] = weighted.get(terms.get(i));
+        }
+        return new TermVector(termArray, frequencies);
+    }
+
+    private static void addField(Map<String, Float> weighted, String text, float weight) {
+        for (String term : SearchTokenizer.tokenize(text)) {
+            weighted.merge(term, weight, Float::sum);
+        }
+    }
+}
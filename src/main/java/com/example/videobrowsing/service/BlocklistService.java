@@ -0,0 +1,129 @@
+package com.example.videobrowsing.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.videobrowsing.blocklist.BlocklistAutomaton;
+import com.example.videobrowsing.entity.BlockedTerm;
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.repository.BlockedTermRepository;
+
+/**
+ * Rejects comments and video titles and descriptions that contain a blocked term.
+ * <p>
+ * The admin-managed terms are compiled into a {@link BlocklistAutomaton}, so a check is one
+ * pass over the text whatever the size of the list, and it never touches the database. The
+ * automaton is rebuilt whenever the list changes here and swapped in with a single volatile
+ * write; a scheduled reload picks up changes made on other instances.
+ */
+@Service
+public class BlocklistService {
+
+    private static final Logger log = LoggerFactory.getLogger(BlocklistService.class);
+
+    @Autowired
+    private BlockedTermRepository blockedTermRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile BlocklistAutomaton automaton = BlocklistAutomaton.EMPTY;
+
+    // The terms the current automaton was built from; guarded by this
+    private Set<String> loadedTerms = Set.of();
+
+    /**
+     * @throws IllegalArgumentException naming the field and the term if the text contains one
+     */
+    public void check(String field, String text) {
+        automaton.findFirst(text).ifPresent(term -> {
+            throw new IllegalArgumentException(field + " contains a blocked term: \"" + term + "\"");
+        });
+    }
+
+    public List<BlockedTerm> listTerms() {
+        return blockedTermRepository.findAllByOrderByTermAsc();
+    }
+
+    /**
+     * Adds the terms, normalized, and swaps in the rebuilt automaton. Terms already listed are
+     * skipped.
+     *
+     * @return how many terms were new
+     * @throws IllegalArgumentException if a term is blank or too long
+     */
+    public int addTerms(Collection<String> terms, User admin) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String term : terms) {
+            String value = BlocklistAutomaton.normalize(term);
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("Blocked terms cannot be blank");
+            }
+            if (value.length() > BlocklistAutomaton.MAX_TERM_LENGTH) {
+                throw new IllegalArgumentException("Blocked terms are limited to "
+                        + BlocklistAutomaton.MAX_TERM_LENGTH + " characters");
+            }
+            normalized.add(value);
+        }
+
+        Long adminId = admin != null ? admin.getId() : null;
+        LocalDateTime now = LocalDateTime.now();
+        Integer added = new TransactionTemplate(transactionManager).execute(status -> {
+            int inserted = 0;
+            for (String term : normalized) {
+                inserted += blockedTermRepository.insertIfAbsent(term, adminId, now);
+            }
+            return inserted;
+        });
+        reload();
+        return added != null ? added : 0;
+    }
+
+    /**
+     * @throws IllegalArgumentException if no such term is listed
+     */
+    public void removeTerm(Long termId) {
+        if (!blockedTermRepository.existsById(termId)) {
+            throw new IllegalArgumentException("Blocked term not found");
+        }
+        blockedTermRepository.deleteById(termId);
+        reload();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${blocklist.refresh-interval-ms:60000}",
+               initialDelayString = "${blocklist.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        try {
+            Set<String> terms = new HashSet<>(blockedTermRepository.findAllTerms());
+            if (terms.equals(loadedTerms)) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            automaton = BlocklistAutomaton.build(new ArrayList<>(terms));
+            loadedTerms = terms;
+            log.info("Blocklist compiled from {} terms in {} ms", terms.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException ex) {
+            log.warn("Could not reload the blocklist; keeping the previous {} terms", automaton.size(), ex);
+        }
+    }
+}
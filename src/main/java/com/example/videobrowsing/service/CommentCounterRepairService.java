@@ -0,0 +1,99 @@
+package com.example.videobrowsing.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.videobrowsing.util.WilsonScore;
+
+/**
+ * Recomputes the stored comment counters ({@code like_count}, {@code reply_count}) and the
+ * {@code rank_score} derived from them, fixing any drift left by failed or racing writes.
+ * <p>
+ * Comments are walked in id order, one batch per statement: the stored values and the true
+ * counts come from the same read, and a row is only rewritten if its counters still hold the
+ * values that were read. A like or reply that lands in between makes the write miss, and the
+ * next run picks the row up again, so the job never undoes a live increment.
+ */
+@Service
+public class CommentCounterRepairService {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCounterRepairService.class);
+
+    private static final double RANK_TOLERANCE = 1e-9;
+
+    private static final String BATCH_SQL =
+            "SELECT c.id, c.like_count, c.reply_count, c.rank_score, " +
+            "(SELECT COUNT(*) FROM comment_likes cl WHERE cl.comment_id = c.id), " +
+            "(SELECT COUNT(*) FROM comments r WHERE r.parent_comment_id = c.id AND r.is_disabled = false), " +
+            "(SELECT COUNT(*) FROM reports p WHERE p.comment_id = c.id) " +
+            "FROM comments c WHERE c.id > ? ORDER BY c.id LIMIT ?";
+
+    private static final String REPAIR_SQL =
+            "UPDATE comments SET like_count = ?, reply_count = ?, rank_score = ? " +
+            "WHERE id = ? AND like_count = ? AND reply_count = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${comments.counter-repair.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Runs one pass over every comment; returns how many rows were corrected.
+     */
+    @Scheduled(fixedDelayString = "${comments.counter-repair.interval-ms:86400000}",
+               initialDelayString = "${comments.counter-repair.initial-delay-ms:600000}")
+    public synchronized int repair() {
+        long started = System.currentTimeMillis();
+        int scanned = 0;
+        int repaired = 0;
+        try {
+            long afterId = 0L;
+            while (true) {
+                // [rows read, last id read]
+                long[] batch = { 0L, afterId };
+                List<Object[]> fixes = new ArrayList<>();
+                jdbcTemplate.query(BATCH_SQL, rs -> {
+                    long id = rs.getLong(1);
+                    long storedLikes = rs.getLong(2);
+                    long storedReplies = rs.getLong(3);
+                    double storedRank = rs.getDouble(4);
+                    long likes = rs.getLong(5);
+                    long replies = rs.getLong(6);
+                    double rank = WilsonScore.lowerBound(likes, rs.getLong(7));
+                    batch[0]++;
+                    batch[1] = id;
+                    if (likes != storedLikes || replies != storedReplies || Math.abs(rank - storedRank) > RANK_TOLERANCE) {
+                        fixes.add(new Object[] { likes, replies, rank, id, storedLikes, storedReplies });
+                    }
+                }, afterId, batchSize);
+                if (batch[0] == 0) {
+                    break;
+                }
+                if (!fixes.isEmpty()) {
+                    for (int updated : jdbcTemplate.batchUpdate(REPAIR_SQL, fixes)) {
+                        repaired += Math.max(updated, 0);
+                    }
+                }
+                scanned += (int) batch[0];
+                afterId = batch[1];
+                if (batch[0] < batchSize) {
+                    break;
+                }
+            }
+            log.info("Comment counters checked for {} comments in {} ms; {} corrected",
+                    scanned, System.currentTimeMillis() - started, repaired);
+        } catch (RuntimeException ex) {
+            log.warn("Comment counter repair stopped after {} comments", scanned, ex);
+        }
+        return repaired;
+    }
+}
@@ -1,29 +1,38 @@
 package com.example.videobrowsing.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.videobrowsing.dto.CommentDTO;
+import com.example.videobrowsing.dto.CursorPage;
 import com.example.videobrowsing.entity.Comment;
-import com.example.videobrowsing.entity.CommentLike;
 import com.example.videobrowsing.entity.User;
 import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.event.CommentActivityEvent;
 import com.example.videobrowsing.repository.CommentLikeRepository;
 import com.example.videobrowsing.repository.CommentRepository;
 import com.example.videobrowsing.repository.UserRepository;
 import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.util.PageCursor;
+import com.example.videobrowsing.util.WilsonScore;
 
 @Service
 public class CommentService {
@@ -38,8 +47,30 @@ public class CommentService {
     @Autowired
     private CommentLikeRepository commentLikeRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BlocklistService blocklistService;
+
+    // Keyset bounds for the first page in each direction (MySQL DATETIME spans 1000-01-01 to 9999-12-31)
+    private static final LocalDateTime FIRST_PAGE_NEWEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final LocalDateTime FIRST_PAGE_OLDEST = LocalDateTime.of(1000, 1, 1, 0, 0);
+
+    @Transactional
     public Comment addComment(Comment comment) {
-        return commentRepository.save(comment);
+        blocklistService.check("Comment", comment.getContent());
+        // Counters start at zero whatever the request said; they only move by increments
+        comment.setLikeCount(0L);
+        comment.setReplyCount(0L);
+        comment.setRankScore(0.0);
+        Comment saved = commentRepository.save(comment);
+        if (saved.getParentComment() != null) {
+            commentRepository.adjustReplyCount(saved.getParentComment().getId(), 1L);
+        }
+        eventPublisher.publishEvent(CommentActivityEvent.posted(
+                toDto(saved, false, null, Collections.emptySet(), Collections.emptyMap())));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -51,21 +82,27 @@ public class CommentService {
 
     @Transactional
     public Comment updateComment(Long commentId, String newContent) {
+        blocklistService.check("Comment", newContent);
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new IllegalArgumentException("Comment not found"));
         
         comment.setContent(newContent.trim());
         comment.setUpdatedAt(LocalDateTime.now());
         
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        eventPublisher.publishEvent(CommentActivityEvent.edited(
+                toDto(saved, false, null, Collections.emptySet(), Collections.emptyMap())));
+        return saved;
     }
 
+    @Transactional
     public void deleteComment(Long commentId) {
-        commentRepository.deleteById(commentId);
+        commentRepository.findById(commentId).ifPresent(this::deleteWithReplies);
     }
 
     @Transactional
     public CommentDTO createComment(Long videoId, Long userId, String content, Long parentCommentId) {
+        blocklistService.check("Comment", content);
         Video video = videoRepository.findById(videoId)
                 .orElseThrow(() -> new IllegalArgumentException("Video not found"));
         User user = userRepository.findById(userId)
@@ -88,7 +125,20 @@ public class CommentService {
         }
 
         Comment saved = commentRepository.save(comment);
-        return toDto(saved, false, user, Collections.singletonMap(saved.getId(), 0L), Collections.emptySet(), Collections.emptyMap());
+        if (saved.getParentComment() != null) {
+            commentRepository.adjustReplyCount(saved.getParentComment().getId(), 1L);
+        }
+        CommentDTO dto = toDto(saved, false, user, Collections.emptySet(), Collections.emptyMap());
+        eventPublisher.publishEvent(CommentActivityEvent.posted(dto));
+        return dto;
+    }
+
+    // Comments flagged by spam screening and still visible, newest first
+    @Transactional(readOnly = true)
+    public List<CommentDTO> getSpamQueue() {
+        return commentRepository.findSpamComments().stream()
+                .map(comment -> toDto(comment, false, null, Collections.emptySet(), Collections.emptyMap()))
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
@@ -96,31 +146,169 @@ public class CommentService {
         Video video = videoRepository.findById(videoId)
                 .orElseThrow(() -> new IllegalArgumentException("Video not found"));
 
-        List<Comment> roots = commentRepository.findVideoCommentsOrderedByPinnedAndDate(video).stream()
-                .filter(this::isActiveComment)
-                .collect(Collectors.toList());
-
-        if (roots.isEmpty()) {
+        // One query for the whole thread; replies are linked up in memory
+        List<Comment> thread = commentRepository.findActiveThreadByVideoId(video.getId());
+        if (thread.isEmpty()) {
             return Collections.emptyList();
         }
 
+        List<Comment> roots = new ArrayList<>();
         Map<Long, List<Comment>> replyMap = new HashMap<>();
-        Set<Long> commentIds = new HashSet<>();
-        roots.forEach(root -> populateReplyTree(root, replyMap, commentIds));
+        for (Comment comment : thread) {
+            Comment parent = comment.getParentComment();
+            if (parent == null) {
+                roots.add(comment);
+            } else {
+                replyMap.computeIfAbsent(parent.getId(), id -> new ArrayList<>()).add(comment);
+            }
+        }
+        roots.sort(Comparator.comparing((Comment c) -> Boolean.TRUE.equals(c.getPinned())).reversed()
+                .thenComparing(Comment::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
 
-        Map<Long, Long> likeCounts = commentIds.isEmpty()
-                ? Collections.emptyMap()
-                : toLikeCountMap(commentLikeRepository.countLikesByCommentIds(commentIds));
+        // Replies under a disabled comment stay hidden with it, so only count what the roots reach
+        Set<Long> commentIds = new HashSet<>();
+        Deque<Comment> pending = new ArrayDeque<>(roots);
+        while (!pending.isEmpty()) {
+            Comment comment = pending.pop();
+            commentIds.add(comment.getId());
+            pending.addAll(replyMap.getOrDefault(comment.getId(), Collections.emptyList()));
+        }
 
         Set<Long> likedByCurrentUser = (currentUser != null && !commentIds.isEmpty())
                 ? new HashSet<>(commentLikeRepository.findCommentIdsLikedByUser(commentIds, currentUser))
                 : Collections.emptySet();
 
         return roots.stream()
-                .map(comment -> toDto(comment, true, currentUser, likeCounts, likedByCurrentUser, replyMap))
+                .map(comment -> toDto(comment, true, currentUser, likedByCurrentUser, replyMap))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of a video's root comments without their replies, each with its reply count.
+     * Pinned comments lead the first page whatever the sort.
+     *
+     * @param sort {@code newest}, {@code oldest} or {@code top} (Wilson-ranked likes against reports)
+     * @throws IllegalArgumentException for an unknown video or sort, or a cursor from another listing
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentDTO> getRootCommentPage(Long videoId, String sort, String cursor, int limit, User currentUser) {
+        if (!videoRepository.existsById(videoId)) {
+            throw new IllegalArgumentException("Video not found");
+        }
+        String order = sort == null || sort.isBlank() ? "newest" : sort.trim().toLowerCase();
+        String scope = "comments-" + order + "-" + videoId;
+        PageCursor after = decodeCursor(cursor, scope);
+        PageRequest page = PageRequest.of(0, limit + 1);
+
+        List<Comment> rows;
+        ToLongFunction<Comment> sortKey;
+        switch (order) {
+            case "newest" -> {
+                rows = commentRepository.findNewestRootPage(videoId,
+                        after != null ? PageCursor.toDateTime(after.key()) : FIRST_PAGE_NEWEST,
+                        after != null ? after.id() : Long.MAX_VALUE, page);
+                sortKey = comment -> PageCursor.toKey(comment.getCreatedAt());
+            }
+            case "oldest" -> {
+                rows = commentRepository.findOldestRootPage(videoId,
+                        after != null ? PageCursor.toDateTime(after.key()) : FIRST_PAGE_OLDEST,
+                        after != null ? after.id() : 0L, page);
+                sortKey = comment -> PageCursor.toKey(comment.getCreatedAt());
+            }
+            case "top" -> {
+                // Scores are non-negative, so their bit patterns sort like the values
+                rows = commentRepository.findTopRootPage(videoId,
+                        after != null ? Double.longBitsToDouble(after.key()) : Double.MAX_VALUE,
+                        after != null ? after.id() : Long.MAX_VALUE, page);
+                sortKey = comment -> Double.doubleToLongBits(comment.getRankScore());
+            }
+            default -> throw new IllegalArgumentException("Unsupported comment sort: " + sort);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Comment last = rows.get(rows.size() - 1);
+            nextCursor = new PageCursor(scope, sortKey.applyAsLong(last), last.getId()).encode();
+        }
+        List<Comment> comments = rows;
+        if (after == null) {
+            comments = new ArrayList<>(commentRepository.findPinnedRoots(videoId));
+            comments.addAll(rows);
+        }
+        return new CursorPage<>(toPageDtos(comments, currentUser), nextCursor);
+    }
+
+    /**
+     * One page of a comment's direct replies, oldest first, each with its own reply count.
+     *
+     * @throws IllegalArgumentException if the comment is not on the video, or for a cursor from another listing
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentDTO> getReplyPage(Long videoId, Long commentId, String cursor, int limit, User currentUser) {
+        Comment parent = commentRepository.findById(commentId)
+                .orElseThrow(() -> new IllegalArgumentException("Comment not found"));
+        if (parent.getVideo() == null || !parent.getVideo().getId().equals(videoId)) {
+            throw new IllegalArgumentException("Comment does not belong to specified video");
+        }
+        String scope = "replies-" + commentId;
+        PageCursor after = decodeCursor(cursor, scope);
+        List<Comment> rows = commentRepository.findReplyPage(commentId,
+                after != null ? PageCursor.toDateTime(after.key()) : FIRST_PAGE_OLDEST,
+                after != null ? after.id() : 0L, PageRequest.of(0, limit + 1));
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Comment last = rows.get(rows.size() - 1);
+            nextCursor = new PageCursor(scope, PageCursor.toKey(last.getCreatedAt()), last.getId()).encode();
+        }
+        return new CursorPage<>(toPageDtos(rows, currentUser), nextCursor);
+    }
+
+    /**
+     * Recomputes the comment's "top" rank from its stored like and report counts.
+     */
+    @Transactional
+    public void refreshRankScore(Comment comment) {
+        refreshRankScore(comment.getId());
+    }
+
+    // Returns the stored like count the rank was computed from
+    private long refreshRankScore(Long commentId) {
+        List<Object[]> counters = commentRepository.findRankCounters(commentId);
+        if (counters.isEmpty()) {
+            return 0L;
+        }
+        long likeCount = ((Number) counters.get(0)[0]).longValue();
+        long reportCount = ((Number) counters.get(0)[1]).longValue();
+        commentRepository.updateRankScore(commentId, WilsonScore.lowerBound(likeCount, reportCount));
+        return likeCount;
+    }
+
+    // Page entries carry their stored counts but not their replies: two queries per page at most
+    private List<CommentDTO> toPageDtos(List<Comment> comments, User currentUser) {
+        if (comments.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Long> ids = comments.stream().map(Comment::getId).collect(Collectors.toSet());
+        Set<Long> likedByCurrentUser = currentUser != null
+                ? new HashSet<>(commentLikeRepository.findCommentIdsLikedByUser(ids, currentUser))
+                : Collections.emptySet();
+
+        return comments.stream()
+                .map(comment -> toDto(comment, false, currentUser, likedByCurrentUser, Collections.emptyMap()))
+                .collect(Collectors.toList());
+    }
+
+    private PageCursor decodeCursor(String cursor, String scope) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        return PageCursor.decode(cursor.trim(), scope);
+    }
+
+    @Transactional
     public void deleteComment(Long videoId, Long commentId, User requester) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new IllegalArgumentException("Comment not found"));
@@ -136,14 +324,23 @@ public class CommentService {
             throw new IllegalStateException("Not authorized to delete this comment");
         }
 
-        commentRepository.delete(comment);
+        deleteWithReplies(comment);
     }
 
-    private boolean isActiveComment(Comment comment) {
-        return !Boolean.TRUE.equals(comment.getIsDisabled());
+    // Replies go with the comment (cascade); only the parent's reply count needs adjusting
+    private void deleteWithReplies(Comment comment) {
+        Comment parent = comment.getParentComment();
+        commentRepository.delete(comment);
+        if (comment.getVideo() != null) {
+            eventPublisher.publishEvent(CommentActivityEvent.deleted(comment.getVideo().getId(), comment.getId()));
+        }
+        if (parent != null && !Boolean.TRUE.equals(comment.getIsDisabled())) {
+            commentRepository.adjustReplyCount(parent.getId(), -1L);
+        }
     }
 
-    @Transactional
+    // READ COMMITTED keeps the delete/insert misses from taking gap locks, as in VideoService.toggleRating
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Map<String, Object> toggleCommentLike(Long videoId, Long commentId, User user) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new IllegalArgumentException("Comment not found"));
@@ -152,21 +349,26 @@ public class CommentService {
             throw new IllegalArgumentException("Comment does not belong to specified video");
         }
 
+        // Delete-else-insert against the unique (comment_id, user_id) row; the affected row count
+        // gives the exact delta for one atomic counter update
         boolean liked;
-        CommentLike existing = commentLikeRepository.findByCommentAndUser(comment, user).orElse(null);
-        if (existing != null) {
-            commentLikeRepository.delete(existing);
+        long delta;
+        if (commentLikeRepository.deleteLike(commentId, user.getId()) > 0) {
             liked = false;
+            delta = -1L;
         } else {
-            CommentLike like = new CommentLike();
-            like.setComment(comment);
-            like.setUser(user);
-            like.setCreatedAt(LocalDateTime.now());
-            commentLikeRepository.save(like);
-            liked = true;
+            liked = commentLikeRepository.insertLikeIfAbsent(commentId, user.getId(), LocalDateTime.now()) > 0;
+            delta = liked ? 1L : 0L;
+        }
+        if (delta != 0) {
+            commentRepository.adjustLikeCount(commentId, delta);
         }
 
-        long likeCount = commentLikeRepository.countByComment(comment);
+        // Both counters are read off the row; no aggregate over comment_likes or reports
+        long likeCount = refreshRankScore(commentId);
+        if (delta != 0) {
+            eventPublisher.publishEvent(CommentActivityEvent.liked(videoId, commentId, likeCount));
+        }
         Map<String, Object> payload = new HashMap<>();
         payload.put("commentId", commentId);
         payload.put("liked", liked);
@@ -175,7 +377,6 @@ public class CommentService {
     }
 
     private CommentDTO toDto(Comment comment, boolean includeReplies, User currentUser,
-                              Map<Long, Long> likeCounts,
                               Set<Long> likedCommentIds,
                               Map<Long, List<Comment>> replyMap) {
         CommentDTO dto = new CommentDTO();
@@ -192,13 +393,14 @@ public class CommentService {
         dto.setIsDisabled(comment.getIsDisabled());
         dto.setParentCommentId(comment.getParentComment() != null ? comment.getParentComment().getId() : null);
         dto.setCreatedAt(comment.getCreatedAt() != null ? comment.getCreatedAt().toString() : null);
-        dto.setLikeCount(likeCounts.getOrDefault(comment.getId(), 0L));
+        dto.setLikeCount(comment.getLikeCount());
+        dto.setReplyCount(comment.getReplyCount());
         dto.setLikedByCurrentUser(currentUser != null && likedCommentIds.contains(comment.getId()));
 
         if (includeReplies) {
             List<Comment> replies = replyMap.getOrDefault(comment.getId(), Collections.emptyList());
             List<CommentDTO> replyDtos = replies.stream()
-                    .map(reply -> toDto(reply, true, currentUser, likeCounts, likedCommentIds, replyMap))
+                    .map(reply -> toDto(reply, true, currentUser, likedCommentIds, replyMap))
                     .collect(Collectors.toList());
             dto.setReplies(replyDtos);
         } else {
@@ -206,37 +408,4 @@ public class CommentService {
         }
         return dto;
     }
-
-    private void populateReplyTree(Comment comment,
-                                    Map<Long, List<Comment>> replyMap,
-                                    Set<Long> commentIds) {
-        if (comment == null || !isActiveComment(comment)) {
-            return;
-        }
-
-        commentIds.add(comment.getId());
-        List<Comment> replies = commentRepository.findByParentComment(comment).stream()
-                .filter(this::isActiveComment)
-                .sorted(Comparator.comparing(Comment::getCreatedAt))
-                .collect(Collectors.toCollection(ArrayList::new));
-        replyMap.put(comment.getId(), replies);
-        replies.forEach(reply -> populateReplyTree(reply, replyMap, commentIds));
-    }
-
-    private Map<Long, Long> toLikeCountMap(List<Object[]> aggregates) {
-        if (aggregates == null || aggregates.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        Map<Long, Long> likeCounts = new HashMap<>();
-        for (Object[] row : aggregates) {
-            if (row == null || row.length < 2) {
-                continue;
-            }
-            Long commentId = (Long) row[0];
-            Long count = row[1] instanceof Long ? (Long) row[1] : ((Number) row[1]).longValue();
-            likeCounts.put(commentId, count);
-        }
-        return likeCounts;
-    }
 }
@@ -0,0 +1,329 @@
+package com.example.videobrowsing.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.videobrowsing.dto.CommentDTO;
+import com.example.videobrowsing.dto.LiveUpdateDTO;
+import com.example.videobrowsing.event.CommentActivityEvent;
+import com.example.videobrowsing.event.VideoEngagementEvent;
+import com.example.videobrowsing.repository.VideoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes new comments, comment likes and video counters to the viewers of a video over
+ * Server-Sent Events.
+ * <p>
+ * Each watched video has a channel: its subscriber set and one pending frame. Committed
+ * engagement and comment events only merge into the pending frame, so a burst of activity
+ * costs nothing per viewer. Every frame interval, each dirty channel is drained, counter totals
+ * for all of them are read in one query, and the frame is serialized once and written to every
+ * subscriber. Writes run on virtual threads, and idle connections hold no thread at all (the
+ * emitters are async requests), so many thousands of viewers need no platform thread each. A
+ * viewer still busy with the previous frame when the next is due is disconnected; the browser's
+ * EventSource reconnects and reloads. A periodic heartbeat keeps proxies from closing quiet
+ * streams and flushes out dead connections. Keepalives never disconnect anyone: they skip
+ * viewers with a write in flight, and a frame that comes due while a keepalive is still being
+ * written waits behind it instead of counting as an overrun.
+ * <p>
+ * Metric: {@code videos.live.connections}.
+ */
+@Service
+public class LiveUpdateService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateService.class);
+
+    static final String FRAME_EVENT = "update";
+    private static final int MAX_COMMENTS_PER_FRAME = 50;
+    private static final long RECONNECT_DELAY_MS = 3_000L;
+
+    // What a subscriber is writing at the moment
+    private static final int IDLE = 0;
+    private static final int KEEPALIVE = 1;
+    private static final int FRAME = 2;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${live.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Value("${live.max-connections:50000}")
+    private int maxConnections;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("videos.live.connections", connections, AtomicInteger::get)
+                .description("Open live-update streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a live stream for the video; empty when the server is at its connection limit.
+     */
+    public Optional<SseEmitter> subscribe(Long videoId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return Optional.empty();
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(emitterTimeoutMillis));
+        channels.compute(videoId, (id, channel) -> {
+            Channel joined = channel != null ? channel : new Channel();
+            joined.subscribers.add(subscriber);
+            return joined;
+        });
+        subscriber.emitter.onCompletion(() -> unsubscribe(videoId, subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(videoId, subscriber));
+        subscriber.emitter.onError(ex -> unsubscribe(videoId, subscriber));
+        try {
+            subscriber.emitter.send(SseEmitter.event().reconnectTime(RECONNECT_DELAY_MS).comment("connected"));
+        } catch (IOException ex) {
+            unsubscribe(videoId, subscriber);
+        }
+        return Optional.of(subscriber.emitter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(VideoEngagementEvent event) {
+        Channel channel = event.videoId() != null ? channels.get(event.videoId()) : null;
+        if (channel != null) {
+            channel.pending.countersChanged();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentActivity(CommentActivityEvent event) {
+        Channel channel = event.videoId() != null ? channels.get(event.videoId()) : null;
+        if (channel != null) {
+            channel.pending.add(event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${live.frame-interval-ms:1000}")
+    public void publishFrames() {
+        Map<Long, PendingFrame.Snapshot> due = new HashMap<>();
+        channels.forEach((videoId, channel) -> {
+            PendingFrame.Snapshot snapshot = channel.pending.drain();
+            if (snapshot != null) {
+                due.put(videoId, snapshot);
+            }
+        });
+        if (due.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<Long, Object[]> stats = loadStats(due);
+            due.forEach((videoId, snapshot) -> {
+                Channel channel = channels.get(videoId);
+                if (channel == null) {
+                    return;
+                }
+                LiveUpdateDTO frame = snapshot.toFrame(videoId);
+                Object[] row = stats.get(videoId);
+                if (row != null) {
+                    frame.setViewCount(((Number) row[1]).longValue() + viewCountBuffer.pendingFor(videoId));
+                    frame.setLikeCount(((Number) row[2]).longValue());
+                    frame.setDislikeCount(((Number) row[3]).longValue());
+                }
+                broadcastFrame(channel, videoId, SseEmitter.event().name(FRAME_EVENT).data(toJson(frame)).build());
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Failed to publish live updates for {} videos", due.size(), ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${live.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> keepalive = SseEmitter.event().comment("keepalive").build();
+        channels.forEach((videoId, channel) -> {
+            for (Subscriber subscriber : channel.subscribers) {
+                // A viewer with a write in flight is not idle, and a slow one is left to the frames
+                if (subscriber.writing.compareAndSet(IDLE, KEEPALIVE)) {
+                    send(subscriber, videoId, keepalive, KEEPALIVE);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        channels.clear();
+        senders.shutdownNow();
+    }
+
+    private Map<Long, Object[]> loadStats(Map<Long, PendingFrame.Snapshot> due) {
+        List<Long> changed = new ArrayList<>();
+        due.forEach((videoId, snapshot) -> {
+            if (snapshot.countersChanged()) {
+                changed.add(videoId);
+            }
+        });
+        Map<Long, Object[]> stats = new HashMap<>();
+        if (!changed.isEmpty()) {
+            for (Object[] row : videoRepository.findStatsByVideoIds(changed)) {
+                stats.put(((Number) row[0]).longValue(), row);
+            }
+        }
+        return stats;
+    }
+
+    private String toJson(LiveUpdateDTO frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize live update for video " + frame.getVideoId(), ex);
+        }
+    }
+
+    // The event is built once and the same bytes are written to every subscriber
+    private void broadcastFrame(Channel channel, Long videoId, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : channel.subscribers) {
+            // Take over from an idle viewer or one finishing a keepalive; the emitter serializes
+            // the writes, so the frame goes out right after the keepalive
+            int state = subscriber.writing.get();
+            while (state != FRAME && !subscriber.writing.compareAndSet(state, FRAME)) {
+                state = subscriber.writing.get();
+            }
+            if (state == FRAME) {
+                // Still writing the previous frame: too slow to keep up, let it reconnect
+                unsubscribe(videoId, subscriber);
+                senders.execute(subscriber.emitter::complete);
+                continue;
+            }
+            send(subscriber, videoId, event, FRAME);
+        }
+    }
+
+    private void send(Subscriber subscriber, Long videoId, Set<ResponseBodyEmitter.DataWithMediaType> event, int kind) {
+        senders.execute(() -> {
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException ex) {
+                unsubscribe(videoId, subscriber);
+            } finally {
+                // A keepalive that a frame took over from leaves the state to the frame
+                subscriber.writing.compareAndSet(kind, IDLE);
+            }
+        });
+    }
+
+    private void unsubscribe(Long videoId, Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        channels.computeIfPresent(videoId, (id, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    private static final class Channel {
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final PendingFrame pending = new PendingFrame();
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicInteger writing = new AtomicInteger(IDLE);
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    // Changes merged since the last frame; later like counts replace earlier ones
+    private static final class PendingFrame {
+        private boolean counters;
+        private List<CommentDTO> comments = new ArrayList<>();
+        private Map<Long, Long> commentLikes = new LinkedHashMap<>();
+        private List<Long> deleted = new ArrayList<>();
+
+        synchronized void countersChanged() {
+            counters = true;
+        }
+
+        synchronized void add(CommentActivityEvent event) {
+            switch (event.type()) {
+                case POSTED -> {
+                    if (comments.size() < MAX_COMMENTS_PER_FRAME) {
+                        comments.add(event.comment());
+                    }
+                }
+                case LIKED -> commentLikes.put(event.commentId(), event.likeCount());
+                case DELETED -> {
+                    deleted.add(event.commentId());
+                    commentLikes.remove(event.commentId());
+                    comments.removeIf(comment -> event.commentId().equals(comment.getId()));
+                }
+            }
+        }
+
+        synchronized Snapshot drain() {
+            if (!counters && comments.isEmpty() && commentLikes.isEmpty() && deleted.isEmpty()) {
+                return null;
+            }
+            Snapshot snapshot = new Snapshot(counters, comments, commentLikes, deleted);
+            counters = false;
+            comments = new ArrayList<>();
+            commentLikes = new LinkedHashMap<>();
+            deleted = new ArrayList<>();
+            return snapshot;
+        }
+
+        record Snapshot(boolean countersChanged, List<CommentDTO> comments, Map<Long, Long> commentLikes,
+                        List<Long> deleted) {
+
+            LiveUpdateDTO toFrame(Long videoId) {
+                LiveUpdateDTO frame = new LiveUpdateDTO(videoId);
+                frame.setComments(comments);
+                frame.setCommentLikeCounts(commentLikes);
+                frame.setDeletedCommentIds(deleted);
+                return frame;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.videobrowsing.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.repository.VideoRepository;
+
+/**
+ * One-off backfill of the stored canonical media URLs for videos uploaded before
+ * {@code video_url}/{@code thumbnail_url} existed. New and edited rows get their URLs
+ * from {@link Video#refreshMediaUrls()}, so once a pass finds nothing left to migrate
+ * this is a single cheap query on startup.
+ */
+@Service
+public class MediaUrlMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaUrlMigrationService.class);
+
+    private static final int BATCH_SIZE = 200;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingMediaUrls() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long afterId = 0L;
+        int migrated = 0;
+
+        try {
+            while (true) {
+                long cursor = afterId;
+                List<Video> batch = transactionTemplate.execute(status -> {
+                    List<Video> videos = videoRepository.findMissingMediaUrls(cursor, PageRequest.of(0, BATCH_SIZE));
+                    videos.forEach(Video::refreshMediaUrls);
+                    return videos;
+                });
+
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+
+                migrated += batch.size();
+                afterId = batch.get(batch.size() - 1).getId();
+                if (batch.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Stopped media URL backfill after {} videos (last id {})", migrated, afterId, ex);
+            return;
+        }
+
+        if (migrated > 0) {
+            log.info("Backfilled canonical media URLs for {} videos", migrated);
+        }
+    }
+}
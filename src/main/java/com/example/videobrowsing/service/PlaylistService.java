@@ -23,6 +23,7 @@ import com.example.videobrowsing.entity.Video;
 import com.example.videobrowsing.repository.PlaylistRepository;
 import com.example.videobrowsing.repository.PlaylistVideoRepository;
 import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.util.MediaUrls;
 
 @Service
 @Transactional
@@ -39,6 +40,9 @@ public class PlaylistService {
     @Autowired
     private VideoRepository videoRepository;
 
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
 
     public Playlist createPlaylist(PlaylistDTO playlistDTO, User user) {
         Playlist playlist = new Playlist();
@@ -153,9 +157,9 @@ public class PlaylistService {
         dto.setVideoId(video.getId());
         dto.setTitle(video.getTitle());
         dto.setDescription(video.getDescription());
-        dto.setThumbnailPath(resolveThumbnailPath(video));
+        dto.setThumbnailPath(MediaUrls.thumbnailUrl(video));
         dto.setDuration(video.getDuration());
-        dto.setViewCount(video.getViewCount());
+        dto.setViewCount(viewCountBuffer.pendingFor(video.getId()) + Optional.ofNullable(video.getViewCount()).orElse(0L));
         dto.setLikeCount(video.getLikeCount());
         dto.setUploaderName(video.getUploadedBy() != null ? video.getUploadedBy().getUsername() : null);
         dto.setPosition(playlistVideo.getPosition());
@@ -163,13 +167,6 @@ public class PlaylistService {
         return dto;
     }
 
-    private String resolveThumbnailPath(Video video) {
-        if (video.getThumbnail() == null || video.getThumbnail().isBlank()) {
-            return null;
-        }
-        return "/uploads/thumbnails/" + video.getThumbnail();
-    }
-
     private String resolveOwnerDisplayName(User owner) {
         if (owner == null) {
             return "";
@@ -0,0 +1,81 @@
+package com.example.videobrowsing.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.videobrowsing.cache.QueryResultCache;
+import com.example.videobrowsing.dto.CursorPage;
+import com.example.videobrowsing.dto.SearchResponseDTO;
+import com.example.videobrowsing.dto.VideoDTO;
+import com.example.videobrowsing.event.VideoChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Shared caches for the public listing and search responses.
+ * <p>
+ * Entries hold what an anonymous visitor sees, keyed by the normalized request parameters;
+ * signed-in viewers get copies with their own state laid over them by
+ * {@link ViewerStateService#personalize}. Every cache is cleared when a video is added,
+ * edited or deleted. Counters (views, likes) are allowed to be as stale as the TTL.
+ */
+@Service
+public class QueryCacheService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cache.query.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${cache.query.max-entries:1000}")
+    private int maxEntries;
+
+    private QueryResultCache<String, CursorPage<VideoDTO>> listings;
+    private QueryResultCache<String, List<VideoDTO>> videoSearches;
+    private QueryResultCache<String, SearchResponseDTO> searches;
+
+    @PostConstruct
+    void createCaches() {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        listings = new QueryResultCache<>("listings", ttl, maxEntries, meterRegistry);
+        videoSearches = new QueryResultCache<>("video-search", ttl, maxEntries, meterRegistry);
+        searches = new QueryResultCache<>("search", ttl, maxEntries, meterRegistry);
+    }
+
+    public CursorPage<VideoDTO> listing(String key, Supplier<CursorPage<VideoDTO>> loader) {
+        return listings.get(key, loader);
+    }
+
+    public List<VideoDTO> videoSearch(String key, Supplier<List<VideoDTO>> loader) {
+        return videoSearches.get(key, loader);
+    }
+
+    public SearchResponseDTO search(String key, Supplier<SearchResponseDTO> loader) {
+        return searches.get(key, loader);
+    }
+
+    /**
+     * Lower-cased, trimmed form of a request parameter for cache keys; blank becomes empty.
+     */
+    public static String keyPart(Object value) {
+        if (value == null) {
+            return "";
+        }
+        return value.toString().trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        listings.invalidateAll();
+        videoSearches.invalidateAll();
+        searches.invalidateAll();
+    }
+}
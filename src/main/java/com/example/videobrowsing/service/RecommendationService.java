@@ -0,0 +1,157 @@
+package com.example.videobrowsing.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.videobrowsing.recommend.InteractionRows;
+import com.example.videobrowsing.recommend.ItemSimilarityModel;
+
+/**
+ * "Recommended for you" from item-item collaborative filtering over likes, star ratings,
+ * watch-later saves and playlist additions.
+ * <p>
+ * A periodic job reads every interaction with a public video, weights it by kind (a like or a
+ * five-star rating counts fully, a save or playlist addition a bit less, low ratings not at all)
+ * and builds an {@link ItemSimilarityModel}. Requests read the viewer's newest interactions
+ * straight from the database, so anything they did since the last build still steers and
+ * filters their feed, and score them against the model in memory. Until the first build
+ * finishes, {@link #recommendFor} returns empty and callers fall back to trending.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final int TOP_K = 30;
+    private static final int USER_SCAN_LIMIT = 500;
+    private static final float SHRINK = 2f;
+    private static final int HISTORY_LIMIT = 500;
+
+    private static final String PUBLIC_VIDEOS_SQL =
+            "SELECT id FROM videos WHERE privacy = 'PUBLIC' ORDER BY id";
+
+    // Dislikes and ratings below three stars carry weight 0: they exclude a video from the
+    // viewer's feed without counting as interest
+    private static final String INTERACTIONS_SQL =
+            "SELECT r.video_id, r.user_id, CASE WHEN r.rating_type = 'LIKE' THEN 1.0 ELSE 0.0 END AS weight, r.created_at AS occurred_at " +
+            "FROM ratings r %1$s " +
+            "UNION ALL SELECT s.video_id, s.user_id, GREATEST(s.score - 2, 0) / 3.0, s.updated_at " +
+            "FROM video_user_ratings s %2$s " +
+            "UNION ALL SELECT w.video_id, w.user_id, 0.6, w.added_at FROM watch_later w %3$s " +
+            "UNION ALL SELECT pv.video_id, p.user_id, 0.8, pv.added_at " +
+            "FROM playlist_videos pv JOIN playlists p ON p.id = pv.playlist_id %4$s";
+
+    private static final String ALL_INTERACTIONS_SQL =
+            "SELECT h.video_id, h.user_id, h.weight FROM (" + INTERACTIONS_SQL.formatted("", "", "", "") + ") h " +
+            "JOIN videos v ON v.id = h.video_id WHERE v.privacy = 'PUBLIC' AND h.weight > 0";
+
+    private static final String USER_HISTORY_SQL =
+            "SELECT h.video_id, h.weight FROM (" + INTERACTIONS_SQL.formatted(
+                    "WHERE r.user_id = ?", "WHERE s.user_id = ?", "WHERE w.user_id = ?", "WHERE p.user_id = ?") + ") h " +
+            "ORDER BY h.occurred_at DESC LIMIT " + HISTORY_LIMIT;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${recommend.parallelism:0}")
+    private int parallelism;
+
+    private volatile ItemSimilarityModel model;
+
+    /**
+     * Ids of public-at-build-time videos recommended for the user, best first; empty while the
+     * model has not been built. Callers should re-check privacy when loading the videos.
+     */
+    public Optional<long[]> recommendFor(Long userId, int limit) {
+        ItemSimilarityModel current = model;
+        if (current == null) {
+            return Optional.empty();
+        }
+        List<Object[]> history = jdbcTemplate.query(USER_HISTORY_SQL,
+                (rs, row) -> new Object[] { rs.getLong(1), rs.getFloat(2) },
+                userId, userId, userId, userId);
+        long[] videoIds = new long[history.size()];
+        float[] weights = new float[history.size()];
+        for (int i = 0; i < history.size(); i++) {
+            videoIds[i] = (Long) history.get(i)[0];
+            weights[i] = (Float) history.get(i)[1];
+        }
+        return Optional.of(current.recommend(videoIds, weights, limit));
+    }
+
+    @Scheduled(fixedDelayString = "${recommend.rebuild-interval-ms:3600000}",
+               initialDelayString = "${recommend.initial-delay-ms:30000}")
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            long[] videoIds = jdbcTemplate.queryForList(PUBLIC_VIDEOS_SQL, Long.class).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            Triples triples = new Triples();
+            jdbcTemplate.query(ALL_INTERACTIONS_SQL, rs -> {
+                int video = Arrays.binarySearch(videoIds, rs.getLong(1));
+                if (video >= 0) {
+                    triples.add(video, rs.getLong(2), rs.getFloat(3));
+                }
+            });
+
+            long[] userIds = Arrays.copyOf(triples.users, triples.size);
+            Arrays.sort(userIds);
+            int distinctUsers = 0;
+            for (int i = 0; i < userIds.length; i++) {
+                if (i == 0 || userIds[i] != userIds[i - 1]) {
+                    userIds[distinctUsers++] = userIds[i];
+                }
+            }
+            int[] userOrdinals = new int[triples.size];
+            for (int i = 0; i < triples.size; i++) {
+                userOrdinals[i] = Arrays.binarySearch(userIds, 0, distinctUsers, triples.users[i]);
+            }
+            InteractionRows usersByItem = InteractionRows.of(videoIds.length, distinctUsers,
+                    triples.videos, userOrdinals, triples.weights, triples.size);
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            ItemSimilarityModel built;
+            try {
+                built = ItemSimilarityModel.build(videoIds, usersByItem, TOP_K, USER_SCAN_LIMIT, SHRINK, pool);
+            } finally {
+                pool.shutdown();
+            }
+            model = built;
+            log.info("Recommendation model built from {} interactions of {} users in {} ms ({} neighbour pairs)",
+                    usersByItem.entries(), distinctUsers, System.currentTimeMillis() - started, built.neighborCount());
+        } catch (RuntimeException ex) {
+            log.warn("Recommendation model build failed; keeping the previous model", ex);
+        }
+    }
+
+    // Growable (video ordinal, user id, weight) triples
+    private static final class Triples {
+        int[] videos = new int[1024];
+        long[] users = new long[1024];
+        float[] weights = new float[1024];
+        int size;
+
+        void add(int video, long user, float weight) {
+            if (size == videos.length) {
+                videos = Arrays.copyOf(videos, size * 2);
+                users = Arrays.copyOf(users, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            videos[size] = video;
+            users[size] = user;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
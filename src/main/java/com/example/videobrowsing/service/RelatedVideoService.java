@@ -0,0 +1,221 @@
+package com.example.videobrowsing.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.related.RelatedVideoComputer;
+import com.example.videobrowsing.related.SparseRows;
+import com.example.videobrowsing.repository.RelatedVideoRepository;
+
+/**
+ * Keeps the {@code related_videos} table filled with the top related videos of every public
+ * video, blending shared tags with co-likes and co-saves (see {@link RelatedVideoComputer}).
+ * <p>
+ * Each run reads the tag links, likes and watch-later entries of public videos, scores every
+ * video against its candidates on a fork-join pool and then rewrites only the videos whose
+ * list changed, a few hundred per transaction. The lists last written are kept in memory
+ * (seeded from the table on the first run) so a quiet catalogue costs almost no writes.
+ */
+@Service
+public class RelatedVideoService {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedVideoService.class);
+
+    static final int TOP_K = 20;
+    private static final int SCAN_LIMIT = 5_000;
+    private static final float TAG_WEIGHT = 0.5f;
+    private static final float LIKE_WEIGHT = 0.3f;
+    private static final float SAVE_WEIGHT = 0.2f;
+    private static final int WRITE_BATCH_VIDEOS = 500;
+
+    private static final String PUBLIC_VIDEOS_SQL =
+            "SELECT id FROM videos WHERE privacy = 'PUBLIC' ORDER BY id";
+    private static final String TAGS_SQL =
+            "SELECT vt.video_id, vt.tag_id FROM video_tags vt JOIN videos v ON v.id = vt.video_id WHERE v.privacy = 'PUBLIC'";
+    private static final String LIKES_SQL =
+            "SELECT r.video_id, r.user_id FROM ratings r JOIN videos v ON v.id = r.video_id " +
+            "WHERE r.rating_type = 'LIKE' AND v.privacy = 'PUBLIC'";
+    private static final String SAVES_SQL =
+            "SELECT w.video_id, w.user_id FROM watch_later w JOIN videos v ON v.id = w.video_id WHERE v.privacy = 'PUBLIC'";
+    private static final String WRITTEN_SQL =
+            "SELECT video_id, related_video_id FROM related_videos ORDER BY video_id, position";
+    private static final String DELETE_SQL = "DELETE FROM related_videos WHERE video_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO related_videos (video_id, position, related_video_id, score) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RelatedVideoRepository relatedVideoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${related.parallelism:0}")
+    private int parallelism;
+
+    // Lists currently in the table, by video id; null until the first run has read them
+    private Map<Long, long[]> written;
+
+    /**
+     * The precomputed related videos that are still public, best first; empty if none have been
+     * computed for this video yet.
+     */
+    public List<Video> relatedVideos(Long videoId, int limit) {
+        return relatedVideoRepository.findRelatedVideos(videoId, PageRequest.of(0, Math.min(limit, TOP_K)));
+    }
+
+    @Scheduled(fixedDelayString = "${related.rebuild-interval-ms:3600000}",
+               initialDelayString = "${related.initial-delay-ms:60000}")
+    public synchronized void recompute() {
+        long started = System.currentTimeMillis();
+        try {
+            long[] videoIds = jdbcTemplate.queryForList(PUBLIC_VIDEOS_SQL, Long.class).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            SparseRows tags = loadSignal(TAGS_SQL, videoIds);
+            SparseRows likes = loadSignal(LIKES_SQL, videoIds);
+            SparseRows saves = loadSignal(SAVES_SQL, videoIds);
+
+            RelatedVideoComputer computer = new RelatedVideoComputer(TOP_K, SCAN_LIMIT, TAG_WEIGHT, LIKE_WEIGHT, SAVE_WEIGHT);
+            ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            RelatedVideoComputer.Neighbors neighbors;
+            try {
+                neighbors = computer.compute(tags, likes, saves, pool);
+            } finally {
+                pool.shutdown();
+            }
+
+            int changed = store(videoIds, neighbors);
+            log.info("Related videos recomputed for {} videos in {} ms; {} lists rewritten",
+                    videoIds.length, System.currentTimeMillis() - started, changed);
+        } catch (RuntimeException ex) {
+            log.warn("Related video recomputation failed; keeping the previous lists", ex);
+        }
+    }
+
+    // Reads (video id, key) pairs and turns them into one row of key ordinals per public video
+    private SparseRows loadSignal(String sql, long[] videoIds) {
+        Pairs pairs = new Pairs();
+        jdbcTemplate.query(sql, rs -> {
+            int video = Arrays.binarySearch(videoIds, rs.getLong(1));
+            if (video >= 0) {
+                pairs.add(video, rs.getLong(2));
+            }
+        });
+
+        long[] keys = Arrays.copyOf(pairs.keys, pairs.size);
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        int[] columns = new int[pairs.size];
+        for (int i = 0; i < pairs.size; i++) {
+            columns[i] = Arrays.binarySearch(keys, 0, distinct, pairs.keys[i]);
+        }
+        return SparseRows.of(videoIds.length, distinct, pairs.videos, columns, pairs.size);
+    }
+
+    private int store(long[] videoIds, RelatedVideoComputer.Neighbors neighbors) {
+        if (written == null) {
+            written = loadWritten();
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Map<Long, long[]> current = new HashMap<>(videoIds.length * 2);
+        List<Long> changed = new ArrayList<>();
+        for (int video = 0; video < videoIds.length; video++) {
+            int[] ordinals = neighbors.ordinals()[video];
+            long[] related = new long[ordinals.length];
+            for (int i = 0; i < ordinals.length; i++) {
+                related[i] = videoIds[ordinals[i]];
+            }
+            current.put(videoIds[video], related);
+            if (!Arrays.equals(related, written.get(videoIds[video]))
+                    && (related.length > 0 || written.containsKey(videoIds[video]))) {
+                changed.add(videoIds[video]);
+            }
+        }
+        // Videos that went private keep no list
+        written.keySet().stream().filter(id -> !current.containsKey(id)).forEach(changed::add);
+
+        for (int from = 0; from < changed.size(); from += WRITE_BATCH_VIDEOS) {
+            List<Long> batch = changed.subList(from, Math.min(from + WRITE_BATCH_VIDEOS, changed.size()));
+            List<Object[]> deletes = new ArrayList<>(batch.size());
+            List<Object[]> inserts = new ArrayList<>();
+            for (Long videoId : batch) {
+                deletes.add(new Object[] { videoId });
+                int video = Arrays.binarySearch(videoIds, videoId);
+                if (video < 0) {
+                    continue;
+                }
+                long[] related = current.get(videoId);
+                for (int position = 0; position < related.length; position++) {
+                    inserts.add(new Object[] { videoId, position, related[position], neighbors.scores()[video][position] });
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                }
+            });
+            for (Long videoId : batch) {
+                long[] related = current.get(videoId);
+                if (related == null || related.length == 0) {
+                    written.remove(videoId);
+                } else {
+                    written.put(videoId, related);
+                }
+            }
+        }
+        return changed.size();
+    }
+
+    private Map<Long, long[]> loadWritten() {
+        Map<Long, List<Long>> lists = new HashMap<>();
+        jdbcTemplate.query(WRITTEN_SQL, rs -> {
+            lists.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+        });
+        Map<Long, long[]> loaded = new HashMap<>(lists.size() * 2);
+        lists.forEach((videoId, related) -> loaded.put(videoId, related.stream().mapToLong(Long::longValue).toArray()));
+        return loaded;
+    }
+
+    // Growable (video ordinal, key) pairs
+    private static final class Pairs {
+        int[] videos = new int[1024];
+        long[] keys = new long[1024];
+        int size;
+
+        void add(int video, long key) {
+            if (size == videos.length) {
+                videos = Arrays.copyOf(videos, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            videos[size] = video;
+            keys[size] = key;
+            size++;
+        }
+    }
+}
@@ -35,6 +35,9 @@ public class ReportService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CommentService commentService;
+
     public Report createVideoReport(ReportDTO reportDTO, User user) {
         Video video = videoRepository.findById(reportDTO.getVideoId())
                 .orElseThrow(() -> new RuntimeException("Video not found"));
@@ -62,7 +65,10 @@ public class ReportService {
         report.setCreatedAt(LocalDateTime.now());
         report.setStatus(Report.Status.PENDING);
 
-        return reportRepository.save(report);
+        Report saved = reportRepository.save(report);
+        commentRepository.incrementReportCount(comment.getId());
+        commentService.refreshRankScore(comment);
+        return saved;
     }
 
     // New method for help center reports
@@ -11,6 +11,7 @@ import com.example.videobrowsing.entity.Category;
 import com.example.videobrowsing.entity.Video;
 import com.example.videobrowsing.repository.CategoryRepository;
 import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.search.SearchResult;
 
 @Service
 public class SearchService {
@@ -21,18 +22,32 @@ public class SearchService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private VideoSearchService videoSearchService;
+
+    @Autowired
+    private VideoService videoService;
+
     public List<Video> searchVideos(String keyword, Long categoryId) {
-        if (categoryId != null && categoryId > 0) {
-            // Search within specific category
-            return videoRepository.findByCategoryIdAndPrivacyOrderByCreatedAtDesc(categoryId, Video.Privacy.PUBLIC);
-        } else if (keyword != null && !keyword.trim().isEmpty()) {
-            // General search - search only in title
+        Long category = categoryId != null && categoryId > 0 ? categoryId : null;
+        if (keyword != null && !keyword.trim().isEmpty()) {
             String trimmed = keyword.trim();
+            Optional<SearchResult> ranked = videoSearchService.search(
+                    trimmed, category, true, 0, VideoService.SEARCH_RESULT_LIMIT);
+            if (ranked.isPresent()) {
+                return videoService.loadInOrder(ranked.get().videoIds());
+            }
+            // Index not loaded yet: title-only search in the database
             return videoRepository
                     .findByTitleContainingIgnoreCase(trimmed)
                     .stream()
                     .filter(video -> video.getPrivacy() == Video.Privacy.PUBLIC)
+                    .filter(video -> category == null
+                            || (video.getCategory() != null && category.equals(video.getCategory().getId())))
                     .toList();
+        } else if (category != null) {
+            // Search within specific category
+            return videoRepository.findByCategoryIdAndPrivacyOrderByCreatedAtDesc(category, Video.Privacy.PUBLIC);
         } else {
             // Return all public videos if no criteria
             return videoRepository.findByPrivacyOrderByCreatedAtDesc(Video.Privacy.PUBLIC);
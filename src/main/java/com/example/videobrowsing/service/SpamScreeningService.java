@@ -0,0 +1,251 @@
+package com.example.videobrowsing.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.event.CommentActivityEvent;
+import com.example.videobrowsing.spam.FeatureHasher;
+import com.example.videobrowsing.spam.NaiveBayesModel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Scores new and edited comments for spam in the background and flags the likely ones for
+ * moderators ({@code comments.is_spam}, listed by {@code CommentRepository.findSpamComments}).
+ * <p>
+ * Posting a comment only offers it to a bounded queue after the transaction commits; when the
+ * queue is full the comment simply goes unscored, so the classifier never adds latency or
+ * back-pressure to the request. One worker thread drains the queue in batches, scores each text
+ * with a {@link NaiveBayesModel} over {@link FeatureHasher} features and writes the scores in
+ * one JDBC batch. Comments a moderator has labelled are never re-flagged by the classifier.
+ * <p>
+ * The model learns from moderator decisions: {@link #label} stores the decision as a training
+ * sample and folds it into the live model at once (taking back the previous label, if any);
+ * {@link #retrain} rebuilds the model from every stored sample, as happens on startup. Nothing
+ * is flagged until the model has seen enough samples of both kinds.
+ * <p>
+ * Metrics: {@code comments.spam.queue}, {@code comments.spam.scored},
+ * {@code comments.spam.flagged} and {@code comments.spam.dropped}.
+ */
+@Service
+public class SpamScreeningService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpamScreeningService.class);
+
+    private static final int FEATURE_BITS = 18;
+
+    private static final String SAMPLES_SQL = "SELECT content, spam FROM spam_training_samples";
+    private static final String SAMPLE_FOR_COMMENT_SQL =
+            "SELECT content, spam FROM spam_training_samples WHERE comment_id = ?";
+    private static final String INSERT_SAMPLE_SQL =
+            "INSERT INTO spam_training_samples (comment_id, content, spam, labeled_by, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SAMPLE_SQL =
+            "UPDATE spam_training_samples SET content = ?, spam = ?, labeled_by = ?, created_at = ? WHERE comment_id = ?";
+    private static final String COMMENT_CONTENT_SQL = "SELECT content FROM comments WHERE id = ?";
+    private static final String SET_SPAM_SQL = "UPDATE comments SET is_spam = ? WHERE id = ?";
+    private static final String SCORE_SQL =
+            "UPDATE comments c SET c.spam_score = ?, c.is_spam = ? WHERE c.id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM spam_training_samples s WHERE s.comment_id = c.id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spam.threshold:0.9}")
+    private double threshold;
+
+    @Value("${spam.min-samples-per-class:20}")
+    private long minSamplesPerClass;
+
+    @Value("${spam.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${spam.batch-size:200}")
+    private int batchSize;
+
+    private final FeatureHasher hasher = new FeatureHasher(FEATURE_BITS);
+    private final Object trainingLock = new Object();
+
+    private volatile NaiveBayesModel model = new NaiveBayesModel(hasher.dimensions());
+    private BlockingQueue<PendingComment> queue;
+    private Thread worker;
+
+    private Counter scored;
+    private Counter flagged;
+    private Counter dropped;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("comments.spam.queue", queue, BlockingQueue::size)
+                .description("Comments waiting for spam scoring")
+                .register(meterRegistry);
+        scored = Counter.builder("comments.spam.scored").description("Comments scored for spam").register(meterRegistry);
+        flagged = Counter.builder("comments.spam.flagged").description("Comments flagged as spam").register(meterRegistry);
+        dropped = Counter.builder("comments.spam.dropped")
+                .description("Comments left unscored because the queue was full")
+                .register(meterRegistry);
+        worker = Thread.ofPlatform().name("spam-screening").daemon().start(this::drainQueue);
+    }
+
+    @PreDestroy
+    void stop() {
+        worker.interrupt();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadModel() {
+        try {
+            retrain();
+        } catch (RuntimeException ex) {
+            log.warn("Could not load spam training samples; comments stay unscored until retrained", ex);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentActivity(CommentActivityEvent event) {
+        boolean written = event.type() == CommentActivityEvent.Type.POSTED || event.type() == CommentActivityEvent.Type.EDITED;
+        if (!written || event.comment() == null || !isTrained(model)) {
+            return;
+        }
+        if (!queue.offer(new PendingComment(event.commentId(), event.comment().getContent()))) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Records a moderator's decision on a comment, sets its spam flag accordingly and trains the
+     * live model on it.
+     *
+     * @throws IllegalArgumentException if the comment does not exist
+     */
+    public void label(Long commentId, boolean spam, User moderator) {
+        synchronized (trainingLock) {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            Sample[] change = transactionTemplate.execute(status -> {
+                List<String> content = jdbcTemplate.queryForList(COMMENT_CONTENT_SQL, String.class, commentId);
+                if (content.isEmpty()) {
+                    throw new IllegalArgumentException("Comment not found");
+                }
+                List<Sample> previous = jdbcTemplate.query(SAMPLE_FOR_COMMENT_SQL,
+                        (rs, row) -> new Sample(rs.getString(1), rs.getBoolean(2)), commentId);
+                Long moderatorId = moderator != null ? moderator.getId() : null;
+                if (previous.isEmpty()) {
+                    jdbcTemplate.update(INSERT_SAMPLE_SQL, commentId, content.get(0), spam, moderatorId, LocalDateTime.now());
+                } else {
+                    jdbcTemplate.update(UPDATE_SAMPLE_SQL, content.get(0), spam, moderatorId, LocalDateTime.now(), commentId);
+                }
+                jdbcTemplate.update(SET_SPAM_SQL, spam, commentId);
+                return new Sample[] { previous.isEmpty() ? null : previous.get(0), new Sample(content.get(0), spam) };
+            });
+
+            NaiveBayesModel current = model;
+            if (change[0] != null) {
+                current.forget(hasher.hash(change[0].content()), change[0].spam());
+            }
+            current.train(hasher.hash(change[1].content()), change[1].spam());
+        }
+    }
+
+    /**
+     * Rebuilds the model from every stored moderator decision and swaps it in.
+     */
+    public Map<String, Object> retrain() {
+        synchronized (trainingLock) {
+            long started = System.currentTimeMillis();
+            NaiveBayesModel rebuilt = new NaiveBayesModel(hasher.dimensions());
+            jdbcTemplate.query(SAMPLES_SQL, rs -> {
+                rebuilt.train(hasher.hash(rs.getString(1)), rs.getBoolean(2));
+            });
+            model = rebuilt;
+            log.info("Spam model trained on {} spam and {} legitimate samples in {} ms",
+                    rebuilt.spamDocuments(), rebuilt.hamDocuments(), System.currentTimeMillis() - started);
+            return status();
+        }
+    }
+
+    public Map<String, Object> status() {
+        NaiveBayesModel current = model;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("spamSamples", current.spamDocuments());
+        status.put("hamSamples", current.hamDocuments());
+        status.put("active", isTrained(current));
+        status.put("threshold", threshold);
+        status.put("queued", queue.size());
+        status.put("scored", (long) scored.count());
+        status.put("flagged", (long) flagged.count());
+        status.put("dropped", (long) dropped.count());
+        return status;
+    }
+
+    private boolean isTrained(NaiveBayesModel candidate) {
+        return candidate.spamDocuments() >= minSamplesPerClass && candidate.hamDocuments() >= minSamplesPerClass;
+    }
+
+    private void drainQueue() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                score(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.warn("Spam scoring failed for {} comments", batch.size(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void score(List<PendingComment> batch) {
+        NaiveBayesModel current = model;
+        List<Object[]> updates = new ArrayList<>(batch.size());
+        int spam = 0;
+        for (PendingComment comment : batch) {
+            double probability = current.spamProbability(hasher.hash(comment.content()));
+            boolean isSpam = probability >= threshold;
+            if (isSpam) {
+                spam++;
+            }
+            updates.add(new Object[] { probability, isSpam, comment.commentId() });
+        }
+        jdbcTemplate.batchUpdate(SCORE_SQL, updates);
+        scored.increment(batch.size());
+        flagged.increment(spam);
+    }
+
+    private record PendingComment(Long commentId, String content) {
+    }
+
+    private record Sample(String content, boolean spam) {
+    }
+}
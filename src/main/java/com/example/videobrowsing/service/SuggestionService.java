@@ -0,0 +1,235 @@
+package com.example.videobrowsing.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.videobrowsing.event.VideoChangedEvent;
+import com.example.videobrowsing.event.VideoEngagementEvent;
+import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.search.SearchRow;
+import com.example.videobrowsing.search.Suggestion;
+import com.example.videobrowsing.search.SuggestionTrie;
+import com.example.videobrowsing.util.TagNames;
+
+/**
+ * Serves search-box suggestions from an immutable {@link SuggestionTrie}.
+ * <p>
+ * The public videos behind the suggestions are kept in memory, loaded once the application is
+ * ready and updated from {@link VideoChangedEvent}s and view events after commit. A scheduled
+ * task rebuilds the trie from that in-memory copy when something changed and swaps it in with
+ * a single volatile write, so lookups never wait on a rebuild and never touch the database.
+ * Suggestions are weighted by views: a title by its video's views, and a tag, category or
+ * creator by the views of all public videos carrying it. View counts only reorder
+ * suggestions, so they are folded in on a slower schedule than added or edited videos.
+ */
+@Service
+public class SuggestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    private volatile SuggestionTrie trie = SuggestionTrie.EMPTY;
+
+    private final Map<Long, Source> videos = new ConcurrentHashMap<>();
+
+    // Set by any change that should show up in the next trie
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    // Set by view counts moving; these only reorder suggestions, so they are folded in less often
+    private final AtomicBoolean reweigh = new AtomicBoolean();
+
+    // Ids changed while the videos were being loaded; null when no load is running. Guarded by this.
+    private Set<Long> pendingIds;
+
+    // The fields a video contributes to suggestions; views move with view events
+    private static final class Source {
+        final String title;
+        final List<String> tags;
+        final String category;
+        final String creator;
+        volatile long views;
+
+        Source(String title, List<String> tags, String category, String creator, long views) {
+            this.title = title;
+            this.tags = tags;
+            this.category = category;
+            this.creator = creator;
+            this.views = views;
+        }
+    }
+
+    /**
+     * The most popular suggestions starting with the prefix, at most {@link SuggestionTrie#MAX_SUGGESTIONS}.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return trie.suggest(prefix, Math.min(limit, SuggestionTrie.MAX_SUGGESTIONS));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    // Picks up category and creator renames, which publish no video events
+    @Scheduled(fixedDelayString = "${search.rebuild-interval-ms:21600000}",
+               initialDelayString = "${search.rebuild-interval-ms:21600000}")
+    public void reload() {
+        synchronized (this) {
+            if (pendingIds != null) {
+                return;
+            }
+            pendingIds = new HashSet<>();
+        }
+
+        Map<Long, Source> loaded = new HashMap<>();
+        long afterId = 0L;
+        try {
+            while (true) {
+                List<SearchRow> batch = videoRepository.findSearchRows(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                for (SearchRow row : batch) {
+                    if (row.isPublic()) {
+                        loaded.put(row.id(), toSource(row));
+                    }
+                }
+                if (batch.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).id();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Loading search suggestions failed after id {}; keeping the previous suggestions", afterId, ex);
+            synchronized (this) {
+                pendingIds = null;
+            }
+            return;
+        }
+
+        List<Long> touched;
+        synchronized (this) {
+            videos.keySet().retainAll(loaded.keySet());
+            videos.putAll(loaded);
+            touched = new ArrayList<>(pendingIds);
+            pendingIds = null;
+        }
+        touched.forEach(this::refresh);
+        dirty.set(true);
+        rebuildIfChanged();
+        log.info("Search suggestions loaded from {} public videos ({} phrases)", videos.size(), trie.size());
+    }
+
+    @Scheduled(fixedDelayString = "${search.suggest-refresh-interval-ms:5000}")
+    public void rebuildIfChanged() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            trie = SuggestionTrie.build(collectSuggestions());
+        } catch (RuntimeException ex) {
+            dirty.set(true);
+            log.warn("Could not rebuild search suggestions", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.suggest-reweigh-interval-ms:60000}")
+    public void reweighIfViewed() {
+        if (reweigh.getAndSet(false)) {
+            dirty.set(true);
+            rebuildIfChanged();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        Long videoId = event.videoId();
+        if (videoId == null) {
+            return;
+        }
+        synchronized (this) {
+            if (pendingIds != null) {
+                pendingIds.add(videoId);
+            }
+        }
+        if (event.type() == VideoChangedEvent.Type.DELETED) {
+            videos.remove(videoId);
+        } else {
+            refresh(videoId);
+        }
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(VideoEngagementEvent event) {
+        if (event.viewDelta() == 0 || event.videoId() == null) {
+            return;
+        }
+        Source source = videos.get(event.videoId());
+        if (source != null) {
+            synchronized (source) {
+                source.views += event.viewDelta();
+            }
+            reweigh.set(true);
+        }
+    }
+
+    private void refresh(Long videoId) {
+        try {
+            videoRepository.findSearchRow(videoId)
+                    .filter(SearchRow::isPublic)
+                    .ifPresentOrElse(row -> videos.put(videoId, toSource(row)), () -> videos.remove(videoId));
+        } catch (RuntimeException ex) {
+            log.warn("Could not refresh video {} in the search suggestions", videoId, ex);
+        }
+    }
+
+    private List<Suggestion> collectSuggestions() {
+        Map<String, Long> tags = new HashMap<>();
+        Map<String, Long> categories = new HashMap<>();
+        Map<String, Long> creators = new HashMap<>();
+        List<Suggestion> suggestions = new ArrayList<>(videos.size());
+
+        for (Source source : videos.values()) {
+            // +1 so videos nobody has watched yet still rank among themselves
+            long weight = source.views + 1;
+            if (source.title != null) {
+                suggestions.add(new Suggestion(source.title, Suggestion.Type.TITLE, weight));
+            }
+            source.tags.forEach(tag -> tags.merge(tag, weight, Long::sum));
+            if (source.category != null) {
+                categories.merge(source.category, weight, Long::sum);
+            }
+            if (source.creator != null) {
+                creators.merge(source.creator, weight, Long::sum);
+            }
+        }
+
+        tags.forEach((text, weight) -> suggestions.add(new Suggestion(text, Suggestion.Type.TAG, weight)));
+        categories.forEach((text, weight) -> suggestions.add(new Suggestion(text, Suggestion.Type.CATEGORY, weight)));
+        creators.forEach((text, weight) -> suggestions.add(new Suggestion(text, Suggestion.Type.CREATOR, weight)));
+        return suggestions;
+    }
+
+    private Source toSource(SearchRow row) {
+        return new Source(row.title(), TagNames.parse(row.tags()), row.categoryName(), row.uploaderUsername(),
+                row.viewCount() != null ? row.viewCount() : 0L);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.videobrowsing.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.videobrowsing.entity.Tag;
+import com.example.videobrowsing.event.VideoChangedEvent;
+import com.example.videobrowsing.repository.TagRepository;
+import com.example.videobrowsing.search.SearchResult;
+import com.example.videobrowsing.search.TagIndex;
+import com.example.videobrowsing.util.TagNames;
+
+/**
+ * Keeps the {@code tags} / {@code video_tags} tables in step with {@code videos.tags} and owns
+ * the in-memory {@link TagIndex} built from them.
+ * <p>
+ * Links are written in the same transaction as the video. The index is loaded once the
+ * application is ready and refreshed from {@link VideoChangedEvent}s after commit; until it is
+ * loaded, the query methods return empty and callers fall back to the database.
+ */
+@Service
+public class TagService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagService.class);
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    private volatile TagIndex index;
+
+    // Ids changed while the index was being built; guarded by itself
+    private final Set<Long> pendingIds = new HashSet<>();
+
+    /**
+     * Points the video's {@code video_tags} rows at the tags in its stored tag text, creating
+     * any tags that do not exist yet.
+     */
+    @Transactional
+    public void syncVideoTags(Long videoId, String rawTags) {
+        List<String> names = TagNames.parse(rawTags);
+        if (names.isEmpty()) {
+            tagRepository.deleteVideoTags(videoId);
+            return;
+        }
+
+        Set<Integer> tagIds = new LinkedHashSet<>(resolveTagIds(names).values());
+        tagRepository.deleteVideoTagsExcept(videoId, tagIds);
+        tagIds.forEach(tagId -> tagRepository.insertVideoTag(videoId, tagId));
+    }
+
+    private Map<String, Integer> resolveTagIds(List<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        tagRepository.findByNameIn(names).forEach(tag -> ids.put(tag.getName(), tag.getId()));
+        for (String name : names) {
+            if (ids.containsKey(name)) {
+                continue;
+            }
+            tagRepository.insertIfAbsent(name);
+            // The column collation may fold this name onto an existing tag (case or accents)
+            tagRepository.findByName(name).ifPresent(tag -> ids.put(name, tag.getId()));
+        }
+        return ids;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TagIndex built = new TagIndex();
+        try {
+            tagRepository.findAll().forEach(tag -> built.defineTag(tag.getId(), tag.getName()));
+
+            long currentVideo = -1L;
+            List<Integer> currentTags = new ArrayList<>();
+            long afterVideo = 0L;
+            int afterTag = 0;
+            while (true) {
+                List<Object[]> batch = tagRepository.findPublicVideoTags(afterVideo, afterTag,
+                        PageRequest.of(0, LOAD_BATCH_SIZE));
+                for (Object[] row : batch) {
+                    long videoId = ((Number) row[0]).longValue();
+                    int tagId = ((Number) row[1]).intValue();
+                    if (videoId != currentVideo) {
+                        flush(built, currentVideo, currentTags);
+                        currentVideo = videoId;
+                    }
+                    currentTags.add(tagId);
+                    afterVideo = videoId;
+                    afterTag = tagId;
+                }
+                if (batch.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+            }
+            flush(built, currentVideo, currentTags);
+        } catch (RuntimeException ex) {
+            log.warn("Tag index build failed; tag queries will use the database", ex);
+            return;
+        }
+
+        List<Long> touched;
+        synchronized (pendingIds) {
+            index = built;
+            touched = new ArrayList<>(pendingIds);
+            pendingIds.clear();
+        }
+        touched.forEach(id -> refresh(built, id));
+        log.info("Tag index loaded with {} tagged public videos", built.videoCount());
+    }
+
+    private static void flush(TagIndex target, long videoId, List<Integer> tagIds) {
+        if (videoId >= 0 && !tagIds.isEmpty()) {
+            target.setVideoTags(videoId, tagIds.stream().mapToInt(Integer::intValue).toArray());
+        }
+        tagIds.clear();
+    }
+
+    /**
+     * Public videos carrying all of the tags, newest first, or empty while the index is not loaded.
+     */
+    public Optional<SearchResult> videosWithAllTags(List<String> names, int offset, int limit) {
+        TagIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        List<String> normalized = names.stream().map(TagNames::normalize).filter(name -> !name.isEmpty()).distinct().toList();
+        return Optional.of(current.videosWithAll(normalized, offset, limit));
+    }
+
+    /**
+     * Ids of public videos sharing the most tags with the video, or empty while the index is not loaded.
+     */
+    public Optional<long[]> relatedVideoIds(Long videoId, int limit) {
+        TagIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.related(videoId, limit));
+    }
+
+    public Optional<List<TagIndex.TagCount>> popularTags(int limit) {
+        TagIndex current = index;
+        return current == null ? Optional.empty() : Optional.of(current.popular(limit));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        Long videoId = event.videoId();
+        if (videoId == null) {
+            return;
+        }
+        TagIndex current = index;
+        if (current == null) {
+            synchronized (pendingIds) {
+                current = index;
+                if (current == null) {
+                    pendingIds.add(videoId);
+                    return;
+                }
+            }
+        }
+        if (event.type() == VideoChangedEvent.Type.DELETED) {
+            current.removeVideo(videoId);
+        } else {
+            refresh(current, videoId);
+        }
+    }
+
+    // Re-reads the links so privacy changes add or drop the video
+    private void refresh(TagIndex target, Long videoId) {
+        try {
+            List<Integer> tagIds = tagRepository.findTagIdsIfPublic(videoId);
+            List<Integer> unknown = tagIds.stream().filter(id -> !target.knowsTag(id)).toList();
+            if (!unknown.isEmpty()) {
+                for (Tag tag : tagRepository.findAllById(unknown)) {
+                    target.defineTag(tag.getId(), tag.getName());
+                }
+            }
+            target.setVideoTags(videoId, tagIds.stream().mapToInt(Integer::intValue).toArray());
+        } catch (RuntimeException ex) {
+            log.warn("Could not refresh video {} in the tag index", videoId, ex);
+        }
+    }
+}
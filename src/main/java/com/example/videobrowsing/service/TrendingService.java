@@ -0,0 +1,224 @@
+package com.example.videobrowsing.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.videobrowsing.entity.Rating;
+import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.event.VideoChangedEvent;
+import com.example.videobrowsing.event.VideoEngagementEvent;
+import com.example.videobrowsing.repository.RatingRepository;
+import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.trending.TrendingSnapshot;
+import com.example.videobrowsing.trending.TrendingWindow;
+
+/**
+ * Ranks public videos by recent momentum rather than all-time totals.
+ * <p>
+ * Views and likes land in per-video hourly {@link TrendingWindow}s. Every few seconds a refresh
+ * pass scores each window as an exponentially decayed sum of its hourly activity (half-life
+ * {@value #HALF_LIFE_HOURS} hours, a like worth {@value #LIKE_WEIGHT} views), keeps the global
+ * and per-category top {@value #TOP_K} in bounded min-heaps, and publishes the result as an
+ * immutable {@link TrendingSnapshot}. Windows that have decayed to nothing are dropped.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    static final int TOP_K = 200;
+    static final int HALF_LIFE_HOURS = 6;
+    static final double LIKE_WEIGHT = 5.0;
+
+    private static final int RESOLVE_BATCH_SIZE = 500;
+
+    private static final double[] DECAY = new double[TrendingWindow.WINDOW_HOURS];
+
+    static {
+        for (int age = 0; age < DECAY.length; age++) {
+            DECAY[age] = Math.pow(0.5, (double) age / HALF_LIFE_HOURS);
+        }
+    }
+
+    private static final Comparator<Scored> LOWEST_FIRST =
+            Comparator.comparingDouble(Scored::score).thenComparing(Scored::videoId, Comparator.reverseOrder());
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    private final ConcurrentHashMap<Long, TrendingWindow> windows = new ConcurrentHashMap<>();
+
+    private volatile TrendingSnapshot snapshot = TrendingSnapshot.EMPTY;
+
+    /**
+     * View history is not stored per hour, so a fresh start seeds the windows from recent likes
+     * and lets views accumulate from there.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromRecentLikes() {
+        LocalDateTime since = LocalDateTime.now().minusHours(TrendingWindow.WINDOW_HOURS);
+        try {
+            for (Object[] row : ratingRepository.findRatingTimesSince(Rating.RatingType.LIKE, since, Video.Privacy.PUBLIC)) {
+                Long videoId = (Long) row[0];
+                LocalDateTime likedAt = (LocalDateTime) row[1];
+                if (videoId != null && likedAt != null) {
+                    window(videoId).add(toHour(likedAt), 0L, 1L);
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not seed trending windows from recent likes", ex);
+        }
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(VideoEngagementEvent event) {
+        if (event.videoId() == null || (event.viewDelta() == 0 && event.likeDelta() == 0)) {
+            return;
+        }
+        window(event.videoId()).add(currentHour(), event.viewDelta(), event.likeDelta());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (event.videoId() == null) {
+            return;
+        }
+        if (event.type() == VideoChangedEvent.Type.DELETED) {
+            windows.remove(event.videoId());
+            return;
+        }
+        // Category or privacy may have changed; look it up again on the next refresh
+        TrendingWindow window = windows.get(event.videoId());
+        if (window != null) {
+            window.setCategoryId(TrendingWindow.UNRESOLVED_CATEGORY);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trending.refresh-interval-ms:5000}",
+               initialDelayString = "${trending.refresh-interval-ms:5000}")
+    public void refresh() {
+        try {
+            resolveCategories();
+        } catch (RuntimeException ex) {
+            log.warn("Could not resolve categories for trending videos", ex);
+        }
+
+        long hour = currentHour();
+        PriorityQueue<Scored> global = new PriorityQueue<>(TOP_K + 1, LOWEST_FIRST);
+        Map<Long, PriorityQueue<Scored>> perCategory = new HashMap<>();
+
+        for (Map.Entry<Long, TrendingWindow> entry : windows.entrySet()) {
+            TrendingWindow window = entry.getValue();
+            double score = window.score(hour, DECAY, LIKE_WEIGHT);
+            if (score <= 0.0) {
+                // Nothing left in the window; an event racing this removal recreates it
+                windows.remove(entry.getKey(), window);
+                continue;
+            }
+            long categoryId = window.getCategoryId();
+            if (categoryId == TrendingWindow.UNRESOLVED_CATEGORY) {
+                continue;
+            }
+            Scored scored = new Scored(entry.getKey(), score);
+            offer(global, scored);
+            if (categoryId != TrendingWindow.NO_CATEGORY) {
+                offer(perCategory.computeIfAbsent(categoryId, id -> new PriorityQueue<>(TOP_K + 1, LOWEST_FIRST)), scored);
+            }
+        }
+
+        Map<Long, long[]> rankedByCategory = new HashMap<>();
+        perCategory.forEach((categoryId, heap) -> rankedByCategory.put(categoryId, drainDescending(heap)));
+        snapshot = new TrendingSnapshot(drainDescending(global), rankedByCategory, System.currentTimeMillis());
+    }
+
+    public long[] topVideoIds(int limit) {
+        return snapshot.top(limit);
+    }
+
+    public long[] topVideoIdsInCategory(long categoryId, int limit) {
+        return snapshot.topInCategory(categoryId, limit);
+    }
+
+    // New windows start unresolved; drop the ones whose video is gone or not public
+    private void resolveCategories() {
+        List<Long> unresolved = new ArrayList<>();
+        windows.forEach((videoId, window) -> {
+            if (window.getCategoryId() == TrendingWindow.UNRESOLVED_CATEGORY) {
+                unresolved.add(videoId);
+            }
+        });
+
+        for (int from = 0; from < unresolved.size(); from += RESOLVE_BATCH_SIZE) {
+            List<Long> batch = unresolved.subList(from, Math.min(from + RESOLVE_BATCH_SIZE, unresolved.size()));
+            Set<Long> found = new HashSet<>();
+            for (Object[] row : videoRepository.findCategoryIdsByIdIn(batch, Video.Privacy.PUBLIC)) {
+                Long videoId = (Long) row[0];
+                Long categoryId = (Long) row[1];
+                found.add(videoId);
+                TrendingWindow window = windows.get(videoId);
+                if (window != null) {
+                    window.setCategoryId(categoryId != null ? categoryId : TrendingWindow.NO_CATEGORY);
+                }
+            }
+            for (Long videoId : batch) {
+                if (!found.contains(videoId)) {
+                    windows.remove(videoId);
+                }
+            }
+        }
+    }
+
+    private TrendingWindow window(Long videoId) {
+        return windows.computeIfAbsent(videoId, id -> new TrendingWindow());
+    }
+
+    private static void offer(PriorityQueue<Scored> heap, Scored scored) {
+        if (heap.size() < TOP_K) {
+            heap.add(scored);
+        } else if (LOWEST_FIRST.compare(scored, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(scored);
+        }
+    }
+
+    private static long[] drainDescending(PriorityQueue<Scored> heap) {
+        long[] ranked = new long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll().videoId();
+        }
+        return ranked;
+    }
+
+    private static long currentHour() {
+        return System.currentTimeMillis() / 3_600_000L;
+    }
+
+    private static long toHour(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600L;
+    }
+
+    private record Scored(long videoId, double score) {
+    }
+}
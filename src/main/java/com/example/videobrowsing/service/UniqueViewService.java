@@ -0,0 +1,148 @@
+package com.example.videobrowsing.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.videobrowsing.analytics.RotatingBloomFilter;
+import com.example.videobrowsing.analytics.UniqueViewerWindow;
+import com.example.videobrowsing.analytics.ViewerHash;
+import com.example.videobrowsing.event.VideoChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Decides which video opens count as views, and estimates unique viewers per video.
+ * <p>
+ * A (video, viewer) pair counts once per dedupe window: a {@link RotatingBloomFilter} remembers
+ * recent pairs and rotates every {@code views.dedupe-rotate-interval-ms} (12 hours by default),
+ * so a refresh or re-open within 12 to 24 hours is not counted again. Every open is also added
+ * to the video's {@link UniqueViewerWindow} for the unique-viewer analytics. Memory is the fixed
+ * size of the filter plus about 1 KiB per video per day it was viewed in the last week.
+ * <p>
+ * Size {@code views.dedupe-expected-viewers} for the peak number of distinct (video, viewer)
+ * pairs opened within one rotation interval, not for distinct viewers: 100,000 viewers opening
+ * 15 videos each in a 12 hour interval is 1.5 million pairs. Each generation takes about 9.6
+ * bits per expected pair at the default 1% false-positive rate (1.2 MB per million), and two
+ * generations are kept. When more pairs arrive than the filter was sized for, it rotates early
+ * instead of silently dropping real views as duplicates; {@code videos.views.dedupe.early.rotations}
+ * counts those, and {@code videos.views.dedupe.false.positive.rate} shows the current estimate.
+ * A counter that keeps climbing means the expected viewers setting is too low.
+ * <p>
+ * Viewers are keyed by user id when logged in and by session id otherwise, see {@link #viewerKey}.
+ */
+@Service
+public class UniqueViewService {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueViewService.class);
+
+    private static final int SKETCH_PRECISION = 10;
+
+    @Value("${views.dedupe-expected-viewers:1000000}")
+    private long expectedViewers;
+
+    @Value("${views.dedupe-false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, UniqueViewerWindow> viewersByVideo = new ConcurrentHashMap<>();
+    private final Clock clock = Clock.systemUTC();
+
+    private RotatingBloomFilter recentViewers;
+    private Counter earlyRotations;
+
+    @PostConstruct
+    void createFilter() {
+        recentViewers = new RotatingBloomFilter(expectedViewers, falsePositiveRate);
+        log.info("View dedupe filter sized at {} bits with {} hashes per generation",
+                recentViewers.getBitCount(), recentViewers.getHashCount());
+        Gauge.builder("videos.views.dedupe.fill", recentViewers, RotatingBloomFilter::getFillRatio)
+                .description("Share of bits set in the current view dedupe generation")
+                .register(meterRegistry);
+        Gauge.builder("videos.views.dedupe.false.positive.rate", recentViewers,
+                        RotatingBloomFilter::getEstimatedFalsePositiveRate)
+                .description("Estimated chance that a new view is taken for a repeat")
+                .register(meterRegistry);
+        earlyRotations = Counter.builder("videos.views.dedupe.early.rotations")
+                .description("View dedupe rotations forced by a saturated filter")
+                .register(meterRegistry);
+    }
+
+    public static String viewerKey(Long userId, String sessionId) {
+        if (userId != null) {
+            return "u:" + userId;
+        }
+        return sessionId != null ? "s:" + sessionId : null;
+    }
+
+    /**
+     * Records an open of the video by the viewer.
+     *
+     * @return {@code true} if this viewer has not been counted for the video within the dedupe window
+     */
+    public boolean registerView(Long videoId, String viewerKey) {
+        if (videoId == null) {
+            return false;
+        }
+        if (viewerKey == null) {
+            // Nothing to dedupe on; count it rather than drop it
+            return true;
+        }
+        viewersByVideo.computeIfAbsent(videoId, id -> new UniqueViewerWindow(SKETCH_PRECISION))
+                .add(today(), ViewerHash.of(viewerKey));
+        boolean counted = recentViewers.add(ViewerHash.of(videoId, viewerKey));
+        if (recentViewers.isSaturated() && recentViewers.rotateIfSaturated()) {
+            earlyRotations.increment();
+            log.warn("View dedupe filter passed its {} false-positive rate before the scheduled rotation; "
+                    + "views.dedupe-expected-viewers ({}) is too low for current traffic", falsePositiveRate, expectedViewers);
+        }
+        return counted;
+    }
+
+    /**
+     * Estimated distinct viewers of the video over the last {@code days} days, including today.
+     */
+    public long estimateUniqueViewers(Long videoId, int days) {
+        UniqueViewerWindow window = viewersByVideo.get(videoId);
+        if (window == null) {
+            return 0L;
+        }
+        int dayCount = Math.max(1, Math.min(days, UniqueViewerWindow.WINDOW_DAYS));
+        return window.estimate(today(), dayCount);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (event.type() == VideoChangedEvent.Type.DELETED && event.videoId() != null) {
+            viewersByVideo.remove(event.videoId());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${views.dedupe-rotate-interval-ms:43200000}",
+            initialDelayString = "${views.dedupe-rotate-interval-ms:43200000}")
+    public void rotate() {
+        recentViewers.rotate();
+        long today = today();
+        int before = viewersByVideo.size();
+        viewersByVideo.values().removeIf(window -> window.isExpired(today));
+        log.debug("Rotated view dedupe filter; dropped {} idle viewer sketches", before - viewersByVideo.size());
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+}
@@ -30,6 +30,9 @@ public class UserDeletionService {
     @Autowired
     private VideoService videoService;
 
+    @Autowired
+    private WatchProgressBuffer watchProgressBuffer;
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
@@ -76,7 +79,11 @@ public class UserDeletionService {
         // Step 3: Delete user's profile photo
         deleteUserPhoto(user.getProfilePicture());
 
-        // Step 4: Delete user from database
+        // Step 4: Drop playback progress that has not been flushed yet. Heartbeats that still
+        // arrive are skipped at flush time because the user row is gone.
+        watchProgressBuffer.discardUser(user.getId());
+
+        // Step 5: Delete user from database
         // This will CASCADE delete all remaining related data:
         // - Comments (and their likes and replies)
         // - Ratings
@@ -84,7 +91,7 @@ public class UserDeletionService {
         // - Comment likes
         // - Subscriptions (as subscriber and creator)
         // - Playlists (and playlist videos)
-        // - Watch history
+        // - Watch history (ON DELETE CASCADE in V3__watch_history.sql)
         userRepository.delete(user);
 
         System.out.println("=== USER DELETION COMPLETED ===");
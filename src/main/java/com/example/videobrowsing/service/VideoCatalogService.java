@@ -0,0 +1,152 @@
+package com.example.videobrowsing.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.videobrowsing.catalog.CatalogQuery;
+import com.example.videobrowsing.catalog.CatalogResult;
+import com.example.videobrowsing.catalog.CatalogRow;
+import com.example.videobrowsing.catalog.VideoCatalog;
+import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.event.VideoChangedEvent;
+import com.example.videobrowsing.event.VideoEngagementEvent;
+import com.example.videobrowsing.repository.VideoRepository;
+
+/**
+ * Owns the in-memory {@link VideoCatalog} of public videos.
+ * <p>
+ * The catalog is built from the database once the application is ready and then kept current
+ * from {@link VideoChangedEvent}s and {@link VideoEngagementEvent}s after their transactions
+ * commit. Until the first build finishes, {@link #query} returns empty and callers fall back
+ * to the database; videos touched during the build are re-read from the database afterwards.
+ */
+@Service
+public class VideoCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoCatalogService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
+    private volatile VideoCatalog catalog;
+
+    // Ids changed while the catalog was being built; guarded by itself
+    private final Set<Long> pendingIds = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        VideoCatalog built = new VideoCatalog();
+        long afterId = 0L;
+        try {
+            while (true) {
+                List<CatalogRow> batch = videoRepository.findCatalogRows(
+                        Video.Privacy.PUBLIC, afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                batch.forEach(row -> built.upsert(withPendingViews(row)));
+                if (batch.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).id();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Video catalog build failed after id {}; filtered listings will use the database", afterId, ex);
+            return;
+        }
+
+        List<Long> touched;
+        synchronized (pendingIds) {
+            catalog = built;
+            touched = new ArrayList<>(pendingIds);
+            pendingIds.clear();
+        }
+        touched.forEach(id -> refresh(built, id));
+        log.info("Video catalog loaded with {} public videos", built.size());
+    }
+
+    /**
+     * Runs the query against the catalog, or returns empty while it is not loaded.
+     */
+    public Optional<CatalogResult> query(CatalogQuery query, int offset, int limit) {
+        VideoCatalog current = catalog;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.query(query, offset, limit));
+    }
+
+    /**
+     * Result page plus facet counts, or empty while the catalog is not loaded.
+     */
+    public Optional<CatalogResult> browse(CatalogQuery query, LocalDateTime now, int offset, int limit) {
+        VideoCatalog current = catalog;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.browse(query, now, offset, limit));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (event.type() == VideoChangedEvent.Type.DELETED) {
+            apply(event.videoId(), current -> current.remove(event.videoId()));
+        } else {
+            apply(event.videoId(), current -> refresh(current, event.videoId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(VideoEngagementEvent event) {
+        apply(event.videoId(), current -> current.adjustCounts(event.videoId(), event.viewDelta(), event.likeDelta()));
+    }
+
+    private void apply(Long videoId, Consumer<VideoCatalog> change) {
+        if (videoId == null) {
+            return;
+        }
+        VideoCatalog current = catalog;
+        if (current == null) {
+            synchronized (pendingIds) {
+                current = catalog;
+                if (current == null) {
+                    pendingIds.add(videoId);
+                    return;
+                }
+            }
+        }
+        change.accept(current);
+    }
+
+    // Re-reads the row so privacy changes add or drop the video
+    private void refresh(VideoCatalog target, Long videoId) {
+        try {
+            videoRepository.findCatalogRow(videoId, Video.Privacy.PUBLIC)
+                    .ifPresentOrElse(row -> target.upsert(withPendingViews(row)), () -> target.remove(videoId));
+        } catch (RuntimeException ex) {
+            log.warn("Could not refresh video {} in the catalog", videoId, ex);
+        }
+    }
+
+    // The stored count trails views still buffered in ViewCountBuffer, which the catalog already
+    // counted from their engagement events
+    private CatalogRow withPendingViews(CatalogRow row) {
+        return row.plusViews(viewCountBuffer.pendingFor(row.id()));
+    }
+}
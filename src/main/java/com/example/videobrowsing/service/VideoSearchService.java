@@ -0,0 +1,136 @@
+package com.example.videobrowsing.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.videobrowsing.event.VideoChangedEvent;
+import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.search.SearchResult;
+import com.example.videobrowsing.search.SearchRow;
+import com.example.videobrowsing.search.VideoSearchIndex;
+
+/**
+ * Owns the in-memory {@link VideoSearchIndex}.
+ * <p>
+ * The index is built from the database once the application is ready and kept current from
+ * {@link VideoChangedEvent}s after their transactions commit. Category and uploader renames do
+ * not publish video events, so the index is also rebuilt periodically in the background and
+ * swapped in whole. Until the first build finishes, {@link #search} returns empty and callers
+ * fall back to the database.
+ */
+@Service
+public class VideoSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoSearchService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    private volatile VideoSearchIndex index;
+
+    // Ids changed while an index was being built; null when no build is running. Guarded by this.
+    private Set<Long> pendingIds;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.rebuild-interval-ms:21600000}",
+               initialDelayString = "${search.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        synchronized (this) {
+            if (pendingIds != null) {
+                return;
+            }
+            pendingIds = new HashSet<>();
+        }
+
+        VideoSearchIndex built = new VideoSearchIndex();
+        long afterId = 0L;
+        try {
+            while (true) {
+                List<SearchRow> batch = videoRepository.findSearchRows(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                batch.forEach(built::upsert);
+                if (batch.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).id();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Search index build failed after id {}; keeping the previous index", afterId, ex);
+            synchronized (this) {
+                pendingIds = null;
+            }
+            return;
+        }
+
+        List<Long> touched;
+        synchronized (this) {
+            index = built;
+            touched = new ArrayList<>(pendingIds);
+            pendingIds = null;
+        }
+        touched.forEach(id -> refresh(built, id));
+        log.info("Search index loaded with {} videos", built.size());
+    }
+
+    /**
+     * Ranked video ids for the query, or empty while the index is not loaded.
+     */
+    public Optional<SearchResult> search(String query, Long categoryId, boolean publicOnly, int offset, int limit) {
+        VideoSearchIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.search(query, categoryId, publicOnly, offset, limit));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        Long videoId = event.videoId();
+        if (videoId == null) {
+            return;
+        }
+        VideoSearchIndex current;
+        synchronized (this) {
+            // A running build may already have read the old row; replay the change after it
+            if (pendingIds != null) {
+                pendingIds.add(videoId);
+            }
+            current = index;
+        }
+        if (current == null) {
+            return;
+        }
+        if (event.type() == VideoChangedEvent.Type.DELETED) {
+            current.remove(videoId);
+        } else {
+            refresh(current, videoId);
+        }
+    }
+
+    private void refresh(VideoSearchIndex target, Long videoId) {
+        try {
+            videoRepository.findSearchRow(videoId)
+                    .ifPresentOrElse(target::upsert, () -> target.remove(videoId));
+        } catch (RuntimeException ex) {
+            log.warn("Could not refresh video {} in the search index", videoId, ex);
+        }
+    }
+}
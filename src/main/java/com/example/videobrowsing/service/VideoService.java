@@ -3,13 +3,14 @@ package com.example.videobrowsing.service;
 
 
 import java.io.IOException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -17,27 +18,43 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.util.UriUtils;
 
+import com.example.videobrowsing.analytics.UniqueViewerWindow;
+import com.example.videobrowsing.catalog.CatalogQuery;
+import com.example.videobrowsing.catalog.CatalogResult;
+import com.example.videobrowsing.catalog.CatalogRow;
+import com.example.videobrowsing.catalog.CatalogSort;
+import com.example.videobrowsing.dto.CursorPage;
+import com.example.videobrowsing.dto.VideoBrowseResponse;
 import com.example.videobrowsing.dto.VideoDTO;
 import com.example.videobrowsing.dto.VideoRatingSummary;
+import com.example.videobrowsing.entity.Category;
 import com.example.videobrowsing.entity.Rating;
 import com.example.videobrowsing.entity.User;
 import com.example.videobrowsing.entity.Video;
 import com.example.videobrowsing.entity.VideoUserRating;
+import com.example.videobrowsing.event.VideoChangedEvent;
+import com.example.videobrowsing.event.VideoEngagementEvent;
 import com.example.videobrowsing.repository.CategoryRepository;
 import com.example.videobrowsing.repository.RatingRepository;
 import com.example.videobrowsing.repository.VideoRepository;
 import com.example.videobrowsing.repository.VideoUserRatingRepository;
+import com.example.videobrowsing.search.SearchResult;
+import com.example.videobrowsing.util.MediaUrls;
+import com.example.videobrowsing.util.PageCursor;
+import com.example.videobrowsing.util.TagNames;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
@@ -59,11 +76,50 @@ public class VideoService {
     @Autowired
     private SubscriptionService subscriptionService;
 
+    @Autowired
+    private VideoCatalogService videoCatalogService;
+
+    @Autowired
+    private VideoSearchService videoSearchService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private RelatedVideoService relatedVideoService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
+    @Autowired
+    private UniqueViewService uniqueViewService;
+
+    @Autowired
+    private BlocklistService blocklistService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // First keyset page: sorts above every stored created_at (MySQL DATETIME tops out at 9999-12-31)
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    // How far back getTrendingVideos looks for uploads to top up a thin trending snapshot
+    private static final int TRENDING_FALLBACK_DAYS = 7;
+
+    // Ranked keyword search returns at most this many videos
+    static final int SEARCH_RESULT_LIMIT = 200;
+
     public VideoDTO toDto(Video video, Optional<User> currentUser) {
         if (video == null) {
             return null;
@@ -74,11 +130,11 @@ public class VideoService {
         dto.setTitle(video.getTitle());
         dto.setDescription(video.getDescription());
 
-        String videoUrl = resolveVideoUrl(video);
+        String videoUrl = MediaUrls.videoUrl(video);
         dto.setFilePath(videoUrl);
         dto.setVideoUrl(videoUrl);
 
-        String thumbnailUrl = resolveThumbnailUrl(video);
+        String thumbnailUrl = MediaUrls.thumbnailUrl(video);
         dto.setThumbnailPath(thumbnailUrl);
         dto.setThumbnailUrl(thumbnailUrl);
 
@@ -111,7 +167,7 @@ public class VideoService {
 
         dto.setPrivacy(video.getPrivacy() != null ? video.getPrivacy().name() : null);
         dto.setStatus(video.getStatus() != null ? video.getStatus().name() : null);
-        dto.setViewCount(Optional.ofNullable(video.getViewCount()).orElse(0L));
+        dto.setViewCount(viewCountOf(video));
         dto.setLikeCount(Optional.ofNullable(video.getLikeCount()).orElse(0L));
         dto.setDislikeCount(Optional.ofNullable(video.getDislikeCount()).orElse(0L));
         dto.setTags(video.getTags());
@@ -147,80 +203,6 @@ public class VideoService {
             .collect(Collectors.toList());
     }
 
-    private String resolveThumbnailUrl(Video video) {
-        if (video == null) {
-            return "/images/default-thumbnail.jpg";
-        }
-
-        String thumbnail = video.getThumbnail();
-        if (thumbnail == null || thumbnail.isBlank()) {
-            return "/images/default-thumbnail.jpg";
-        }
-
-        String normalized = thumbnail.trim().replace("\\", "/");
-        if (normalized.startsWith("http://") || normalized.startsWith("https://")) {
-            return normalized;
-        }
-
-        String resolved;
-        if (normalized.startsWith("/")) {
-            resolved = normalized;
-        } else if (normalized.startsWith("uploads/") || normalized.startsWith("static/") || normalized.startsWith("thumbnails/") || normalized.startsWith("images/")) {
-            resolved = "/" + normalized;
-        } else {
-            int uploadsIndex = normalized.indexOf("/uploads/");
-            if (uploadsIndex >= 0) {
-                resolved = normalized.substring(uploadsIndex);
-                if (!resolved.startsWith("/")) {
-                    resolved = "/" + resolved;
-                }
-            } else if (normalized.contains("/")) {
-                resolved = normalized.startsWith("/") ? normalized : "/" + normalized;
-            } else {
-                resolved = "/uploads/thumbnails/" + normalized;
-            }
-        }
-
-        return encodeForUrl(resolved);
-    }
-
-    private String resolveVideoUrl(Video video) {
-        if (video == null) {
-            return null;
-        }
-
-        String path = video.getFilepath();
-        if (path == null || path.isBlank()) {
-            return null;
-        }
-
-        String normalized = path.trim().replace("\\", "/");
-        if (normalized.startsWith("http://") || normalized.startsWith("https://")) {
-            return normalized;
-        }
-
-        String resolved;
-        if (normalized.startsWith("/")) {
-            resolved = normalized;
-        } else if (normalized.startsWith("uploads/") || normalized.startsWith("videos/") || normalized.startsWith("video/") || normalized.startsWith("static/")) {
-            resolved = "/" + normalized;
-        } else {
-            int uploadsIndex = normalized.indexOf("/uploads/");
-            if (uploadsIndex >= 0) {
-                resolved = normalized.substring(uploadsIndex);
-                if (!resolved.startsWith("/")) {
-                    resolved = "/" + resolved;
-                }
-            } else if (normalized.contains("/")) {
-                resolved = normalized.startsWith("/") ? normalized : "/" + normalized;
-            } else {
-                resolved = "/uploads/videos/" + normalized;
-            }
-        }
-
-        return encodeForUrl(resolved);
-    }
-
     private String resolveDisplayName(User user) {
         if (user == null) {
             return "Unknown Creator";
@@ -242,6 +224,10 @@ public class VideoService {
     }
 
     public Video uploadVideo(VideoDTO videoDTO, MultipartFile videoFile, MultipartFile thumbnailFile, User uploader) throws IOException {
+        // Checked before anything is written to disk
+        blocklistService.check("Title", videoDTO.getTitle());
+        blocklistService.check("Description", videoDTO.getDescription());
+
         // Save video file
         String videoFileName = UUID.randomUUID() + "_" + videoFile.getOriginalFilename();
         Path videoPath = Paths.get(uploadDir, "videos", videoFileName);
@@ -282,19 +268,88 @@ public class VideoService {
         categoryRepository.findById(videoDTO.getCategoryId())
             .ifPresent(video::setCategory);
 
-        return videoRepository.save(video);
+        Video saved = videoRepository.save(video);
+        tagService.syncVideoTags(saved.getId(), saved.getTags());
+        eventPublisher.publishEvent(VideoChangedEvent.saved(saved.getId()));
+        return saved;
     }
 
     public List<Video> getAllPublicVideos() {
         return videoRepository.findByPrivacyOrderByCreatedAtDesc(Video.Privacy.PUBLIC);
     }
 
-    public List<Video> getMostViewedVideos() {
-        return videoRepository.findByPrivacyOrderByViewCountDesc(Video.Privacy.PUBLIC);
+    public CursorPage<Video> getLatestVideosPage(String cursor, int limit) {
+        PageCursor after = decodeCursor(cursor, "latest");
+        List<Video> rows = videoRepository.findLatestPage(Video.Privacy.PUBLIC,
+            createdAtAfter(after), idAfter(after), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, "latest", video -> PageCursor.toKey(video.getCreatedAt()));
+    }
+
+    public CursorPage<Video> getMostViewedVideosPage(String cursor, int limit) {
+        PageCursor after = decodeCursor(cursor, "views");
+        List<Object[]> keys = videoRepository.findMostViewedPage(Video.Privacy.PUBLIC.name(),
+            after != null ? after.key() : Long.MAX_VALUE, idAfter(after), PageRequest.of(0, limit + 1));
+        return toCounterPage(keys, limit, "views");
+    }
+
+    public CursorPage<Video> getMostLikedVideosPage(String cursor, int limit) {
+        PageCursor after = decodeCursor(cursor, "likes");
+        List<Object[]> keys = videoRepository.findMostLikedPage(Video.Privacy.PUBLIC.name(),
+            after != null ? after.key() : Long.MAX_VALUE, idAfter(after), PageRequest.of(0, limit + 1));
+        return toCounterPage(keys, limit, "likes");
+    }
+
+    // Rows are [video_id, count]; the cursor uses the count the page was ordered by
+    private CursorPage<Video> toCounterPage(List<Object[]> keys, int limit, String scope) {
+        Map<Long, Long> countById = new HashMap<>();
+        long[] ids = new long[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            ids[i] = ((Number) keys.get(i)[0]).longValue();
+            countById.put(ids[i], ((Number) keys.get(i)[1]).longValue());
+        }
+        return toCursorPage(loadInOrder(ids), limit, scope, video -> countById.get(video.getId()));
+    }
+
+    public CursorPage<Video> getVideosByCategoryPage(Long categoryId, String cursor, int limit) {
+        String scope = "category-" + categoryId;
+        PageCursor after = decodeCursor(cursor, scope);
+        List<Video> rows = videoRepository.findCategoryPage(categoryId, Video.Privacy.PUBLIC,
+            createdAtAfter(after), idAfter(after), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, scope, video -> PageCursor.toKey(video.getCreatedAt()));
+    }
+
+    public CursorPage<Video> getVideosByUserPage(User user, String cursor, int limit) {
+        String scope = "user-" + user.getId();
+        PageCursor after = decodeCursor(cursor, scope);
+        List<Video> rows = videoRepository.findUploaderPage(user,
+            createdAtAfter(after), idAfter(after), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, scope, video -> PageCursor.toKey(video.getCreatedAt()));
+    }
+
+    private PageCursor decodeCursor(String cursor, String scope) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        return PageCursor.decode(cursor.trim(), scope);
+    }
+
+    private LocalDateTime createdAtAfter(PageCursor after) {
+        return after != null ? PageCursor.toDateTime(after.key()) : FIRST_PAGE_CREATED_AT;
     }
 
-    public List<Video> getMostLikedVideos() {
-        return videoRepository.findByPrivacyOrderByLikeCountDesc(Video.Privacy.PUBLIC);
+    private long idAfter(PageCursor after) {
+        return after != null ? after.id() : Long.MAX_VALUE;
+    }
+
+    // rows holds up to limit + 1 entries; the extra one only tells us whether another page exists
+    private CursorPage<Video> toCursorPage(List<Video> rows, int limit, String scope, ToLongFunction<Video> sortKey) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Video> page = rows.subList(0, limit);
+        Video last = page.get(page.size() - 1);
+        String nextCursor = new PageCursor(scope, sortKey.applyAsLong(last), last.getId()).encode();
+        return new CursorPage<>(page, nextCursor);
     }
 
     public List<Video> getTopRatedVideos() {
@@ -310,55 +365,103 @@ public class VideoService {
         return videoRepository.findById(videoId);
     }
 
-    public Optional<Video> incrementViewCount(Long videoId) {
-        Optional<Video> videoOpt = videoRepository.findById(videoId);
-        if (videoOpt.isPresent()) {
-            Video video = videoOpt.get();
-            video.setViewCount(asLong(video.getViewCount()) + 1);
-            return Optional.of(videoRepository.save(video));
+    /**
+     * Counts a view unless this viewer was already counted for the video within the dedupe window
+     * (see {@link UniqueViewService}). The increment is buffered and written in batches by
+     * {@link ViewCountBuffer}; {@link #viewCountOf(Video)} includes views that are still pending.
+     *
+     * @return whether the open was counted as a new view
+     */
+    public boolean recordView(Long videoId, String viewerKey) {
+        if (!uniqueViewService.registerView(videoId, viewerKey)) {
+            return false;
+        }
+        viewCountBuffer.record(videoId);
+        eventPublisher.publishEvent(VideoEngagementEvent.views(videoId, 1L));
+        return true;
+    }
+
+    /**
+     * View analytics for the uploader or an admin: counted views and estimated unique viewers
+     * over the last day and the last {@code days} days.
+     */
+    public Map<String, Object> getViewAnalytics(Long videoId, User user, int days) {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(() -> new IllegalArgumentException("Video not found"));
+
+        boolean isAdmin = user.getRole() == User.Role.ADMIN;
+        if (!isAdmin && !video.getUploadedBy().getId().equals(user.getId())) {
+            throw new IllegalStateException("Not authorized to view analytics for this video");
         }
-        return Optional.empty();
+
+        int window = Math.max(1, Math.min(days, UniqueViewerWindow.WINDOW_DAYS));
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("videoId", videoId);
+        analytics.put("viewCount", viewCountOf(video));
+        analytics.put("days", window);
+        analytics.put("uniqueViewers", uniqueViewService.estimateUniqueViewers(videoId, window));
+        analytics.put("uniqueViewersToday", uniqueViewService.estimateUniqueViewers(videoId, 1));
+        return analytics;
+    }
+
+    public long viewCountOf(Video video) {
+        return asLong(video.getViewCount()) + viewCountBuffer.pendingFor(video.getId());
     }
 
     public Optional<Rating> findRatingForUser(Video video, User user) {
         return ratingRepository.findByVideoAndUser(video, user);
     }
 
+    /**
+     * Likes or dislikes the video, or clears the rating when the user repeats it.
+     * <p>
+     * The rating row changes with at most two statements. An upsert on the unique
+     * (video_id, user_id) key inserts the rating (1 affected row) or switches the other type to
+     * this one (2 rows). A row that already had this type is left as it was, and a delete of the
+     * same type stamped before this call then clears it. The affected-row counts give the exact
+     * counter delta for one atomic update of {@code video_stats}, and a final read returns the
+     * counts and the user's rating. Nothing is loaded or rescanned. READ COMMITTED keeps MySQL
+     * from taking gap locks on the misses, so toggles by different users do not deadlock. Rating
+     * a video that no longer exists fails on the foreign key.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Map<String, Object> toggleRating(Long videoId, User user, Rating.RatingType ratingType) {
-        Video video = videoRepository.findById(videoId)
-                .orElseThrow(() -> new IllegalArgumentException("Video not found"));
+        Long userId = user.getId();
+        String type = ratingType.name();
+        long likeDelta = 0L;
+        long dislikeDelta = 0L;
 
-        Optional<Rating> existingOpt = ratingRepository.findByVideoAndUser(video, user);
-
-        if (existingOpt.isPresent()) {
-            Rating existing = existingOpt.get();
-            if (existing.getRatingType() == ratingType) {
-                ratingRepository.delete(existing);
-            } else {
-                existing.setRatingType(ratingType);
-                ratingRepository.save(existing);
-            }
-        } else {
-            Rating rating = new Rating(video, user, ratingType);
-            ratingRepository.save(rating);
+        // Truncated to what datetime(6) stores, so the delete can tell this call's row apart
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int upserted = ratingRepository.upsertRating(videoId, userId, type, now);
+        if (upserted == 2) {
+            likeDelta = ratingType == Rating.RatingType.LIKE ? 1L : -1L;
+            dislikeDelta = -likeDelta;
+        } else if (ratingRepository.deleteEarlierRating(videoId, userId, type, now) > 0) {
+            likeDelta = ratingType == Rating.RatingType.LIKE ? -1L : 0L;
+            dislikeDelta = ratingType == Rating.RatingType.DISLIKE ? -1L : 0L;
+        } else if (upserted == 1) {
+            likeDelta = ratingType == Rating.RatingType.LIKE ? 1L : 0L;
+            dislikeDelta = ratingType == Rating.RatingType.DISLIKE ? 1L : 0L;
         }
 
-        Long likeCount = ratingRepository.countByVideoAndRatingType(video, Rating.RatingType.LIKE);
-        Long dislikeCount = ratingRepository.countByVideoAndRatingType(video, Rating.RatingType.DISLIKE);
-
-        video.setLikeCount(likeCount != null ? likeCount : 0L);
-        video.setDislikeCount(dislikeCount != null ? dislikeCount : 0L);
-        videoRepository.save(video);
+        if (likeDelta != 0 || dislikeDelta != 0) {
+            videoRepository.adjustRatingCounts(videoId, likeDelta, dislikeDelta);
+            eventPublisher.publishEvent(VideoEngagementEvent.ratings(videoId, likeDelta, dislikeDelta));
+        }
 
-        Optional<Rating> postUpdate = ratingRepository.findByVideoAndUser(video, user);
-        boolean liked = postUpdate.filter(r -> r.getRatingType() == Rating.RatingType.LIKE).isPresent();
-        boolean disliked = postUpdate.filter(r -> r.getRatingType() == Rating.RatingType.DISLIKE).isPresent();
+        List<Object[]> state = videoRepository.findRatingState(videoId, userId);
+        if (state.isEmpty()) {
+            throw new IllegalArgumentException("Video not found");
+        }
+        Object[] row = state.get(0);
+        String current = row[2] != null ? row[2].toString() : null;
 
         Map<String, Object> response = new HashMap<>();
-        response.put("liked", liked);
-        response.put("disliked", disliked);
-        response.put("likeCount", video.getLikeCount());
-        response.put("dislikeCount", video.getDislikeCount());
+        response.put("liked", Rating.RatingType.LIKE.name().equals(current));
+        response.put("disliked", Rating.RatingType.DISLIKE.name().equals(current));
+        response.put("likeCount", ((Number) row[0]).longValue());
+        response.put("dislikeCount", ((Number) row[1]).longValue());
         return response;
     }
 
@@ -399,6 +502,8 @@ public class VideoService {
         if (!video.getUploadedBy().getId().equals(user.getId())) {
             throw new IllegalStateException("Not authorized to update this video");
         }
+        blocklistService.check("Title", videoDTO.getTitle());
+        blocklistService.check("Description", videoDTO.getDescription());
 
         video.setTitle(videoDTO.getTitle());
         video.setDescription(videoDTO.getDescription());
@@ -419,7 +524,10 @@ public class VideoService {
                 .ifPresent(video::setCategory);
         }
 
-        return videoRepository.save(video);
+        Video saved = videoRepository.save(video);
+        tagService.syncVideoTags(saved.getId(), saved.getTags());
+        eventPublisher.publishEvent(VideoChangedEvent.saved(saved.getId()));
+        return saved;
     }
 
     /**
@@ -452,6 +560,7 @@ public class VideoService {
         // - Playlist entries
         // - Watch history entries
         videoRepository.delete(video);
+        eventPublisher.publishEvent(VideoChangedEvent.deleted(videoId));
 
         // After successful database deletion, delete physical files
         deleteVideoFiles(videoFilePath, thumbnailPath);
@@ -523,11 +632,27 @@ public class VideoService {
     public List<Video> searchVideos(String keyword, String categoryName) {
         String trimmedKeyword = keyword != null ? keyword.trim() : "";
 
+        if (!trimmedKeyword.isEmpty()) {
+            Long categoryId = null;
+            if (categoryName != null && !categoryName.isBlank()) {
+                Optional<Category> category = categoryRepository.findByNameIgnoreCase(categoryName.trim());
+                if (category.isEmpty()) {
+                    return List.of();
+                }
+                categoryId = category.get().getId();
+            }
+            Optional<SearchResult> ranked = videoSearchService.search(
+                trimmedKeyword, categoryId, true, 0, SEARCH_RESULT_LIMIT);
+            if (ranked.isPresent()) {
+                return loadInOrder(ranked.get().videoIds());
+            }
+        }
+
         List<Video> baseResults;
         if (trimmedKeyword.isEmpty()) {
             baseResults = getAllPublicVideos();
         } else {
-            // Search only in title
+            // Index not loaded yet: title-only search in the database
             baseResults = videoRepository.findByTitleContainingIgnoreCase(trimmedKeyword);
         }
 
@@ -538,30 +663,42 @@ public class VideoService {
             .collect(Collectors.toList());
     }
 
-    public List<Video> getVideosByCategory(Long categoryId) {
-        return videoRepository.findByCategoryIdAndPrivacyOrderByCreatedAtDesc(categoryId, Video.Privacy.PUBLIC);
-    }
-
     public List<Video> getRelatedVideos(Long videoId) {
+        List<Video> precomputed = relatedVideoService.relatedVideos(videoId, 10);
+        if (precomputed.size() >= 10) {
+            return precomputed;
+        }
+
         Optional<Video> videoOpt = videoRepository.findById(videoId);
         if (videoOpt.isEmpty()) {
             return videoRepository.findTop5ByPrivacyOrderByViewCountDesc(Video.Privacy.PUBLIC);
         }
 
+        // Not computed yet (new upload) or too few neighbours: top up from the live signals
         Video video = videoOpt.get();
-        LinkedHashSet<Video> related = new LinkedHashSet<>();
+        LinkedHashSet<Video> related = new LinkedHashSet<>(precomputed);
 
-        List<String> tagList = extractTags(video.getTags());
-        for (String tag : tagList) {
-            if (related.size() >= 10) {
-                break;
+        Optional<long[]> byTags = tagService.relatedVideoIds(videoId, 10);
+        if (byTags.isPresent()) {
+            for (Video tagged : loadInOrder(byTags.get())) {
+                if (related.size() >= 10) {
+                    break;
+                }
+                related.add(tagged);
+            }
+        } else {
+            // Tag index not loaded yet: one substring query per tag
+            for (String tag : TagNames.parse(video.getTags())) {
+                if (related.size() >= 10) {
+                    break;
+                }
+                videoRepository
+                    .findTop10ByTagsContainingIgnoreCaseAndIdNotAndPrivacyOrderByViewCountDesc(tag, videoId, Video.Privacy.PUBLIC)
+                    .forEach(related::add);
             }
-            videoRepository
-                .findTop10ByTagsContainingIgnoreCaseAndIdNotAndPrivacyOrderByViewCountDesc(tag, videoId, Video.Privacy.PUBLIC)
-                .forEach(related::add);
         }
 
-        if (video.getCategory() != null) {
+        if (related.size() < 10 && video.getCategory() != null) {
             videoRepository
                 .findTop5ByCategoryIdAndIdNotAndPrivacyOrderByViewCountDesc(video.getCategory().getId(), videoId, Video.Privacy.PUBLIC)
                 .forEach(related::add);
@@ -581,37 +718,117 @@ public class VideoService {
 
     // Advanced filtering methods
     public List<Video> getFilteredVideos(String category, String duration, String uploadDate,
-                                       Double minRating, Long minViews, String search, String sortBy) {
-        // This is a simplified implementation. In a real application, you might want to use
-        // JPA Criteria API or custom query methods for more complex filtering
-        List<Video> videos = getAllPublicVideos();
+                                       Double minRating, Long minViews, String search, String sortBy,
+                                       int offset, int limit) {
+        CatalogQuery query = CatalogQuery.fromRequest(
+            category, duration, uploadDate, minRating, minViews, search, sortBy, LocalDateTime.now());
 
-        // Apply filters (this would be better implemented with database queries)
-        return videos.stream()
-            .filter(video -> category == null ||
-                    (video.getCategory() != null && video.getCategory().getName().equalsIgnoreCase(category)))
-            .filter(video -> minRating == null ||
-                    (video.getLikeCount() != null && video.getLikeCount() >= minRating.longValue())) // Use like count as proxy for rating
-            .filter(video -> minViews == null ||
-                    (video.getViewCount() != null && video.getViewCount() >= minViews))
-            .filter(video -> search == null || search.isEmpty() ||
-                    video.getTitle().toLowerCase().contains(search.toLowerCase()))
-            .sorted((v1, v2) -> {
-                return switch (sortBy.toLowerCase()) {
-                    case "title-asc" -> v1.getTitle().compareToIgnoreCase(v2.getTitle());
-                    case "title-desc" -> v2.getTitle().compareToIgnoreCase(v1.getTitle());
-                    case "views-desc" -> Long.compare(asLong(v2.getViewCount()), asLong(v1.getViewCount()));
-                    case "views-asc" -> Long.compare(asLong(v1.getViewCount()), asLong(v2.getViewCount()));
-                    case "rating-desc" -> Long.compare(asLong(v2.getLikeCount()), asLong(v1.getLikeCount()));
-                    case "rating-asc" -> Long.compare(asLong(v1.getLikeCount()), asLong(v2.getLikeCount()));
-                    case "oldest" -> v1.getCreatedAt().compareTo(v2.getCreatedAt());
-                    case "latest" -> v2.getCreatedAt().compareTo(v1.getCreatedAt());
-                    default -> v2.getCreatedAt().compareTo(v1.getCreatedAt());
-                };
-            })
+        Optional<CatalogResult> fromCatalog = videoCatalogService.query(query, offset, limit);
+        if (fromCatalog.isPresent()) {
+            return loadInOrder(fromCatalog.get().videoIds());
+        }
+        return filterFromDatabase(query, offset, limit);
+    }
+
+    public VideoBrowseResponse browseVideos(String category, String duration, String uploadDate,
+                                            Double minRating, Long minViews, String search, String sortBy,
+                                            int offset, int limit, Optional<User> currentUser) {
+        LocalDateTime now = LocalDateTime.now();
+        CatalogQuery query = CatalogQuery.fromRequest(
+            category, duration, uploadDate, minRating, minViews, search, sortBy, now);
+
+        Optional<CatalogResult> fromCatalog = videoCatalogService.browse(query, now, offset, limit);
+        if (fromCatalog.isPresent()) {
+            CatalogResult result = fromCatalog.get();
+            return new VideoBrowseResponse(toDtos(loadInOrder(result.videoIds()), currentUser),
+                result.total(), offset, limit, result.facets());
+        }
+
+        // Database fallback: still filtered and paged, but without facet counts
+        List<Video> matching = filterFromDatabase(query, 0, 0);
+        int from = Math.min(Math.max(0, offset), matching.size());
+        int to = Math.min(from + limit, matching.size());
+        return new VideoBrowseResponse(toDtos(matching.subList(from, to), currentUser),
+            matching.size(), offset, limit, null);
+    }
+
+    /**
+     * Public videos carrying every one of the tags, newest first.
+     */
+    public VideoBrowseResponse getVideosWithTags(List<String> tags, int offset, int limit, Optional<User> currentUser) {
+        Optional<SearchResult> fromIndex = tagService.videosWithAllTags(tags, offset, limit);
+        if (fromIndex.isPresent()) {
+            SearchResult result = fromIndex.get();
+            return new VideoBrowseResponse(toDtos(loadInOrder(result.videoIds()), currentUser),
+                result.total(), offset, limit, null);
+        }
+
+        // Tag index not loaded yet: parse every public video's tags
+        List<String> wanted = tags.stream().map(TagNames::normalize).filter(tag -> !tag.isEmpty()).distinct().toList();
+        List<Video> matching = wanted.isEmpty() ? List.of() : getAllPublicVideos().stream()
+            .filter(video -> TagNames.parse(video.getTags()).containsAll(wanted))
+            .toList();
+        int from = Math.min(Math.max(0, offset), matching.size());
+        int to = Math.min(from + limit, matching.size());
+        return new VideoBrowseResponse(toDtos(matching.subList(from, to), currentUser),
+            matching.size(), offset, limit, null);
+    }
+
+    List<Video> loadInOrder(long[] videoIds) {
+        if (videoIds.length == 0) {
+            return List.of();
+        }
+        List<Long> ids = Arrays.stream(videoIds).boxed().toList();
+        Map<Long, Video> byId = videoRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Video::getId, video -> video));
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    // Used until the catalog has loaded (or if it failed to)
+    private List<Video> filterFromDatabase(CatalogQuery query, int offset, int limit) {
+        return getAllPublicVideos().stream()
+            .filter(video -> query.category() == null ||
+                    (video.getCategory() != null && video.getCategory().getName().equalsIgnoreCase(query.category())))
+            .filter(video -> !query.hasDurationFilter() || matchesDuration(video.getDuration(), query))
+            .filter(video -> query.uploadedAfter() == null ||
+                    (video.getCreatedAt() != null && !video.getCreatedAt().isBefore(query.uploadedAfter())))
+            .filter(video -> query.minLikes() == null || asLong(video.getLikeCount()) >= query.minLikes())
+            .filter(video -> query.minViews() == null || asLong(video.getViewCount()) >= query.minViews())
+            .filter(video -> query.search() == null ||
+                    CatalogRow.searchText(video.getTitle(), video.getDescription(), video.getTags()).contains(query.search()))
+            .sorted(filterOrder(query.sort()))
+            .skip(Math.max(0, offset))
+            .limit(limit > 0 ? limit : Long.MAX_VALUE)
             .toList();
     }
 
+    private boolean matchesDuration(Integer duration, CatalogQuery query) {
+        if (duration == null) {
+            return false;
+        }
+        return (query.minDuration() == null || duration >= query.minDuration())
+            && (query.maxDuration() == null || duration < query.maxDuration());
+    }
+
+    private Comparator<Video> filterOrder(CatalogSort sort) {
+        Comparator<Video> byCreatedAt = Comparator.comparing(Video::getCreatedAt,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+        Comparator<Video> order = switch (sort) {
+            case TITLE_ASC -> Comparator.comparing(Video::getTitle, String.CASE_INSENSITIVE_ORDER);
+            case TITLE_DESC -> Comparator.comparing(Video::getTitle, String.CASE_INSENSITIVE_ORDER).reversed();
+            case VIEWS_DESC -> Comparator.comparingLong((Video v) -> asLong(v.getViewCount())).reversed();
+            case VIEWS_ASC -> Comparator.comparingLong(v -> asLong(v.getViewCount()));
+            case RATING_DESC -> Comparator.comparingLong((Video v) -> asLong(v.getLikeCount())).reversed();
+            case RATING_ASC -> Comparator.comparingLong(v -> asLong(v.getLikeCount()));
+            case OLDEST -> byCreatedAt;
+            case LATEST -> byCreatedAt.reversed();
+        };
+        return order.thenComparing(Video::getId, Comparator.reverseOrder());
+    }
+
     public List<Video> getVideosByDurationRange(int minDuration, int maxDuration) {
         return videoRepository.findByDurationBetweenAndPrivacyOrderByCreatedAtDesc(minDuration, maxDuration, Video.Privacy.PUBLIC);
     }
@@ -630,51 +847,67 @@ public class VideoService {
         return videoRepository.findByPrivacyOrderByCreatedAtDesc(Video.Privacy.PUBLIC);
     }
 
-    public List<Video> getTrendingVideosByCategory(Long categoryId) {
-        return videoRepository.findTop10ByCategoryIdAndPrivacyOrderByViewCountDesc(categoryId, Video.Privacy.PUBLIC);
+    public List<Video> getTrendingVideos(int limit) {
+        List<Video> trending = loadPublicInOrder(trendingService.topVideoIds(limit));
+        if (trending.size() >= limit) {
+            return trending;
+        }
+        // Quiet period: top up with the most viewed recent uploads
+        List<Video> recent = videoRepository.findTrendingVideos(Video.Privacy.PUBLIC,
+            LocalDateTime.now().minusDays(TRENDING_FALLBACK_DAYS), PageRequest.of(0, limit));
+        return topUp(trending, recent, limit);
     }
 
-    private long asLong(Long value) {
-        return value != null ? value : 0L;
+    /**
+     * Personal recommendations for a signed-in viewer, topped up with trending videos when the
+     * model is not built yet or the viewer has little history. Anonymous viewers get trending.
+     */
+    public List<Video> getRecommendedVideos(Optional<User> currentUser, int limit) {
+        if (currentUser.isEmpty()) {
+            return getTrendingVideos(limit);
+        }
+        List<Video> recommended = recommendationService.recommendFor(currentUser.get().getId(), limit)
+            .map(this::loadPublicInOrder)
+            .orElse(List.of());
+        if (recommended.size() >= limit) {
+            return recommended;
+        }
+        return topUp(recommended, getTrendingVideos(limit), limit);
     }
 
-    private List<String> extractTags(String rawTags) {
-        if (rawTags == null || rawTags.isBlank()) {
-            return List.of();
+    public List<Video> getTrendingVideosByCategory(Long categoryId) {
+        return getTrendingVideosByCategory(categoryId, 10);
+    }
+
+    public List<Video> getTrendingVideosByCategory(Long categoryId, int limit) {
+        List<Video> trending = loadPublicInOrder(trendingService.topVideoIdsInCategory(categoryId, limit));
+        if (trending.size() >= limit) {
+            return trending;
         }
+        List<Video> popular = videoRepository.findTop10ByCategoryIdAndPrivacyOrderByViewCountDesc(categoryId, Video.Privacy.PUBLIC);
+        return topUp(trending, popular, limit);
+    }
 
-        List<String> tags = new ArrayList<>();
+    // The trending snapshot trails privacy changes by one refresh, so re-check here
+    private List<Video> loadPublicInOrder(long[] videoIds) {
+        return loadInOrder(videoIds).stream()
+            .filter(video -> video.getPrivacy() == Video.Privacy.PUBLIC)
+            .toList();
+    }
 
-        try {
-            JsonNode node = objectMapper.readTree(rawTags);
-            if (node.isArray()) {
-                node.forEach(child -> {
-                    String value = child.asText(null);
-                    if (value != null) {
-                        String normalized = value.trim().toLowerCase();
-                        if (!normalized.isEmpty() && !tags.contains(normalized)) {
-                            tags.add(normalized);
-                        }
-                    }
-                });
-                return tags;
+    private List<Video> topUp(List<Video> ranked, List<Video> fallback, int limit) {
+        LinkedHashSet<Video> combined = new LinkedHashSet<>(ranked);
+        for (Video video : fallback) {
+            if (combined.size() >= limit) {
+                break;
             }
-        } catch (JsonProcessingException ignored) {
-            // Fall through to string parsing
+            combined.add(video);
         }
+        return new ArrayList<>(combined);
+    }
 
-        Arrays.stream(rawTags.split(","))
-            .map(part -> part.replaceAll("[\\[\\]{}\"]", " "))
-            .map(String::trim)
-            .filter(tag -> !tag.isEmpty())
-            .map(String::toLowerCase)
-            .forEach(tag -> {
-                if (!tags.contains(tag)) {
-                    tags.add(tag);
-                }
-            });
-
-        return tags;
+    private long asLong(Long value) {
+        return value != null ? value : 0L;
     }
 
     private String normalizeTags(String rawTags) {
@@ -756,38 +989,6 @@ public class VideoService {
         double roundedAverage = average != null ? Math.round(average * 10.0) / 10.0 : 0.0;
         return new VideoRatingSummary(roundedAverage, count, userScore);
     }
-
-    private String encodeForUrl(String path) {
-        if (path == null || path.isBlank()) {
-            return path;
-        }
-
-        String trimmed = path.trim();
-        if (trimmed.startsWith("http://") || trimmed.startsWith("https://")) {
-            return trimmed;
-        }
-
-        String normalized = trimmed.replace("\\", "/");
-        boolean leadingSlash = normalized.startsWith("/");
-        String working = leadingSlash ? normalized.substring(1) : normalized;
-
-        String encoded = Arrays.stream(working.split("/"))
-                .filter(segment -> segment != null && !segment.isBlank())
-                .map(this::encodeSegment)
-                .collect(Collectors.joining("/"));
-
-        return leadingSlash ? "/" + encoded : encoded;
-    }
-
-    private String encodeSegment(String segment) {
-        String toEncode = segment;
-        try {
-            toEncode = URLDecoder.decode(segment, StandardCharsets.UTF_8);
-        } catch (IllegalArgumentException ignored) {
-            // segment was not percent-encoded; proceed with original value
-        }
-        return UriUtils.encodePathSegment(toEncode, StandardCharsets.UTF_8);
-    }
 }
 
 
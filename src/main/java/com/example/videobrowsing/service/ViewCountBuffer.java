@@ -0,0 +1,166 @@
+package com.example.videobrowsing.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for video views.
+ * <p>
+ * A view only increments a per-video {@link LongAdder}, so concurrent viewers never contend on
+ * the row or lose updates. A scheduled flush drains every adder with {@code sumThenReset} and
+ * applies the deltas in one JDBC batch of relative {@code view_count = view_count + ?} updates
+ * on the narrow {@code video_stats} row.
+ * If the batch fails the deltas are added back and retried on the next flush. An adder that
+ * drained nothing is dropped, so the map only holds recently viewed videos; an increment that
+ * races the removal notices its adder is gone and moves the view to the current one.
+ * <p>
+ * Metrics: {@code videos.views.pending} (views not yet written), {@code videos.views.flush.lag}
+ * (seconds since the last successful flush), {@code videos.views.flush} (flush duration) and
+ * {@code videos.views.flushed} (views written).
+ */
+@Service
+public class ViewCountBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCountBuffer.class);
+
+    private static final String FLUSH_SQL =
+            "UPDATE video_stats SET view_count = view_count + ? WHERE video_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final AtomicLong lastSuccessfulFlushMillis = new AtomicLong(System.currentTimeMillis());
+
+    private Timer flushTimer;
+    private Counter flushedViews;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("videos.views.pending", this, ViewCountBuffer::pendingTotal)
+                .description("Views recorded but not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("videos.views.flush.lag", this, buffer -> buffer.flushLagMillis() / 1000.0)
+                .description("Seconds since view counts were last flushed successfully")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("videos.views.flush")
+                .description("Time spent writing buffered view counts")
+                .register(meterRegistry);
+        flushedViews = Counter.builder("videos.views.flushed")
+                .description("Views written to the database")
+                .register(meterRegistry);
+    }
+
+    public void record(Long videoId) {
+        if (videoId != null) {
+            add(videoId, 1L);
+        }
+    }
+
+    /**
+     * Views recorded for the video that have not been flushed yet.
+     */
+    public long pendingFor(Long videoId) {
+        if (videoId == null) {
+            return 0L;
+        }
+        LongAdder adder = pending.get(videoId);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:2000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                batch.add(new Object[] { delta, entry.getKey() });
+            } else if (pending.remove(entry.getKey(), adder)) {
+                // Idle since the last flush; keep any view that arrived just before the removal
+                long stranded = adder.sumThenReset();
+                if (stranded != 0) {
+                    add(entry.getKey(), stranded);
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            lastSuccessfulFlushMillis.set(System.currentTimeMillis());
+            return;
+        }
+
+        long started = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            lastSuccessfulFlushMillis.set(System.currentTimeMillis());
+            flushedViews.increment(batch.stream().mapToLong(row -> (Long) row[0]).sum());
+        } catch (RuntimeException ex) {
+            // Put the deltas back so the next flush retries them
+            for (Object[] row : batch) {
+                add((Long) row[1], (Long) row[0]);
+            }
+            log.warn("Failed to flush {} buffered view counts; will retry", batch.size(), ex);
+        } finally {
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+        long remaining = pendingTotal();
+        if (remaining > 0) {
+            log.warn("Shutting down with {} unflushed views", remaining);
+        }
+    }
+
+    // If a flush dropped the adder in between, whatever landed in it is moved to the current one;
+    // sumThenReset hands each increment to exactly one caller, so nothing is counted twice
+    private void add(Long videoId, long delta) {
+        LongAdder adder = pending.computeIfAbsent(videoId, id -> new LongAdder());
+        adder.add(delta);
+        while (pending.get(videoId) != adder) {
+            long stranded = adder.sumThenReset();
+            if (stranded == 0) {
+                return;
+            }
+            adder = pending.computeIfAbsent(videoId, id -> new LongAdder());
+            adder.add(stranded);
+        }
+    }
+
+    private long pendingTotal() {
+        long total = 0L;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    private long flushLagMillis() {
+        return System.currentTimeMillis() - lastSuccessfulFlushMillis.get();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.videobrowsing.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.videobrowsing.dto.VideoDTO;
+import com.example.videobrowsing.dto.ViewerStateDTO;
+import com.example.videobrowsing.entity.Rating;
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.repository.RatingRepository;
+import com.example.videobrowsing.repository.SubscriptionRepository;
+import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.repository.VideoUserRatingRepository;
+import com.example.videobrowsing.repository.WatchLaterRepository;
+
+/**
+ * Resolves the current viewer's like, rating, watch-later and subscription state for a page of
+ * videos with one IN query per table, instead of the per-video lookups in
+ * {@link VideoService#toDto}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ViewerStateService {
+
+    public static final int MAX_VIDEO_IDS = 100;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private VideoUserRatingRepository videoUserRatingRepository;
+
+    @Autowired
+    private WatchLaterRepository watchLaterRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    /**
+     * State for each requested video, in request order. Unknown ids and anonymous viewers get
+     * the default (all false) state.
+     *
+     * @throws IllegalArgumentException if more than {@link #MAX_VIDEO_IDS} ids are requested
+     */
+    public List<ViewerStateDTO> getViewerState(List<Long> videoIds, Optional<User> currentUser) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (videoIds != null) {
+            videoIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        }
+        if (ids.size() > MAX_VIDEO_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_VIDEO_IDS + " videos per request");
+        }
+
+        Map<Long, ViewerStateDTO> states = new LinkedHashMap<>();
+        ids.forEach(id -> states.put(id, new ViewerStateDTO(id)));
+        if (ids.isEmpty() || currentUser.isEmpty()) {
+            return new ArrayList<>(states.values());
+        }
+        Long userId = currentUser.get().getId();
+
+        for (Object[] row : ratingRepository.findTypesByUserAndVideoIds(userId, ids)) {
+            ViewerStateDTO state = states.get((Long) row[0]);
+            state.setLiked(row[1] == Rating.RatingType.LIKE);
+            state.setDisliked(row[1] == Rating.RatingType.DISLIKE);
+        }
+
+        for (Object[] row : videoUserRatingRepository.findScoresByUserAndVideoIds(userId, ids)) {
+            states.get((Long) row[0]).setUserRating(((Number) row[1]).intValue());
+        }
+
+        for (Long videoId : watchLaterRepository.findVideoIdsByUserAndVideoIds(userId, ids)) {
+            states.get(videoId).setInWatchLater(true);
+        }
+
+        Map<Long, Long> uploaderByVideo = new HashMap<>();
+        for (Object[] row : videoRepository.findUploaderIdsByIdIn(ids)) {
+            uploaderByVideo.put((Long) row[0], (Long) row[1]);
+        }
+        Set<Long> creatorIds = new HashSet<>(uploaderByVideo.values());
+        creatorIds.remove(userId);
+        if (!creatorIds.isEmpty()) {
+            Set<Long> subscribed = new HashSet<>(subscriptionRepository.findCreatorIdsBySubscriberAndCreatorIds(userId, creatorIds));
+            uploaderByVideo.forEach((videoId, uploaderId) ->
+                    states.get(videoId).setSubscribedToUploader(subscribed.contains(uploaderId)));
+        }
+
+        return new ArrayList<>(states.values());
+    }
+
+    /**
+     * Copies of the shared (anonymous) cards with the viewer's own state filled in. The shared
+     * list is returned as is for anonymous viewers and is never modified, so it can come from a
+     * cache.
+     */
+    public List<VideoDTO> personalize(List<VideoDTO> shared, Optional<User> currentUser) {
+        if (currentUser.isEmpty() || shared.isEmpty()) {
+            return shared;
+        }
+        List<VideoDTO> personalized = new ArrayList<>(shared.size());
+        for (int from = 0; from < shared.size(); from += MAX_VIDEO_IDS) {
+            List<VideoDTO> chunk = shared.subList(from, Math.min(shared.size(), from + MAX_VIDEO_IDS));
+            List<Long> ids = chunk.stream().map(VideoDTO::getId).toList();
+            Map<Long, ViewerStateDTO> states = new HashMap<>();
+            getViewerState(ids, currentUser).forEach(state -> states.put(state.getVideoId(), state));
+
+            for (VideoDTO card : chunk) {
+                VideoDTO copy = new VideoDTO();
+                BeanUtils.copyProperties(card, copy);
+                ViewerStateDTO state = states.get(card.getId());
+                if (state != null) {
+                    copy.setLikedByCurrentUser(state.isLiked());
+                    copy.setDislikedByCurrentUser(state.isDisliked());
+                    copy.setUserRating(state.getUserRating());
+                    copy.setSubscribedToUploader(state.isSubscribedToUploader());
+                }
+                personalized.add(copy);
+            }
+        }
+        return personalized;
+    }
+}
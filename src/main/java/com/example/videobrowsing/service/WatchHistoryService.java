@@ -0,0 +1,185 @@
+package com.example.videobrowsing.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.videobrowsing.dto.WatchProgressBeacon;
+import com.example.videobrowsing.dto.WatchProgressDTO;
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.entity.WatchHistory;
+import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.repository.WatchHistoryRepository;
+import com.example.videobrowsing.util.WatchedRanges;
+
+/**
+ * Playback progress: heartbeats go to {@link WatchProgressBuffer}; continue-watching and resume
+ * read the stored rows with any unflushed progress laid over them.
+ */
+@Service
+@Transactional(readOnly = true)
+public class WatchHistoryService {
+
+    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    public static final int MAX_BEACON_ITEMS = 50;
+
+    @Autowired
+    private WatchHistoryRepository watchHistoryRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private WatchProgressBuffer watchProgressBuffer;
+
+    /**
+     * Queues the heartbeats in the beacon; entries without a video or a valid position are skipped.
+     *
+     * @return number of entries accepted
+     */
+    public int recordProgress(User user, WatchProgressBeacon beacon) {
+        List<WatchProgressBeacon.Entry> items = beacon != null && beacon.getItems() != null ? beacon.getItems() : List.of();
+        if (items.size() > MAX_BEACON_ITEMS) {
+            throw new IllegalArgumentException("Too many progress entries in one request");
+        }
+
+        int accepted = 0;
+        for (WatchProgressBeacon.Entry item : items) {
+            Double position = item.getPosition();
+            if (item.getVideoId() == null || position == null || !Double.isFinite(position) || position < 0) {
+                continue;
+            }
+            Integer duration = item.getDuration() != null && Double.isFinite(item.getDuration()) && item.getDuration() > 0
+                    ? (int) Math.min(Math.round(item.getDuration()), WatchedRanges.MAX_SECONDS)
+                    : null;
+            // Capped even without a duration, so a bogus position cannot produce an unstorable row
+            int positionSeconds = (int) Math.min(Math.floor(position), duration != null ? duration : WatchedRanges.MAX_SECONDS);
+            watchProgressBuffer.record(user.getId(), item.getVideoId(), positionSeconds, duration,
+                    toSeconds(item.getRanges(), duration));
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Unfinished videos the user watched most recently, newest first.
+     */
+    public List<WatchProgressDTO> getContinueWatching(User user, int limit) {
+        Map<Long, WatchProgressBuffer.Progress> pending = watchProgressBuffer.pendingForUser(user.getId());
+        Map<Long, WatchProgressDTO> byVideo = new LinkedHashMap<>();
+        Map<Long, Video> videos = new LinkedHashMap<>();
+
+        for (WatchHistory row : watchHistoryRepository.findInProgress(user.getId(), PageRequest.of(0, limit + pending.size()))) {
+            byVideo.put(row.getVideo().getId(), fromRow(row));
+            videos.put(row.getVideo().getId(), row.getVideo());
+        }
+
+        List<Long> missing = pending.keySet().stream()
+                .filter(videoId -> !videos.containsKey(videoId))
+                .collect(Collectors.toList());
+        videoRepository.findAllById(missing).forEach(video -> videos.put(video.getId(), video));
+
+        pending.forEach((videoId, progress) -> {
+            if (videos.containsKey(videoId)) {
+                byVideo.put(videoId, overlay(byVideo.get(videoId), videoId, progress));
+            }
+        });
+
+        Optional<User> currentUser = Optional.of(user);
+        return byVideo.values().stream()
+                .filter(dto -> !dto.isCompleted())
+                .filter(dto -> isVisibleTo(videos.get(dto.getVideoId()), user))
+                .sorted(Comparator.comparing(WatchProgressDTO::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(limit)
+                .peek(dto -> dto.setVideo(videoService.toDto(videos.get(dto.getVideoId()), currentUser)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Where the user left off in the video; position 0 when they have not watched it.
+     */
+    public WatchProgressDTO getResumePosition(User user, Long videoId) {
+        WatchProgressDTO stored = watchHistoryRepository.findByUserIdAndVideoId(user.getId(), videoId)
+                .map(this::fromRow)
+                .orElse(null);
+        return watchProgressBuffer.pending(user.getId(), videoId)
+                .map(progress -> overlay(stored, videoId, progress))
+                .orElseGet(() -> stored != null ? stored : empty(videoId));
+    }
+
+    private WatchProgressDTO fromRow(WatchHistory row) {
+        WatchProgressDTO dto = new WatchProgressDTO();
+        dto.setVideoId(row.getVideo().getId());
+        dto.setPositionSeconds(row.getPositionSeconds());
+        dto.setDurationSeconds(row.getDurationSeconds());
+        dto.setWatchedSeconds(row.getWatchedSeconds());
+        dto.setCompleted(row.isCompleted());
+        dto.setUpdatedAt(format(row.getUpdatedAt()));
+        return dto;
+    }
+
+    private WatchProgressDTO overlay(WatchProgressDTO stored, Long videoId, WatchProgressBuffer.Progress progress) {
+        WatchProgressDTO dto = stored != null ? stored : empty(videoId);
+        dto.setPositionSeconds(progress.positionSeconds());
+        if (progress.durationSeconds() != null) {
+            dto.setDurationSeconds(progress.durationSeconds());
+        }
+        // Stored and pending ranges may overlap, so the larger total is the closest cheap estimate
+        dto.setWatchedSeconds(Math.max(dto.getWatchedSeconds(), progress.ranges().totalSeconds()));
+        dto.setCompleted(progress.isCompleted());
+        dto.setUpdatedAt(format(progress.updatedAt()));
+        return dto;
+    }
+
+    private WatchProgressDTO empty(Long videoId) {
+        WatchProgressDTO dto = new WatchProgressDTO();
+        dto.setVideoId(videoId);
+        return dto;
+    }
+
+    private boolean isVisibleTo(Video video, User user) {
+        if (video == null) {
+            return false;
+        }
+        return video.getPrivacy() != Video.Privacy.PRIVATE
+                || (video.getUploadedBy() != null && video.getUploadedBy().getId().equals(user.getId()));
+    }
+
+    private List<int[]> toSeconds(List<double[]> ranges, Integer duration) {
+        List<int[]> seconds = new ArrayList<>();
+        if (ranges == null) {
+            return seconds;
+        }
+        int limit = Math.min(ranges.size(), WatchedRanges.MAX_RANGES * 4);
+        for (int i = 0; i < limit; i++) {
+            double[] range = ranges.get(i);
+            if (range == null || range.length != 2 || !Double.isFinite(range[0]) || !Double.isFinite(range[1])) {
+                continue;
+            }
+            int start = (int) Math.max(0, Math.floor(range[0]));
+            int end = (int) Math.min(Math.ceil(range[1]), duration != null ? duration : WatchedRanges.MAX_SECONDS);
+            seconds.add(new int[] { start, end });
+        }
+        return seconds;
+    }
+
+    private String format(LocalDateTime time) {
+        return time != null ? time.format(ISO_FORMATTER) : null;
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.videobrowsing.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.videobrowsing.util.WatchedRanges;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Coalesces playback-progress heartbeats in memory and writes them to {@code watch_history}
+ * in batches.
+ * <p>
+ * Heartbeats for the same user and video fold into one pending entry: the latest position wins
+ * and watched ranges are merged. A scheduled flush takes every pending entry, merges its ranges
+ * with the stored ones (one batched read) and upserts all of them in one JDBC batch. The upsert
+ * selects from {@code users} and {@code videos}, so progress for a user or video deleted in the
+ * meantime is dropped instead of failing the batch. When the batch fails it is written row by
+ * row: a row the database rejects on its own (bad data) is logged and dropped so it cannot block
+ * everyone else's progress, while rows that fail for any other reason (e.g. the database being
+ * down) are merged back and retried on the next flush.
+ * Reads go through {@link #pending} so they see progress that is not flushed yet.
+ */
+@Service
+public class WatchProgressBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchProgressBuffer.class);
+
+    /** Share of the duration after which a video counts as finished. */
+    public static final double COMPLETED_FRACTION = 0.95;
+
+    private static final int READ_CHUNK_SIZE = 500;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO watch_history (user_id, video_id, position_seconds, duration_seconds, watched_seconds, " +
+            "watched_ranges, completed, updated_at) " +
+            "SELECT * FROM (SELECT u.id AS uid, v.id AS vid, ? AS pos, ? AS dur, ? AS watched, ? AS ranges, ? AS done, ? AS at " +
+            "FROM users u JOIN videos v ON v.id = ? WHERE u.id = ?) AS src " +
+            "ON DUPLICATE KEY UPDATE position_seconds = src.pos, duration_seconds = COALESCE(src.dur, duration_seconds), " +
+            "watched_seconds = src.watched, watched_ranges = src.ranges, completed = src.done, updated_at = src.at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // userId -> videoId -> pending progress; entries are only mutated inside compute
+    private final Map<Long, Map<Long, Progress>> pendingByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Progress not yet written for one user and video.
+     */
+    public record Progress(int positionSeconds, Integer durationSeconds, WatchedRanges ranges, LocalDateTime updatedAt) {
+
+        public boolean isCompleted() {
+            return durationSeconds != null && durationSeconds > 0
+                    && positionSeconds >= durationSeconds * COMPLETED_FRACTION;
+        }
+
+        Progress mergeOlder(Progress older) {
+            WatchedRanges merged = WatchedRanges.empty().merge(older.ranges).merge(ranges);
+            Integer duration = durationSeconds != null ? durationSeconds : older.durationSeconds;
+            return new Progress(positionSeconds, duration, merged, updatedAt);
+        }
+    }
+
+    public void record(Long userId, Long videoId, int positionSeconds, Integer durationSeconds, List<int[]> ranges) {
+        Progress update = new Progress(positionSeconds, durationSeconds,
+                WatchedRanges.empty().addAll(ranges), LocalDateTime.now());
+        put(userId, videoId, update);
+    }
+
+    public Optional<Progress> pending(Long userId, Long videoId) {
+        Map<Long, Progress> videos = pendingByUser.get(userId);
+        return videos != null ? Optional.ofNullable(videos.get(videoId)) : Optional.empty();
+    }
+
+    public Map<Long, Progress> pendingForUser(Long userId) {
+        Map<Long, Progress> videos = pendingByUser.get(userId);
+        return videos != null ? new HashMap<>(videos) : Collections.emptyMap();
+    }
+
+    /**
+     * Drops unflushed progress of a user who is being deleted.
+     */
+    public void discardUser(Long userId) {
+        if (userId != null) {
+            pendingByUser.remove(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${watch-history.flush-interval-ms:10000}")
+    public void flush() {
+        List<PendingWrite> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> args;
+        try {
+            mergeStoredRanges(batch);
+            args = batch.stream().map(PendingWrite::toArgs).collect(Collectors.toList());
+        } catch (RuntimeException ex) {
+            requeue(batch);
+            log.warn("Failed to read stored ranges for {} watch progress entries; will retry", batch.size(), ex);
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write {} watch progress entries as a batch; retrying them one by one", batch.size(), ex);
+            writeOneByOne(batch, args);
+        }
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        flush();
+    }
+
+    // The upsert is idempotent, so rows of the failed batch that did get applied are safe to repeat
+    private void writeOneByOne(List<PendingWrite> batch, List<Object[]> args) {
+        int dropped = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            try {
+                jdbcTemplate.update(UPSERT_SQL, args.get(i));
+            } catch (DataIntegrityViolationException ex) {
+                dropped++;
+                log.warn("Dropping watch progress of user {} for video {} that cannot be stored: {}",
+                        write.userId, write.videoId, ex.getMessage());
+            } catch (RuntimeException ex) {
+                // Not this row's fault; keep it and everything after it for the next flush
+                List<PendingWrite> rest = batch.subList(i, batch.size());
+                requeue(rest);
+                log.warn("Failed to write watch progress; {} entries will be retried", rest.size(), ex);
+                break;
+            }
+        }
+        if (dropped > 0) {
+            log.warn("Dropped {} of {} watch progress entries the database rejected", dropped, batch.size());
+        }
+    }
+
+    private void requeue(List<PendingWrite> writes) {
+        writes.forEach(write -> put(write.userId, write.videoId, write.progress));
+    }
+
+    private void put(Long userId, Long videoId, Progress update) {
+        if (userId == null || videoId == null) {
+            return;
+        }
+        pendingByUser.compute(userId, (id, videos) -> {
+            Map<Long, Progress> target = videos != null ? videos : new ConcurrentHashMap<>();
+            target.merge(videoId, update, (current, incoming) -> incoming.updatedAt().isBefore(current.updatedAt())
+                    ? current.mergeOlder(incoming)
+                    : incoming.mergeOlder(current));
+            return target;
+        });
+    }
+
+    private List<PendingWrite> drain() {
+        List<PendingWrite> batch = new ArrayList<>();
+        for (Long userId : new ArrayList<>(pendingByUser.keySet())) {
+            pendingByUser.computeIfPresent(userId, (id, videos) -> {
+                videos.forEach((videoId, progress) -> batch.add(new PendingWrite(userId, videoId, progress)));
+                return null;
+            });
+        }
+        return batch;
+    }
+
+    // One read per chunk for the ranges already stored, so a flush never loses earlier watching
+    private void mergeStoredRanges(List<PendingWrite> batch) {
+        for (int from = 0; from < batch.size(); from += READ_CHUNK_SIZE) {
+            List<PendingWrite> chunk = batch.subList(from, Math.min(from + READ_CHUNK_SIZE, batch.size()));
+            Set<Long> userIds = new LinkedHashSet<>();
+            Set<Long> videoIds = new LinkedHashSet<>();
+            chunk.forEach(write -> {
+                userIds.add(write.userId);
+                videoIds.add(write.videoId);
+            });
+
+            List<Object> args = new ArrayList<>(userIds);
+            args.addAll(videoIds);
+            String sql = "SELECT user_id, video_id, watched_ranges FROM watch_history WHERE user_id IN ("
+                    + placeholders(userIds.size()) + ") AND video_id IN (" + placeholders(videoIds.size()) + ")";
+            Map<String, String> stored = new HashMap<>();
+            jdbcTemplate.query(sql, rs -> {
+                stored.put(rs.getLong("user_id") + ":" + rs.getLong("video_id"), rs.getString("watched_ranges"));
+            }, args.toArray());
+
+            for (PendingWrite write : chunk) {
+                String ranges = stored.get(write.userId + ":" + write.videoId);
+                if (ranges != null) {
+                    write.storedRanges = WatchedRanges.parse(ranges);
+                }
+            }
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static final class PendingWrite {
+        private final Long userId;
+        private final Long videoId;
+        private final Progress progress;
+        private WatchedRanges storedRanges;
+
+        private PendingWrite(Long userId, Long videoId, Progress progress) {
+            this.userId = userId;
+            this.videoId = videoId;
+            this.progress = progress;
+        }
+
+        private Object[] toArgs() {
+            WatchedRanges ranges = WatchedRanges.empty().merge(progress.ranges());
+            if (storedRanges != null) {
+                ranges.merge(storedRanges);
+            }
+            return new Object[] {
+                    progress.positionSeconds(),
+                    progress.durationSeconds(),
+                    ranges.totalSeconds(),
+                    ranges.encode(),
+                    progress.isCompleted(),
+                    Timestamp.valueOf(progress.updatedAt()),
+                    videoId,
+                    userId
+            };
+        }
+    }
+}
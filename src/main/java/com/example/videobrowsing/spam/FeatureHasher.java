@@ -0,0 +1,122 @@
+package com.example.videobrowsing.spam;
+
+import java.util.Arrays;
+
+/**
+ * Turns comment text into hashed term counts for {@link NaiveBayesModel}, without building a
+ * vocabulary or allocating per-token strings.
+ * <p>
+ * Tokens are runs of letters and digits, lowercased. Features are every token, every pair of
+ * adjacent tokens, and a few shape markers that spam leans on: links, long digit runs (phone
+ * numbers, prices) and shouting. Each is hashed into {@code 2^bits} buckets; collisions
+ * only add a little noise to the counts.
+ */
+public final class FeatureHasher {
+
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final int BIGRAM_SEED = 0x5BD1E995;
+
+    private static final int URL_FEATURE = hashString("__url__");
+    private static final int DIGITS_FEATURE = hashString("__digits__");
+    private static final int SHOUTING_FEATURE = hashString("__shouting__");
+
+    private static final int LONG_DIGIT_RUN = 5;
+    private static final int SHOUTING_MIN_LETTERS = 12;
+
+    private final int mask;
+
+    public FeatureHasher(int bits) {
+        if (bits < 4 || bits > 28) {
+            throw new IllegalArgumentException("Feature bits must be between 4 and 28");
+        }
+        this.mask = (1 << bits) - 1;
+    }
+
+    public int dimensions() {
+        return mask + 1;
+    }
+
+    public HashedFeatures hash(String text) {
+        if (text == null || text.isEmpty()) {
+            return HashedFeatures.EMPTY;
+        }
+        int[] buckets = new int[Math.max(16, text.length())];
+        int size = 0;
+        int previous = 0;
+        boolean hasPrevious = false;
+        int letters = 0;
+        int upperCase = 0;
+
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            int hash = FNV_OFFSET;
+            boolean allDigits = true;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                char t = text.charAt(i);
+                if (Character.isLetter(t)) {
+                    letters++;
+                    if (Character.isUpperCase(t)) {
+                        upperCase++;
+                    }
+                    allDigits = false;
+                }
+                hash = (hash ^ Character.toLowerCase(t)) * FNV_PRIME;
+                i++;
+            }
+
+            if (size + 3 > buckets.length) {
+                buckets = Arrays.copyOf(buckets, buckets.length * 2);
+            }
+            buckets[size++] = bucket(hash);
+            if (hasPrevious) {
+                buckets[size++] = bucket(previous * BIGRAM_SEED + hash);
+            }
+            if (allDigits && i - start >= LONG_DIGIT_RUN) {
+                buckets[size++] = bucket(DIGITS_FEATURE);
+            }
+            if (isUrlStart(text, start, i)) {
+                buckets[size++] = bucket(URL_FEATURE);
+            }
+            previous = hash;
+            hasPrevious = true;
+        }
+        if (letters >= SHOUTING_MIN_LETTERS && upperCase * 2 > letters) {
+            if (size == buckets.length) {
+                buckets = Arrays.copyOf(buckets, size + 1);
+            }
+            buckets[size++] = bucket(SHOUTING_FEATURE);
+        }
+        return HashedFeatures.of(buckets, size);
+    }
+
+    private int bucket(int hash) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 15)) & mask;
+    }
+
+    // "http", "https" or "www" followed by the punctuation of a link
+    private static boolean isUrlStart(String text, int start, int end) {
+        int length = end - start;
+        boolean scheme = (length == 4 || length == 5) && text.regionMatches(true, start, "https", 0, length)
+                && end < text.length() && text.charAt(end) == ':';
+        boolean www = length == 3 && text.regionMatches(true, start, "www", 0, 3)
+                && end < text.length() && text.charAt(end) == '.';
+        return scheme || www;
+    }
+
+    private static int hashString(String value) {
+        int hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
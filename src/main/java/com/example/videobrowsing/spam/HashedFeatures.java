@@ -0,0 +1,61 @@
+package com.example.videobrowsing.spam;
+
+import java.util.Arrays;
+
+/**
+ * Sparse term counts of one text: distinct feature buckets in ascending order with how often
+ * each occurred.
+ */
+public final class HashedFeatures {
+
+    static final HashedFeatures EMPTY = new HashedFeatures(new int[0], new int[0]);
+
+    private final int[] buckets;
+    private final int[] counts;
+
+    private HashedFeatures(int[] buckets, int[] counts) {
+        this.buckets = buckets;
+        this.counts = counts;
+    }
+
+    // Sorts the first size raw buckets and folds repeats into counts
+    static HashedFeatures of(int[] raw, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(raw, 0, size);
+        int[] buckets = new int[size];
+        int[] counts = new int[size];
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct > 0 && buckets[distinct - 1] == raw[i]) {
+                counts[distinct - 1]++;
+            } else {
+                buckets[distinct] = raw[i];
+                counts[distinct] = 1;
+                distinct++;
+            }
+        }
+        return new HashedFeatures(Arrays.copyOf(buckets, distinct), Arrays.copyOf(counts, distinct));
+    }
+
+    public int size() {
+        return buckets.length;
+    }
+
+    public int bucket(int index) {
+        return buckets[index];
+    }
+
+    public int count(int index) {
+        return counts[index];
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
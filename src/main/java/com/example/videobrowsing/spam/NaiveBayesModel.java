@@ -0,0 +1,80 @@
+package com.example.videobrowsing.spam;
+
+/**
+ * Two-class multinomial naive Bayes over hashed term counts, trained incrementally.
+ * <p>
+ * The model is just per-bucket term counts for each class plus class totals, kept in flat
+ * primitive arrays ({@code 8 * dimensions} bytes), so a sample can be added or taken back at
+ * any time in O(features). Scoring uses Laplace smoothing and works in log space:
+ * <pre>
+ * log P(c | text) ~ log P(c) + sum over terms of count * log((n[c][t] + 1) / (N[c] + dimensions))
+ * </pre>
+ * Methods are synchronized; both training and scoring touch only the features of one text.
+ */
+public final class NaiveBayesModel {
+
+    private static final double ALPHA = 1.0;
+
+    private final float[] spamTerms;
+    private final float[] hamTerms;
+    private double spamTermTotal;
+    private double hamTermTotal;
+    private long spamDocuments;
+    private long hamDocuments;
+
+    public NaiveBayesModel(int dimensions) {
+        spamTerms = new float[dimensions];
+        hamTerms = new float[dimensions];
+    }
+
+    public synchronized void train(HashedFeatures features, boolean spam) {
+        add(features, spam, 1);
+    }
+
+    /**
+     * Takes back a sample trained earlier, e.g. when a moderator changes its label.
+     */
+    public synchronized void forget(HashedFeatures features, boolean spam) {
+        add(features, spam, -1);
+    }
+
+    /**
+     * Posterior probability that the text is spam.
+     */
+    public synchronized double spamProbability(HashedFeatures features) {
+        double dimensions = spamTerms.length;
+        double logOdds = Math.log((spamDocuments + ALPHA) / (hamDocuments + ALPHA));
+        double spamDenominator = Math.log(spamTermTotal + ALPHA * dimensions);
+        double hamDenominator = Math.log(hamTermTotal + ALPHA * dimensions);
+        for (int i = 0; i < features.size(); i++) {
+            int bucket = features.bucket(i);
+            double spamLikelihood = Math.log(Math.max(spamTerms[bucket], 0f) + ALPHA) - spamDenominator;
+            double hamLikelihood = Math.log(Math.max(hamTerms[bucket], 0f) + ALPHA) - hamDenominator;
+            logOdds += features.count(i) * (spamLikelihood - hamLikelihood);
+        }
+        return 1.0 / (1.0 + Math.exp(-logOdds));
+    }
+
+    public synchronized long spamDocuments() {
+        return spamDocuments;
+    }
+
+    public synchronized long hamDocuments() {
+        return hamDocuments;
+    }
+
+    private void add(HashedFeatures features, boolean spam, int sign) {
+        float[] terms = spam ? spamTerms : hamTerms;
+        for (int i = 0; i < features.size(); i++) {
+            terms[features.bucket(i)] += sign * features.count(i);
+        }
+        double total = sign * (double) features.totalCount();
+        if (spam) {
+            spamTermTotal = Math.max(spamTermTotal + total, 0.0);
+            spamDocuments = Math.max(spamDocuments + sign, 0L);
+        } else {
+            hamTermTotal = Math.max(hamTermTotal + total, 0.0);
+            hamDocuments = Math.max(hamDocuments + sign, 0L);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.videobrowsing.trending;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable ranking published by each refresh. Readers take the current instance from a
+ * volatile field and never lock.
+ */
+public final class TrendingSnapshot {
+
+    private static final long[] NONE = new long[0];
+
+    public static final TrendingSnapshot EMPTY = new TrendingSnapshot(NONE, Map.of(), 0L);
+
+    private final long[] global;
+    private final Map<Long, long[]> byCategory;
+    private final long builtAtMillis;
+
+    public TrendingSnapshot(long[] global, Map<Long, long[]> byCategory, long builtAtMillis) {
+        this.global = global;
+        this.byCategory = Map.copyOf(byCategory);
+        this.builtAtMillis = builtAtMillis;
+    }
+
+    public long[] top(int limit) {
+        return Arrays.copyOf(global, Math.min(limit, global.length));
+    }
+
+    public long[] topInCategory(long categoryId, int limit) {
+        long[] ranked = byCategory.getOrDefault(categoryId, NONE);
+        return Arrays.copyOf(ranked, Math.min(limit, ranked.length));
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.videobrowsing.trending;
+
+/**
+ * Hourly view and like counts for one video over a sliding window, kept in ring buffers.
+ * <p>
+ * Slot {@code hour % WINDOW_HOURS} holds the counts for that epoch hour; slots are zeroed
+ * lazily as the head hour moves forward, so an idle video costs nothing until it is touched
+ * or scored again.
+ */
+public final class TrendingWindow {
+
+    public static final int WINDOW_HOURS = 48;
+
+    public static final long UNRESOLVED_CATEGORY = -1L;
+    public static final long NO_CATEGORY = 0L;
+
+    private final long[] views = new long[WINDOW_HOURS];
+    private final long[] likes = new long[WINDOW_HOURS];
+    private long headHour;
+
+    // Filled in by the refresh pass; reset when the video's metadata changes
+    private volatile long categoryId = UNRESOLVED_CATEGORY;
+
+    public synchronized void add(long hour, long viewDelta, long likeDelta) {
+        if (hour > headHour) {
+            advanceTo(hour);
+        } else if (headHour - hour >= WINDOW_HOURS) {
+            return;
+        }
+        int slot = (int) (hour % WINDOW_HOURS);
+        views[slot] += viewDelta;
+        likes[slot] += likeDelta;
+    }
+
+    /**
+     * Sum of hourly activity weighted by {@code decay[age]}, where age 0 is the current hour.
+     * Returns zero once nothing is left in the window.
+     */
+    public synchronized double score(long currentHour, double[] decay, double likeWeight) {
+        if (currentHour > headHour) {
+            advanceTo(currentHour);
+        }
+        double score = 0.0;
+        for (int age = 0; age < WINDOW_HOURS; age++) {
+            int slot = (int) ((currentHour - age) % WINDOW_HOURS);
+            long activity = views[slot] + Math.round(likes[slot] * likeWeight);
+            if (activity != 0) {
+                score += activity * decay[age];
+            }
+        }
+        return Math.max(0.0, score);
+    }
+
+    public long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    private void advanceTo(long hour) {
+        long gap = Math.min(hour - headHour, WINDOW_HOURS);
+        for (long i = 1; i <= gap; i++) {
+            int slot = (int) ((headHour + i) % WINDOW_HOURS);
+            views[slot] = 0L;
+            likes[slot] = 0L;
+        }
+        headHour = hour;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.videobrowsing.util;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.web.util.UriUtils;
+
+import com.example.videobrowsing.entity.Video;
+
+/**
+ * Canonical, already-encoded URLs for uploaded media.
+ * <p>
+ * The canonical form is computed once when a video is written (see {@link Video#refreshMediaUrls()})
+ * and stored on the row, so list endpoints only read a column instead of re-normalizing and
+ * re-encoding paths for every DTO they build.
+ */
+public final class MediaUrls {
+
+    public static final String DEFAULT_THUMBNAIL_URL = "/images/default-thumbnail.jpg";
+
+    private MediaUrls() {
+    }
+
+    /**
+     * Stored video URL, falling back to computing it for rows that have not been migrated yet.
+     */
+    public static String videoUrl(Video video) {
+        if (video == null) {
+            return null;
+        }
+        String stored = video.getVideoUrl();
+        return stored != null ? stored : canonicalVideoUrl(video.getFilepath());
+    }
+
+    /**
+     * Stored thumbnail URL, falling back to computing it for rows that have not been migrated yet.
+     */
+    public static String thumbnailUrl(Video video) {
+        if (video == null) {
+            return DEFAULT_THUMBNAIL_URL;
+        }
+        String stored = video.getThumbnailUrl();
+        return stored != null ? stored : canonicalThumbnailUrl(video.getThumbnail());
+    }
+
+    public static String canonicalVideoUrl(String path) {
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+
+        String normalized = path.trim().replace("\\", "/");
+        if (normalized.startsWith("http://") || normalized.startsWith("https://")) {
+            return normalized;
+        }
+
+        String resolved;
+        if (normalized.startsWith("/")) {
+            resolved = normalized;
+        } else if (normalized.startsWith("uploads/") || normalized.startsWith("videos/") || normalized.startsWith("video/") || normalized.startsWith("static/")) {
+            resolved = "/" + normalized;
+        } else {
+            resolved = resolveUploadsPath(normalized, "/uploads/videos/");
+        }
+
+        return encodeForUrl(resolved);
+    }
+
+    public static String canonicalThumbnailUrl(String thumbnail) {
+        if (thumbnail == null || thumbnail.isBlank()) {
+            return DEFAULT_THUMBNAIL_URL;
+        }
+
+        String normalized = thumbnail.trim().replace("\\", "/");
+        if (normalized.startsWith("http://") || normalized.startsWith("https://")) {
+            return normalized;
+        }
+
+        String resolved;
+        if (normalized.startsWith("/")) {
+            resolved = normalized;
+        } else if (normalized.startsWith("uploads/") || normalized.startsWith("static/") || normalized.startsWith("thumbnails/") || normalized.startsWith("images/")) {
+            resolved = "/" + normalized;
+        } else {
+            resolved = resolveUploadsPath(normalized, "/uploads/thumbnails/");
+        }
+
+        return encodeForUrl(resolved);
+    }
+
+    private static String resolveUploadsPath(String normalized, String defaultDirectory) {
+        int uploadsIndex = normalized.indexOf("/uploads/");
+        if (uploadsIndex >= 0) {
+            String resolved = normalized.substring(uploadsIndex);
+            return resolved.startsWith("/") ? resolved : "/" + resolved;
+        }
+        if (normalized.contains("/")) {
+            return "/" + normalized;
+        }
+        return defaultDirectory + normalized;
+    }
+
+    private static String encodeForUrl(String path) {
+        boolean leadingSlash = path.startsWith("/");
+        String working = leadingSlash ? path.substring(1) : path;
+
+        StringBuilder encoded = new StringBuilder(path.length() + 16);
+        if (leadingSlash) {
+            encoded.append('/');
+        }
+
+        boolean first = true;
+        for (String segment : working.split("/")) {
+            if (segment.isBlank()) {
+                continue;
+            }
+            if (!first) {
+                encoded.append('/');
+            }
+            encoded.append(encodeSegment(segment));
+            first = false;
+        }
+        return encoded.toString();
+    }
+
+    private static String encodeSegment(String segment) {
+        String toEncode = segment;
+        try {
+            toEncode = URLDecoder.decode(segment, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ignored) {
+            // segment was not percent-encoded; proceed with original value
+        }
+        return UriUtils.encodePathSegment(toEncode, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.videobrowsing.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last row on a page, tagged with the
+ * listing it belongs to so a cursor from one sort order cannot be replayed against another.
+ */
+public record PageCursor(String scope, long key, long id) {
+
+    private static final String VERSION = "v1";
+
+    public String encode() {
+        String raw = VERSION + ":" + scope + ":" + key + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for a different listing
+     */
+    public static PageCursor decode(String cursor, String expectedScope) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+
+        if (parts.length != 4 || !VERSION.equals(parts[0]) || !parts[1].equals(expectedScope)) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+
+        try {
+            return new PageCursor(parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    public static long toKey(LocalDateTime value) {
+        if (value == null) {
+            return 0L;
+        }
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    public static LocalDateTime toDateTime(long key) {
+        long seconds = Math.floorDiv(key, 1_000_000L);
+        int micros = (int) Math.floorMod(key, 1_000_000L);
+        return LocalDateTime.ofEpochSecond(seconds, micros * 1_000, ZoneOffset.UTC);
+    }
+}
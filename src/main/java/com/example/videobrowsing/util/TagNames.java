@@ -0,0 +1,61 @@
+package com.example.videobrowsing.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the tag names out of {@code videos.tags}: a JSON array of strings, or a comma-separated
+ * string on rows written before tags were normalized. Names are trimmed, lower-cased, cut to
+ * {@link #MAX_LENGTH} and de-duplicated in their original order.
+ */
+public final class TagNames {
+
+    public static final int MAX_LENGTH = 50;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private TagNames() {
+    }
+
+    public static List<String> parse(String rawTags) {
+        if (rawTags == null || rawTags.isBlank()) {
+            return List.of();
+        }
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(rawTags);
+            if (node.isArray()) {
+                node.forEach(child -> add(names, child.asText(null)));
+                return new ArrayList<>(names);
+            }
+        } catch (JsonProcessingException ignored) {
+            // Fall through to string parsing
+        }
+        for (String part : rawTags.split(",")) {
+            add(names, part.replaceAll("[\\[\\]{}\"]", " "));
+        }
+        return new ArrayList<>(names);
+    }
+
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        return normalized.length() > MAX_LENGTH ? normalized.substring(0, MAX_LENGTH).trim() : normalized;
+    }
+
+    private static void add(Set<String> names, String value) {
+        String normalized = normalize(value);
+        if (!normalized.isEmpty()) {
+            names.add(normalized);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.videobrowsing.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorted, non-overlapping set of watched intervals in whole seconds, stored as
+ * {@code "start-end,start-end"}.
+ * <p>
+ * Intervals closer than {@link #MERGE_GAP_SECONDS} are joined, and when a video has been
+ * skipped around more than {@link #MAX_RANGES} times the closest neighbours are joined until it
+ * fits, so the stored text stays small. Seconds are capped at {@link #MAX_SECONDS}, so a range
+ * encodes to at most 13 characters and {@code MAX_RANGES} of them always fit the
+ * {@code watched_ranges varchar(1024)} column.
+ */
+public final class WatchedRanges {
+
+    public static final int MERGE_GAP_SECONDS = 2;
+    public static final int MAX_RANGES = 64;
+
+    /** Latest second a range can reach (about eleven and a half days). */
+    public static final int MAX_SECONDS = 999_999;
+
+    private final List<int[]> ranges;
+
+    private WatchedRanges(List<int[]> ranges) {
+        this.ranges = ranges;
+    }
+
+    public static WatchedRanges empty() {
+        return new WatchedRanges(new ArrayList<>());
+    }
+
+    /**
+     * Parses the stored form; malformed parts are skipped.
+     */
+    public static WatchedRanges parse(String encoded) {
+        WatchedRanges result = empty();
+        if (encoded == null || encoded.isBlank()) {
+            return result;
+        }
+        List<int[]> parsed = new ArrayList<>();
+        for (String part : encoded.split(",")) {
+            int dash = part.indexOf('-');
+            if (dash <= 0) {
+                continue;
+            }
+            try {
+                parsed.add(new int[] { Integer.parseInt(part.substring(0, dash).trim()),
+                        Integer.parseInt(part.substring(dash + 1).trim()) });
+            } catch (NumberFormatException ignored) {
+                // skip
+            }
+        }
+        return result.addAll(parsed);
+    }
+
+    /**
+     * Adds intervals given as {@code [start, end]} second pairs, ignoring empty or negative ones
+     * and cutting them off at {@link #MAX_SECONDS}.
+     */
+    public WatchedRanges addAll(Collection<int[]> intervals) {
+        for (int[] interval : intervals) {
+            if (interval == null || interval.length != 2) {
+                continue;
+            }
+            int end = Math.min(interval[1], MAX_SECONDS);
+            if (interval[0] >= 0 && end > interval[0]) {
+                ranges.add(new int[] { interval[0], end });
+            }
+        }
+        normalize();
+        return this;
+    }
+
+    public WatchedRanges merge(WatchedRanges other) {
+        return addAll(other.ranges);
+    }
+
+    public int totalSeconds() {
+        int total = 0;
+        for (int[] range : ranges) {
+            total += range[1] - range[0];
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    public String encode() {
+        StringBuilder out = new StringBuilder(ranges.size() * 10);
+        for (int[] range : ranges) {
+            if (out.length() > 0) {
+                out.append(',');
+            }
+            out.append(range[0]).append('-').append(range[1]);
+        }
+        return out.toString();
+    }
+
+    private void normalize() {
+        ranges.sort(Comparator.comparingInt(range -> range[0]));
+        List<int[]> merged = new ArrayList<>(ranges.size());
+        for (int[] range : ranges) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] - last[1] <= MERGE_GAP_SECONDS) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(range);
+            }
+        }
+        while (merged.size() > MAX_RANGES) {
+            int closest = 0;
+            for (int i = 1; i < merged.size() - 1; i++) {
+                if (merged.get(i + 1)[0] - merged.get(i)[1] < merged.get(closest + 1)[0] - merged.get(closest)[1]) {
+                    closest = i;
+                }
+            }
+            merged.get(closest)[1] = merged.get(closest + 1)[1];
+            merged.remove(closest + 1);
+        }
+        ranges.clear();
+        ranges.addAll(merged);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.videobrowsing.util;
+
+/**
+ * Lower bound of the Wilson score interval for a proportion: "at least this share of the votes
+ * is positive, with 95% confidence". A comment with 3 likes and no reports ranks below one
+ * with 40 likes and 2 reports, which a plain ratio would get the other way round.
+ */
+public final class WilsonScore {
+
+    private static final double Z = 1.96;
+
+    private WilsonScore() {
+    }
+
+    public static double lowerBound(long positive, long negative) {
+        long total = positive + negative;
+        if (total <= 0) {
+            return 0.0;
+        }
+        double n = total;
+        double p = positive / n;
+        double z2 = Z * Z;
+        double centre = p + z2 / (2 * n);
+        double margin = Z * Math.sqrt((p * (1 - p) + z2 / (4 * n)) / n);
+        return (centre - margin) / (1 + z2 / n);
+    }
+}
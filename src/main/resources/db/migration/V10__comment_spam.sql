@@ -0,0 +1,17 @@
+-- Spam screening: the classifier's latest score per comment, and the moderator decisions it
+-- learns from. Samples keep their own copy of the text so they outlive deleted comments.
+
+alter table comments add column spam_score double null;
+
+create table spam_training_samples (
+    id bigint not null auto_increment,
+    comment_id bigint null,
+    content text not null,
+    spam bit not null,
+    labeled_by bigint null,
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint uk_spam_training_samples_comment unique (comment_id),
+    constraint fk_spam_training_samples_comment foreign key (comment_id) references comments (id) on delete set null,
+    constraint fk_spam_training_samples_user foreign key (labeled_by) references users (id) on delete set null
+) engine=InnoDB;
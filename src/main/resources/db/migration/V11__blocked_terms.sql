@@ -0,0 +1,12 @@
+-- Admin-managed blocklist checked against comments and video titles and descriptions when
+-- they are written. Terms are stored normalized (lowercase, single spaces).
+
+create table blocked_terms (
+    id bigint not null auto_increment,
+    term varchar(100) not null,
+    created_by bigint null,
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint uk_blocked_terms_term unique (term),
+    constraint fk_blocked_terms_user foreign key (created_by) references users (id) on delete set null
+) engine=InnoDB;
@@ -0,0 +1,9 @@
+-- Stored report count per comment next to like_count, so recomputing the "top" rank on every
+-- like toggle reads both counters off the row instead of counting the comment's reports.
+
+alter table comments add column report_count bigint not null default 0;
+
+update comments c
+join (select comment_id, count(*) as reports from reports where comment_id is not null group by comment_id) r
+    on r.comment_id = c.id
+set c.report_count = r.reports;
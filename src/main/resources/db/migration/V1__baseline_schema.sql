@@ -0,0 +1,281 @@
+-- Baseline schema, matching what spring.jpa.hibernate.ddl-auto=update produced from the
+-- entity mappings. Databases that already have these tables are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and start from V2.
+
+create table categories (
+    created_at datetime(6),
+    created_by bigint,
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    description TEXT,
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table comment_likes (
+    comment_id bigint not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table comments (
+    is_disabled bit,
+    is_pinned bit,
+    is_spam bit,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    parent_comment_id bigint,
+    updated_at datetime(6),
+    user_id bigint not null,
+    video_id bigint not null,
+    content TEXT not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table playlist_videos (
+    position integer not null,
+    added_at datetime(6),
+    id bigint not null auto_increment,
+    playlist_id bigint not null,
+    video_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table playlists (
+    is_collaborative bit,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    user_id bigint not null,
+    description TEXT,
+    name varchar(255) not null,
+    privacy enum ('PRIVATE','PUBLIC'),
+    primary key (id)
+) engine=InnoDB;
+
+create table ratings (
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    video_id bigint not null,
+    rating_type enum ('DISLIKE','LIKE') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table reports (
+    comment_id bigint,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    reported_by bigint,
+    resolved_at datetime(6),
+    resolved_by bigint,
+    video_id bigint,
+    admin_notes TEXT,
+    deletion_reason TEXT,
+    description TEXT,
+    reporter_email varchar(255),
+    report_type enum ('ACCOUNT_ISSUE','COPYRIGHT','HARASSMENT','INAPPROPRIATE_CONTENT','OTHER','PLAYBACK_ISSUE','SPAM','TECHNICAL_ISSUE') not null,
+    status enum ('DELETED','DISMISSED','PENDING','RESOLVED','REVIEWED','REVIEWING'),
+    primary key (id)
+) engine=InnoDB;
+
+create table subscriptions (
+    created_at datetime(6) not null,
+    creator_id bigint not null,
+    id bigint not null auto_increment,
+    subscriber_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    email_verified bit,
+    is_active bit,
+    phone_verified bit,
+    terms_agreed bit,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    username varchar(50) not null,
+    bio TEXT,
+    email varchar(255) not null,
+    firstname varchar(255),
+    lastname varchar(255),
+    notification_settings JSON,
+    password varchar(255) not null,
+    phone varchar(255),
+    privacy_settings JSON,
+    profile_picture varchar(255),
+    role enum ('ADMIN','CONTENT_CREATOR','REGISTERED_USER'),
+    primary key (id)
+) engine=InnoDB;
+
+create table video_user_ratings (
+    score integer not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    updated_at datetime(6) not null,
+    user_id bigint not null,
+    video_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table videos (
+    duration integer,
+    category_id bigint,
+    created_at datetime(6),
+    dislike_count bigint,
+    file_size bigint,
+    id bigint not null auto_increment,
+    like_count bigint,
+    updated_at datetime(6),
+    uploaded_by bigint not null,
+    view_count bigint,
+    thumbnail_url varchar(1000),
+    video_url varchar(1000),
+    description TEXT,
+    file_path varchar(255) not null,
+    resolution varchar(255),
+    tags JSON,
+    thumbnail_path varchar(255),
+    title varchar(255) not null,
+    privacy enum ('PRIVATE','PUBLIC'),
+    status enum ('DISABLED','PROCESSING','PUBLISHED'),
+    primary key (id)
+) engine=InnoDB;
+
+create table watch_later (
+    added_at datetime(6),
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    video_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table categories
+   add constraint UKt8o6pivur7nn124jehx7cygw5 unique (name);
+
+alter table comment_likes
+   add constraint UKgu1pee3567af29uutdfy0fcjd unique (comment_id, user_id);
+
+alter table subscriptions
+   add constraint uk_subscription_subscriber_creator unique (subscriber_id, creator_id);
+
+alter table video_user_ratings
+   add constraint uk_video_user_rating unique (video_id, user_id);
+
+alter table categories
+   add constraint FK5yfru0au6kpyqs4tonky5vfne
+   foreign key (created_by)
+   references users (id);
+
+alter table comment_likes
+   add constraint FK3wa5u7bs1p1o9hmavtgdgk1go
+   foreign key (comment_id)
+   references comments (id);
+
+alter table comment_likes
+   add constraint FK6h3lbneryl5pyb9ykaju7werx
+   foreign key (user_id)
+   references users (id);
+
+alter table comments
+   add constraint FK7h839m3lkvhbyv3bcdv7sm4fj
+   foreign key (parent_comment_id)
+   references comments (id);
+
+alter table comments
+   add constraint FK8omq0tc18jd43bu5tjh6jvraq
+   foreign key (user_id)
+   references users (id);
+
+alter table comments
+   add constraint FKesqgvcfwlscgco0dqkdnvw8l3
+   foreign key (video_id)
+   references videos (id);
+
+alter table playlist_videos
+   add constraint FK9k328sk1nnj1oihl99w8w0nuw
+   foreign key (playlist_id)
+   references playlists (id);
+
+alter table playlist_videos
+   add constraint FKagtsknljsxw3o4bsmt6svs18l
+   foreign key (video_id)
+   references videos (id);
+
+alter table playlists
+   add constraint FKtgjwvfg23v990xk7k0idmqbrj
+   foreign key (user_id)
+   references users (id);
+
+alter table ratings
+   add constraint FKb3354ee2xxvdrbyq9f42jdayd
+   foreign key (user_id)
+   references users (id);
+
+alter table ratings
+   add constraint FKgbuabql9lti08lj9e6xi1mh6q
+   foreign key (video_id)
+   references videos (id);
+
+alter table reports
+   add constraint FK3x8ylsypiesh2gkwdy5ug7qe7
+   foreign key (comment_id)
+   references comments (id);
+
+alter table reports
+   add constraint FKc2y86kg4lgldsvpy6h6o0u68w
+   foreign key (reported_by)
+   references users (id);
+
+alter table reports
+   add constraint FKru383gq6s2hvqp6jf4q3itays
+   foreign key (resolved_by)
+   references users (id);
+
+alter table reports
+   add constraint FKsyh9mo61odp76na1buv701ffb
+   foreign key (video_id)
+   references videos (id);
+
+alter table subscriptions
+   add constraint FK9dj03kllpqhm8c5sc7gmm8pd6
+   foreign key (creator_id)
+   references users (id);
+
+alter table subscriptions
+   add constraint FKoodc4352epkjrvxx79odlxbji
+   foreign key (subscriber_id)
+   references users (id);
+
+alter table video_user_ratings
+   add constraint FKobw59213af4acw5erxxt4v8b8
+   foreign key (user_id)
+   references users (id);
+
+alter table video_user_ratings
+   add constraint FKh9coeiqlg1ga07umjtbkg4e96
+   foreign key (video_id)
+   references videos (id);
+
+alter table videos
+   add constraint FK757y9y2j67t6nl4h5746si1rx
+   foreign key (category_id)
+   references categories (id);
+
+alter table videos
+   add constraint FKlvskenwmpt236rsqlmd3kaw0n
+   foreign key (uploaded_by)
+   references users (id);
+
+alter table watch_later
+   add constraint FKsqq3g34yy46eiw3b9ddgww3hh
+   foreign key (user_id)
+   references users (id);
+
+alter table watch_later
+   add constraint FK4ymmeb0nstx49o4k913axddp1
+   foreign key (video_id)
+   references videos (id);
@@ -0,0 +1,82 @@
+-- Composite indexes for the repository queries, each laid out as
+-- (equality columns, sort/range column, id) so lookups are index range scans and
+-- ORDER BY ... LIMIT reads the index in order instead of filesorting.
+--
+-- Databases baselined from a ddl-auto schema may already have some of these (Hibernate created
+-- the videos indexes from @Index) or lack the media URL columns if they predate them, so every
+-- change here is applied only when missing.
+
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS add_index_if_missing $$
+CREATE PROCEDURE add_index_if_missing(IN table_name_in VARCHAR(64), IN index_name_in VARCHAR(64), IN columns_in VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                   WHERE table_schema = DATABASE() AND table_name = table_name_in AND index_name = index_name_in) THEN
+        SET @ddl = CONCAT('CREATE INDEX ', index_name_in, ' ON ', table_name_in, ' (', columns_in, ')');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END $$
+
+DROP PROCEDURE IF EXISTS add_column_if_missing $$
+CREATE PROCEDURE add_column_if_missing(IN table_name_in VARCHAR(64), IN column_name_in VARCHAR(64), IN definition_in VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = table_name_in AND column_name = column_name_in) THEN
+        SET @ddl = CONCAT('ALTER TABLE ', table_name_in, ' ADD COLUMN ', column_name_in, ' ', definition_in);
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END $$
+
+DELIMITER ;
+
+CALL add_column_if_missing('videos', 'video_url', 'varchar(1000)');
+CALL add_column_if_missing('videos', 'thumbnail_url', 'varchar(1000)');
+
+-- videos: keyset listings (latest, most viewed, most liked, category, uploader)
+CALL add_index_if_missing('videos', 'idx_videos_privacy_created', 'privacy, created_at, id');
+CALL add_index_if_missing('videos', 'idx_videos_privacy_views', 'privacy, view_count, id');
+CALL add_index_if_missing('videos', 'idx_videos_privacy_likes', 'privacy, like_count, id');
+CALL add_index_if_missing('videos', 'idx_videos_category_privacy_created', 'category_id, privacy, created_at, id');
+CALL add_index_if_missing('videos', 'idx_videos_uploader_created', 'uploaded_by, created_at, id');
+-- videos: per-category trending/related fallbacks ordered by views
+CALL add_index_if_missing('videos', 'idx_videos_category_privacy_views', 'category_id, privacy, view_count, id');
+-- videos: duration filters
+CALL add_index_if_missing('videos', 'idx_videos_privacy_duration', 'privacy, duration');
+
+-- ratings: a user's rating on a video, per-video counts by type, a user's likes, recent likes
+CALL add_index_if_missing('ratings', 'idx_ratings_video_user', 'video_id, user_id');
+CALL add_index_if_missing('ratings', 'idx_ratings_video_type', 'video_id, rating_type');
+CALL add_index_if_missing('ratings', 'idx_ratings_user_type_created', 'user_id, rating_type, created_at');
+CALL add_index_if_missing('ratings', 'idx_ratings_type_created', 'rating_type, created_at');
+
+-- comments: root comments of a video (pinned first, newest first), visible counts
+CALL add_index_if_missing('comments', 'idx_comments_video_root', 'video_id, parent_comment_id, is_disabled, is_pinned, created_at');
+CALL add_index_if_missing('comments', 'idx_comments_parent_created', 'parent_comment_id, created_at');
+
+-- watch later: a user's list newest first, membership checks
+CALL add_index_if_missing('watch_later', 'idx_watch_later_user_added', 'user_id, added_at');
+CALL add_index_if_missing('watch_later', 'idx_watch_later_user_video', 'user_id, video_id');
+
+-- playlists
+CALL add_index_if_missing('playlists', 'idx_playlists_user_updated', 'user_id, updated_at');
+CALL add_index_if_missing('playlist_videos', 'idx_playlist_videos_playlist_position', 'playlist_id, position');
+CALL add_index_if_missing('playlist_videos', 'idx_playlist_videos_playlist_video', 'playlist_id, video_id');
+
+-- reports: admin queue and per-reporter history
+CALL add_index_if_missing('reports', 'idx_reports_status_created', 'status, created_at');
+CALL add_index_if_missing('reports', 'idx_reports_created', 'created_at');
+CALL add_index_if_missing('reports', 'idx_reports_reporter_created', 'reported_by, created_at');
+CALL add_index_if_missing('reports', 'idx_reports_resolver_resolved', 'resolved_by, resolved_at');
+
+-- users: login and registration lookups
+CALL add_index_if_missing('users', 'idx_users_username', 'username');
+CALL add_index_if_missing('users', 'idx_users_email', 'email');
+CALL add_index_if_missing('users', 'idx_users_role', 'role');
+
+DROP PROCEDURE add_index_if_missing;
+DROP PROCEDURE add_column_if_missing;
@@ -0,0 +1,21 @@
+-- Playback progress per user and video, written in batches by WatchProgressBuffer.
+-- Rows go with their user or video.
+
+create table watch_history (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    video_id bigint not null,
+    position_seconds integer not null,
+    duration_seconds integer,
+    watched_seconds integer not null,
+    watched_ranges varchar(1024),
+    completed bit not null,
+    updated_at datetime(6) not null,
+    primary key (id),
+    constraint uk_watch_history_user_video unique (user_id, video_id),
+    constraint fk_watch_history_user foreign key (user_id) references users (id) on delete cascade,
+    constraint fk_watch_history_video foreign key (video_id) references videos (id) on delete cascade
+) engine=InnoDB;
+
+-- continue watching: a user's unfinished videos, most recent first
+create index idx_watch_history_user_completed_updated on watch_history (user_id, completed, updated_at);
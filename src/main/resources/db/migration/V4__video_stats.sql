@@ -0,0 +1,29 @@
+-- Move the hot counters off the wide videos row into video_stats, which is only changed by
+-- atomic increments, and add an optimistic-lock version for metadata edits.
+
+create table video_stats (
+    video_id bigint not null,
+    view_count bigint not null default 0,
+    like_count bigint not null default 0,
+    dislike_count bigint not null default 0,
+    primary key (video_id),
+    constraint fk_video_stats_video foreign key (video_id) references videos (id) on delete cascade
+) engine=InnoDB;
+
+insert into video_stats (video_id, view_count, like_count, dislike_count)
+select id, coalesce(view_count, 0), coalesce(like_count, 0), coalesce(dislike_count, 0) from videos;
+
+-- most viewed / most liked keyset pages: (count, video_id) scanned in order
+create index idx_video_stats_views on video_stats (view_count, video_id);
+create index idx_video_stats_likes on video_stats (like_count, video_id);
+
+-- Indexes that ordered by the old columns
+drop index idx_videos_privacy_views on videos;
+drop index idx_videos_privacy_likes on videos;
+drop index idx_videos_category_privacy_views on videos;
+
+alter table videos
+    drop column view_count,
+    drop column like_count,
+    drop column dislike_count,
+    add column version bigint not null default 0;
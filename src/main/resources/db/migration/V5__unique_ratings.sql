@@ -0,0 +1,13 @@
+-- One rating per user and video, so the atomic toggle in VideoService can rely on the key
+-- instead of read-then-write. Duplicates left by earlier concurrent toggles are removed first
+-- (the newest rating wins) and the counters, which drifted with them, are recounted once.
+
+delete r1 from ratings r1
+join ratings r2 on r1.video_id = r2.video_id and r1.user_id = r2.user_id and r1.id < r2.id;
+
+alter table ratings add constraint uk_ratings_video_user unique (video_id, user_id);
+drop index idx_ratings_video_user on ratings;
+
+update video_stats s
+set s.like_count = (select count(*) from ratings r where r.video_id = s.video_id and r.rating_type = 'LIKE'),
+    s.dislike_count = (select count(*) from ratings r where r.video_id = s.video_id and r.rating_type = 'DISLIKE');
@@ -0,0 +1,39 @@
+-- Tag dictionary and video-to-tag links, maintained by TagService next to videos.tags.
+-- Links go with their video or tag.
+
+create table tags (
+    id integer not null auto_increment,
+    name varchar(50) not null,
+    primary key (id),
+    constraint uk_tags_name unique (name)
+) engine=InnoDB;
+
+create table video_tags (
+    video_id bigint not null,
+    tag_id integer not null,
+    primary key (video_id, tag_id),
+    constraint fk_video_tags_video foreign key (video_id) references videos (id) on delete cascade,
+    constraint fk_video_tags_tag foreign key (tag_id) references tags (id) on delete cascade
+) engine=InnoDB;
+
+-- videos carrying a tag
+create index idx_video_tags_tag_video on video_tags (tag_id, video_id);
+
+-- Backfill from the JSON arrays already stored on videos. Rows still holding a plain
+-- comma-separated string are picked up when the video is next saved.
+insert ignore into tags (name)
+select distinct left(lower(trim(jt.name)), 50)
+from videos v,
+     json_table(v.tags, '$[*]' columns (name varchar(255) path '$')) jt
+where v.tags is not null
+  and json_type(v.tags) = 'ARRAY'
+  and jt.name is not null
+  and trim(jt.name) <> '';
+
+insert ignore into video_tags (video_id, tag_id)
+select v.id, t.id
+from videos v,
+     json_table(v.tags, '$[*]' columns (name varchar(255) path '$')) jt
+     join tags t on t.name = left(lower(trim(jt.name)), 50)
+where v.tags is not null
+  and json_type(v.tags) = 'ARRAY';
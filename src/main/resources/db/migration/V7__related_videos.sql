@@ -0,0 +1,15 @@
+-- Precomputed related videos, rewritten per video by RelatedVideoService.
+-- The watch page reads one video's rows through the primary key in position order.
+
+create table related_videos (
+    video_id bigint not null,
+    position integer not null,
+    related_video_id bigint not null,
+    score float not null,
+    primary key (video_id, position),
+    constraint fk_related_videos_video foreign key (video_id) references videos (id) on delete cascade,
+    constraint fk_related_videos_related foreign key (related_video_id) references videos (id) on delete cascade
+) engine=InnoDB;
+
+-- Lets deleting a video find the rows that point at it
+create index idx_related_videos_related on related_videos (related_video_id);
@@ -0,0 +1,29 @@
+-- Paged comment listings: a stored "top" rank per comment and indexes for each keyset order.
+-- Flags are made non-null so the listing queries can compare them directly.
+
+update comments set is_pinned = false where is_pinned is null;
+update comments set is_disabled = false where is_disabled is null;
+
+alter table comments add column rank_score double not null default 0;
+
+-- Wilson lower bound (z = 1.96) of likes against reports, as computed by WilsonScore
+update comments c
+join (
+    select c2.id,
+           (select count(*) from comment_likes cl where cl.comment_id = c2.id) as positive,
+           (select count(*) from reports r where r.comment_id = c2.id) as negative
+    from comments c2
+) s on s.id = c.id
+set c.rank_score = case
+    when s.positive + s.negative = 0 then 0
+    else ((s.positive / (s.positive + s.negative)) + 3.8416 / (2 * (s.positive + s.negative))
+          - 1.96 * sqrt(((s.positive / (s.positive + s.negative)) * (1 - s.positive / (s.positive + s.negative))
+                         + 3.8416 / (4 * (s.positive + s.negative))) / (s.positive + s.negative)))
+         / (1 + 3.8416 / (s.positive + s.negative))
+end;
+
+-- Root comments of a video by rank (newest/oldest use idx_comments_video_root)
+create index idx_comments_video_root_rank on comments (video_id, parent_comment_id, is_disabled, is_pinned, rank_score, id);
+
+-- Active replies of a comment in order, and their counts
+create index idx_comments_parent_active_created on comments (parent_comment_id, is_disabled, created_at, id);
@@ -0,0 +1,19 @@
+-- Stored like and active-reply counts per comment, changed only by atomic increments, so
+-- listing a thread reads them off the rows instead of aggregating comment_likes and replies.
+
+alter table comments
+    add column like_count bigint not null default 0,
+    add column reply_count bigint not null default 0;
+
+update comments c
+join (select comment_id, count(*) as likes from comment_likes group by comment_id) l on l.comment_id = c.id
+set c.like_count = l.likes;
+
+update comments c
+join (
+    select parent_comment_id, count(*) as replies
+    from comments
+    where parent_comment_id is not null and is_disabled = false
+    group by parent_comment_id
+) r on r.parent_comment_id = c.id
+set c.reply_count = r.replies;
@@ -6,6 +6,9 @@ let userAuthenticated = false;
 let currentVideoId = null;
 let currentVideoData = null;
 let currentComments = [];
+let commentsNextCursor = null;
+let liveUpdateSource = null;
+let liveRenderDeferred = false;
 let userPlaylists = [];
 let playlistsLoaded = false;
 let privateVideoPlayHandler = null;
@@ -184,6 +187,7 @@ function setupEventListeners() {
                 searchVideos(e);
             }
         });
+        attachSearchSuggestions(input);
     });
 
     document
@@ -200,6 +204,52 @@ function setupEventListeners() {
     });
 }
 
+// Fills a <datalist> under the search box from /api/search/suggest as the user types
+function attachSearchSuggestions(input) {
+    if (!input || input.dataset.suggestions === 'true') {
+        return;
+    }
+    input.dataset.suggestions = 'true';
+
+    const list = document.createElement('datalist');
+    list.id = `${input.id || 'search'}-suggestions-${Math.random().toString(36).slice(2, 8)}`;
+    input.after(list);
+    input.setAttribute('list', list.id);
+    input.setAttribute('autocomplete', 'off');
+
+    let timer = null;
+    let controller = null;
+    input.addEventListener('input', () => {
+        clearTimeout(timer);
+        const query = input.value.trim();
+        if (!query) {
+            list.replaceChildren();
+            return;
+        }
+        timer = setTimeout(async () => {
+            controller?.abort();
+            controller = new AbortController();
+            try {
+                const response = await fetch(`/api/search/suggest?q=${encodeURIComponent(query)}&limit=8`,
+                    { signal: controller.signal });
+                if (!response.ok) {
+                    return;
+                }
+                const suggestions = await response.json();
+                list.replaceChildren(...suggestions.map(suggestion => {
+                    const option = document.createElement('option');
+                    option.value = suggestion.text;
+                    return option;
+                }));
+            } catch (error) {
+                if (error.name !== 'AbortError') {
+                    console.warn('Search suggestions unavailable', error);
+                }
+            }
+        }, 120);
+    });
+}
+
 function initializePageSpecificFeatures() {
     if (document.getElementById('videoPlayer')) {
         initializeVideoDetailPage();
@@ -613,7 +663,7 @@ async function initializeVideoDetailPage() {
 
     const commentSort = document.getElementById('commentSort');
     if (commentSort) {
-        commentSort.addEventListener('change', () => renderComments());
+        commentSort.addEventListener('change', () => sortComments());
     }
 
     attachRatingStarListeners();
@@ -672,6 +722,7 @@ async function initializeVideoDetailPage() {
         suppressAlert: !!currentVideoData
     });
     loadComments(currentVideoId);
+    openLiveUpdates(currentVideoId);
     loadRelatedVideos(currentVideoId);
     loadTrendingVideos(details?.categoryId ?? currentVideoData?.categoryId ?? null);
     loadLatestVideos();
@@ -1071,7 +1122,19 @@ function escapeHtml(text) {
     return div.innerHTML;
 }
 
-async function loadComments(videoId = currentVideoId) {
+const COMMENT_PAGE_SIZE = 20;
+const REPLY_PAGE_SIZE = 10;
+
+// The server pages root comments in the selected order; 'popular' maps to its Wilson-ranked 'top'
+function commentSortParam() {
+    const sortValue = document.getElementById('commentSort')?.value || 'newest';
+    if (sortValue === 'popular') {
+        return 'top';
+    }
+    return sortValue === 'oldest' ? 'oldest' : 'newest';
+}
+
+async function loadComments(videoId = currentVideoId, append = false) {
     const commentsList = document.getElementById('commentsList');
     const resolvedVideoId = normalizeVideoId(videoId) || ensureCurrentVideoId();
     if (!commentsList) {
@@ -1083,10 +1146,16 @@ async function loadComments(videoId = currentVideoId) {
         return;
     }
 
-    commentsList.innerHTML = '<div class="loading">Loading comments...</div>';
+    if (!append) {
+        commentsList.innerHTML = '<div class="loading">Loading comments...</div>';
+    }
 
     try {
-        const response = await fetch(`/api/videos/${resolvedVideoId}/comments`, {
+        const params = new URLSearchParams({ sort: commentSortParam(), limit: String(COMMENT_PAGE_SIZE) });
+        if (append && commentsNextCursor) {
+            params.set('cursor', commentsNextCursor);
+        }
+        const response = await fetch(`/api/videos/${resolvedVideoId}/comments/page?${params}`, {
             credentials: 'include'
         });
 
@@ -1095,9 +1164,16 @@ async function loadComments(videoId = currentVideoId) {
             throw new Error(message || 'Failed to load comments');
         }
 
-        const data = await response.json();
+        const data = sanitizeComments(await response.json());
         currentVideoId = resolvedVideoId;
-        currentComments = sanitizeComments(Array.isArray(data) ? data : []);
+        commentsNextCursor = response.headers.get('X-Next-Cursor');
+        if (append) {
+            // Comments posted since the first page may already be shown
+            const shown = new Set(currentComments.map(comment => String(comment.id)));
+            currentComments.push(...data.filter(comment => !shown.has(String(comment.id))));
+        } else {
+            currentComments = data;
+        }
         renderComments();
     } catch (error) {
         console.error('Error loading comments:', error);
@@ -1105,6 +1181,138 @@ async function loadComments(videoId = currentVideoId) {
     }
 }
 
+// New comments, comment likes and counters pushed by the server while the video is open.
+// EventSource reconnects on its own after network errors or when the server drops the stream.
+function openLiveUpdates(videoId) {
+    if (typeof EventSource === 'undefined' || !videoId) {
+        return;
+    }
+    if (liveUpdateSource) {
+        liveUpdateSource.close();
+    }
+
+    liveUpdateSource = new EventSource(`/api/videos/${videoId}/live`, { withCredentials: true });
+    liveUpdateSource.addEventListener('update', event => {
+        try {
+            applyLiveUpdate(JSON.parse(event.data));
+        } catch (error) {
+            console.warn('Ignoring malformed live update:', error);
+        }
+    });
+    window.addEventListener('pagehide', () => liveUpdateSource?.close(), { once: true });
+}
+
+function applyLiveUpdate(frame) {
+    if (!frame || String(frame.videoId) !== String(currentVideoId)) {
+        return;
+    }
+
+    if (frame.viewCount != null) {
+        const viewsEl = document.getElementById('videoViews');
+        if (viewsEl) {
+            viewsEl.textContent = `${formatViewCount(Number(frame.viewCount))} views`;
+        }
+        if (currentVideoData) {
+            currentVideoData.viewCount = frame.viewCount;
+        }
+    }
+    if (frame.likeCount != null) {
+        const card = document.querySelector(`[data-video-id="${currentVideoId}"]`);
+        const likeCountSpan = card?.querySelector('.like-count');
+        const dislikeCountSpan = card?.querySelector('.dislike-count');
+        if (likeCountSpan) {
+            likeCountSpan.textContent = frame.likeCount;
+        }
+        if (dislikeCountSpan) {
+            dislikeCountSpan.textContent = frame.dislikeCount ?? 0;
+        }
+        if (currentVideoData) {
+            currentVideoData.likeCount = frame.likeCount;
+            currentVideoData.dislikeCount = frame.dislikeCount ?? 0;
+        }
+    }
+
+    // Like counts are patched in place; the viewer's own liked state stays as it is
+    Object.entries(frame.commentLikeCounts || {}).forEach(([commentId, likeCount]) => {
+        const comment = findCommentById(currentComments, commentId);
+        if (comment) {
+            comment.likeCount = Number(likeCount) || 0;
+            const countEl = document.querySelector(`.comment-like-btn[data-comment-id="${commentId}"] .comment-like-count`);
+            if (countEl) {
+                countEl.textContent = String(comment.likeCount);
+            }
+        }
+    });
+
+    let threadChanged = false;
+    (frame.comments || []).forEach(raw => {
+        const comment = sanitizeComment(raw);
+        if (comment && !findCommentById(currentComments, comment.id)) {
+            threadChanged = addLiveComment(comment) || threadChanged;
+        }
+    });
+    (frame.deletedCommentIds || []).forEach(commentId => {
+        threadChanged = removeCommentById(currentComments, commentId) || threadChanged;
+    });
+
+    if (threadChanged || liveRenderDeferred) {
+        // Re-rendering would discard a reply or edit the viewer is typing; catch up on a later frame
+        const editing = document.querySelector('#commentsList .reply-form, #commentsList .edit-comment-form');
+        liveRenderDeferred = !!editing;
+        if (!editing) {
+            renderComments();
+        }
+    }
+}
+
+// Places a comment posted by someone else where the current listing would show it
+function addLiveComment(comment) {
+    if (comment.parentCommentId) {
+        const parent = findCommentById(currentComments, comment.parentCommentId);
+        if (!parent) {
+            return false;
+        }
+        const loaded = Array.isArray(parent.replies) ? parent.replies.length : 0;
+        if (loaded < Number(parent.replyCount || 0) || parent.repliesCursor) {
+            // Replies are paged in oldest first; this one arrives with the last page
+            parent.replyCount = Number(parent.replyCount || 0) + 1;
+            return true;
+        }
+        return insertComment(currentComments, comment);
+    }
+
+    const sortValue = commentSortParam();
+    if (sortValue === 'newest') {
+        const firstUnpinned = currentComments.findIndex(existing => !existing.isPinned);
+        currentComments.splice(firstUnpinned === -1 ? currentComments.length : firstUnpinned, 0, comment);
+        return true;
+    }
+    if (!commentsNextCursor) {
+        // Oldest-first and top listings put a new, unliked comment last
+        currentComments.push(comment);
+        return true;
+    }
+    return false;
+}
+
+function removeCommentById(comments, commentId) {
+    if (!Array.isArray(comments)) {
+        return false;
+    }
+    const index = comments.findIndex(comment => String(comment.id) === String(commentId));
+    if (index !== -1) {
+        comments.splice(index, 1);
+        return true;
+    }
+    for (const comment of comments) {
+        if (comment && removeCommentById(comment.replies, commentId)) {
+            comment.replyCount = Math.max(Number(comment.replyCount || 0) - 1, 0);
+            return true;
+        }
+    }
+    return false;
+}
+
 function sanitizeComments(comments) {
     if (!Array.isArray(comments)) {
         return [];
@@ -1124,6 +1332,7 @@ function sanitizeComment(comment) {
         ...comment,
         likeCount: Number(comment.likeCount || 0),
         likedByCurrentUser: !!comment.likedByCurrentUser,
+        replyCount: Number(comment.replyCount || 0),
         replies: sanitizeComments(comment.replies || [])
     };
 }
@@ -1149,16 +1358,29 @@ function renderComments(comments = currentComments) {
         return;
     }
 
+    // Root comments arrive already ordered by the server, pinned ones first
     const sortValue = document.getElementById('commentSort')?.value || 'newest';
-    const sorted = sortCommentCollection(comments, sortValue);
 
-    console.log('[renderComments] Rendering', sorted.length, 'comment threads');
-    sorted.forEach(comment => {
+    console.log('[renderComments] Rendering', comments.length, 'comment threads');
+    comments.forEach(comment => {
         const thread = renderCommentThread(comment, sortValue);
         console.log('[renderComments] Appending thread for comment', comment.id);
         commentsList.appendChild(thread);
     });
 
+    if (commentsNextCursor) {
+        const loadMoreBtn = document.createElement('button');
+        loadMoreBtn.type = 'button';
+        loadMoreBtn.className = 'btn btn-secondary comments-load-more';
+        loadMoreBtn.textContent = 'Load more comments';
+        loadMoreBtn.addEventListener('click', event => {
+            event.preventDefault();
+            loadMoreBtn.disabled = true;
+            loadMoreComments();
+        });
+        commentsList.appendChild(loadMoreBtn);
+    }
+
     if (commentCountEl) {
         commentCountEl.textContent = String(getTotalCommentCount(comments));
     }
@@ -1222,9 +1444,62 @@ function renderCommentThread(comment, sortValue) {
         thread.appendChild(repliesContainer);
     }
 
+    // Replies are fetched a page at a time on demand
+    const hiddenReplies = Number(comment.replyCount || 0) - replies.length;
+    if (hiddenReplies > 0 || comment.repliesCursor) {
+        const toggle = document.createElement('button');
+        toggle.type = 'button';
+        toggle.className = 'comment-reply-btn comment-replies-toggle';
+        toggle.textContent = replies.length === 0
+            ? `View ${hiddenReplies} ${hiddenReplies === 1 ? 'reply' : 'replies'}`
+            : 'Show more replies';
+        toggle.addEventListener('click', event => {
+            event.preventDefault();
+            toggle.disabled = true;
+            loadReplies(comment.id);
+        });
+        thread.appendChild(toggle);
+    }
+
     return thread;
 }
 
+async function loadReplies(commentId) {
+    const comment = findCommentById(currentComments, commentId);
+    if (!comment || !currentVideoId) {
+        return;
+    }
+
+    try {
+        const params = new URLSearchParams({ limit: String(REPLY_PAGE_SIZE) });
+        if (comment.repliesCursor) {
+            params.set('cursor', comment.repliesCursor);
+        }
+        const response = await fetch(`/api/videos/${currentVideoId}/comments/${commentId}/replies?${params}`, {
+            credentials: 'include'
+        });
+
+        if (!response.ok) {
+            const message = await response.text();
+            throw new Error(message || 'Failed to load replies');
+        }
+
+        const page = sanitizeComments(await response.json());
+        const replies = Array.isArray(comment.replies) ? comment.replies : [];
+        const shown = new Set(replies.map(reply => String(reply.id)));
+        comment.replies = replies.concat(page.filter(reply => !shown.has(String(reply.id))));
+        comment.repliesCursor = response.headers.get('X-Next-Cursor');
+        if (!comment.repliesCursor) {
+            comment.replyCount = comment.replies.length;
+        }
+        renderComments();
+    } catch (error) {
+        console.error('Error loading replies:', error);
+        showAlert(error.message || 'Unable to load replies right now.', 'error');
+        renderComments();
+    }
+}
+
 function createCommentElement(comment) {
     const element = document.createElement('div');
     element.className = 'comment';
@@ -1579,6 +1854,11 @@ function insertComment(comments, comment) {
         return false;
     }
 
+    // A live update may already have delivered it
+    if (comment.id != null && findCommentById(comments, comment.id)) {
+        return true;
+    }
+
     if (!comment.parentCommentId) {
         comment.replies = Array.isArray(comment.replies) ? comment.replies : [];
         comments.unshift(comment);
@@ -1593,6 +1873,7 @@ function insertComment(comments, comment) {
             }
             comment.replies = Array.isArray(comment.replies) ? comment.replies : [];
             node.replies.push(comment);
+            node.replyCount = Math.max(Number(node.replyCount || 0) + 1, node.replies.length);
             console.log('[insertComment] Added reply to comment', node.id);
             return true;
         }
@@ -1703,7 +1984,8 @@ function getTotalCommentCount(comments) {
 
     return comments.reduce((total, comment) => {
         const replies = Array.isArray(comment.replies) ? comment.replies : [];
-        return total + 1 + getTotalCommentCount(replies);
+        const unloadedReplies = Math.max(Number(comment.replyCount || 0) - replies.length, 0);
+        return total + 1 + unloadedReplies + getTotalCommentCount(replies);
     }, 0);
 }
 
@@ -1831,7 +2113,8 @@ function cancelComment() {
 }
 
 function sortComments() {
-    renderComments();
+    commentsNextCursor = null;
+    loadComments(currentVideoId);
 }
 
 function updateRatingButtons(videoId, ratingState) {
@@ -2078,7 +2361,7 @@ async function loadTrendingVideos(categoryId = null) {
     container.innerHTML = '<div class="loading">Loading trending videos...</div>';
 
     try {
-        const endpoint = categoryId ? `/api/videos/trending-by-category/${categoryId}` : '/api/videos/top-rated';
+        const endpoint = categoryId ? `/api/videos/trending-by-category/${categoryId}` : '/api/videos/trending?limit=10';
         const response = await fetch(endpoint, {
             credentials: 'include'
         });
@@ -2584,7 +2867,11 @@ function toggleDescription() {
 }
 
 function loadMoreComments() {
-    showAlert('All comments are currently displayed.', 'info');
+    if (!commentsNextCursor) {
+        showAlert('All comments are currently displayed.', 'info');
+        return;
+    }
+    loadComments(currentVideoId, true);
 }
 
 // Playlist functions
@@ -0,0 +1,183 @@
+/**
+ * Playback progress for the watch page.
+ * Collects watched ranges and the current position of #videoPlayer, sends them in batches to
+ * /api/watch-history/progress, and resumes where the viewer left off.
+ */
+(function () {
+    const PROGRESS_ENDPOINT = '/api/watch-history/progress';
+    const SEND_INTERVAL_MS = 15000;
+    const MIN_RESUME_SECONDS = 5;
+    const RESUME_END_MARGIN_SECONDS = 10;
+
+    // videoId -> { videoId, position, duration, ranges: [[start, end], ...] }
+    const pending = new Map();
+    let rangeStart = null;
+    let activeVideoId = null;
+    let resumedVideoId = null;
+
+    function canTrack() {
+        if (typeof authState === 'undefined' || !authState.initialized) {
+            return true;
+        }
+        return isAuthenticated();
+    }
+
+    function currentVideoId(player) {
+        const id = Number(player.dataset.videoId);
+        return Number.isFinite(id) && id > 0 ? id : null;
+    }
+
+    function entryFor(videoId) {
+        let entry = pending.get(videoId);
+        if (!entry) {
+            entry = { videoId, position: 0, duration: null, ranges: [] };
+            pending.set(videoId, entry);
+        }
+        return entry;
+    }
+
+    function closeRange(player, position = player.currentTime) {
+        const videoId = activeVideoId;
+        if (videoId === null || !Number.isFinite(position)) {
+            return;
+        }
+        const entry = entryFor(videoId);
+        if (rangeStart !== null && position > rangeStart) {
+            entry.ranges.push([rangeStart, position]);
+        }
+        entry.position = position;
+        if (Number.isFinite(player.duration)) {
+            entry.duration = player.duration;
+        }
+        rangeStart = player.paused ? null : position;
+    }
+
+    function takeBatch() {
+        const items = Array.from(pending.values()).filter(entry => entry.ranges.length || entry.position > 0);
+        pending.clear();
+        return items;
+    }
+
+    function send(useBeacon) {
+        if (!canTrack()) {
+            pending.clear();
+            return;
+        }
+        const items = takeBatch();
+        if (!items.length) {
+            return;
+        }
+        const body = JSON.stringify({ items });
+        if (useBeacon && navigator.sendBeacon) {
+            navigator.sendBeacon(PROGRESS_ENDPOINT, new Blob([body], { type: 'application/json' }));
+            return;
+        }
+        fetch(PROGRESS_ENDPOINT, {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            credentials: 'same-origin',
+            keepalive: true,
+            body
+        }).catch(() => {
+            // Progress is best effort; the next heartbeat carries the latest position
+        });
+    }
+
+    async function resume(player) {
+        const videoId = currentVideoId(player);
+        if (videoId === null || videoId === resumedVideoId || !canTrack()) {
+            return;
+        }
+        resumedVideoId = videoId;
+        try {
+            const response = await fetch(`/api/watch-history/${videoId}/resume`, { credentials: 'same-origin' });
+            if (!response.ok) {
+                return;
+            }
+            const progress = await response.json();
+            const position = progress.positionSeconds || 0;
+            const duration = Number.isFinite(player.duration) ? player.duration : progress.durationSeconds;
+            if (progress.completed || position < MIN_RESUME_SECONDS
+                    || (duration && position > duration - RESUME_END_MARGIN_SECONDS)) {
+                return;
+            }
+            if (currentVideoId(player) === videoId && player.currentTime < MIN_RESUME_SECONDS) {
+                player.currentTime = position;
+            }
+        } catch (error) {
+            console.warn('Could not load resume position', error);
+        }
+    }
+
+    function init() {
+        const player = document.getElementById('videoPlayer');
+        if (!player) {
+            return;
+        }
+
+        player.addEventListener('loadstart', () => {
+            // A new source resets currentTime, so close the previous video at its last known time
+            closeRange(player, Number(player.dataset.lastTime));
+            rangeStart = null;
+            delete player.dataset.lastTime;
+            activeVideoId = currentVideoId(player);
+        });
+        player.addEventListener('loadedmetadata', () => {
+            activeVideoId = currentVideoId(player);
+            resume(player);
+        });
+        player.addEventListener('playing', () => {
+            activeVideoId = currentVideoId(player);
+            rangeStart = player.currentTime;
+        });
+        player.addEventListener('seeking', () => {
+            // The range ends where the viewer was before the jump
+            if (rangeStart !== null && activeVideoId !== null) {
+                const entry = entryFor(activeVideoId);
+                const lastTime = Number(player.dataset.lastTime);
+                if (Number.isFinite(lastTime) && lastTime > rangeStart) {
+                    entry.ranges.push([rangeStart, lastTime]);
+                }
+            }
+            rangeStart = null;
+        });
+        player.addEventListener('seeked', () => {
+            if (!player.paused) {
+                rangeStart = player.currentTime;
+            }
+        });
+        player.addEventListener('timeupdate', () => {
+            if (!player.seeking) {
+                player.dataset.lastTime = String(player.currentTime);
+            }
+        });
+        player.addEventListener('pause', () => closeRange(player));
+        player.addEventListener('ended', () => closeRange(player));
+
+        activeVideoId = currentVideoId(player);
+
+        setInterval(() => {
+            if (!player.paused) {
+                closeRange(player);
+            }
+            send(false);
+        }, SEND_INTERVAL_MS);
+
+        const flushOnLeave = () => {
+            closeRange(player);
+            send(true);
+        };
+        window.addEventListener('pagehide', flushOnLeave);
+        document.addEventListener('visibilitychange', () => {
+            if (document.visibilityState === 'hidden') {
+                flushOnLeave();
+            }
+        });
+    }
+
+    if (document.readyState === 'loading') {
+        document.addEventListener('DOMContentLoaded', init);
+    } else {
+        init();
+    }
+})();
@@ -0,0 +1,53 @@
+package com.example.videobrowsing;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Warm-up, timing and percentile reporting shared by the opt-in latency benchmarks.
+ */
+final class BenchmarkTimer {
+
+    private BenchmarkTimer() {
+    }
+
+    /**
+     * Runs {@code warmup} untimed and then {@code measured} timed queries. {@code queries} is
+     * called outside the timed region with the query number, so inputs can be generated there;
+     * the returned supplier is the timed part and reports whether the query found anything.
+     *
+     * @return the measured latencies in nanoseconds, sorted ascending
+     */
+    static long[] measure(int warmup, int measured, IntFunction<BooleanSupplier> queries) {
+        long[] nanos = new long[measured];
+        int empty = 0;
+        for (int q = 0; q < warmup + measured; q++) {
+            BooleanSupplier query = queries.apply(q);
+            long started = System.nanoTime();
+            boolean found = query.getAsBoolean();
+            long elapsed = System.nanoTime() - started;
+            if (!found) {
+                empty++;
+            }
+            if (q >= warmup) {
+                nanos[q - warmup] = elapsed;
+            }
+        }
+        assertThat(empty).as("queries without a result").isZero();
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    static double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    static void report(String label, long[] sortedNanos) {
+        System.out.printf("%s: p50 %.3f ms, p99 %.3f ms%n", label,
+                percentileMillis(sortedNanos, 0.50), percentileMillis(sortedNanos, 0.99));
+    }
+}
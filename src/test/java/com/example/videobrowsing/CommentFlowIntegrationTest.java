@@ -2,9 +2,13 @@ package com.example.videobrowsing;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -14,19 +18,29 @@ import org.springframework.mock.web.MockHttpSession;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.videobrowsing.dto.CommentDTO;
+import com.example.videobrowsing.dto.ReportDTO;
+import com.example.videobrowsing.entity.Comment;
 import com.example.videobrowsing.entity.User;
 import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.repository.CommentRepository;
 import com.example.videobrowsing.repository.UserRepository;
 import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.service.BlocklistService;
+import com.example.videobrowsing.service.ReportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-@SpringBootTest
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureMockMvc
 @Transactional
 class CommentFlowIntegrationTest {
@@ -40,9 +54,24 @@ class CommentFlowIntegrationTest {
     @Autowired
     private VideoRepository videoRepository;
 
+    @Autowired
+    private CommentRepository commentRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private BlocklistService blocklistService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Test
     void registeredUserCanPostAndRetrieveComments() throws Exception {
         User user = ensureTestUser();
@@ -99,6 +128,157 @@ class CommentFlowIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void loadingACommentThreadTakesTheSameNumberOfQueriesAtAnySize() throws Exception {
+        User user = ensureTestUser();
+        Video video = ensureTestVideo(user);
+        Comment root = saveComment(video, user, "Thread root", null);
+        Comment reply = saveComment(video, user, "First reply", root);
+        saveComment(video, user, "Nested reply", reply);
+
+        long smallThreadQueries = countQueriesLoadingComments(video);
+
+        Comment parent = reply;
+        for (int i = 0; i < 40; i++) {
+            Comment added = saveComment(video, user, "Reply " + i, i % 2 == 0 ? root : parent);
+            if (i % 4 == 0) {
+                parent = added;
+            }
+        }
+
+        assertThat(countQueriesLoadingComments(video)).isEqualTo(smallThreadQueries);
+    }
+
+    @Test
+    void rootCommentPagesFollowTheCursorWithoutRepeatsAndCountReplies() throws Exception {
+        User user = ensureTestUser();
+        Video video = ensureTestVideo(user);
+        Comment withReplies = saveComment(video, user, "Root with replies", null);
+        saveComment(video, user, "Reply one", withReplies);
+        saveComment(video, user, "Reply two", withReplies);
+        for (int i = 0; i < 5; i++) {
+            saveComment(video, user, "Root " + i, null);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<CommentDTO> roots = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/videos/{videoId}/comments/page", video.getId())
+                    .param("sort", "newest")
+                    .param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            roots.addAll(List.of(objectMapper.readValue(
+                    result.getResponse().getContentAsString(StandardCharsets.UTF_8), CommentDTO[].class)));
+            cursor = result.getResponse().getHeader("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertThat(roots).extracting(CommentDTO::getId).doesNotHaveDuplicates().contains(withReplies.getId());
+        assertThat(roots).allSatisfy(dto -> assertThat(dto.getParentCommentId()).isNull());
+        CommentDTO threaded = roots.stream().filter(dto -> dto.getId().equals(withReplies.getId())).findFirst().orElseThrow();
+        assertThat(threaded.getReplyCount()).isEqualTo(2L);
+        assertThat(threaded.getReplies()).isEmpty();
+
+        mockMvc.perform(get("/api/videos/{videoId}/comments/page", video.getId()).param("sort", "loudest"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void likeReplyAndReportCountersFollowTogglesRepliesAndDeletes() throws Exception {
+        User user = ensureTestUser();
+        Video video = ensureTestVideo(user);
+        Comment root = saveComment(video, user, "Counted root", null);
+        entityManager.flush();
+
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("userId", user.getId());
+
+        mockMvc.perform(post("/api/videos/{videoId}/comments/{commentId}/like", video.getId(), root.getId()).session(session))
+                .andExpect(status().isOk());
+        MvcResult replyResult = mockMvc.perform(post("/api/videos/{videoId}/comments", video.getId())
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"A reply\",\"parentCommentId\":" + root.getId() + "}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        Long replyId = objectMapper.readValue(replyResult.getResponse().getContentAsString(StandardCharsets.UTF_8), CommentDTO.class).getId();
+
+        entityManager.clear();
+        Comment counted = commentRepository.findById(root.getId()).orElseThrow();
+        assertThat(counted.getLikeCount()).isEqualTo(1L);
+        assertThat(counted.getReplyCount()).isEqualTo(1L);
+        assertThat(counted.getRankScore()).isPositive();
+
+        double likedRank = counted.getRankScore();
+        ReportDTO report = new ReportDTO();
+        report.setCommentId(root.getId());
+        report.setReportType("SPAM");
+        reportService.createCommentReport(report, user);
+        entityManager.flush();
+        entityManager.clear();
+        counted = commentRepository.findById(root.getId()).orElseThrow();
+        assertThat(counted.getReportCount()).isEqualTo(1L);
+        assertThat(counted.getRankScore()).isLessThan(likedRank);
+
+        mockMvc.perform(post("/api/videos/{videoId}/comments/{commentId}/like", video.getId(), root.getId()).session(session))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/videos/{videoId}/comments/{commentId}", video.getId(), replyId).session(session))
+                .andExpect(status().isOk());
+
+        entityManager.flush();
+        entityManager.clear();
+        counted = commentRepository.findById(root.getId()).orElseThrow();
+        assertThat(counted.getLikeCount()).isZero();
+        assertThat(counted.getReplyCount()).isZero();
+        assertThat(counted.getReportCount()).isEqualTo(1L);
+        assertThat(counted.getRankScore()).isZero();
+    }
+
+    @Test
+    void commentsContainingABlockedTermAreRejected() throws Exception {
+        User user = ensureTestUser();
+        Video video = ensureTestVideo(user);
+        // Unique, so the in-memory list left behind after rollback cannot affect other tests
+        String term = "blocked" + UUID.randomUUID().toString().replace("-", "");
+        blocklistService.addTerms(List.of(term), user);
+
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("userId", user.getId());
+
+        mockMvc.perform(post("/api/videos/{videoId}/comments", video.getId())
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CommentPayload("What a " + term.toUpperCase() + "!"))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/videos/{videoId}/comments", video.getId())
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CommentPayload("Not" + term + " as a whole word"))))
+                .andExpect(status().isOk());
+    }
+
+    private long countQueriesLoadingComments(Video video) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/videos/{videoId}/comments", video.getId()))
+                .andExpect(status().isOk());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Comment saveComment(Video video, User user, String content, Comment parent) {
+        Comment comment = new Comment(video, user, content);
+        comment.setParentComment(parent);
+        return commentRepository.save(comment);
+    }
+
     private User ensureTestUser() {
         return userRepository.findAll().stream().findFirst().orElseGet(() -> {
             User user = new User();
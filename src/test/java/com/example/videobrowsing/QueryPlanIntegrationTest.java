@@ -0,0 +1,249 @@
+package com.example.videobrowsing;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs EXPLAIN on the hot read queries against the migrated schema and fails unless MySQL picks
+ * the index each query was written for, or when it plans a full table scan or a filesort. Keep
+ * this list in step with db/migration when adding queries to the listing, rating, comment, watch
+ * history or library paths.
+ * <p>
+ * The optimizer costs plans from table statistics, and on empty tables any plan is as cheap as
+ * any other, so the test first seeds a few thousand rows shaped like production data and runs
+ * ANALYZE TABLE. It runs without a test transaction because ANALYZE commits implicitly; the
+ * seeded rows are deleted afterwards.
+ */
+@SpringBootTest
+class QueryPlanIntegrationTest {
+
+    private static final int USERS = 300;
+    private static final int CATEGORIES = 10;
+    private static final int VIDEOS = 3000;
+    private static final int PLAYLISTS = 30;
+    private static final int PER_USER = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String marker = "plan-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    private List<Long> users = List.of();
+    private List<Long> categories = List.of();
+    private List<Long> videos = List.of();
+    private List<Long> playlists = List.of();
+
+    @Test
+    void hotQueriesUseTheirIndexesWithoutFilesort() {
+        long video = videos.get(0);
+        long user = users.get(0);
+        long category = categories.get(0);
+        long playlist = playlists.get(0);
+
+        Map<String, PlanCheck> queries = new LinkedHashMap<>();
+        queries.put("latest page", new PlanCheck(
+                "SELECT id FROM videos WHERE privacy = 'PUBLIC' AND (created_at < NOW() OR (created_at = NOW() AND id < 100)) " +
+                "ORDER BY created_at DESC, id DESC LIMIT 25",
+                "videos", "idx_videos_privacy_created"));
+        queries.put("most viewed page", new PlanCheck(
+                "SELECT s.video_id FROM video_stats s JOIN videos v ON v.id = s.video_id WHERE v.privacy = 'PUBLIC' " +
+                "AND (s.view_count < 1000 OR (s.view_count = 1000 AND s.video_id < 100)) " +
+                "ORDER BY s.view_count DESC, s.video_id DESC LIMIT 25",
+                "s", "idx_video_stats_views"));
+        queries.put("most liked page", new PlanCheck(
+                "SELECT s.video_id FROM video_stats s JOIN videos v ON v.id = s.video_id WHERE v.privacy = 'PUBLIC' " +
+                "AND (s.like_count < 1000 OR (s.like_count = 1000 AND s.video_id < 100)) " +
+                "ORDER BY s.like_count DESC, s.video_id DESC LIMIT 25",
+                "s", "idx_video_stats_likes"));
+        queries.put("category page", new PlanCheck(
+                "SELECT id FROM videos WHERE category_id = " + category + " AND privacy = 'PUBLIC' " +
+                "AND (created_at < NOW() OR (created_at = NOW() AND id < 100)) ORDER BY created_at DESC, id DESC LIMIT 25",
+                "videos", "idx_videos_category_privacy_created"));
+        queries.put("uploader page", new PlanCheck(
+                "SELECT id FROM videos WHERE uploaded_by = " + user + " AND (created_at < NOW() OR (created_at = NOW() AND id < 100)) " +
+                "ORDER BY created_at DESC, id DESC LIMIT 25",
+                "videos", "idx_videos_uploader_created"));
+        queries.put("rating by video and user", new PlanCheck(
+                "SELECT id FROM ratings WHERE video_id = " + video + " AND user_id = " + user,
+                "ratings", "uk_ratings_video_user"));
+        queries.put("rating count by type", new PlanCheck(
+                "SELECT COUNT(*) FROM ratings WHERE video_id = " + video + " AND rating_type = 'LIKE'",
+                "ratings", "idx_ratings_video_type"));
+        queries.put("liked videos of user", new PlanCheck(
+                "SELECT id FROM ratings WHERE user_id = " + user + " AND rating_type = 'LIKE' ORDER BY created_at DESC",
+                "ratings", "idx_ratings_user_type_created"));
+        queries.put("root comments of video", new PlanCheck(
+                "SELECT id FROM comments WHERE video_id = " + video + " AND is_disabled = false AND parent_comment_id IS NULL " +
+                "ORDER BY is_pinned DESC, created_at DESC",
+                "comments", "idx_comments_video_root"));
+        queries.put("watch later of user", new PlanCheck(
+                "SELECT id FROM watch_later WHERE user_id = " + user + " ORDER BY added_at DESC",
+                "watch_later", "idx_watch_later_user_added"));
+        queries.put("watch later membership", new PlanCheck(
+                "SELECT id FROM watch_later WHERE user_id = " + user + " AND video_id = " + video,
+                "watch_later", "idx_watch_later_user_video"));
+        queries.put("continue watching", new PlanCheck(
+                "SELECT id FROM watch_history WHERE user_id = " + user + " AND completed = false ORDER BY updated_at DESC LIMIT 12",
+                "watch_history", "idx_watch_history_user_completed_updated"));
+        queries.put("playlist items", new PlanCheck(
+                "SELECT id FROM playlist_videos WHERE playlist_id = " + playlist + " ORDER BY position ASC",
+                "playlist_videos", "idx_playlist_videos_playlist_position"));
+        queries.put("user by username", new PlanCheck(
+                "SELECT id FROM users WHERE username = '" + marker + "0'",
+                "users", "idx_users_username"));
+
+        List<String> problems = new ArrayList<>();
+        queries.forEach((name, check) -> {
+            boolean planned = false;
+            for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + check.sql())) {
+                String table = String.valueOf(row.get("table"));
+                String type = String.valueOf(row.get("type"));
+                String extra = String.valueOf(row.get("Extra"));
+                if ("ALL".equalsIgnoreCase(type)) {
+                    problems.add(name + ": full scan of " + table);
+                }
+                if (extra.contains("Using filesort")) {
+                    problems.add(name + ": filesort on " + table);
+                }
+                if (check.table().equals(table)) {
+                    planned = true;
+                    if (!check.index().equals(row.get("key"))) {
+                        problems.add(name + ": " + table + " read through " + row.get("key") + " instead of "
+                                + check.index() + " (possible keys " + row.get("possible_keys") + ")");
+                    }
+                }
+            }
+            if (!planned) {
+                problems.add(name + ": no plan row for " + check.table());
+            }
+        });
+
+        assertThat(problems).isEmpty();
+    }
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userRows.add(new Object[]{marker + i, marker + i + "@example.com", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, role, is_active, created_at, updated_at) " +
+                "VALUES (?, ?, 'plain-password', 'REGISTERED_USER', true, ?, ?)", userRows);
+        users = ids("SELECT id FROM users WHERE username LIKE ? ORDER BY id");
+
+        List<Object[]> categoryRows = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryRows.add(new Object[]{marker + i, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO categories (name, created_at) VALUES (?, ?)", categoryRows);
+        categories = ids("SELECT id FROM categories WHERE name LIKE ? ORDER BY id");
+
+        List<Object[]> videoRows = new ArrayList<>();
+        for (int i = 0; i < VIDEOS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().minusMinutes(i));
+            videoRows.add(new Object[]{marker + i, users.get(i % USERS), categories.get(i % CATEGORIES),
+                    i % 10 == 0 ? "PRIVATE" : "PUBLIC", 30 + i % 1800, createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO videos (title, file_path, uploaded_by, category_id, privacy, status, " +
+                "duration, created_at, updated_at) VALUES (?, '/uploads/videos/plan.mp4', ?, ?, ?, 'PUBLISHED', ?, ?, ?)",
+                videoRows);
+        videos = ids("SELECT id FROM videos WHERE title LIKE ? ORDER BY id");
+
+        List<Object[]> statsRows = new ArrayList<>();
+        for (int i = 0; i < VIDEOS; i++) {
+            statsRows.add(new Object[]{videos.get(i), (long) (i * 7919) % 100_000, (long) (i * 104_729) % 5_000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO video_stats (video_id, view_count, like_count, dislike_count) " +
+                "VALUES (?, ?, ?, 0)", statsRows);
+
+        List<Object[]> ratingRows = new ArrayList<>();
+        List<Object[]> watchLaterRows = new ArrayList<>();
+        List<Object[]> historyRows = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            for (int n = 0; n < PER_USER; n++) {
+                long videoId = videos.get((u * 37 + n * 101) % VIDEOS);
+                ratingRows.add(new Object[]{videoId, users.get(u), n % 3 == 0 ? "DISLIKE" : "LIKE", now});
+                watchLaterRows.add(new Object[]{users.get(u), videoId, now});
+                historyRows.add(new Object[]{users.get(u), videoId, n % 2 == 0, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO ratings (video_id, user_id, rating_type, created_at) VALUES (?, ?, ?, ?)",
+                ratingRows);
+        jdbcTemplate.batchUpdate("INSERT INTO watch_later (user_id, video_id, added_at) VALUES (?, ?, ?)", watchLaterRows);
+        jdbcTemplate.batchUpdate("INSERT INTO watch_history (user_id, video_id, position_seconds, watched_seconds, " +
+                "completed, updated_at) VALUES (?, ?, 10, 10, ?, ?)", historyRows);
+
+        List<Object[]> commentRows = new ArrayList<>();
+        for (int i = 0; i < VIDEOS; i++) {
+            commentRows.add(new Object[]{videos.get(i % (VIDEOS / 10)), users.get(i % USERS), marker + i, i % 50 == 0, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO comments (video_id, user_id, content, is_disabled, is_pinned, created_at, " +
+                "updated_at) VALUES (?, ?, ?, false, ?, ?, ?)", commentRows);
+        List<Long> roots = ids("SELECT id FROM comments WHERE content LIKE ? ORDER BY id");
+        List<Object[]> replyRows = new ArrayList<>();
+        for (int i = 0; i < VIDEOS / 2; i++) {
+            long parent = roots.get(i);
+            replyRows.add(new Object[]{videos.get(i % (VIDEOS / 10)), users.get((i + 1) % USERS), marker + "reply", parent, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO comments (video_id, user_id, content, parent_comment_id, is_disabled, " +
+                "is_pinned, created_at, updated_at) VALUES (?, ?, ?, ?, false, false, ?, ?)", replyRows);
+
+        List<Object[]> playlistRows = new ArrayList<>();
+        for (int i = 0; i < PLAYLISTS; i++) {
+            playlistRows.add(new Object[]{users.get(i), marker + i, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO playlists (user_id, name, privacy, created_at, updated_at) " +
+                "VALUES (?, ?, 'PUBLIC', ?, ?)", playlistRows);
+        playlists = ids("SELECT id FROM playlists WHERE name LIKE ? ORDER BY id");
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int p = 0; p < PLAYLISTS; p++) {
+            for (int position = 0; position < VIDEOS / PLAYLISTS; position++) {
+                itemRows.add(new Object[]{playlists.get(p), videos.get(p * (VIDEOS / PLAYLISTS) + position), position, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO playlist_videos (playlist_id, video_id, position, added_at) " +
+                "VALUES (?, ?, ?, ?)", itemRows);
+
+        jdbcTemplate.execute("ANALYZE TABLE users, categories, videos, video_stats, ratings, comments, " +
+                "watch_later, watch_history, playlists, playlist_videos");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (!playlists.isEmpty()) {
+            jdbcTemplate.update("DELETE pv FROM playlist_videos pv JOIN playlists p ON p.id = pv.playlist_id " +
+                    "WHERE p.name LIKE ?", marker + "%");
+        }
+        jdbcTemplate.update("DELETE FROM playlists WHERE name LIKE ?", marker + "%");
+        jdbcTemplate.update("DELETE FROM comments WHERE content LIKE ? AND parent_comment_id IS NOT NULL", marker + "%");
+        jdbcTemplate.update("DELETE FROM comments WHERE content LIKE ?", marker + "%");
+        if (!users.isEmpty()) {
+            jdbcTemplate.update("DELETE r FROM ratings r JOIN users u ON u.id = r.user_id WHERE u.username LIKE ?", marker + "%");
+            jdbcTemplate.update("DELETE w FROM watch_later w JOIN users u ON u.id = w.user_id WHERE u.username LIKE ?", marker + "%");
+        }
+        // video_stats and watch_history rows go with their videos and users
+        jdbcTemplate.update("DELETE FROM videos WHERE title LIKE ?", marker + "%");
+        jdbcTemplate.update("DELETE FROM categories WHERE name LIKE ?", marker + "%");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", marker + "%");
+    }
+
+    private List<Long> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class, marker + "%");
+    }
+
+    private record PlanCheck(String sql, String table, String index) { }
+}
@@ -0,0 +1,154 @@
+package com.example.videobrowsing;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.videobrowsing.entity.Rating;
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.repository.UserRepository;
+import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.service.VideoService;
+
+/**
+ * Many users toggling likes and dislikes on one video at the same time must leave the
+ * video_stats counters exactly equal to the ratings rows, and each user's final rating must be
+ * what their own sequence of toggles implies. Runs without a test transaction so every toggle
+ * commits like a real request.
+ */
+@SpringBootTest
+class RatingConcurrencyIntegrationTest {
+
+    private static final int USERS = 16;
+    private static final int TOGGLES_PER_USER = 40;
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> created = new ArrayList<>();
+    private final List<User> raters = new ArrayList<>();
+    private Video video;
+
+    @Test
+    void concurrentTogglesKeepCountsExact() throws Exception {
+        User uploader = createUser();
+        video = createVideo(uploader);
+        for (int i = 0; i < USERS; i++) {
+            raters.add(createUser());
+        }
+
+        Rating.RatingType[] expected = new Rating.RatingType[USERS];
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(USERS);
+        for (int i = 0; i < USERS; i++) {
+            int index = i;
+            pool.submit(() -> {
+                try {
+                    start.await();
+                    Rating.RatingType state = null;
+                    for (int n = 0; n < TOGGLES_PER_USER; n++) {
+                        Rating.RatingType type = ThreadLocalRandom.current().nextBoolean()
+                                ? Rating.RatingType.LIKE
+                                : Rating.RatingType.DISLIKE;
+                        Map<String, Object> result = videoService.toggleRating(video.getId(), raters.get(index), type);
+                        state = state == type ? null : type;
+                        assertThat(result.get("liked")).isEqualTo(state == Rating.RatingType.LIKE);
+                        assertThat(result.get("disliked")).isEqualTo(state == Rating.RatingType.DISLIKE);
+                    }
+                    expected[index] = state;
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        assertThat(failures).isEmpty();
+
+        long expectedLikes = 0;
+        long expectedDislikes = 0;
+        for (Rating.RatingType state : expected) {
+            if (state == Rating.RatingType.LIKE) {
+                expectedLikes++;
+            } else if (state == Rating.RatingType.DISLIKE) {
+                expectedDislikes++;
+            }
+        }
+
+        Map<String, Object> stats = jdbcTemplate.queryForMap(
+                "SELECT like_count, dislike_count FROM video_stats WHERE video_id = ?", video.getId());
+        long likeRows = countRatings("LIKE");
+        long dislikeRows = countRatings("DISLIKE");
+
+        assertThat(((Number) stats.get("like_count")).longValue()).isEqualTo(likeRows).isEqualTo(expectedLikes);
+        assertThat(((Number) stats.get("dislike_count")).longValue()).isEqualTo(dislikeRows).isEqualTo(expectedDislikes);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (video != null) {
+            jdbcTemplate.update("DELETE FROM ratings WHERE video_id = ?", video.getId());
+            videoRepository.deleteById(video.getId());
+        }
+        userRepository.deleteAll(created);
+    }
+
+    private long countRatings(String type) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ratings WHERE video_id = ? AND rating_type = ?", Long.class, video.getId(), type);
+        return count != null ? count : 0L;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("rater-" + UUID.randomUUID());
+        user.setEmail("rater-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("plain-password");
+        user.setFirstname("Rating");
+        user.setLastname("Tester");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        User saved = userRepository.save(user);
+        created.add(saved);
+        return saved;
+    }
+
+    private Video createVideo(User uploader) {
+        Video created = new Video();
+        created.setTitle("Rating concurrency test video");
+        created.setFilepath("/uploads/videos/rating-test.mp4");
+        created.setUploadedBy(uploader);
+        created.setStatus(Video.Status.PUBLISHED);
+        created.setPrivacy(Video.Privacy.PUBLIC);
+        created.setCreatedAt(LocalDateTime.now());
+        created.setUpdatedAt(LocalDateTime.now());
+        return videoRepository.save(created);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.videobrowsing;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.example.videobrowsing.recommend.InteractionRows;
+import com.example.videobrowsing.recommend.ItemSimilarityModel;
+
+/**
+ * Build time of the item-item recommendation model on one core over five million generated
+ * interactions with half a million videos, and the latency of scoring a 300-item history.
+ * Opt-in because it needs a 2 GB heap and takes a while:
+ * {@code mvn test -Dtest=RecommendationBenchmarkTest -Drecommend.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "recommend.benchmark", matches = "true")
+class RecommendationBenchmarkTest {
+
+    private static final int VIDEOS = 500_000;
+    private static final int USERS = 200_000;
+    private static final int INTERACTIONS = 5_000_000;
+    private static final int HISTORY = 300;
+    private static final int WARMUP_QUERIES = 500;
+    private static final int MEASURED_QUERIES = 2_000;
+
+    // Same settings as RecommendationService
+    private static final int TOP_K = 30;
+    private static final int USER_SCAN_LIMIT = 500;
+    private static final float SHRINK = 2f;
+
+    private static final float[] WEIGHTS = { 1f, 0.8f, 0.6f, 2f / 3, 1f / 3 };
+
+    @Test
+    void reportsBuildTimeAndScoringLatency() {
+        Random random = new Random(42);
+        long[] videoIds = new long[VIDEOS];
+        for (int i = 0; i < VIDEOS; i++) {
+            videoIds[i] = i + 1;
+        }
+        int[] videos = new int[INTERACTIONS];
+        int[] users = new int[INTERACTIONS];
+        float[] weights = new float[INTERACTIONS];
+        for (int i = 0; i < INTERACTIONS; i++) {
+            videos[i] = skewed(VIDEOS, random);
+            users[i] = skewed(USERS, random);
+            weights[i] = WEIGHTS[random.nextInt(WEIGHTS.length)];
+        }
+        InteractionRows usersByItem = InteractionRows.of(VIDEOS, USERS, videos, users, weights, INTERACTIONS);
+
+        ForkJoinPool pool = new ForkJoinPool(1);
+        long started = System.nanoTime();
+        ItemSimilarityModel model;
+        try {
+            model = ItemSimilarityModel.build(videoIds, usersByItem, TOP_K, USER_SCAN_LIMIT, SHRINK, pool);
+        } finally {
+            pool.shutdown();
+        }
+        double buildSeconds = (System.nanoTime() - started) / 1e9;
+        long heapMb = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024 * 1024);
+        System.out.printf("recommend build: %d interactions, %d videos, %.1f s on one core, %d MB heap in use, %d neighbour pairs%n",
+                usersByItem.entries(), VIDEOS, buildSeconds, heapMb, model.neighborCount());
+
+        long[] nanos = BenchmarkTimer.measure(WARMUP_QUERIES, MEASURED_QUERIES, q -> {
+            long[] history = new long[HISTORY];
+            float[] historyWeights = new float[HISTORY];
+            for (int i = 0; i < HISTORY; i++) {
+                history[i] = videoIds[skewed(VIDEOS, random)];
+                historyWeights[i] = WEIGHTS[random.nextInt(WEIGHTS.length)];
+            }
+            return () -> model.recommend(history, historyWeights, 20).length > 0;
+        });
+        BenchmarkTimer.report("recommend " + HISTORY + "-item history", nanos);
+
+        assertThat(model.itemCount()).isEqualTo(VIDEOS);
+    }
+
+    // Skewed toward low ordinals, like popular videos and heavy users
+    private static int skewed(int bound, Random random) {
+        double u = random.nextDouble();
+        return (int) (u * u * bound);
+    }
+}
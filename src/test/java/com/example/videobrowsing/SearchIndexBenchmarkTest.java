@@ -0,0 +1,99 @@
+package com.example.videobrowsing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.search.SearchRow;
+import com.example.videobrowsing.search.VideoSearchIndex;
+
+/**
+ * Query latency of the in-memory search index over a million generated titles, for exact and
+ * misspelled queries. Opt-in because building the corpus takes a while and needs a large heap:
+ * {@code mvn test -Dtest=SearchIndexBenchmarkTest -Dsearch.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "search.benchmark", matches = "true")
+class SearchIndexBenchmarkTest {
+
+    private static final int TITLES = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int MEASURED_QUERIES = 10_000;
+
+    private static final String[] SYLLABLES = {
+        "ka", "lo", "mi", "ra", "ten", "vo", "sun", "gar", "pel", "dri",
+        "ko", "nu", "sha", "bel", "tor", "fin", "ma", "rix", "lu", "zen"
+    };
+
+    @Test
+    void reportsQueryLatencyOverAMillionTitles() {
+        Random random = new Random(42);
+        String[] words = vocabulary(random);
+        VideoSearchIndex index = new VideoSearchIndex();
+        for (long id = 1; id <= TITLES; id++) {
+            index.upsert(new SearchRow(id, title(words, random), null, null, id % 20 + 1, "Category " + (id % 20),
+                    "First", "Last", "user" + (id % 5_000), Video.Privacy.PUBLIC, 0L));
+        }
+
+        List<String> exact = new ArrayList<>();
+        List<String> misspelled = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String first = zipf(words, random);
+            String second = zipf(words, random);
+            exact.add(first + " " + second);
+            misspelled.add(typo(first, random) + " " + typo(second, random));
+        }
+
+        BenchmarkTimer.report("search exact", measure(index, exact));
+        BenchmarkTimer.report("search misspelled", measure(index, misspelled));
+
+        long found = misspelled.stream().filter(query -> index.search(query, null, true, 0, 20).total() > 0).count();
+        assertThat(found).isGreaterThan(misspelled.size() * 9L / 10);
+    }
+
+    private static long[] measure(VideoSearchIndex index, List<String> queries) {
+        return BenchmarkTimer.measure(WARMUP_QUERIES, MEASURED_QUERIES, q -> {
+            String query = queries.get(q % queries.size());
+            return () -> index.search(query, null, true, 0, 20) != null;
+        });
+    }
+
+    private static String[] vocabulary(Random random) {
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private static String title(String[] words, Random random) {
+        int length = 3 + random.nextInt(6);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            title.append(i == 0 ? "" : " ").append(zipf(words, random));
+        }
+        return title.toString();
+    }
+
+    // Skewed toward the front of the vocabulary, roughly like word frequencies in real titles
+    private static String zipf(String[] words, Random random) {
+        double u = random.nextDouble();
+        return words[(int) (Math.pow(u, 3) * words.length)];
+    }
+
+    private static String typo(String word, Random random) {
+        int position = 1 + random.nextInt(word.length() - 1);
+        char replacement = (char) ('a' + random.nextInt(26));
+        return word.substring(0, position) + replacement + word.substring(position + 1);
+    }
+}
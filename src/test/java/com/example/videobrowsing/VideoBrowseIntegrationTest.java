@@ -0,0 +1,112 @@
+package com.example.videobrowsing;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.videobrowsing.entity.User;
+import com.example.videobrowsing.entity.Video;
+import com.example.videobrowsing.event.VideoChangedEvent;
+import com.example.videobrowsing.repository.UserRepository;
+import com.example.videobrowsing.repository.VideoRepository;
+import com.example.videobrowsing.service.VideoCatalogService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * The All Videos page search box goes through {@code /api/videos/browse}, which must keep
+ * matching the description and tags as well as the title.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class VideoBrowseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private VideoCatalogService videoCatalogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void browseSearchMatchesDescriptionsAndTags() throws Exception {
+        String descriptionWord = "descword" + UUID.randomUUID().toString().replace("-", "");
+        String tagWord = "tagword" + UUID.randomUUID().toString().replace("-", "");
+        Video video = createVideo("Plain title", "Walkthrough covering " + descriptionWord + " in detail",
+                "[\"" + tagWord + "\", \"tutorial\"]");
+        entityManager.flush();
+
+        // The test transaction never commits, so hand the catalog the change directly
+        videoCatalogService.onVideoChanged(VideoChangedEvent.saved(video.getId()));
+        try {
+            assertThat(browseIds(descriptionWord)).containsExactly(video.getId());
+            assertThat(browseIds(tagWord.toUpperCase())).containsExactly(video.getId());
+            assertThat(browseIds(descriptionWord + "missing")).isEmpty();
+        } finally {
+            videoCatalogService.onVideoChanged(VideoChangedEvent.deleted(video.getId()));
+        }
+    }
+
+    private List<Long> browseIds(String search) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/videos/browse").param("search", search))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode videos = objectMapper.readTree(result.getResponse().getContentAsString(StandardCharsets.UTF_8))
+                .path("videos");
+        List<Long> ids = new ArrayList<>();
+        videos.forEach(video -> ids.add(video.path("id").asLong()));
+        return ids;
+    }
+
+    private Video createVideo(String title, String description, String tags) {
+        User uploader = new User();
+        uploader.setUsername("browse-" + UUID.randomUUID());
+        uploader.setEmail("browse-" + UUID.randomUUID() + "@example.com");
+        uploader.setPassword("plain-password");
+        uploader.setFirstname("Browse");
+        uploader.setLastname("Tester");
+        uploader.setCreatedAt(LocalDateTime.now());
+        uploader.setUpdatedAt(LocalDateTime.now());
+        uploader = userRepository.save(uploader);
+
+        Video video = new Video();
+        video.setTitle(title);
+        video.setDescription(description);
+        video.setTags(tags);
+        video.setFilepath("/uploads/videos/browse-test.mp4");
+        video.setUploadedBy(uploader);
+        video.setStatus(Video.Status.PUBLISHED);
+        video.setPrivacy(Video.Privacy.PUBLIC);
+        video.setCreatedAt(LocalDateTime.now());
+        video.setUpdatedAt(LocalDateTime.now());
+        return videoRepository.save(video);
+    }
+}